@@ -0,0 +1,123 @@
+package imagine.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.capture.FrameCapture;
+
+/**
+ * Benchmark measuring the time the drawing thread
+ * spends capturing frames with a {@code FrameCapture},
+ * for PNG images and raw images, and how many frames
+ * are written and dropped.
+ * <p>
+ * The frames are written into a temporary directory,
+ * which is deleted at the end. The amount of frames
+ * can be passed as the first argument.
+ * 
+ * @author Daniel O Sousa
+ */
+public final class CaptureBenchmark {
+
+    /**
+     * The width of the frames.
+     */
+    private static final int FRAME_WIDTH = 1280;
+
+    /**
+     * The height of the frames.
+     */
+    private static final int FRAME_HEIGHT = 720;
+
+    /**
+     * The interval between frames
+     * in nanoseconds, as at 60 fps.
+     */
+    private static final long FRAME_INTERVAL = 1000000000L / 60;
+
+    /**
+     * This class only runs the benchmark.
+     */
+    private CaptureBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark, printing the average and
+     * longest capture time of each format.
+     * 
+     * @param args the amount of frames, optional
+     * 
+     * @throws IOException if the temporary
+     * directory cannot be created
+     */
+    public static void main(String[] args) throws IOException {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 120;
+
+        BufferedImage image = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        File directory = Files.createTempDirectory("imagine-capture").toFile();
+        try {
+            run("png, dropping", new FrameCapture(directory, FrameCapture.PNG, 4, 2), true, image, frames);
+            run("raw, blocking", new FrameCapture(directory, FrameCapture.RAW, 4, 2), false, image, frames);
+        } finally {
+            for(File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    /**
+     * Draws and captures the passed amount of frames
+     * at 60 fps and prints the measured times.
+     * 
+     * @param name the name of the run
+     * @param capture the frame capture
+     * @param dropFrames if frames are dropped
+     * @param image the image where frames are drawn
+     * @param frames how many frames to capture
+     */
+    private static void run(String name, FrameCapture capture, boolean dropFrames, BufferedImage image, int frames) {
+        capture.setDropFrames(dropFrames);
+        long next = System.nanoTime();
+        for(int i = 0; i < frames; i++) {
+            Graphics2D g2 = image.createGraphics();
+            g2.setColor(Color.DARK_GRAY);
+            g2.fillRect(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+            g2.setColor(Color.ORANGE);
+            g2.fillRect((i * 8) % FRAME_WIDTH, FRAME_HEIGHT / 3, 64, 64);
+            g2.dispose();
+
+            capture.capture(image);
+
+            next += FRAME_INTERVAL;
+            long wait = next - System.nanoTime();
+            if(wait > 0) {
+                try {
+                    Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+                }
+                catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        capture.stop();
+
+        System.out.printf (
+            "%s: %.3f ms average, %.3f ms longest, %d written, %d dropped%n",
+            name,
+            capture.getAverageCaptureTime() / 1e6,
+            capture.getMaxCaptureTime() / 1e6,
+            capture.getWrittenCount(),
+            capture.getDroppedCount()
+        );
+        if(capture.getError() != null) {
+            System.out.println("error: " + capture.getError().getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,299 @@
+package imagine.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.game.Game;
+import imagine.object.GameObject;
+import imagine.scenario.Scenario;
+import imagine.sprite.SpriteSheet;
+import imagine.stage.DamageTracker;
+import imagine.stage.Stage;
+
+/**
+ * Benchmark measuring the cost of drawing a mostly
+ * static {@code Stage}, where a single object moves,
+ * fully every frame and through a {@code DamageTracker}.
+ * It also checks that both drawings are identical.
+ * <p>
+ * It runs on a headless {@code Game} and draws
+ * into a {@code BufferedImage}, so it doesn't need
+ * a screen. The amount of objects can be passed
+ * as the first argument.
+ * 
+ * @author Daniel O Sousa
+ */
+public final class DamageBenchmark {
+
+    /**
+     * How many frames are drawn
+     * before being measured.
+     */
+    private static final int WARMUP_FRAMES = 200;
+
+    /**
+     * How many frames are measured.
+     */
+    private static final int MEASURED_FRAMES = 500;
+
+    /**
+     * The width of the panel.
+     */
+    private static final int PANEL_WIDTH = 1024;
+
+    /**
+     * The height of the panel.
+     */
+    private static final int PANEL_HEIGHT = 576;
+
+    /**
+     * This class only runs the benchmark.
+     */
+    private DamageBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark, printing the average
+     * time to draw a frame fully and with the
+     * damage tracker, and the pixels that differ
+     * between both drawings.
+     * 
+     * @param args the amount of objects, optional
+     */
+    public static void main(String[] args) {
+        int objectCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        Game game = new BenchmarkGame();
+        SpriteSheet crates = new SpriteSheet(createImage(32, 32), 2, 2);
+        SpriteSheet ground = new SpriteSheet(createImage(24, 24), 1, 1);
+
+        Stage full = buildStage(game, crates, ground, objectCount);
+        Stage damaged = buildStage(game, crates, ground, objectCount);
+        damaged.setDamageTracker(new DamageTracker());
+
+        BufferedImage fullPanel = new BufferedImage(PANEL_WIDTH, PANEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        BufferedImage damagedPanel = new BufferedImage(PANEL_WIDTH, PANEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        measure(full, fullPanel, WARMUP_FRAMES);
+        measure(damaged, damagedPanel, WARMUP_FRAMES);
+        double fullTime = measure(full, fullPanel, MEASURED_FRAMES);
+        double damagedTime = measure(damaged, damagedPanel, MEASURED_FRAMES);
+
+        int different = 0;
+        for(int y = 0; y < PANEL_HEIGHT; y++) {
+            for(int x = 0; x < PANEL_WIDTH; x++) {
+                if(fullPanel.getRGB(x, y) != damagedPanel.getRGB(x, y)) {
+                    different++;
+                }
+            }
+        }
+
+        DamageTracker tracker = damaged.getDamageTracker();
+        System.out.println(objectCount + " objects, one moving");
+        System.out.printf("full redraw:    %.3f ms%n", fullTime);
+        System.out.printf (
+            "damage tracker: %.3f ms, %d regions, %d pixels redrawn%n",
+            damagedTime, tracker.getRedrawnRegions(), tracker.getRedrawnArea()
+        );
+        System.out.println("different pixels: " + different);
+    }
+
+    /**
+     * Creates an opaque image
+     * filled with a pattern.
+     * 
+     * @param width the width of the image
+     * @param height the height of the image
+     * 
+     * @return the created image
+     */
+    private static BufferedImage createImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                image.setRGB(x, y, 0xFF000000 | (x * 8) << 16 | (y * 8) << 8 | (x ^ y) * 8);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Builds a stage with a repeated background, the
+     * static objects spread over the panel and one
+     * object moving over them.
+     * 
+     * @param game the game of the stage
+     * @param crates the sprite sheet of the objects
+     * @param ground the sprite sheet of the background
+     * @param objectCount the amount of objects
+     * 
+     * @return the built stage
+     */
+    private static Stage buildStage(Game game, SpriteSheet crates, SpriteSheet ground, int objectCount) {
+        Stage stage = new BenchmarkStage(game);
+        stage.setSize(PANEL_WIDTH, PANEL_HEIGHT);
+        stage.addBackground(new Ground(ground));
+        for(int i = 0; i < objectCount; i++) {
+            stage.addObject(new Crate (
+                crates,
+                (i * 37) % PANEL_WIDTH,
+                (i * 91) % PANEL_HEIGHT,
+                16,
+                16
+            ));
+        }
+
+        Crate cursor = new Crate(crates, 0, PANEL_HEIGHT / 2, 24, 24);
+        cursor.setXSpeed(3);
+        cursor.setShowBoundingBox(true);
+        cursor.setColor(Color.RED);
+        stage.addObject(cursor);
+
+        stage.start();
+        return stage;
+    }
+
+    /**
+     * Updates and draws the {@code stage} into
+     * the {@code panel} the specified amount of times.
+     * 
+     * @param stage the stage to draw
+     * @param panel the image where it is drawn
+     * @param frames how many frames to draw
+     * 
+     * @return the average time of a frame in milliseconds
+     */
+    private static double measure(Stage stage, BufferedImage panel, int frames) {
+        long start = System.nanoTime();
+        for(int i = 0; i < frames; i++) {
+            stage.update();
+            Graphics2D g2 = panel.createGraphics();
+            stage.draw(g2);
+            g2.dispose();
+        }
+
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+
+    /**
+     * Headless game of the benchmark.
+     */
+    private static class BenchmarkGame extends Game {
+
+        /**
+         * Constructs a headless game
+         * of the size of the panel.
+         */
+        BenchmarkGame() {
+            super(PANEL_WIDTH, PANEL_HEIGHT);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+    /**
+     * Empty stage of the benchmark.
+     */
+    private static class BenchmarkStage extends Stage {
+
+        /**
+         * Constructs a stage of the {@code game}.
+         * 
+         * @param game the game of the stage
+         */
+        BenchmarkStage(Game game) {
+            super(game);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+    /**
+     * Object placed in the stage of the benchmark.
+     */
+    private static class Crate extends GameObject {
+
+        /**
+         * Constructs a {@code Crate} with
+         * the passed properties.
+         * 
+         * @param spriteSheet the sprite sheet
+         * @param x the x coordinate
+         * @param y the y coordinate
+         * @param width the width
+         * @param height the height
+         */
+        Crate(SpriteSheet spriteSheet, int x, int y, int width, int height) {
+            super(spriteSheet, x, y, width, height);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+            if(getX() > PANEL_WIDTH) {
+                setX(-getWidth());
+            }
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+    /**
+     * Background of the stage of the benchmark.
+     */
+    private static class Ground extends Scenario {
+
+        /**
+         * Constructs a {@code Ground} with
+         * the passed sprite sheet.
+         * 
+         * @param spriteSheet the sprite sheet
+         */
+        Ground(SpriteSheet spriteSheet) {
+            super(spriteSheet);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+}
@@ -0,0 +1,296 @@
+package imagine.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import imagine.game.Game;
+import imagine.level.LevelReader;
+import imagine.level.LevelWriter;
+import imagine.level.ObjectFactory;
+import imagine.object.GameObject;
+import imagine.sprite.SpriteSheet;
+import imagine.stage.Stage;
+import imagine.tile.TileMap;
+
+/**
+ * Benchmark comparing the time to build a large
+ * {@code Stage} in code with the time to load the
+ * same stage from a binary level file.
+ * <p>
+ * It runs on a headless {@code Game}, so it
+ * doesn't need a screen. Each measured run starts
+ * after a garbage collection, so that collecting
+ * the stages of earlier runs isn't measured, and
+ * the median of the runs is printed. The amount of objects
+ * and the size of the tile map can be passed as
+ * the first and second arguments.
+ * 
+ * @author Daniel O Sousa
+ */
+public final class LevelLoadBenchmark {
+
+    /**
+     * How many times each way of building the
+     * stage runs before being measured.
+     */
+    private static final int WARMUP_ROUNDS = 20;
+
+    /**
+     * How many times each way of building
+     * the stage is measured.
+     */
+    private static final int MEASURED_ROUNDS = 31;
+
+    /**
+     * The type id of the objects of the benchmark.
+     */
+    private static final int CRATE_TYPE = 1;
+
+    /**
+     * The headless game of the benchmark.
+     */
+    private static Game game;
+
+    /**
+     * The sprite sheet of the tiles.
+     */
+    private static SpriteSheet tiles;
+
+    /**
+     * The sprite sheet of the objects.
+     */
+    private static SpriteSheet crates;
+
+    /**
+     * This class only runs the benchmark.
+     */
+    private LevelLoadBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark, printing the median
+     * time of each way of building the stage.
+     * 
+     * @param args the amount of objects and the
+     * size of the tile map, both optional
+     * 
+     * @throws IOException if the level file
+     * cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int objectCount = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        int mapSize = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+
+        game = new BenchmarkGame();
+        game.setTileSize(16, 16);
+        tiles = new SpriteSheet(new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB), 4, 4);
+        crates = new SpriteSheet(new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB), 2, 2);
+
+        LevelWriter writer = new LevelWriter();
+        writer.registerObjectType(Crate.class, CRATE_TYPE);
+        writer.registerSpriteSheet(tiles, "benchmark/tiles.png");
+        writer.registerSpriteSheet(crates, "benchmark/crates.png");
+
+        LevelReader reader = new LevelReader();
+        reader.registerObjectType(CRATE_TYPE, new ObjectFactory() {
+            @Override
+            public GameObject create(SpriteSheet spriteSheet, int x, int y, int width, int height) {
+                return new Crate(spriteSheet, x, y, width, height);
+            }
+        });
+        reader.registerSpriteSheet("benchmark/tiles.png", tiles);
+        reader.registerSpriteSheet("benchmark/crates.png", crates);
+
+        Path path = Files.createTempFile("imagine-level", ".bin");
+        try {
+            writer.write(buildInCode(objectCount, mapSize), path);
+            System.out.println (
+                objectCount + " objects, " + mapSize + "x" + mapSize +
+                " tiles, " + Files.size(path) + " bytes"
+            );
+
+            for(int i = 0; i < WARMUP_ROUNDS; i++) {
+                buildInCode(objectCount, mapSize);
+                loadFromFile(reader, path);
+            }
+
+            long[] codeTimes = new long[MEASURED_ROUNDS];
+            long[] fileTimes = new long[MEASURED_ROUNDS];
+            for(int i = 0; i < MEASURED_ROUNDS; i++) {
+                System.gc();
+                long start = System.nanoTime();
+                buildInCode(objectCount, mapSize);
+                codeTimes[i] = System.nanoTime() - start;
+
+                System.gc();
+                start = System.nanoTime();
+                loadFromFile(reader, path);
+                fileTimes[i] = System.nanoTime() - start;
+            }
+
+            System.out.printf("built in code:    %.2f ms%n", median(codeTimes) / 1e6);
+            System.out.printf("loaded from file: %.2f ms%n", median(fileTimes) / 1e6);
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Returns the median of the passed
+     * {@code times}, sorting them.
+     * 
+     * @param times the measured times
+     * 
+     * @return the median time
+     */
+    private static long median(long[] times) {
+        Arrays.sort(times);
+        return times[times.length / 2];
+    }
+
+    /**
+     * Builds the stage of the benchmark in code,
+     * the way levels are built in {@code onStart}.
+     * 
+     * @param objectCount the amount of objects
+     * @param mapSize the columns and rows of the tile map
+     * 
+     * @return the built stage
+     */
+    private static Stage buildInCode(int objectCount, int mapSize) {
+        Stage stage = new BenchmarkStage(game);
+        stage.setSize(mapSize * 16, mapSize * 16);
+
+        TileMap tileMap = new TileMap(tiles, mapSize, mapSize);
+        for(int row = 0; row < mapSize; row++) {
+            for(int column = 0; column < mapSize; column++) {
+                tileMap.setTile(column, row, row == mapSize - 1 ? 1 : (column * 7 + row) % 17 - 1);
+            }
+        }
+        tileMap.setSolid(1, true);
+        stage.setTileMap(tileMap);
+
+        for(int i = 0; i < objectCount; i++) {
+            stage.addObject(new Crate (
+                i % 2 == 0 ? crates : null,
+                (i * 37) % (mapSize * 16),
+                (i * 91) % (mapSize * 16),
+                16,
+                16
+            ));
+        }
+
+        return stage;
+    }
+
+    /**
+     * Loads the stage of the benchmark
+     * from the level file.
+     * 
+     * @param reader the reader of the level
+     * @param path the path of the level file
+     * 
+     * @return the loaded stage
+     * 
+     * @throws IOException if the file cannot be read
+     */
+    private static Stage loadFromFile(LevelReader reader, Path path) throws IOException {
+        Stage stage = new BenchmarkStage(game);
+        reader.read(path, stage);
+        return stage;
+    }
+
+    /**
+     * Headless game of the benchmark.
+     */
+    private static class BenchmarkGame extends Game {
+
+        /**
+         * Constructs a headless game
+         * of 1024 by 576 pixels.
+         */
+        BenchmarkGame() {
+            super(1024, 576);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+    /**
+     * Empty stage of the benchmark.
+     */
+    private static class BenchmarkStage extends Stage {
+
+        /**
+         * Constructs a stage of the {@code game}.
+         * 
+         * @param game the game of the stage
+         */
+        BenchmarkStage(Game game) {
+            super(game);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+    /**
+     * Object placed in the stage of the benchmark.
+     */
+    private static class Crate extends GameObject {
+
+        /**
+         * Constructs a {@code Crate} with
+         * the passed properties.
+         * 
+         * @param spriteSheet the sprite sheet
+         * @param x the x coordinate
+         * @param y the y coordinate
+         * @param width the width
+         * @param height the height
+         */
+        Crate(SpriteSheet spriteSheet, int x, int y, int width, int height) {
+            super(spriteSheet, x, y, width, height);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+}
@@ -0,0 +1,175 @@
+package imagine.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.game.Game;
+import imagine.particle.ParticleEmitter;
+import imagine.particle.ParticleSystem;
+import imagine.stage.Stage;
+
+/**
+ * Benchmark measuring the time to update and draw
+ * a {@code ParticleSystem} with many living particles.
+ * <p>
+ * It runs on a headless {@code Game} and draws
+ * into a {@code BufferedImage}, so it doesn't need
+ * a screen. The amount of living particles and the
+ * amount of update threads can be passed as the
+ * first and second arguments.
+ * 
+ * @author Daniel O Sousa
+ */
+public final class ParticleBenchmark {
+
+    /**
+     * How many frames each particle lives.
+     */
+    private static final int LIFETIME = 120;
+
+    /**
+     * How many frames are measured.
+     */
+    private static final int MEASURED_FRAMES = 600;
+
+    /**
+     * The width of the panel.
+     */
+    private static final int PANEL_WIDTH = 1280;
+
+    /**
+     * The height of the panel.
+     */
+    private static final int PANEL_HEIGHT = 720;
+
+    /**
+     * This class only runs the benchmark.
+     */
+    private ParticleBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark, printing the average
+     * time to update and draw a frame.
+     * 
+     * @param args the amount of particles and
+     * of threads, both optional
+     */
+    public static void main(String[] args) {
+        int particleCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        Stage stage = new BenchmarkStage(new BenchmarkGame());
+        stage.setSize(PANEL_WIDTH * 2, PANEL_HEIGHT * 2);
+        ParticleSystem particles = new ParticleSystem(stage, particleCount);
+        particles.setThreadCount(threadCount);
+        stage.setParticleSystem(particles);
+
+        ParticleEmitter emitter = new ParticleEmitter(0, 0);
+        emitter.setSize(PANEL_WIDTH * 2, PANEL_HEIGHT * 2);
+        emitter.setRate(particleCount / (float) LIFETIME);
+        emitter.setSpeed(0.5f, 2);
+        emitter.setLifetime(LIFETIME, LIFETIME);
+        emitter.setGravity(0, 0.02f);
+        emitter.setColors(0xFFFFD040, 0x40FF2000);
+        emitter.setParticleSize(2);
+        particles.addEmitter(emitter);
+        stage.start();
+
+        BufferedImage panel = new BufferedImage(PANEL_WIDTH, PANEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for(int i = 0; i < LIFETIME * 2; i++) {
+            frame(stage, panel);
+        }
+
+        long updateTime = 0;
+        long drawTime = 0;
+        for(int i = 0; i < MEASURED_FRAMES; i++) {
+            long start = System.nanoTime();
+            stage.update();
+            long updated = System.nanoTime();
+            Graphics2D g2 = panel.createGraphics();
+            stage.draw(g2);
+            g2.dispose();
+            updateTime += updated - start;
+            drawTime += System.nanoTime() - updated;
+        }
+        particles.shutdown();
+
+        System.out.println (
+            particles.getCount() + " particles, " + threadCount + " threads, " +
+            particles.getDrawnCount() + " drawn, " + particles.getCulledCount() + " culled"
+        );
+        System.out.printf("update: %.3f ms%n", updateTime / 1e6 / MEASURED_FRAMES);
+        System.out.printf("draw:   %.3f ms%n", drawTime / 1e6 / MEASURED_FRAMES);
+    }
+
+    /**
+     * Updates and draws the {@code stage}
+     * into the {@code panel}.
+     * 
+     * @param stage the stage of the benchmark
+     * @param panel the image where it is drawn
+     */
+    private static void frame(Stage stage, BufferedImage panel) {
+        stage.update();
+        Graphics2D g2 = panel.createGraphics();
+        stage.draw(g2);
+        g2.dispose();
+    }
+
+    /**
+     * Headless game of the benchmark.
+     */
+    private static class BenchmarkGame extends Game {
+
+        /**
+         * Constructs a headless game
+         * of the size of the panel.
+         */
+        BenchmarkGame() {
+            super(PANEL_WIDTH, PANEL_HEIGHT);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+    /**
+     * Empty stage of the benchmark.
+     */
+    private static class BenchmarkStage extends Stage {
+
+        /**
+         * Constructs a stage of the {@code game}.
+         * 
+         * @param game the game of the stage
+         */
+        BenchmarkStage(Game game) {
+            super(game);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+}
@@ -0,0 +1,198 @@
+package imagine.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.render.RenderBatch;
+import imagine.render.SoftwareRenderer;
+
+/**
+ * Benchmark comparing the time to submit a
+ * {@code RenderBatch} of sprites to Java2D with the
+ * time to submit it to a {@code SoftwareRenderer}.
+ * <p>
+ * It draws into {@code BufferedImage}s, so it doesn't
+ * need a screen, and first checks that both ways give
+ * the same pixels for unscaled opaque sprites. The
+ * amount of sprites can be passed as the first argument.
+ * 
+ * @author Daniel O Sousa
+ */
+public final class SoftwareRenderBenchmark {
+
+    /**
+     * How many frames are drawn
+     * before being measured.
+     */
+    private static final int WARMUP_FRAMES = 200;
+
+    /**
+     * How many frames are measured.
+     */
+    private static final int MEASURED_FRAMES = 500;
+
+    /**
+     * The width of the frame.
+     */
+    private static final int WIDTH = 640;
+
+    /**
+     * The height of the frame.
+     */
+    private static final int HEIGHT = 360;
+
+    /**
+     * The size of the sprites.
+     */
+    private static final int SPRITE_SIZE = 16;
+
+    /**
+     * This class only runs the benchmark.
+     */
+    private SoftwareRenderBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark, printing if the outputs
+     * match and the average time of a frame
+     * with each renderer.
+     * 
+     * @param args the amount of sprites, optional
+     */
+    public static void main(String[] args) {
+        int spriteCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+
+        BufferedImage opaque = createSprite(BufferedImage.TYPE_INT_RGB, 255);
+        BufferedImage alphaTested = createSprite(BufferedImage.TYPE_INT_ARGB, 0);
+        BufferedImage blended = createSprite(BufferedImage.TYPE_4BYTE_ABGR, 128);
+        BufferedImage[] sprites = {opaque, alphaTested, blended};
+
+        BufferedImage java2dFrame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        BufferedImage softwareFrame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        SoftwareRenderer renderer = new SoftwareRenderer(softwareFrame);
+        RenderBatch batch = new RenderBatch();
+
+        BufferedImage[] opaqueOnly = {opaque};
+        drawJava2D(batch, opaqueOnly, spriteCount, java2dFrame);
+        drawSoftware(batch, opaqueOnly, spriteCount, renderer);
+        System.out.println("opaque output identical: " + sameRGB(java2dFrame, softwareFrame));
+
+        for(int i = 0; i < WARMUP_FRAMES; i++) {
+            drawJava2D(batch, sprites, spriteCount, java2dFrame);
+            drawSoftware(batch, sprites, spriteCount, renderer);
+        }
+
+        long java2dTime = 0;
+        long softwareTime = 0;
+        for(int i = 0; i < MEASURED_FRAMES; i++) {
+            long start = System.nanoTime();
+            drawJava2D(batch, sprites, spriteCount, java2dFrame);
+            java2dTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            drawSoftware(batch, sprites, spriteCount, renderer);
+            softwareTime += System.nanoTime() - start;
+        }
+
+        System.out.println(spriteCount + " sprites, " + WIDTH + "x" + HEIGHT);
+        System.out.printf("java2d:   %.3f ms%n", java2dTime / 1e6 / MEASURED_FRAMES);
+        System.out.printf("software: %.3f ms%n", softwareTime / 1e6 / MEASURED_FRAMES);
+    }
+
+    /**
+     * Creates a sprite of the passed type whose border
+     * pixels have the passed alpha and whose inner
+     * pixels are opaque.
+     * 
+     * @param type the type of the image
+     * @param borderAlpha the alpha of the border
+     * 
+     * @return the created sprite
+     */
+    private static BufferedImage createSprite(int type, int borderAlpha) {
+        BufferedImage sprite = new BufferedImage(SPRITE_SIZE, SPRITE_SIZE, type);
+        for(int y = 0; y < SPRITE_SIZE; y++) {
+            for(int x = 0; x < SPRITE_SIZE; x++) {
+                boolean border = x < 2 || y < 2 || x >= SPRITE_SIZE - 2 || y >= SPRITE_SIZE - 2;
+                int alpha = border ? borderAlpha : 255;
+                sprite.setRGB(x, y, alpha << 24 | (x * 16) << 16 | (y * 16) << 8 | (type * 40));
+            }
+        }
+        return sprite;
+    }
+
+    /**
+     * Records the sprites of a frame into the
+     * {@code batch}, spread over the frame.
+     * 
+     * @param batch the batch to record into
+     * @param sprites the sprites to draw
+     * @param spriteCount how many sprites to draw
+     */
+    private static void record(RenderBatch batch, BufferedImage[] sprites, int spriteCount) {
+        batch.begin();
+        batch.fillRect(Color.DARK_GRAY, 0, 0, WIDTH, HEIGHT);
+        batch.nextGroup();
+        for(int i = 0; i < spriteCount; i++) {
+            batch.drawImage (
+                sprites[i % sprites.length],
+                (i * 37) % (WIDTH + SPRITE_SIZE) - SPRITE_SIZE / 2,
+                (i * 91) % (HEIGHT + SPRITE_SIZE) - SPRITE_SIZE / 2,
+                SPRITE_SIZE, SPRITE_SIZE
+            );
+        }
+    }
+
+    /**
+     * Draws a frame with Java2D.
+     * 
+     * @param batch the batch of the frame
+     * @param sprites the sprites to draw
+     * @param spriteCount how many sprites to draw
+     * @param frame the image to draw into
+     */
+    private static void drawJava2D(RenderBatch batch, BufferedImage[] sprites, int spriteCount, BufferedImage frame) {
+        record(batch, sprites, spriteCount);
+        Graphics2D g2 = frame.createGraphics();
+        batch.submit(g2);
+        g2.dispose();
+    }
+
+    /**
+     * Draws a frame with the software renderer.
+     * 
+     * @param batch the batch of the frame
+     * @param sprites the sprites to draw
+     * @param spriteCount how many sprites to draw
+     * @param renderer the renderer to draw with
+     */
+    private static void drawSoftware(RenderBatch batch, BufferedImage[] sprites, int spriteCount, SoftwareRenderer renderer) {
+        record(batch, sprites, spriteCount);
+        Graphics2D g2 = renderer.getTarget().createGraphics();
+        batch.submit(renderer, g2);
+        g2.dispose();
+    }
+
+    /**
+     * Returns {@code true} if both images have
+     * the same RGB pixels and {@code false}
+     * otherwise.
+     * 
+     * @param first an image
+     * @param second another image of the same size
+     * 
+     * @return boolean specifying if the pixels match
+     */
+    private static boolean sameRGB(BufferedImage first, BufferedImage second) {
+        for(int y = 0; y < HEIGHT; y++) {
+            for(int x = 0; x < WIDTH; x++) {
+                if((first.getRGB(x, y) & 0xFFFFFF) != (second.getRGB(x, y) & 0xFFFFFF)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,119 @@
+package imagine.benchmark;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import imagine.text.GlyphAtlas;
+import imagine.text.GlyphRun;
+
+/**
+ * Benchmark measuring the cost of drawing lines of
+ * HUD text every frame with {@code drawString} and
+ * with a {@code GlyphAtlas}, including how many bytes
+ * each frame allocates, for text that changes every
+ * frame and for text that changes twice a second.
+ * <p>
+ * The amount of frames can be passed
+ * as the first argument.
+ * 
+ * @author Daniel O Sousa
+ */
+public final class TextBenchmark {
+
+    /**
+     * How many lines of text are drawn each frame.
+     */
+    private static final int LINES = 20;
+
+    /**
+     * This class only runs the benchmark.
+     */
+    private TextBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark, printing the average time
+     * and allocation of a frame for each way of
+     * drawing text.
+     * 
+     * @param args the amount of frames, optional
+     */
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        Font font = new Font(Font.MONOSPACED, Font.BOLD, 16);
+        GlyphAtlas atlas = new GlyphAtlas(font, Color.WHITE);
+        GlyphRun[] runs = new GlyphRun[LINES];
+        for(int line = 0; line < LINES; line++) {
+            runs[line] = new GlyphRun();
+        }
+        BufferedImage panel = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+
+        System.out.println(LINES + " lines of text per frame");
+        for(int pass = 0; pass < 2; pass++) {
+            for(int changeInterval : new int[] {1, 30}) {
+                long stringBytes = allocatedBytes();
+                long start = System.nanoTime();
+                for(int frame = 0; frame < frames; frame++) {
+                    int value = frame / changeInterval;
+                    Graphics2D g2 = panel.createGraphics();
+                    g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                    g2.setFont(font);
+                    g2.setColor(Color.WHITE);
+                    for(int line = 0; line < LINES; line++) {
+                        g2.drawString("Score: " + (value * 37 + line) + "  Time: " + value / 60 + "." + value % 60, 8, 20 + line * 22);
+                    }
+                    g2.dispose();
+                }
+                double stringTime = (System.nanoTime() - start) / 1e6 / frames;
+                stringBytes = (allocatedBytes() - stringBytes) / frames;
+
+                long atlasBytes = allocatedBytes();
+                start = System.nanoTime();
+                for(int frame = 0; frame < frames; frame++) {
+                    int value = frame / changeInterval;
+                    Graphics2D g2 = panel.createGraphics();
+                    for(int line = 0; line < LINES; line++) {
+                        GlyphRun run = runs[line];
+                        run.clear();
+                        run.append("Score: ");
+                        run.append(value * 37 + line);
+                        run.append("  Time: ");
+                        run.append(value / 60);
+                        run.append('.');
+                        run.append(value % 60, 2);
+                        atlas.draw(g2, run, 8, 4 + line * 22);
+                    }
+                    g2.dispose();
+                }
+                double atlasTime = (System.nanoTime() - start) / 1e6 / frames;
+                atlasBytes = (allocatedBytes() - atlasBytes) / frames;
+
+                if(pass == 1) {
+                    System.out.println("text changing every " + changeInterval + " frames:");
+                    System.out.printf("  drawString:  %.3f ms, %d bytes allocated%n", stringTime, stringBytes);
+                    System.out.printf("  glyph atlas: %.3f ms, %d bytes allocated%n", atlasTime, atlasBytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how many bytes the current thread
+     * allocated, or {@code 0} if it is unknown.
+     * 
+     * @return the allocated bytes
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,185 @@
+package imagine.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import imagine.render.RenderBatch;
+import imagine.render.SoftwareRenderer;
+import imagine.render.TiledRasterizer;
+
+/**
+ * Benchmark measuring how the time to rasterize a
+ * {@code RenderBatch} of sprites with a
+ * {@code TiledRasterizer} scales with the amount
+ * of threads.
+ * <p>
+ * It draws into {@code BufferedImage}s, so it doesn't
+ * need a screen, and checks that every amount of
+ * threads gives the same pixels as a single
+ * {@code SoftwareRenderer}. The amount of sprites
+ * can be passed as the first argument.
+ * 
+ * @author Daniel O Sousa
+ */
+public final class TiledRasterBenchmark {
+
+    /**
+     * How many frames are drawn
+     * before being measured.
+     */
+    private static final int WARMUP_FRAMES = 100;
+
+    /**
+     * How many frames are measured.
+     */
+    private static final int MEASURED_FRAMES = 300;
+
+    /**
+     * The width of the frame.
+     */
+    private static final int WIDTH = 1280;
+
+    /**
+     * The height of the frame.
+     */
+    private static final int HEIGHT = 720;
+
+    /**
+     * The size of the sprites.
+     */
+    private static final int SPRITE_SIZE = 32;
+
+    /**
+     * The height of the bands.
+     */
+    private static final int BAND_HEIGHT = 32;
+
+    /**
+     * This class only runs the benchmark.
+     */
+    private TiledRasterBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark, printing the average time
+     * of a frame for each amount of threads.
+     * 
+     * @param args the amount of sprites, optional
+     */
+    public static void main(String[] args) {
+        int spriteCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        BufferedImage[] sprites = {
+            createSprite(BufferedImage.TYPE_INT_RGB, 255),
+            createSprite(BufferedImage.TYPE_INT_ARGB, 0),
+            createSprite(BufferedImage.TYPE_4BYTE_ABGR, 128)
+        };
+        RenderBatch batch = new RenderBatch();
+
+        BufferedImage reference = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        record(batch, sprites, spriteCount);
+        Graphics2D g2 = reference.createGraphics();
+        batch.submit(new SoftwareRenderer(reference), g2);
+        g2.dispose();
+
+        System.out.println(spriteCount + " sprites, " + WIDTH + "x" + HEIGHT + ", " + processors + " processors");
+        int[] threadCounts = processors > 4 ? new int[] {1, 2, 4, processors} : new int[] {1, 2, 4};
+        for(int threadCount : threadCounts) {
+            BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            TiledRasterizer rasterizer = new TiledRasterizer(new SoftwareRenderer(frame), BAND_HEIGHT, threadCount);
+            for(int i = 0; i < WARMUP_FRAMES; i++) {
+                draw(batch, sprites, spriteCount, rasterizer);
+            }
+
+            long start = System.nanoTime();
+            for(int i = 0; i < MEASURED_FRAMES; i++) {
+                draw(batch, sprites, spriteCount, rasterizer);
+            }
+            long time = System.nanoTime() - start;
+            rasterizer.shutdown();
+
+            System.out.printf (
+                "%d threads: %.3f ms, identical: %b%n",
+                threadCount, time / 1e6 / MEASURED_FRAMES, samePixels(reference, frame)
+            );
+        }
+    }
+
+    /**
+     * Creates a sprite of the passed type whose border
+     * pixels have the passed alpha and whose inner
+     * pixels are opaque.
+     * 
+     * @param type the type of the image
+     * @param borderAlpha the alpha of the border
+     * 
+     * @return the created sprite
+     */
+    private static BufferedImage createSprite(int type, int borderAlpha) {
+        BufferedImage sprite = new BufferedImage(SPRITE_SIZE, SPRITE_SIZE, type);
+        for(int y = 0; y < SPRITE_SIZE; y++) {
+            for(int x = 0; x < SPRITE_SIZE; x++) {
+                boolean border = x < 4 || y < 4 || x >= SPRITE_SIZE - 4 || y >= SPRITE_SIZE - 4;
+                int alpha = border ? borderAlpha : 255;
+                sprite.setRGB(x, y, alpha << 24 | (x * 8) << 16 | (y * 8) << 8 | (type * 40));
+            }
+        }
+        return sprite;
+    }
+
+    /**
+     * Records the sprites of a frame into the
+     * {@code batch}, spread over the frame.
+     * 
+     * @param batch the batch to record into
+     * @param sprites the sprites to draw
+     * @param spriteCount how many sprites to draw
+     */
+    private static void record(RenderBatch batch, BufferedImage[] sprites, int spriteCount) {
+        batch.begin();
+        batch.fillRect(Color.DARK_GRAY, 0, 0, WIDTH, HEIGHT);
+        batch.nextGroup();
+        for(int i = 0; i < spriteCount; i++) {
+            batch.drawImage (
+                sprites[i % sprites.length],
+                (i * 37) % (WIDTH + SPRITE_SIZE) - SPRITE_SIZE / 2,
+                (i * 91) % (HEIGHT + SPRITE_SIZE) - SPRITE_SIZE / 2,
+                SPRITE_SIZE, SPRITE_SIZE
+            );
+        }
+    }
+
+    /**
+     * Draws a frame with the {@code rasterizer}.
+     * 
+     * @param batch the batch of the frame
+     * @param sprites the sprites to draw
+     * @param spriteCount how many sprites to draw
+     * @param rasterizer the rasterizer to draw with
+     */
+    private static void draw(RenderBatch batch, BufferedImage[] sprites, int spriteCount, TiledRasterizer rasterizer) {
+        record(batch, sprites, spriteCount);
+        Graphics2D g2 = rasterizer.getRenderer().getTarget().createGraphics();
+        batch.submit(rasterizer, g2);
+        g2.dispose();
+    }
+
+    /**
+     * Returns {@code true} if both images have
+     * the same pixels and {@code false} otherwise.
+     * 
+     * @param first an image
+     * @param second another image of the same size
+     * 
+     * @return boolean specifying if the pixels match
+     */
+    private static boolean samePixels(BufferedImage first, BufferedImage second) {
+        int[] firstPixels = first.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+        int[] secondPixels = second.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+        return Arrays.equals(firstPixels, secondPixels);
+    }
+
+}
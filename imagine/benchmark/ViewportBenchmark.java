@@ -0,0 +1,228 @@
+package imagine.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.game.Game;
+import imagine.object.GameObject;
+import imagine.sprite.SpriteSheet;
+import imagine.stage.Stage;
+
+/**
+ * Benchmark measuring the cost of drawing a
+ * {@code Stage} through one viewport and through
+ * two split-screen viewports.
+ * <p>
+ * It runs on a headless {@code Game} and draws
+ * into a {@code BufferedImage}, so it doesn't need
+ * a screen. The amount of objects can be passed
+ * as the first argument.
+ * 
+ * @author Daniel O Sousa
+ */
+public final class ViewportBenchmark {
+
+    /**
+     * How many frames are drawn
+     * before being measured.
+     */
+    private static final int WARMUP_FRAMES = 200;
+
+    /**
+     * How many frames are measured.
+     */
+    private static final int MEASURED_FRAMES = 500;
+
+    /**
+     * The width of the panel.
+     */
+    private static final int PANEL_WIDTH = 1024;
+
+    /**
+     * The height of the panel.
+     */
+    private static final int PANEL_HEIGHT = 576;
+
+    /**
+     * This class only runs the benchmark.
+     */
+    private ViewportBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark, printing the average
+     * time to draw a frame with one and with two
+     * viewports.
+     * 
+     * @param args the amount of objects, optional
+     */
+    public static void main(String[] args) {
+        int objectCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+        Game game = new BenchmarkGame();
+        SpriteSheet crates = new SpriteSheet(new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB), 2, 2);
+        BufferedImage panel = new BufferedImage(PANEL_WIDTH, PANEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        Stage single = buildStage(game, crates, objectCount);
+        single.addViewport(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
+
+        Stage split = buildStage(game, crates, objectCount);
+        split.addViewport(0, 0, PANEL_WIDTH / 2, PANEL_HEIGHT);
+        split.addViewport(PANEL_WIDTH / 2, 0, PANEL_WIDTH / 2, PANEL_HEIGHT);
+        split.getViewports().get(1).getCamera().setCoordinates(PANEL_WIDTH / 4, PANEL_HEIGHT / 4);
+
+        measure(single, panel, WARMUP_FRAMES);
+        measure(split, panel, WARMUP_FRAMES);
+        double singleTime = measure(single, panel, MEASURED_FRAMES);
+        double splitTime = measure(split, panel, MEASURED_FRAMES);
+
+        System.out.println(objectCount + " objects");
+        System.out.printf (
+            "one viewport:  %.3f ms, %d visible, %d culled%n",
+            singleTime, single.getVisibleCount(), single.getCulledCount()
+        );
+        System.out.printf (
+            "two viewports: %.3f ms, %d visible, %d culled%n",
+            splitTime, split.getVisibleCount(), split.getCulledCount()
+        );
+        System.out.printf("second viewport overhead: %.3f ms%n", splitTime - singleTime);
+    }
+
+    /**
+     * Builds a stage with the objects spread over
+     * an area four times as big as the panel.
+     * 
+     * @param game the game of the stage
+     * @param crates the sprite sheet of the objects
+     * @param objectCount the amount of objects
+     * 
+     * @return the built stage
+     */
+    private static Stage buildStage(Game game, SpriteSheet crates, int objectCount) {
+        Stage stage = new BenchmarkStage(game);
+        stage.setSize(PANEL_WIDTH * 2, PANEL_HEIGHT * 2);
+        for(int i = 0; i < objectCount; i++) {
+            stage.addObject(new Crate (
+                crates,
+                (i * 37) % (PANEL_WIDTH * 2),
+                (i * 91) % (PANEL_HEIGHT * 2),
+                16,
+                16
+            ));
+        }
+
+        stage.start();
+        return stage;
+    }
+
+    /**
+     * Draws the {@code stage} into the
+     * {@code panel} the specified amount of times.
+     * 
+     * @param stage the stage to draw
+     * @param panel the image where it is drawn
+     * @param frames how many frames to draw
+     * 
+     * @return the average time of a frame in milliseconds
+     */
+    private static double measure(Stage stage, BufferedImage panel, int frames) {
+        long start = System.nanoTime();
+        for(int i = 0; i < frames; i++) {
+            stage.update();
+            Graphics2D g2 = panel.createGraphics();
+            stage.draw(g2);
+            g2.dispose();
+        }
+
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+
+    /**
+     * Headless game of the benchmark.
+     */
+    private static class BenchmarkGame extends Game {
+
+        /**
+         * Constructs a headless game
+         * of the size of the panel.
+         */
+        BenchmarkGame() {
+            super(PANEL_WIDTH, PANEL_HEIGHT);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+    /**
+     * Empty stage of the benchmark.
+     */
+    private static class BenchmarkStage extends Stage {
+
+        /**
+         * Constructs a stage of the {@code game}.
+         * 
+         * @param game the game of the stage
+         */
+        BenchmarkStage(Game game) {
+            super(game);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+    /**
+     * Object placed in the stage of the benchmark.
+     */
+    private static class Crate extends GameObject {
+
+        /**
+         * Constructs a {@code Crate} with
+         * the passed properties.
+         * 
+         * @param spriteSheet the sprite sheet
+         * @param x the x coordinate
+         * @param y the y coordinate
+         * @param width the width
+         * @param height the height
+         */
+        Crate(SpriteSheet spriteSheet, int x, int y, int width, int height) {
+            super(spriteSheet, x, y, width, height);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onUpdate() {
+        }
+
+        @Override
+        public void onDraw(Graphics2D g2) {
+        }
+
+    }
+
+}
@@ -1,6 +1,8 @@
 package imagine.camera;
 
 import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.nio.ByteBuffer;
 
 import imagine.stage.StageElement;
 import imagine.stage.Stage;
@@ -28,6 +30,28 @@ public class Camera extends StageElement implements GameFluid {
      */
     private boolean drawGrid = false;
 
+    /**
+     * The zoom of this {@code Camera}, where
+     * {@code 1} shows the stage at its size.
+     */
+    private double zoom = 1;
+
+    /**
+     * The rotation of this {@code Camera}
+     * around its center, in radians.
+     */
+    private double rotation = 0;
+
+    /**
+     * The transform and view offsets of this
+     * {@code Camera}, built again by the thread that
+     * changes its zoom, rotation or size, usually the
+     * game loop. Since a built {@code CameraView} is
+     * never changed, the drawing always reads a
+     * consistent one.
+     */
+    private volatile CameraView view;
+
     /**
      * Constructs a new Camera located
      * at the top left corner of the
@@ -134,6 +158,23 @@ public class Camera extends StageElement implements GameFluid {
         setType(new Follow(this, target));
     }
 
+    /**
+     * Sets the type of this {@code Camera}
+     * to the {@code SmoothFollow} {@code CameraType}
+     * making the {@code target} argument be
+     * the target smoothly followed by the
+     * {@code Camera}.
+     * 
+     * @param target the target that the
+     * {@code Camera} will follow
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code target} argument is {@code null}
+     */
+    public void setTypeSmoothFollow(GameObject target) {
+        setType(new SmoothFollow(this, target));
+    }
+
     /**
      * Returns the type of this {@code Camera}.
      * 
@@ -179,6 +220,188 @@ public class Camera extends StageElement implements GameFluid {
         return this.drawGrid;
     }
 
+    /**
+     * Sets the zoom of this {@code Camera}, where
+     * {@code 1} shows the stage at its size, bigger
+     * values get closer and smaller ones get further.
+     * The zoom is applied around the center of the
+     * {@code Camera} to the tile map and the objects.
+     * 
+     * @param zoom the zoom to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code zoom} is not positive
+     */
+    public void setZoom(double zoom) {
+        if(!(zoom > 0) || Double.isInfinite(zoom)) {
+            throw new IllegalArgumentException (
+                "cannot set zoom " + zoom + " (zoom must be positive)"
+            );
+        }
+
+        if(zoom != this.zoom) {
+            this.zoom = zoom;
+            refreshView();
+        }
+    }
+
+    /**
+     * Returns the zoom of this {@code Camera}.
+     * 
+     * @return the zoom
+     */
+    public double getZoom() {
+        return this.zoom;
+    }
+
+    /**
+     * Sets the rotation of this {@code Camera}
+     * around its center, in radians. The rotation
+     * is applied to the tile map and the objects.
+     * 
+     * @param rotation the rotation in radians
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code rotation} is not finite
+     */
+    public void setRotation(double rotation) {
+        if(Double.isNaN(rotation) || Double.isInfinite(rotation)) {
+            throw new IllegalArgumentException (
+                "cannot set rotation " + rotation + " (rotation must be finite)"
+            );
+        }
+
+        if(rotation != this.rotation) {
+            this.rotation = rotation;
+            refreshView();
+        }
+    }
+
+    /**
+     * Returns the rotation of this
+     * {@code Camera} in radians.
+     * 
+     * @return the rotation
+     */
+    public double getRotation() {
+        return this.rotation;
+    }
+
+    /**
+     * Returns {@code true} if this {@code Camera}
+     * is zoomed or rotated and {@code false}
+     * otherwise.
+     * 
+     * @return boolean specifying if the
+     * camera transforms what it sees
+     */
+    public boolean isTransformed() {
+        CameraView view = this.view;
+        return view.zoom != 1 || view.rotation != 0;
+    }
+
+    /**
+     * Returns the transform from the apparent coordinates
+     * of the elements seen by this {@code Camera} to the
+     * panel, which zooms and rotates them around the center
+     * of the {@code Camera}. The returned transform is
+     * shared and must not be modified.
+     * 
+     * @return the transform of the camera
+     */
+    public AffineTransform getTransform() {
+        return view.transform;
+    }
+
+    /**
+     * Builds the {@code view} again if the zoom,
+     * rotation or size of this {@code Camera}
+     * changed since it was built.
+     */
+    private void refreshView() {
+        CameraView view = this.view;
+        if (
+            view == null || view.zoom != zoom || view.rotation != rotation ||
+            view.width != getWidth() || view.height != getHeight()
+        ) {
+            this.view = new CameraView(zoom, rotation, getWidth(), getHeight());
+        }
+    }
+
+    /**
+     * Sets the width of this {@code Camera},
+     * building its transform again.
+     * 
+     * @param width the width to be set
+     * 
+     * @throws IllegalArgumentException if
+     * the {@code width} is negative
+     */
+    @Override
+    public void setWidth(int width) {
+        super.setWidth(width);
+        refreshView();
+    }
+
+    /**
+     * Sets the height of this {@code Camera},
+     * building its transform again.
+     * 
+     * @param height the height to be set
+     * 
+     * @throws IllegalArgumentException if
+     * the {@code height} is negative
+     */
+    @Override
+    public void setHeight(int height) {
+        super.setHeight(height);
+        refreshView();
+    }
+
+    /**
+     * Returns the left limit of what this
+     * {@code Camera} sees with its zoom
+     * and rotation.
+     * 
+     * @return the left of the view
+     */
+    public int getViewLeft() {
+        return getX() + view.leftOffset;
+    }
+
+    /**
+     * Returns the top limit of what this
+     * {@code Camera} sees with its zoom
+     * and rotation.
+     * 
+     * @return the top of the view
+     */
+    public int getViewTop() {
+        return getY() + view.topOffset;
+    }
+
+    /**
+     * Returns the right limit of what this
+     * {@code Camera} sees with its zoom
+     * and rotation.
+     * 
+     * @return the right of the view
+     */
+    public int getViewRight() {
+        return getX() + view.rightOffset;
+    }
+
+    /**
+     * Returns the bottom limit of what this
+     * {@code Camera} sees with its zoom
+     * and rotation.
+     * 
+     * @return the bottom of the view
+     */
+    public int getViewBottom() {
+        return getY() + view.bottomOffset;
+    }
+
     /**
      * Moves this {@code Camera} according to its
      * x and y speeds respecting the borders of
@@ -239,4 +462,110 @@ public class Camera extends StageElement implements GameFluid {
         type.draw(g2);
     }
 
+    /**
+     * Writes the state of this {@code Camera},
+     * including its zoom and rotation, into the
+     * passed {@code buffer}. The type of the
+     * {@code Camera} is not written.
+     * 
+     * @param buffer the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.put((byte) (drawGrid ? 1 : 0));
+        buffer.putDouble(zoom);
+        buffer.putDouble(rotation);
+    }
+
+    /**
+     * Reads the state of this {@code Camera}
+     * from the passed {@code buffer}.
+     * 
+     * @param buffer the buffer to read from
+     */
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        this.drawGrid = buffer.get() != 0;
+        setZoom(buffer.getDouble());
+        setRotation(buffer.getDouble());
+        refreshView();
+    }
+
+    /**
+     * The transform of a {@code Camera} and the offsets
+     * from its top left corner to the bounds of what it
+     * sees, for a zoom, rotation and size. It is never
+     * changed once built.
+     */
+    private static final class CameraView {
+
+        /**
+         * The zoom it was built for.
+         */
+        private final double zoom;
+
+        /**
+         * The rotation it was built for.
+         */
+        private final double rotation;
+
+        /**
+         * The width it was built for.
+         */
+        private final int width;
+
+        /**
+         * The height it was built for.
+         */
+        private final int height;
+
+        /**
+         * The transform from the apparent
+         * coordinates of the elements to the panel.
+         */
+        private final AffineTransform transform;
+
+        /**
+         * The offsets from the top left corner of
+         * the camera to the bounds of what it sees.
+         */
+        private final int leftOffset, topOffset, rightOffset, bottomOffset;
+
+        /**
+         * Builds the {@code CameraView} of a camera
+         * with the passed zoom, rotation and size.
+         * 
+         * @param zoom the zoom
+         * @param rotation the rotation in radians
+         * @param width the width
+         * @param height the height
+         */
+        private CameraView(double zoom, double rotation, int width, int height) {
+            this.zoom = zoom;
+            this.rotation = rotation;
+            this.width = width;
+            this.height = height;
+
+            double centerX = width / 2.0;
+            double centerY = height / 2.0;
+            this.transform = new AffineTransform();
+            transform.setToTranslation(centerX, centerY);
+            transform.rotate(rotation);
+            transform.scale(zoom, zoom);
+            transform.translate(-centerX, -centerY);
+
+            double cos = Math.abs(Math.cos(rotation));
+            double sin = Math.abs(Math.sin(rotation));
+            double halfWidth = (centerX * cos + centerY * sin) / zoom;
+            double halfHeight = (centerX * sin + centerY * cos) / zoom;
+            this.leftOffset = (int) Math.floor(centerX - halfWidth);
+            this.topOffset = (int) Math.floor(centerY - halfHeight);
+            this.rightOffset = (int) Math.ceil(centerX + halfWidth);
+            this.bottomOffset = (int) Math.ceil(centerY + halfHeight);
+        }
+
+    }
+
 }
\ No newline at end of file
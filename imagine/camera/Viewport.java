@@ -0,0 +1,115 @@
+package imagine.camera;
+
+import java.util.ArrayList;
+
+import imagine.game.GameElement;
+import imagine.object.GameObject;
+
+/**
+ * Class to represent a rectangle of the
+ * {@code GamePanel} where a stage is shown
+ * through a {@code Camera}, for split-screen.
+ * <p>
+ * The coordinates and dimensions of a
+ * {@code Viewport} are in pixels of the
+ * {@code GamePanel}, and its {@code Camera}
+ * has the same dimensions.
+ * 
+ * @author Daniel O Sousa
+ */
+public class Viewport extends GameElement {
+
+    /**
+     * The {@code Camera} through which
+     * the stage is shown.
+     */
+    private Camera camera;
+
+    /**
+     * The objects seen by the {@code Camera}
+     * in the last drawing, in drawing order.
+     */
+    private ArrayList<GameObject> visibleObjects = new ArrayList<GameObject>();
+
+    /**
+     * Constructs a new {@code Viewport} that shows
+     * what the passed {@code camera} sees at the
+     * specified rectangle of the {@code GamePanel}.
+     * The {@code camera} is resized to the
+     * dimensions of the {@code Viewport}.
+     * 
+     * @param camera the camera of the viewport
+     * @param x the x coordinate on the panel
+     * @param y the y coordinate on the panel
+     * @param width the width dimension
+     * @param height the height dimension
+     * 
+     * @throws IllegalArgumentException if the {@code camera}
+     * is {@code null} or the {@code width} or {@code height}
+     * is negative
+     */
+    public Viewport(Camera camera, int x, int y, int width, int height) {
+        storeCamera(camera);
+        setCoordinates(x, y);
+        setSize(width, height);
+        camera.setSize(width, height);
+    }
+
+    /**
+     * Stores the {@code camera} argument
+     * in the {@code camera} field.
+     * 
+     * @param camera the {@code Camera} to be stored
+     * 
+     * @throws IllegalArgumentException if the {@code camera}
+     * argument is {@code null}
+     */
+    private void storeCamera(Camera camera) {
+        if(camera == null) {
+            throw new IllegalArgumentException("cannot store null camera");
+        }
+
+        this.camera = camera;
+    }
+
+    /**
+     * Returns the {@code Camera} of
+     * this {@code Viewport}.
+     * 
+     * @return the camera of the viewport
+     */
+    public Camera getCamera() {
+        return this.camera;
+    }
+
+    /**
+     * Returns {@code true} if the passed {@code element}
+     * is within the view of the {@code Camera} of this
+     * {@code Viewport}, taking its zoom and rotation
+     * into account, and {@code false} otherwise.
+     * 
+     * @param element the element to verify
+     * 
+     * @return boolean specifying if the
+     * element is visible
+     */
+    public boolean isVisible(GameElement element) {
+        return
+            element.getRight() > camera.getViewLeft() &&
+            element.getLeft() < camera.getViewRight() &&
+            element.getBottom() > camera.getViewTop() &&
+            element.getTop() < camera.getViewBottom();
+    }
+
+    /**
+     * Returns the objects seen by the {@code Camera}
+     * of this {@code Viewport} in the last drawing,
+     * in drawing order.
+     * 
+     * @return the visible objects
+     */
+    public ArrayList<GameObject> getVisibleObjects() {
+        return this.visibleObjects;
+    }
+
+}
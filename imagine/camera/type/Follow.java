@@ -39,6 +39,20 @@ public class Follow implements CameraType {
      */
     private CameraGrid grid;
 
+    /**
+     * The horizontal distance between the
+     * {@code target} and the {@code grid},
+     * computed once per update.
+     */
+    private int targetXOffset;
+
+    /**
+     * The vertical distance between the
+     * {@code target} and the {@code grid},
+     * computed once per update.
+     */
+    private int targetYOffset;
+
     /**
      * Creates a {@code Follow}
      * {@code CameraType} that will
@@ -160,12 +174,16 @@ public class Follow implements CameraType {
      * argument. The drawing will have a red color if the
      * {@code target} is outside the {@code grid} and a green
      * color if it is inside.
+     * <p>
+     * The distances computed in the last update are
+     * used, so the {@code target} is outside the
+     * {@code grid} if the camera had to move.
      * 
      * @param g2 {@code Graphics2D} with which to draw
      */
     private void drawGrid(Graphics2D g2) {
         Color color;
-        if(getTargetXOffset() != 0 || getTargetYOffset() != 0) {
+        if(targetXOffset != 0 || targetYOffset != 0) {
             color = Color.RED;
         } else {
             color = Color.GREEN;
@@ -212,8 +230,10 @@ public class Follow implements CameraType {
      */
     @Override
     public void update() {
-        camera.setXSpeed(getTargetXOffset());
-        camera.setYSpeed(getTargetYOffset());
+        this.targetXOffset = getTargetXOffset();
+        this.targetYOffset = getTargetYOffset();
+        camera.setXSpeed(targetXOffset);
+        camera.setYSpeed(targetYOffset);
         camera.move();
     }
 
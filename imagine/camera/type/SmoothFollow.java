@@ -0,0 +1,463 @@
+package imagine.camera.type;
+
+import java.awt.Graphics2D;
+import java.awt.Color;
+
+import imagine.camera.Camera;
+import imagine.camera.CameraGrid;
+import imagine.game.Game;
+import imagine.object.GameObject;
+
+/**
+ * Class that represents a smooth follow
+ * camera type. Like the {@code Follow} type,
+ * it keeps its target inside the camera grid,
+ * which works as a dead zone, but instead of
+ * snapping to it, the camera eases towards it
+ * with a critically damped spring and looks
+ * ahead in the direction the target moves.
+ * <p>
+ * The eased position is kept with a fraction of a
+ * pixel by this type, so rounding it every frame
+ * doesn't slow the easing down, and the camera is
+ * moved to it by whole pixels. If the camera has
+ * sub-pixel movement enabled, it also keeps the
+ * fraction in its precise coordinates. This type
+ * doesn't change that setting.
+ * 
+ * @author Daniel O Sousa
+ */
+public class SmoothFollow implements CameraType {
+
+    /**
+     * Reference to the {@code Camera}
+     * that has this {@code CameraType}.
+     */
+    private Camera camera;
+
+    /**
+     * The object that the camera
+     * that has this type follows.
+     */
+    private GameObject target;
+
+    /**
+     * The grid where the camera that has
+     * this type keeps the point it follows.
+     */
+    private CameraGrid grid;
+
+    /**
+     * About how many seconds the camera
+     * takes to reach its goal.
+     * <p>
+     * Is initially set to {@code 0.25}.
+     */
+    private double smoothTime = 0.25;
+
+    /**
+     * How many seconds ahead of the target,
+     * at its current velocity, the camera
+     * looks.
+     * <p>
+     * Is initially set to {@code 0.3}.
+     */
+    private double lookAheadTime = 0.3;
+
+    /**
+     * The maximum distance, in pixels, that
+     * the camera looks ahead of the target.
+     * <p>
+     * Is initially set to {@code 96}.
+     */
+    private int maxLookAhead = 96;
+
+    /**
+     * The x coordinate the camera
+     * is easing towards.
+     */
+    private double goalX;
+
+    /**
+     * The y coordinate the camera
+     * is easing towards.
+     */
+    private double goalY;
+
+    /**
+     * The precise x coordinate
+     * of the camera.
+     */
+    private double positionX;
+
+    /**
+     * The precise y coordinate
+     * of the camera.
+     */
+    private double positionY;
+
+    /**
+     * The velocity of the camera on the
+     * x axis, in pixels per second.
+     */
+    private double velocityX;
+
+    /**
+     * The velocity of the camera on the
+     * y axis, in pixels per second.
+     */
+    private double velocityY;
+
+    /**
+     * The x coordinate of the target
+     * in the previous update.
+     */
+    private int lastTargetX;
+
+    /**
+     * The y coordinate of the target
+     * in the previous update.
+     */
+    private int lastTargetY;
+
+    /**
+     * Tells if the camera was
+     * placed on its target yet.
+     */
+    private boolean placed = false;
+
+    /**
+     * The horizontal distance between the
+     * followed point and the {@code grid},
+     * computed once per update.
+     */
+    private int targetXOffset;
+
+    /**
+     * The vertical distance between the
+     * followed point and the {@code grid},
+     * computed once per update.
+     */
+    private int targetYOffset;
+
+    /**
+     * Creates a {@code SmoothFollow}
+     * {@code CameraType} that will
+     * make its corresponding {@code Camera}
+     * smoothly follow the passed {@code target}.
+     * 
+     * @param camera the {@code Camera}
+     * that has this {@code CameraType}
+     * @param target the {@code GameObject}
+     * that will be followed by the {@code camera}
+     * 
+     * @throws IllegalArgumentException if the {@code camera}
+     * or {@code target} argument is {@code null}
+     */
+    public SmoothFollow(Camera camera, GameObject target) {
+        storeCamera(camera);
+        storeTarget(target);
+        createGrid();
+    }
+
+    /**
+     * Stores the {@code camera} argument
+     * in the {@code camera} field.
+     * 
+     * @param camera the {@code Camera} to be stored
+     * 
+     * @throws IllegalArgumentException if the {@code camera}
+     * argument is {@code null}
+     */
+    private void storeCamera(Camera camera) {
+        if(camera == null) {
+            throw new IllegalArgumentException("cannot store null camera");
+        }
+
+        this.camera = camera;
+    }
+
+    /**
+     * Stores the {@code target} argument
+     * in the {@code target} field.
+     * 
+     * @param target the {@code GameObject} to be stored
+     * 
+     * @throws IllegalArgumentException if the {@code target}
+     * argument is {@code null}
+     */
+    private void storeTarget(GameObject target) {
+        if(target == null) {
+            throw new IllegalArgumentException("cannot store null target");
+        }
+
+        this.target = target;
+    }
+
+    /**
+     * Creates the default grid, with the size
+     * of the {@code target} (limited to the size
+     * of the {@code camera}) at the center of
+     * the {@code camera}.
+     */
+    private void createGrid() {
+        int gridWidth = Math.min(target.getWidth(), camera.getWidth());
+        int gridHeight = Math.min(target.getHeight(), camera.getHeight());
+
+        setGrid (
+            new CameraGrid (
+                camera,
+                camera.getWidth() / 2 - gridWidth / 2,
+                camera.getHeight() / 2 - gridHeight / 2,
+                gridWidth,
+                gridHeight
+            )
+        );
+    }
+
+    /**
+     * Sets about how many seconds the
+     * camera takes to reach its goal.
+     * 
+     * @param smoothTime the time to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code smoothTime} is not positive
+     */
+    public void setSmoothTime(double smoothTime) {
+        if(smoothTime <= 0) {
+            throw new IllegalArgumentException (
+                "smooth time must be positive"
+            );
+        }
+
+        this.smoothTime = smoothTime;
+    }
+
+    /**
+     * Returns about how many seconds the
+     * camera takes to reach its goal.
+     * 
+     * @return the smooth time
+     */
+    public double getSmoothTime() {
+        return this.smoothTime;
+    }
+
+    /**
+     * Sets how many seconds ahead of the target,
+     * at its current velocity, the camera looks.
+     * If {@code 0}, the camera doesn't look ahead.
+     * 
+     * @param lookAheadTime the time to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code lookAheadTime} is negative
+     */
+    public void setLookAheadTime(double lookAheadTime) {
+        if(lookAheadTime < 0) {
+            throw new IllegalArgumentException (
+                "look ahead time cannot be negative"
+            );
+        }
+
+        this.lookAheadTime = lookAheadTime;
+    }
+
+    /**
+     * Returns how many seconds ahead of
+     * the target the camera looks.
+     * 
+     * @return the look ahead time
+     */
+    public double getLookAheadTime() {
+        return this.lookAheadTime;
+    }
+
+    /**
+     * Sets the maximum distance, in pixels, that
+     * the camera looks ahead of the target.
+     * 
+     * @param maxLookAhead the distance to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code maxLookAhead} is negative
+     */
+    public void setMaxLookAhead(int maxLookAhead) {
+        if(maxLookAhead < 0) {
+            throw new IllegalArgumentException (
+                "max look ahead cannot be negative"
+            );
+        }
+
+        this.maxLookAhead = maxLookAhead;
+    }
+
+    /**
+     * Returns the maximum distance that the
+     * camera looks ahead of the target.
+     * 
+     * @return the max look ahead
+     */
+    public int getMaxLookAhead() {
+        return this.maxLookAhead;
+    }
+
+    /**
+     * Sets the grid in which the camera keeps the
+     * point it follows. The camera doesn't move while
+     * the point is inside the grid.
+     * 
+     * @param grid the grid to be set
+     * 
+     * @throws IllegalArgumentException if the {@code grid}
+     * is {@code null} or outside the camera view
+     */
+    @Override
+    public void setGrid(CameraGrid grid) {
+        if(grid == null) {
+            throw new IllegalArgumentException("cannot set null grid");
+        }
+        if (
+            grid.getX() < 0 || grid.getY() < 0 ||
+            grid.getX() + grid.getWidth() > camera.getWidth() ||
+            grid.getY() + grid.getHeight() > camera.getHeight()
+        ) {
+            throw new IllegalArgumentException("cannot set grid outside camera view");
+        }
+
+        this.grid = grid;
+    }
+
+    /**
+     * Returns the duration of a frame of the
+     * game, in seconds. If the game has no flow
+     * yet, a frame of 60 fps is assumed.
+     * 
+     * @return the duration of a frame
+     */
+    private double getFrameTime() {
+        Game game = camera.getGame();
+        int fps = game != null ? game.getFps() : 0;
+        return 1.0 / (fps > 0 ? fps : 60);
+    }
+
+    /**
+     * Returns the distance the camera looks ahead
+     * on one axis for the passed target velocity.
+     * 
+     * @param velocity the velocity of the
+     * target, in pixels per second
+     * 
+     * @return the look ahead distance
+     */
+    private double getLookAhead(double velocity) {
+        double lookAhead = velocity * lookAheadTime;
+        return Math.max(-maxLookAhead, Math.min(maxLookAhead, lookAhead));
+    }
+
+    /**
+     * Returns how far the {@code point} is outside of the
+     * span from {@code start} to {@code end}, negative
+     * before it and positive after it.
+     * 
+     * @param point the point
+     * @param start the start of the span
+     * @param end the end of the span
+     * 
+     * @return the distance outside of the span
+     */
+    private static double getOffset(double point, double start, double end) {
+        if(point < start) {
+            return point - start;
+        }
+        if(point > end) {
+            return point - end;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Limits the passed camera coordinate to the
+     * stage, the same way the camera limits itself
+     * when it moves.
+     * 
+     * @param coordinate the coordinate
+     * @param size the size of the camera on the axis
+     * @param stageSize the size of the stage on the axis
+     * 
+     * @return the limited coordinate
+     */
+    private static double clamp(double coordinate, int size, int stageSize) {
+        return Math.max(0, Math.min(coordinate, stageSize - size));
+    }
+
+    /**
+     * Moves the goal of the camera so that the target,
+     * ahead by its velocity, is inside the grid, and eases
+     * the camera towards it with a critically damped
+     * spring. The distances between the followed point
+     * and the grid are computed only once here.
+     */
+    @Override
+    public void update() {
+        double frameTime = getFrameTime();
+        if(!placed) {
+            this.positionX = camera.getPreciseX();
+            this.positionY = camera.getPreciseY();
+            this.goalX = positionX;
+            this.goalY = positionY;
+            this.lastTargetX = target.getX();
+            this.lastTargetY = target.getY();
+            this.placed = true;
+        }
+
+        double pointX = (target.getLeft() + target.getRight()) / 2.0 +
+            getLookAhead((target.getX() - lastTargetX) / frameTime);
+        double pointY = (target.getTop() + target.getBottom()) / 2.0 +
+            getLookAhead((target.getY() - lastTargetY) / frameTime);
+        this.lastTargetX = target.getX();
+        this.lastTargetY = target.getY();
+
+        double xOffset = getOffset(pointX, goalX + grid.getLeft(), goalX + grid.getRight());
+        double yOffset = getOffset(pointY, goalY + grid.getTop(), goalY + grid.getBottom());
+        this.targetXOffset = (int) Math.round(xOffset);
+        this.targetYOffset = (int) Math.round(yOffset);
+        this.goalX = clamp(goalX + xOffset, camera.getWidth(), camera.getStageWidth());
+        this.goalY = clamp(goalY + yOffset, camera.getHeight(), camera.getStageHeight());
+
+        double omega = 2 / smoothTime;
+        double x = omega * frameTime;
+        double decay = 1 / (1 + x + 0.48 * x * x + 0.235 * x * x * x);
+
+        double changeX = positionX - goalX;
+        double tempX = (velocityX + omega * changeX) * frameTime;
+        this.velocityX = (velocityX - omega * tempX) * decay;
+        this.positionX = goalX + (changeX + tempX) * decay;
+
+        double changeY = positionY - goalY;
+        double tempY = (velocityY + omega * changeY) * frameTime;
+        this.velocityY = (velocityY - omega * tempY) * decay;
+        this.positionY = goalY + (changeY + tempY) * decay;
+
+        camera.setPreciseX(clamp(positionX, camera.getWidth(), camera.getStageWidth()));
+        camera.setPreciseY(clamp(positionY, camera.getHeight(), camera.getStageHeight()));
+    }
+
+    /**
+     * Draws the {@code grid} outline, red if the
+     * camera had to move its goal in the last update
+     * and green otherwise, if the {@code camera} is
+     * set to draw its grid.
+     * 
+     * @param g2 {@code Graphics2D} with which to draw
+     */
+    @Override
+    public void draw(Graphics2D g2) {
+        if(camera.getDrawGrid()) {
+            grid.draw(g2, targetXOffset != 0 || targetYOffset != 0 ? Color.RED : Color.GREEN);
+        }
+    }
+
+}
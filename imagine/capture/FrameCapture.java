@@ -0,0 +1,610 @@
+package imagine.capture;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class that writes rendered frames to disk
+ * without stalling the thread that draws them.
+ * <p>
+ * Each captured frame is copied into a pooled buffer,
+ * which is handed to a bounded queue. Worker threads take
+ * the buffers from the queue, encode them as PNG images
+ * or raw RGB images and return them to the pool. The files
+ * are named after the index of the frame, so the workers
+ * can write them in any order.
+ * <p>
+ * When the workers fall behind and every buffer is in
+ * use, the capture either waits for a buffer to be
+ * freed, slowing the game down to the speed of the
+ * encoders, or drops the frame, keeping the game at
+ * its speed. Dropped frames keep their index, so the
+ * gaps can be found in the written sequence.
+ * <p>
+ * The drawing thread only pays for the copy of the
+ * frame, done row by row for integer RGB images,
+ * which is well under a millisecond for a 1280 by 720
+ * frame. Images of other types are converted while
+ * copied and are slower to capture.
+ * 
+ * @author Daniel O Sousa
+ */
+public class FrameCapture {
+
+    /**
+     * Format in which each frame is
+     * written as a PNG image.
+     */
+    public static final int PNG = 0;
+
+    /**
+     * Format in which each frame is written as
+     * raw 8 bit RGB triples, row by row, with no
+     * header, like the {@code rgb24} raw video
+     * format.
+     */
+    public static final int RAW = 1;
+
+    /**
+     * Frame handed to the workers to stop them.
+     */
+    private static final Frame STOP = new Frame();
+
+    /**
+     * The directory where the frames are written.
+     */
+    private File directory;
+
+    /**
+     * The format in which the frames are written.
+     */
+    private int format;
+
+    /**
+     * The amount of worker threads.
+     */
+    private int workerCount;
+
+    /**
+     * The prefix of the names of the files.
+     * <p>
+     * Is initially set to {@code "frame"}.
+     */
+    private volatile String filePrefix = "frame";
+
+    /**
+     * Tells if frames are dropped when every buffer
+     * is in use, instead of waiting for one.
+     * <p>
+     * Is initially set to {@code false}.
+     */
+    private volatile boolean dropFrames = false;
+
+    /**
+     * The buffers that are free to be captured into.
+     */
+    private ArrayBlockingQueue<Frame> freeFrames;
+
+    /**
+     * The captured frames waiting to be written.
+     */
+    private ArrayBlockingQueue<Frame> pendingFrames;
+
+    /**
+     * The amount of buffers that were created.
+     */
+    private int createdFrames;
+
+    /**
+     * The maximum amount of buffers.
+     */
+    private int maxFrames;
+
+    /**
+     * The worker threads, or {@code null}
+     * if they are not running.
+     */
+    private Thread[] workers;
+
+    /**
+     * The index of the next frame.
+     */
+    private int frameIndex;
+
+    /**
+     * The amount of frames captured.
+     */
+    private int capturedCount;
+
+    /**
+     * The amount of frames dropped.
+     */
+    private int droppedCount;
+
+    /**
+     * The amount of frames written.
+     */
+    private AtomicInteger writtenCount = new AtomicInteger();
+
+    /**
+     * The total time spent in the
+     * {@code capture} method, in nanoseconds.
+     */
+    private long captureTime;
+
+    /**
+     * The longest time spent in the
+     * {@code capture} method, in nanoseconds.
+     */
+    private long maxCaptureTime;
+
+    /**
+     * The first error that happened
+     * while writing a frame.
+     */
+    private volatile IOException error;
+
+    /**
+     * Creates a new {@code FrameCapture} that writes
+     * frames into the passed {@code directory} in the
+     * passed {@code format}. At most {@code queueCapacity}
+     * frames wait to be written, and {@code workerCount}
+     * threads write them.
+     * 
+     * @param directory the directory where
+     * the frames are written
+     * @param format the format of the frames,
+     * {@code PNG} or {@code RAW}
+     * @param queueCapacity how many frames
+     * can wait to be written
+     * @param workerCount the amount of worker threads
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code directory} is {@code null}, the
+     * {@code format} is unknown or the
+     * {@code queueCapacity} or {@code workerCount}
+     * is not positive
+     */
+    public FrameCapture(File directory, int format, int queueCapacity, int workerCount) {
+        if(directory == null) {
+            throw new IllegalArgumentException (
+                "cannot capture into null directory"
+            );
+        }
+        if(format != PNG && format != RAW) {
+            throw new IllegalArgumentException (
+                format + " is not a capture format"
+            );
+        }
+        if(queueCapacity <= 0 || workerCount <= 0) {
+            throw new IllegalArgumentException (
+                "queue capacity and worker count must be positive"
+            );
+        }
+
+        this.directory = directory;
+        this.format = format;
+        this.workerCount = workerCount;
+        this.maxFrames = queueCapacity + workerCount;
+        this.freeFrames = new ArrayBlockingQueue<Frame>(maxFrames);
+        this.pendingFrames = new ArrayBlockingQueue<Frame>(queueCapacity + workerCount);
+    }
+
+    /**
+     * Returns the directory where
+     * the frames are written.
+     * 
+     * @return the directory of the frames
+     */
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Returns the format in which
+     * the frames are written.
+     * 
+     * @return {@code PNG} or {@code RAW}
+     */
+    public int getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Returns the amount of worker threads.
+     * 
+     * @return the amount of worker threads
+     */
+    public int getWorkerCount() {
+        return this.workerCount;
+    }
+
+    /**
+     * Sets the prefix of the names of the files,
+     * which are followed by the index of the frame.
+     * 
+     * @param filePrefix the prefix to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code filePrefix} argument is {@code null}
+     */
+    public void setFilePrefix(String filePrefix) {
+        if(filePrefix == null) {
+            throw new IllegalArgumentException (
+                "cannot set null file prefix"
+            );
+        }
+
+        this.filePrefix = filePrefix;
+    }
+
+    /**
+     * Returns the prefix of the names of the files.
+     * 
+     * @return the file prefix
+     */
+    public String getFilePrefix() {
+        return this.filePrefix;
+    }
+
+    /**
+     * Defines if frames are dropped when the workers
+     * fall behind and every buffer is in use. Otherwise,
+     * the capture waits until a buffer is freed.
+     * 
+     * @param dropFrames boolean specifying if
+     * frames are dropped
+     */
+    public void setDropFrames(boolean dropFrames) {
+        this.dropFrames = dropFrames;
+    }
+
+    /**
+     * Returns {@code true} if frames are dropped when
+     * every buffer is in use and {@code false} otherwise.
+     * 
+     * @return boolean specifying if frames are dropped
+     */
+    public boolean getDropFrames() {
+        return this.dropFrames;
+    }
+
+    /**
+     * Returns the amount of frames captured,
+     * not counting the dropped ones.
+     * 
+     * @return the amount of captured frames
+     */
+    public int getCapturedCount() {
+        return this.capturedCount;
+    }
+
+    /**
+     * Returns the amount of frames dropped
+     * because every buffer was in use.
+     * 
+     * @return the amount of dropped frames
+     */
+    public int getDroppedCount() {
+        return this.droppedCount;
+    }
+
+    /**
+     * Returns the amount of frames
+     * already written to disk.
+     * 
+     * @return the amount of written frames
+     */
+    public int getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * Returns the average time spent in the
+     * {@code capture} method, including the
+     * dropped frames and the waits for buffers.
+     * 
+     * @return the average capture time in nanoseconds
+     */
+    public long getAverageCaptureTime() {
+        int calls = capturedCount + droppedCount;
+        if(calls == 0) {
+            return 0;
+        }
+        return captureTime / calls;
+    }
+
+    /**
+     * Returns the longest time spent
+     * in the {@code capture} method.
+     * 
+     * @return the longest capture time in nanoseconds
+     */
+    public long getMaxCaptureTime() {
+        return this.maxCaptureTime;
+    }
+
+    /**
+     * Returns the first error that happened
+     * while writing a frame. Frames that fail
+     * to be written are skipped.
+     * 
+     * @return the error or {@code null}
+     * if no error happened
+     */
+    public IOException getError() {
+        return this.error;
+    }
+
+    /**
+     * Returns {@code true} if the worker
+     * threads are running and {@code false}
+     * otherwise.
+     * 
+     * @return boolean specifying if
+     * this {@code FrameCapture} is running
+     */
+    public boolean isRunning() {
+        return workers != null;
+    }
+
+    /**
+     * Captures the passed {@code image} as the next
+     * frame, copying it into a free buffer and queueing
+     * it to be written. The worker threads are started
+     * on the first capture.
+     * <p>
+     * If every buffer is in use, the frame is dropped
+     * or the capture waits for a buffer, depending on
+     * the drop policy.
+     * 
+     * @param image the rendered frame
+     * 
+     * @return {@code true} if the frame was captured,
+     * {@code false} if it was dropped
+     */
+    public synchronized boolean capture(BufferedImage image) {
+        long start = System.nanoTime();
+        if(workers == null) {
+            startWorkers();
+        }
+
+        int index = frameIndex++;
+        Frame frame = freeFrames.poll();
+        if(frame == null && createdFrames < maxFrames) {
+            frame = new Frame();
+            createdFrames++;
+        }
+        if(frame == null) {
+            if(dropFrames) {
+                droppedCount++;
+                recordCaptureTime(start);
+                return false;
+            }
+            try {
+                frame = freeFrames.take();
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedCount++;
+                recordCaptureTime(start);
+                return false;
+            }
+        }
+
+        frame.copy(image);
+        frame.index = index;
+        pendingFrames.add(frame);
+        capturedCount++;
+        recordCaptureTime(start);
+        return true;
+    }
+
+    /**
+     * Writes the frames waiting in the queue and
+     * stops the worker threads, waiting for them.
+     * The buffers are released. Capturing again
+     * starts the workers again, continuing
+     * the frame indices.
+     */
+    public synchronized void stop() {
+        if(workers == null) {
+            return;
+        }
+
+        try {
+            for(int i = 0; i < workers.length; i++) {
+                pendingFrames.put(STOP);
+            }
+            for(Thread worker : workers) {
+                worker.join();
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.workers = null;
+        freeFrames.clear();
+        this.createdFrames = 0;
+    }
+
+    /**
+     * Adds the time since {@code start}
+     * to the capture times.
+     * 
+     * @param start when the capture started
+     */
+    private void recordCaptureTime(long start) {
+        long time = System.nanoTime() - start;
+        this.captureTime += time;
+        if(time > maxCaptureTime) {
+            this.maxCaptureTime = time;
+        }
+    }
+
+    /**
+     * Starts the worker threads.
+     */
+    private void startWorkers() {
+        this.workers = new Thread[workerCount];
+        for(int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            }, "imagine-capture-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Loop of a worker thread, which writes the
+     * queued frames until it is stopped.
+     */
+    private void work() {
+        byte[] bytes = null;
+        try {
+            while(true) {
+                Frame frame = pendingFrames.take();
+                if(frame == STOP) {
+                    return;
+                }
+
+                try {
+                    if(format == PNG) {
+                        writePng(frame);
+                    } else {
+                        if(bytes == null || bytes.length != frame.pixels.length * 3) {
+                            bytes = new byte[frame.pixels.length * 3];
+                        }
+                        writeRaw(frame, bytes);
+                    }
+                    writtenCount.incrementAndGet();
+                }
+                catch(IOException e) {
+                    if(error == null) {
+                        this.error = e;
+                    }
+                }
+                freeFrames.add(frame);
+            }
+        }
+        catch(InterruptedException e) {
+            // the worker was interrupted
+        }
+    }
+
+    /**
+     * Returns the file where the
+     * passed {@code frame} is written.
+     * 
+     * @param frame the frame
+     * @param extension the extension of the file
+     * 
+     * @return the file of the frame
+     */
+    private File getFile(Frame frame, String extension) {
+        return new File(directory, filePrefix + String.format("%06d", frame.index) + extension);
+    }
+
+    /**
+     * Writes the passed {@code frame}
+     * as a PNG image.
+     * 
+     * @param frame the frame to be written
+     * 
+     * @throws IOException if the file
+     * cannot be written
+     */
+    private void writePng(Frame frame) throws IOException {
+        if(!ImageIO.write(frame.image, "png", getFile(frame, ".png"))) {
+            throw new IOException("no PNG writer available");
+        }
+    }
+
+    /**
+     * Writes the passed {@code frame} as
+     * raw RGB triples, using the {@code bytes}
+     * array to convert its pixels.
+     * 
+     * @param frame the frame to be written
+     * @param bytes an array with three bytes
+     * per pixel of the frame
+     * 
+     * @throws IOException if the file
+     * cannot be written
+     */
+    private void writeRaw(Frame frame, byte[] bytes) throws IOException {
+        int[] pixels = frame.pixels;
+        int j = 0;
+        for(int i = 0; i < pixels.length; i++) {
+            int pixel = pixels[i];
+            bytes[j++] = (byte) (pixel >> 16);
+            bytes[j++] = (byte) (pixel >> 8);
+            bytes[j++] = (byte) pixel;
+        }
+
+        try(OutputStream output = new FileOutputStream(getFile(frame, ".rgb"))) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * A pooled buffer holding a captured frame.
+     */
+    private static final class Frame {
+
+        /**
+         * The image of the buffer,
+         * of integer RGB type.
+         */
+        private BufferedImage image;
+
+        /**
+         * The pixels of the image.
+         */
+        private int[] pixels;
+
+        /**
+         * The index of the captured frame.
+         */
+        private int index;
+
+        /**
+         * Copies the passed {@code source} into this
+         * {@code Frame}, recreating its image if the
+         * size of the source changed.
+         * 
+         * @param source the image to be copied
+         */
+        private void copy(BufferedImage source) {
+            int width = source.getWidth();
+            int height = source.getHeight();
+            if(image == null || image.getWidth() != width || image.getHeight() != height) {
+                this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            }
+
+            int type = source.getType();
+            if(type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB) {
+                source.getRGB(0, 0, width, height, pixels, 0, width);
+                return;
+            }
+
+            source.getRaster().getDataElements(0, 0, width, height, pixels);
+        }
+
+    }
+
+}
@@ -0,0 +1,59 @@
+package imagine.debug;
+
+import java.awt.image.BufferedImage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning the
+ * decoding of an image asset.
+ * 
+ * @author Daniel O Sousa
+ * 
+ * @see imagine.sprite.Sprite
+ */
+@Name("imagine.AssetDecode")
+@Label("Asset Decode")
+@Category({"Imagine", "Assets"})
+@Description("The decoding of an image asset")
+public final class AssetDecodeEvent extends Event {
+
+    /**
+     * The path of the asset.
+     */
+    @Label("Path")
+    private String path;
+
+    /**
+     * The width of the decoded image.
+     */
+    @Label("Width")
+    private int width;
+
+    /**
+     * The height of the decoded image.
+     */
+    @Label("Height")
+    private int height;
+
+    /**
+     * Sets the path of the asset and the
+     * decoded {@code image}, which is
+     * {@code null} if decoding failed.
+     * 
+     * @param path the path of the asset
+     * @param image the decoded image
+     */
+    public void setAsset(String path, BufferedImage image) {
+        this.path = path;
+        if(image != null) {
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+        }
+    }
+
+}
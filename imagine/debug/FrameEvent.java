@@ -0,0 +1,65 @@
+package imagine.debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import imagine.stage.Stage;
+
+/**
+ * Flight Recorder event spanning one tick of a
+ * {@code GameFlow}, in which the {@code Game} is
+ * updated and its panel is asked to repaint.
+ * <p>
+ * While no recording is running, creating, beginning
+ * and committing the event costs nothing once the
+ * code is compiled, so it is emitted on every tick.
+ * 
+ * @author Daniel O Sousa
+ * 
+ * @see imagine.flow.GameFlow
+ */
+@Name("imagine.Frame")
+@Label("Frame")
+@Category({"Imagine", "Frames"})
+@Description("A tick of the game flow, updating the game and requesting a repaint")
+public final class FrameEvent extends Event {
+
+    /**
+     * The index of the frame.
+     */
+    @Label("Frame")
+    private long frame;
+
+    /**
+     * The title of the current stage.
+     */
+    @Label("Stage")
+    private String stageTitle;
+
+    /**
+     * The amount of objects
+     * of the current stage.
+     */
+    @Label("Objects")
+    private int objectCount;
+
+    /**
+     * Sets the index of the frame and
+     * the current {@code stage}, which
+     * may be {@code null}.
+     * 
+     * @param frame the index of the frame
+     * @param stage the current stage
+     */
+    public void setFrame(long frame, Stage stage) {
+        this.frame = frame;
+        if(stage != null) {
+            this.stageTitle = stage.getTitle();
+            this.objectCount = stage.getObjects().size();
+        }
+    }
+
+}
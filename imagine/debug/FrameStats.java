@@ -0,0 +1,174 @@
+package imagine.debug;
+
+/**
+ * Class holding the durations, in nanoseconds, of a
+ * phase of the last frames of a {@code Game}, like
+ * its update or its drawing, in a ring buffer
+ * allocated once.
+ * <p>
+ * Adding a duration overwrites the oldest one, so
+ * recording every frame allocates nothing. Durations
+ * are added by the thread running the phase and may
+ * be read from another one, which at worst sees a
+ * duration of the previous round of the buffer.
+ * 
+ * @author Daniel O Sousa
+ */
+public class FrameStats {
+
+    /**
+     * The durations of the last
+     * frames, in nanoseconds.
+     */
+    private final long[] durations;
+
+    /**
+     * How many durations were
+     * added since the creation.
+     */
+    private volatile long count;
+
+    /**
+     * Creates a new {@code FrameStats} that
+     * keeps the durations of the last
+     * {@code 120} frames.
+     */
+    public FrameStats() {
+        this(120);
+    }
+
+    /**
+     * Creates a new {@code FrameStats} that keeps
+     * the durations of the passed amount of frames.
+     * 
+     * @param capacity how many frames are kept
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code capacity} is not positive
+     */
+    public FrameStats(int capacity) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException (
+                "capacity must be positive"
+            );
+        }
+
+        this.durations = new long[capacity];
+    }
+
+    /**
+     * Adds the duration of a frame,
+     * overwriting the oldest one
+     * if the buffer is full.
+     * 
+     * @param nanos the duration in nanoseconds
+     */
+    public void add(long nanos) {
+        long count = this.count;
+        durations[(int) (count % durations.length)] = nanos;
+        this.count = count + 1;
+    }
+
+    /**
+     * Returns how many frames
+     * this {@code FrameStats} keeps.
+     * 
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return durations.length;
+    }
+
+    /**
+     * Returns how many durations were added
+     * since this {@code FrameStats} was created.
+     * 
+     * @return the amount of added durations
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns how many durations are kept,
+     * which is never more than the capacity.
+     * 
+     * @return the amount of kept durations
+     */
+    public int getSize() {
+        return (int) Math.min(count, durations.length);
+    }
+
+    /**
+     * Returns a kept duration, where {@code 0}
+     * is the last added one, {@code 1} the one
+     * before it and so on.
+     * 
+     * @param age how many durations were
+     * added after the returned one
+     * 
+     * @return the duration in nanoseconds
+     * 
+     * @throws IndexOutOfBoundsException if the
+     * {@code age} does not match a kept duration
+     */
+    public long get(int age) {
+        long count = this.count;
+        if(age < 0 || age >= Math.min(count, durations.length)) {
+            throw new IndexOutOfBoundsException (
+                "no duration of age " + age
+            );
+        }
+
+        return durations[(int) ((count - 1 - age) % durations.length)];
+    }
+
+    /**
+     * Returns the last added duration.
+     * 
+     * @return the last duration in nanoseconds,
+     * or {@code 0} if none was added
+     */
+    public long getLast() {
+        if(count == 0) {
+            return 0;
+        }
+
+        return get(0);
+    }
+
+    /**
+     * Returns the average of the kept durations.
+     * 
+     * @return the average duration in nanoseconds,
+     * or {@code 0} if none was added
+     */
+    public long getAverage() {
+        int size = getSize();
+        if(size == 0) {
+            return 0;
+        }
+
+        long sum = 0;
+        for(int i = 0; i < size; i++) {
+            sum += durations[i];
+        }
+        return sum / size;
+    }
+
+    /**
+     * Returns the longest of the kept durations.
+     * 
+     * @return the longest duration in nanoseconds,
+     * or {@code 0} if none was added
+     */
+    public long getMax() {
+        int size = getSize();
+        long max = 0;
+        for(int i = 0; i < size; i++) {
+            max = Math.max(max, durations[i]);
+        }
+        return max;
+    }
+
+}
@@ -0,0 +1,81 @@
+package imagine.debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import imagine.stage.Stage;
+
+/**
+ * Flight Recorder event committed when the time
+ * between two ticks of a {@code GameFlow} goes
+ * above its long frame threshold, which usually
+ * means the game stuttered.
+ * <p>
+ * The event is committed at the start of the tick
+ * ending the long frame, so pauses, like garbage
+ * collections, are found right before it.
+ * 
+ * @author Daniel O Sousa
+ * 
+ * @see imagine.flow.GameFlow#setLongFrameThreshold(long)
+ */
+@Name("imagine.LongFrame")
+@Label("Long Frame")
+@Category({"Imagine", "Frames"})
+@Description("The time between two ticks of the game flow went above the threshold")
+public final class LongFrameEvent extends Event {
+
+    /**
+     * The index of the frame
+     * ending the long frame.
+     */
+    @Label("Frame")
+    private long frame;
+
+    /**
+     * The time since the previous tick.
+     */
+    @Label("Frame Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long frameTime;
+
+    /**
+     * The time expected between ticks.
+     */
+    @Label("Expected Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long expectedTime;
+
+    /**
+     * The title of the current stage.
+     */
+    @Label("Stage")
+    private String stageTitle;
+
+    /**
+     * Sets the index of the frame, how long
+     * it took and was expected to take, and
+     * the current {@code stage}, which may
+     * be {@code null}.
+     * 
+     * @param frame the index of the frame
+     * @param frameTime the time since the
+     * previous tick in nanoseconds
+     * @param expectedTime the time expected
+     * between ticks in nanoseconds
+     * @param stage the current stage
+     */
+    public void setFrame(long frame, long frameTime, long expectedTime, Stage stage) {
+        this.frame = frame;
+        this.frameTime = frameTime;
+        this.expectedTime = expectedTime;
+        if(stage != null) {
+            this.stageTitle = stage.getTitle();
+        }
+    }
+
+}
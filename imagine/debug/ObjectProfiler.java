@@ -0,0 +1,507 @@
+package imagine.debug;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import imagine.object.GameObject;
+
+/**
+ * Class that attributes the time spent updating and
+ * drawing game objects to their concrete classes, and
+ * optionally to each object, so that a slow frame can
+ * be traced to the objects causing it.
+ * <p>
+ * An {@code ObjectProfiler} is set to a {@code Stage},
+ * whose objects then measure their {@code update} and
+ * {@code draw} calls with it. While a stage has no
+ * profiler, objects only check that it is {@code null}.
+ * <p>
+ * The stats are kept until reset, and can be reported
+ * as a table of the slowest classes every given amount
+ * of frames, resetting them afterwards. The stats are
+ * copied when a report is due, and the table is built
+ * and printed by a separate thread, so reports don't
+ * slow down the game loop. Objects drawn
+ * through a {@code RenderBatch} measure their recording,
+ * and the batch measures their {@code onDraw} when it
+ * is submitted, so each one counts as a drawing.
+ * 
+ * @author Daniel O Sousa
+ * 
+ * @see imagine.stage.Stage#setObjectProfiler(ObjectProfiler)
+ */
+public class ObjectProfiler {
+
+    /**
+     * The stats of the classes of the measured
+     * objects, created when a class is first
+     * measured.
+     */
+    private final ClassValue<ObjectStats> classStats = new ClassValue<ObjectStats>() {
+        @Override
+        protected ObjectStats computeValue(Class<?> type) {
+            ObjectStats stats = new ObjectStats(getName(type));
+            synchronized(allClassStats) {
+                allClassStats.add(stats);
+            }
+            return stats;
+        }
+    };
+
+    /**
+     * Every stats of {@code classStats}.
+     */
+    private final ArrayList<ObjectStats> allClassStats = new ArrayList<ObjectStats>();
+
+    /**
+     * Tells if each object is also measured.
+     * <p>
+     * Is initially set to {@code false}.
+     */
+    private boolean perInstance = false;
+
+    /**
+     * The stats of each measured object,
+     * if objects are measured.
+     */
+    private final WeakHashMap<GameObject, ObjectStats> instanceStats = new WeakHashMap<GameObject, ObjectStats>();
+
+    /**
+     * How many frames were measured
+     * since the last reset.
+     */
+    private volatile int frames = 0;
+
+    /**
+     * Every how many frames the stats are
+     * printed, or {@code 0} if they aren't.
+     */
+    private int reportInterval = 0;
+
+    /**
+     * How many classes or objects
+     * each report shows.
+     */
+    private int reportSize = 10;
+
+    /**
+     * Where the reports are printed, or
+     * {@code null} if they are only kept.
+     */
+    private PrintStream reportStream = System.out;
+
+    /**
+     * The last built report, or
+     * {@code null} if none was.
+     */
+    private volatile String lastReport;
+
+    /**
+     * The thread building and printing the
+     * reports, created when first needed.
+     */
+    private ExecutorService reporter;
+
+    /**
+     * Defines if each object should also be
+     * measured, besides its class. Measuring each
+     * object is slower, so it is better used once
+     * the slow classes are known.
+     * 
+     * @param perInstance {@code boolean} determining
+     * if each object is measured
+     */
+    public void setPerInstance(boolean perInstance) {
+        this.perInstance = perInstance;
+        if(!perInstance) {
+            synchronized(instanceStats) {
+                instanceStats.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if each object is
+     * measured and {@code false} otherwise.
+     * 
+     * @return boolean indicating if each
+     * object is measured
+     */
+    public boolean getPerInstance() {
+        return this.perInstance;
+    }
+
+    /**
+     * Makes the stats be reported every {@code interval}
+     * frames, as a table of the {@code size} slowest
+     * classes, followed by the slowest objects if each
+     * object is measured. The stats are reset after each
+     * report, which is kept as the last report and
+     * printed to the {@code stream}, if one is passed.
+     * 
+     * @param stream where the reports are printed,
+     * or {@code null} if they are only kept
+     * @param interval every how many frames
+     * the stats are reported
+     * @param size how many classes or
+     * objects are reported
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code interval} or {@code size} is
+     * not positive
+     * 
+     * @see #getLastReport()
+     */
+    public void setReport(PrintStream stream, int interval, int size) {
+        if(interval <= 0 || size <= 0) {
+            throw new IllegalArgumentException (
+                "report interval and size must be positive"
+            );
+        }
+
+        this.reportStream = stream;
+        this.reportInterval = interval;
+        this.reportSize = size;
+    }
+
+    /**
+     * Makes the stats stop being reported.
+     */
+    public void removeReport() {
+        this.reportInterval = 0;
+    }
+
+    /**
+     * Returns how many frames were
+     * measured since the last reset.
+     * 
+     * @return the amount of frames
+     */
+    public int getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * Adds the duration of an
+     * update of the {@code object}.
+     * 
+     * @param object the updated object
+     * @param nanos the duration in nanoseconds
+     */
+    public void addUpdate(GameObject object, long nanos) {
+        classStats.get(object.getClass()).addUpdate(nanos);
+        if(perInstance) {
+            synchronized(instanceStats) {
+                getInstanceStats(object).addUpdate(nanos);
+            }
+        }
+    }
+
+    /**
+     * Adds the duration of a
+     * drawing of the {@code object}.
+     * 
+     * @param object the drawn object
+     * @param nanos the duration in nanoseconds
+     */
+    public void addDraw(GameObject object, long nanos) {
+        classStats.get(object.getClass()).addDraw(nanos);
+        if(perInstance) {
+            synchronized(instanceStats) {
+                getInstanceStats(object).addDraw(nanos);
+            }
+        }
+    }
+
+    /**
+     * Returns the last report made every
+     * {@code interval} frames, as set by
+     * {@code setReport}.
+     * 
+     * @return the last report, or
+     * {@code null} if none was made
+     */
+    public String getLastReport() {
+        return this.lastReport;
+    }
+
+    /**
+     * Ends a measured frame. If a report is due,
+     * the stats are copied and reset, and the
+     * report is built and printed by the
+     * reporting thread.
+     */
+    public void endFrame() {
+        int frames = this.frames + 1;
+        this.frames = frames;
+        if(reportInterval > 0 && frames >= reportInterval) {
+            final int size = reportSize;
+            final PrintStream stream = reportStream;
+            final ArrayList<ObjectStats> classes = copyClassStats(true);
+            final ArrayList<ObjectStats> objects = perInstance ? copyInstanceStats(true) : null;
+            this.frames = 0;
+            getReporter().execute(new Runnable() {
+                @Override
+                public void run() {
+                    String report = buildReport(frames, classes, objects, size);
+                    lastReport = report;
+                    if(stream != null) {
+                        stream.print(report);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the stats of the passed {@code type}
+     * of game object, creating them if needed.
+     * 
+     * @param type the class of the objects
+     * 
+     * @return the stats of the class
+     */
+    public ObjectStats getClassStats(Class<? extends GameObject> type) {
+        return classStats.get(type);
+    }
+
+    /**
+     * Returns copies of the stats of the classes
+     * that spent the most time updating and
+     * drawing, the slowest first.
+     * 
+     * @param size how many classes are returned
+     * 
+     * @return the stats of the slowest classes
+     */
+    public ArrayList<ObjectStats> getSlowestClasses(int size) {
+        return sortSlowest(copyClassStats(false), size);
+    }
+
+    /**
+     * Returns copies of the stats of the objects
+     * that spent the most time updating and
+     * drawing, the slowest first. Objects are only
+     * measured while {@code perInstance} is set.
+     * 
+     * @param size how many objects are returned
+     * 
+     * @return the stats of the slowest objects
+     */
+    public ArrayList<ObjectStats> getSlowestObjects(int size) {
+        return sortSlowest(copyInstanceStats(false), size);
+    }
+
+    /**
+     * Returns a table with the {@code size} slowest
+     * classes, followed by the slowest objects if each
+     * object is measured, with their times in
+     * milliseconds per frame and their call counts.
+     * 
+     * @param size how many classes or
+     * objects are shown
+     * 
+     * @return the table
+     */
+    public String getReport(int size) {
+        return buildReport (
+            frames, copyClassStats(false),
+            perInstance ? copyInstanceStats(false) : null, size
+        );
+    }
+
+    /**
+     * Sets every time and count to {@code 0}
+     * and forgets the measured objects. The
+     * stats may keep being measured meanwhile.
+     */
+    public void reset() {
+        synchronized(allClassStats) {
+            for(ObjectStats stats : allClassStats) {
+                stats.reset();
+            }
+        }
+        synchronized(instanceStats) {
+            instanceStats.clear();
+        }
+        this.frames = 0;
+    }
+
+    /**
+     * Returns copies of the stats of every
+     * measured class.
+     * 
+     * @param reset {@code boolean} determining if
+     * the stats are reset after being copied
+     * 
+     * @return the copied stats
+     */
+    private ArrayList<ObjectStats> copyClassStats(boolean reset) {
+        synchronized(allClassStats) {
+            ArrayList<ObjectStats> copies = new ArrayList<ObjectStats>(allClassStats.size());
+            for(ObjectStats stats : allClassStats) {
+                copies.add(stats.copy(reset));
+            }
+            return copies;
+        }
+    }
+
+    /**
+     * Returns copies of the stats of every
+     * measured object.
+     * 
+     * @param reset {@code boolean} determining if
+     * the measured objects are forgotten
+     * after being copied
+     * 
+     * @return the copied stats
+     */
+    private ArrayList<ObjectStats> copyInstanceStats(boolean reset) {
+        synchronized(instanceStats) {
+            ArrayList<ObjectStats> copies = new ArrayList<ObjectStats>(instanceStats.size());
+            for(ObjectStats stats : instanceStats.values()) {
+                copies.add(stats.copy(false));
+            }
+            if(reset) {
+                instanceStats.clear();
+            }
+            return copies;
+        }
+    }
+
+    /**
+     * Returns the thread building and printing
+     * the reports, creating it if needed.
+     * 
+     * @return the reporting thread
+     */
+    private synchronized ExecutorService getReporter() {
+        if(reporter == null) {
+            this.reporter = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "imagine-profiler-report");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return this.reporter;
+    }
+
+    /**
+     * Returns the stats of the passed
+     * {@code object}, creating them if needed.
+     * 
+     * @param object the measured object
+     * 
+     * @return the stats of the object
+     */
+    private ObjectStats getInstanceStats(GameObject object) {
+        ObjectStats stats = instanceStats.get(object);
+        if(stats == null) {
+            stats = new ObjectStats (
+                getName(object.getClass()) + "@" +
+                Integer.toHexString(System.identityHashCode(object))
+            );
+            instanceStats.put(object, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Returns a table with the {@code size} slowest
+     * of the passed {@code classes}, followed by the
+     * slowest {@code objects} if there are any.
+     * 
+     * @param frames how many frames were measured
+     * @param classes the stats of the classes
+     * @param objects the stats of the objects,
+     * or {@code null} if they aren't measured
+     * @param size how many classes or
+     * objects are shown
+     * 
+     * @return the table
+     */
+    private static String buildReport(int frames, ArrayList<ObjectStats> classes, ArrayList<ObjectStats> objects, int size) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format (
+            "object profile over %d frames (ms per frame)%n", frames
+        ));
+        appendTable(report, frames, "class", sortSlowest(classes, size));
+        if(objects != null) {
+            appendTable(report, frames, "object", sortSlowest(objects, size));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Appends to the {@code report} a table
+     * with the passed {@code stats}.
+     * 
+     * @param report the report being built
+     * @param frames how many frames were measured
+     * @param title the title of the first column
+     * @param stats the stats to be shown
+     */
+    private static void appendTable(StringBuilder report, int frames, String title, ArrayList<ObjectStats> stats) {
+        double perFrame = 1e6 * Math.max(1, frames);
+        report.append(String.format (
+            "  %-32s %10s %8s %10s %8s %10s%n",
+            title, "update", "calls", "draw", "calls", "total"
+        ));
+        for(ObjectStats line : stats) {
+            report.append(String.format (
+                "  %-32s %10.3f %8d %10.3f %8d %10.3f%n",
+                line.getName(),
+                line.getUpdateTime() / perFrame, line.getUpdateCount(),
+                line.getDrawTime() / perFrame, line.getDrawCount(),
+                line.getTotalTime() / perFrame
+            ));
+        }
+    }
+
+    /**
+     * Sorts the passed {@code stats} from the slowest
+     * to the fastest and keeps the first ones.
+     * 
+     * @param stats the stats to be sorted
+     * @param size how many stats are kept
+     * 
+     * @return the slowest stats
+     */
+    private static ArrayList<ObjectStats> sortSlowest(ArrayList<ObjectStats> stats, int size) {
+        Collections.sort(stats, new Comparator<ObjectStats>() {
+            @Override
+            public int compare(ObjectStats first, ObjectStats second) {
+                return Long.compare(second.getTotalTime(), first.getTotalTime());
+            }
+        });
+        while(stats.size() > Math.max(0, size)) {
+            stats.remove(stats.size() - 1);
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the name shown for the passed
+     * {@code type}, which is its simple name,
+     * or its full name if it is anonymous.
+     * 
+     * @param type the class to be named
+     * 
+     * @return the name of the class
+     */
+    private static String getName(Class<?> type) {
+        String name = type.getSimpleName();
+        return name.isEmpty() ? type.getName() : name;
+    }
+
+}
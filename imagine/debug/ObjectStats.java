@@ -0,0 +1,162 @@
+package imagine.debug;
+
+/**
+ * Class holding the time spent updating and drawing
+ * the game objects of a class, or a single game
+ * object, measured by an {@code ObjectProfiler}.
+ * <p>
+ * Stats are added by the thread updating or drawing
+ * the objects and may be read or reset from another
+ * one, so every access is synchronized.
+ * 
+ * @author Daniel O Sousa
+ * 
+ * @see ObjectProfiler
+ */
+public class ObjectStats {
+
+    /**
+     * The name of the class or
+     * object these stats are of.
+     */
+    private String name;
+
+    /**
+     * The nanoseconds spent updating.
+     */
+    private long updateTime;
+
+    /**
+     * How many updates were measured.
+     */
+    private long updateCount;
+
+    /**
+     * The nanoseconds spent drawing.
+     */
+    private long drawTime;
+
+    /**
+     * How many drawings were measured.
+     */
+    private long drawCount;
+
+    /**
+     * Creates new empty {@code ObjectStats}
+     * with the passed {@code name}.
+     * 
+     * @param name the name of the class
+     * or object of the stats
+     */
+    ObjectStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the class or
+     * object of these {@code ObjectStats}.
+     * 
+     * @return the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the nanoseconds spent updating.
+     * 
+     * @return the update time
+     */
+    public synchronized long getUpdateTime() {
+        return this.updateTime;
+    }
+
+    /**
+     * Returns how many updates were measured.
+     * 
+     * @return the amount of updates
+     */
+    public synchronized long getUpdateCount() {
+        return this.updateCount;
+    }
+
+    /**
+     * Returns the nanoseconds spent drawing.
+     * 
+     * @return the draw time
+     */
+    public synchronized long getDrawTime() {
+        return this.drawTime;
+    }
+
+    /**
+     * Returns how many drawings were measured.
+     * 
+     * @return the amount of drawings
+     */
+    public synchronized long getDrawCount() {
+        return this.drawCount;
+    }
+
+    /**
+     * Returns the nanoseconds spent
+     * updating and drawing.
+     * 
+     * @return the total time
+     */
+    public synchronized long getTotalTime() {
+        return updateTime + drawTime;
+    }
+
+    /**
+     * Adds the duration of an update.
+     * 
+     * @param nanos the duration in nanoseconds
+     */
+    synchronized void addUpdate(long nanos) {
+        this.updateTime += nanos;
+        this.updateCount++;
+    }
+
+    /**
+     * Adds the duration of a drawing.
+     * 
+     * @param nanos the duration in nanoseconds
+     */
+    synchronized void addDraw(long nanos) {
+        this.drawTime += nanos;
+        this.drawCount++;
+    }
+
+    /**
+     * Sets every time and count to {@code 0}.
+     */
+    synchronized void reset() {
+        this.updateTime = 0;
+        this.updateCount = 0;
+        this.drawTime = 0;
+        this.drawCount = 0;
+    }
+
+    /**
+     * Returns a copy of these {@code ObjectStats},
+     * which is not changed by later measures.
+     * 
+     * @param reset {@code boolean} determining if
+     * these stats are reset after being copied
+     * 
+     * @return the copied stats
+     */
+    synchronized ObjectStats copy(boolean reset) {
+        ObjectStats copy = new ObjectStats(name);
+        copy.updateTime = updateTime;
+        copy.updateCount = updateCount;
+        copy.drawTime = drawTime;
+        copy.drawCount = drawCount;
+        if(reset) {
+            reset();
+        }
+        return copy;
+    }
+
+}
@@ -0,0 +1,455 @@
+package imagine.debug;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import imagine.flow.GameFlow;
+import imagine.game.Game;
+import imagine.stage.Stage;
+import imagine.text.GlyphAtlas;
+import imagine.text.GlyphRun;
+
+/**
+ * Class used for drawing an overlay with the
+ * performance of a {@code Game} over its frames.
+ * <p>
+ * The overlay shows a graph of how long the last
+ * frames took to update, draw and present, the
+ * measured fps, the object counts of the current
+ * {@code Stage}, with its visible and culled objects
+ * when it culls them, how many garbage collections ran
+ * and for how long, and the heap usage.
+ * <p>
+ * Everything shown is read from the {@code FrameStats}
+ * of the {@code Game} and written into buffers that are
+ * allocated once, so drawing the overlay adds no
+ * allocation to the frame. The text is drawn with a
+ * font by default, which is faster with Java2D than
+ * blitting glyphs, or with a {@code GlyphAtlas}
+ * if one is passed.
+ * 
+ * @author Daniel O Sousa
+ * 
+ * @see imagine.game.Game#setPerformanceHud(PerformanceHud)
+ */
+public class PerformanceHud {
+
+    /**
+     * The color of the update durations.
+     */
+    private static final Color UPDATE_COLOR = new Color(96, 224, 96);
+
+    /**
+     * The color of the draw durations.
+     */
+    private static final Color DRAW_COLOR = new Color(240, 200, 64);
+
+    /**
+     * The color of the present durations.
+     */
+    private static final Color PRESENT_COLOR = new Color(96, 176, 255);
+
+    /**
+     * The color of the line marking
+     * the duration of a frame.
+     */
+    private static final Color BUDGET_COLOR = new Color(255, 80, 80);
+
+    /**
+     * The color drawn behind the overlay.
+     */
+    private static final Color BACKGROUND_COLOR = new Color(0, 0, 0, 176);
+
+    /**
+     * How many bytes a megabyte has.
+     */
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /**
+     * The x coordinate of the top
+     * left corner of the overlay.
+     */
+    private int x = 8;
+
+    /**
+     * The y coordinate of the top
+     * left corner of the overlay.
+     */
+    private int y = 8;
+
+    /**
+     * The height of the graph of
+     * durations, in pixels.
+     */
+    private int graphHeight = 64;
+
+    /**
+     * The font the text is drawn with,
+     * if there is no atlas.
+     */
+    private Font font;
+
+    /**
+     * The atlas the text is drawn with,
+     * or {@code null} if it is drawn
+     * with the font.
+     */
+    private GlyphAtlas atlas;
+
+    /**
+     * The lines of text of the overlay,
+     * rebuilt every time it is drawn.
+     */
+    private GlyphRun[] lines = new GlyphRun[6];
+
+    /**
+     * The x coordinates of the points
+     * of a line of the graph.
+     */
+    private int[] xPoints = new int[0];
+
+    /**
+     * The y coordinates of the points
+     * of a line of the graph.
+     */
+    private int[] yPoints = new int[0];
+
+    /**
+     * The translucent image drawn behind the
+     * overlay, which only grows. Filling a
+     * translucent rectangle with Java2D allocates
+     * every time, while drawing an image doesn't.
+     */
+    private BufferedImage background;
+
+    /**
+     * The garbage collectors of the
+     * virtual machine.
+     */
+    private GarbageCollectorMXBean[] collectors;
+
+    /**
+     * Creates a new {@code PerformanceHud} that
+     * draws its text with a monospaced font.
+     */
+    public PerformanceHud() {
+        this.font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+        createBuffers();
+    }
+
+    /**
+     * Creates a new {@code PerformanceHud} that
+     * draws its text with the passed {@code atlas}.
+     * 
+     * @param atlas the atlas of the text
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code atlas} argument is {@code null}
+     */
+    public PerformanceHud(GlyphAtlas atlas) {
+        if(atlas == null) {
+            throw new IllegalArgumentException (
+                "cannot create performance hud with null atlas"
+            );
+        }
+
+        this.atlas = atlas;
+        createBuffers();
+    }
+
+    /**
+     * Creates the lines of text and finds
+     * the garbage collectors.
+     */
+    private void createBuffers() {
+        for(int i = 0; i < lines.length; i++) {
+            lines[i] = new GlyphRun(64);
+        }
+
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        this.collectors = collectors.toArray(new GarbageCollectorMXBean[collectors.size()]);
+    }
+
+    /**
+     * Sets the coordinates of the top
+     * left corner of the overlay.
+     * 
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public void setCoordinates(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the x coordinate of the
+     * top left corner of the overlay.
+     * 
+     * @return the x coordinate
+     */
+    public int getX() {
+        return this.x;
+    }
+
+    /**
+     * Returns the y coordinate of the
+     * top left corner of the overlay.
+     * 
+     * @return the y coordinate
+     */
+    public int getY() {
+        return this.y;
+    }
+
+    /**
+     * Sets the height of the graph of durations.
+     * The line marking the duration of a frame is
+     * drawn at half of this height.
+     * 
+     * @param graphHeight the height in pixels
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code graphHeight} is not positive
+     */
+    public void setGraphHeight(int graphHeight) {
+        if(graphHeight <= 0) {
+            throw new IllegalArgumentException (
+                "graph height must be positive"
+            );
+        }
+
+        this.graphHeight = graphHeight;
+    }
+
+    /**
+     * Returns the height of the
+     * graph of durations.
+     * 
+     * @return the height in pixels
+     */
+    public int getGraphHeight() {
+        return this.graphHeight;
+    }
+
+    /**
+     * Returns the atlas the text
+     * of the overlay is drawn with.
+     * 
+     * @return the atlas of the text, or
+     * {@code null} if it is drawn with a font
+     */
+    public GlyphAtlas getAtlas() {
+        return this.atlas;
+    }
+
+    /**
+     * Draws the overlay with the
+     * performance of the passed {@code game}.
+     * 
+     * @param g2 a {@code Graphics2D} to draw with
+     * @param game the game whose performance
+     * is drawn
+     */
+    public void draw(Graphics2D g2, Game game) {
+        FrameStats updateStats = game.getUpdateStats();
+        FrameStats drawStats = game.getDrawStats();
+        FrameStats presentStats = game.getPresentStats();
+        GameFlow gameFlow = game.getGameFlow();
+        long frameTime = gameFlow != null ? (long) gameFlow.getFpsInterval() : 1000000000 / 60;
+
+        writeLines(game, gameFlow, updateStats, drawStats, presentStats);
+
+        FontMetrics metrics = atlas == null ? g2.getFontMetrics(font) : null;
+        int lineHeight = atlas == null ? metrics.getHeight() : atlas.getLineHeight();
+        int textHeight = 0;
+        int width = updateStats.getCapacity();
+        for(GlyphRun line : lines) {
+            textHeight += lineHeight;
+            width = Math.max(width, atlas == null ? line.getWidth(metrics) : atlas.getWidth(line));
+        }
+
+        drawBackground(g2, width + 8, textHeight + graphHeight + 12);
+
+        int lineY = y + 4;
+        if(atlas == null) {
+            g2.setFont(font);
+            g2.setColor(Color.WHITE);
+        }
+        for(GlyphRun line : lines) {
+            if(atlas == null) {
+                line.draw(g2, x + 4, lineY + metrics.getAscent());
+            } else {
+                atlas.draw(g2, line, x + 4, lineY);
+            }
+            lineY += lineHeight;
+        }
+
+        int graphTop = lineY + 4;
+        int graphBottom = graphTop + graphHeight;
+        g2.setColor(BUDGET_COLOR);
+        g2.drawLine(x + 4, graphBottom - graphHeight / 2, x + 4 + width, graphBottom - graphHeight / 2);
+        drawGraph(g2, updateStats, UPDATE_COLOR, x + 4, graphBottom, frameTime);
+        drawGraph(g2, drawStats, DRAW_COLOR, x + 4, graphBottom, frameTime);
+        drawGraph(g2, presentStats, PRESENT_COLOR, x + 4, graphBottom, frameTime);
+    }
+
+    /**
+     * Draws the translucent background of the
+     * overlay with the passed size, growing the
+     * background image first if it is too small.
+     * 
+     * @param g2 a {@code Graphics2D} to draw with
+     * @param width the width of the overlay
+     * @param height the height of the overlay
+     */
+    private void drawBackground(Graphics2D g2, int width, int height) {
+        if(background == null || background.getWidth() < width || background.getHeight() < height) {
+            int backgroundWidth = Math.max(width, background == null ? 0 : background.getWidth());
+            int backgroundHeight = Math.max(height, background == null ? 0 : background.getHeight());
+            this.background = new BufferedImage (
+                backgroundWidth + 32, backgroundHeight,
+                BufferedImage.TYPE_INT_ARGB
+            );
+            Graphics2D backgroundGraphics = background.createGraphics();
+            backgroundGraphics.setComposite(AlphaComposite.Src);
+            backgroundGraphics.setColor(BACKGROUND_COLOR);
+            backgroundGraphics.fillRect(0, 0, background.getWidth(), background.getHeight());
+            backgroundGraphics.dispose();
+        }
+
+        g2.drawImage(background, x, y, x + width, y + height, 0, 0, width, height, null);
+    }
+
+    /**
+     * Writes the lines of text of the overlay.
+     * 
+     * @param game the game whose performance
+     * is written
+     * @param gameFlow the flow of the game
+     * @param updateStats the update durations
+     * @param drawStats the draw durations
+     * @param presentStats the present durations
+     */
+    private void writeLines (
+        Game game, GameFlow gameFlow,
+        FrameStats updateStats, FrameStats drawStats, FrameStats presentStats
+    ) {
+        GlyphRun line = lines[0];
+        line.clear();
+        line.append("fps ");
+        line.append(gameFlow != null ? gameFlow.getMeasuredFps() : 0);
+        if(gameFlow != null) {
+            line.append(" / ");
+            line.append(gameFlow.getFps());
+        }
+
+        writeDuration(lines[1], "update  ", updateStats);
+        writeDuration(lines[2], "draw    ", drawStats);
+        writeDuration(lines[3], "present ", presentStats);
+
+        line = lines[4];
+        line.clear();
+        Stage stage = game.getCurrentStage();
+        if(stage != null) {
+            line.append("objects ");
+            line.append(stage.getObjects().size());
+            if(stage.isCulling()) {
+                line.append(" visible ");
+                line.append(stage.getVisibleCount());
+                line.append(" culled ");
+                line.append(stage.getCulledCount());
+            }
+        } else {
+            line.append("no stage");
+        }
+
+        long collections = 0;
+        long collectionTime = 0;
+        for(GarbageCollectorMXBean collector : collectors) {
+            collections += Math.max(0, collector.getCollectionCount());
+            collectionTime += Math.max(0, collector.getCollectionTime());
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long totalMemory = runtime.totalMemory();
+
+        line = lines[5];
+        line.clear();
+        line.append("gc ");
+        line.append(collections);
+        line.append(" in ");
+        line.append(collectionTime);
+        line.append(" ms heap ");
+        line.append((totalMemory - runtime.freeMemory()) / MEGABYTE);
+        line.append(" / ");
+        line.append(runtime.maxMemory() / MEGABYTE);
+        line.append(" MB");
+    }
+
+    /**
+     * Writes the last, average and longest
+     * durations of the passed {@code stats}
+     * into the passed {@code line}.
+     * 
+     * @param line the line to be written
+     * @param label the label of the durations
+     * @param stats the durations
+     */
+    private static void writeDuration(GlyphRun line, String label, FrameStats stats) {
+        line.clear();
+        line.append(label);
+        line.append(stats.getLast() / 1e6, 2);
+        line.append(" avg ");
+        line.append(stats.getAverage() / 1e6, 2);
+        line.append(" max ");
+        line.append(stats.getMax() / 1e6, 2);
+        line.append(" ms");
+    }
+
+    /**
+     * Draws the durations of the passed {@code stats}
+     * as a line, from the oldest at the left to the last
+     * at the right, where a duration of {@code frameTime}
+     * reaches half of the height of the graph.
+     * 
+     * @param g2 a {@code Graphics2D} to draw with
+     * @param stats the durations to be drawn
+     * @param color the color of the line
+     * @param left the left of the graph
+     * @param bottom the bottom of the graph
+     * @param frameTime the duration of
+     * a frame in nanoseconds
+     */
+    private void drawGraph (
+        Graphics2D g2, FrameStats stats, Color color,
+        int left, int bottom, long frameTime
+    ) {
+        int size = stats.getSize();
+        if(size < 2) {
+            return;
+        }
+
+        if(xPoints.length < size) {
+            this.xPoints = new int[stats.getCapacity()];
+            this.yPoints = new int[stats.getCapacity()];
+        }
+
+        int right = left + stats.getCapacity() - 1;
+        for(int age = 0; age < size; age++) {
+            long height = stats.get(age) * graphHeight / (2 * frameTime);
+            xPoints[age] = right - age;
+            yPoints[age] = bottom - (int) Math.min(height, graphHeight);
+        }
+
+        g2.setColor(color);
+        g2.drawPolyline(xPoints, yPoints, size);
+    }
+
+}
@@ -0,0 +1,67 @@
+package imagine.debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import imagine.stage.Stage;
+
+/**
+ * Flight Recorder event spanning the drawing of a
+ * {@code Stage}, with its object counts. The visible
+ * and culled counts are the ones of the drawing the
+ * event spans, or {@code -1} if it didn't cull the
+ * objects.
+ * 
+ * @author Daniel O Sousa
+ * 
+ * @see imagine.stage.Stage#draw(java.awt.Graphics2D)
+ */
+@Name("imagine.StageDraw")
+@Label("Stage Draw")
+@Category({"Imagine", "Stage"})
+@Description("The drawing of a stage")
+public final class StageDrawEvent extends Event {
+
+    /**
+     * The title of the stage.
+     */
+    @Label("Stage")
+    private String stageTitle;
+
+    /**
+     * The amount of objects of the stage.
+     */
+    @Label("Objects")
+    private int objectCount;
+
+    /**
+     * The amount of objects within the view of
+     * the stage, or {@code -1} if not culled.
+     */
+    @Label("Visible Objects")
+    private int visibleCount;
+
+    /**
+     * The amount of objects outside the view
+     * of the stage, or {@code -1} if not culled.
+     */
+    @Label("Culled Objects")
+    private int culledCount;
+
+    /**
+     * Sets the drawn {@code stage}.
+     * 
+     * @param stage the drawn stage
+     */
+    public void setStage(Stage stage) {
+        this.stageTitle = stage.getTitle();
+        this.objectCount = stage.getObjects().size();
+        boolean culling = stage.isCulling();
+        this.visibleCount = culling ? stage.getVisibleCount() : -1;
+        this.culledCount = culling ? stage.getCulledCount() : -1;
+    }
+
+}
@@ -0,0 +1,62 @@
+package imagine.debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import imagine.stage.Stage;
+import imagine.stage.transition.StageTransition;
+
+/**
+ * Flight Recorder event spanning a change of
+ * stages of a {@code Game}, from the moment it
+ * is requested until the stages are swapped,
+ * which includes starting the next stage
+ * unless it was preloaded.
+ * 
+ * @author Daniel O Sousa
+ * 
+ * @see imagine.game.Game#transitionToStage(int, StageTransition)
+ */
+@Name("imagine.StageTransition")
+@Label("Stage Transition")
+@Category({"Imagine", "Stage"})
+@Description("A change of stages, from its request until the stages are swapped")
+public final class StageTransitionEvent extends Event {
+
+    /**
+     * The title of the previous stage.
+     */
+    @Label("From Stage")
+    private String fromStage;
+
+    /**
+     * The title of the next stage.
+     */
+    @Label("To Stage")
+    private String toStage;
+
+    /**
+     * The class of the transition effect.
+     */
+    @Label("Transition")
+    private Class<?> transition;
+
+    /**
+     * Sets the stages that were swapped and the
+     * effect of the change. Any of them may
+     * be {@code null}.
+     * 
+     * @param from the previous stage
+     * @param to the next stage
+     * @param transition the effect of the change
+     */
+    public void setStages(Stage from, Stage to, StageTransition transition) {
+        this.fromStage = from != null ? from.getTitle() : null;
+        this.toStage = to != null ? to.getTitle() : null;
+        this.transition = transition != null ? transition.getClass() : null;
+    }
+
+}
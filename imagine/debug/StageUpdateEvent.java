@@ -0,0 +1,47 @@
+package imagine.debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import imagine.stage.Stage;
+
+/**
+ * Flight Recorder event spanning the update
+ * of a {@code Stage}, with its object count.
+ * 
+ * @author Daniel O Sousa
+ * 
+ * @see imagine.stage.Stage#update()
+ */
+@Name("imagine.StageUpdate")
+@Label("Stage Update")
+@Category({"Imagine", "Stage"})
+@Description("The update of the backgrounds, tile map, objects, camera and foregrounds of a stage")
+public final class StageUpdateEvent extends Event {
+
+    /**
+     * The title of the stage.
+     */
+    @Label("Stage")
+    private String stageTitle;
+
+    /**
+     * The amount of objects of the stage.
+     */
+    @Label("Objects")
+    private int objectCount;
+
+    /**
+     * Sets the updated {@code stage}.
+     * 
+     * @param stage the updated stage
+     */
+    public void setStage(Stage stage) {
+        this.stageTitle = stage.getTitle();
+        this.objectCount = stage.getObjects().size();
+    }
+
+}
@@ -1,5 +1,7 @@
 package imagine.flow;
 
+import imagine.debug.FrameEvent;
+import imagine.debug.LongFrameEvent;
 import imagine.game.Game;
 
 /**
@@ -64,12 +66,32 @@ public class GameFlow implements Runnable {
     private int timesUpdated = 0;
 
     /**
-     * Tells if the FPS should be displayed on the console
-     * or not.
+     * The amount of times the game was
+     * updated in the last second.
+     */
+    private volatile int measuredFps = 0;
+
+    /**
+     * How many times the game was
+     * updated since the flow started.
+     */
+    private long frame = 0;
+
+    /**
+     * Stores the time in nano seconds
+     * of the last game update.
+     */
+    private long lastFrameTime;
+
+    /**
+     * The time in nano seconds between two game
+     * updates above which a {@code LongFrameEvent}
+     * is emitted.
      * <p>
-     * Is initially set to {@code false}
+     * Is initially set to twice the
+     * {@code fpsInterval}.
      */
-    private boolean displayFps = false;
+    private long longFrameThreshold;
 
     /**
      * Creates a new {@code GameFlow} for running the specified
@@ -83,6 +105,7 @@ public class GameFlow implements Runnable {
         createFlow();
         storeFps(fps);
         calculateFpsInterval();
+        this.longFrameThreshold = (long) (2 * fpsInterval);
         startFlow();
     }
 
@@ -196,16 +219,72 @@ public class GameFlow implements Runnable {
     }
 
     /**
-     * Configures if this {@code GameFlow} should
-     * or not display its fps on the console
-     * depending on the value of the
-     * {@code displayFps} argument.
+     * Returns how many times the {@code Game}
+     * was updated since this {@code GameFlow}
+     * started.
+     * 
+     * @return the amount of frames
+     */
+    public long getFrame() {
+        return this.frame;
+    }
+
+    /**
+     * Sets the time between two updates of the
+     * {@code Game} above which a frame is considered
+     * long, and a {@code LongFrameEvent} is emitted
+     * to the Flight Recorder.
+     * 
+     * @param longFrameThreshold the threshold
+     * in nanoseconds
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code longFrameThreshold} is not positive
+     */
+    public void setLongFrameThreshold(long longFrameThreshold) {
+        if(longFrameThreshold <= 0) {
+            throw new IllegalArgumentException (
+                "long frame threshold must be positive"
+            );
+        }
+
+        this.longFrameThreshold = longFrameThreshold;
+    }
+
+    /**
+     * Returns the time between two updates of
+     * the {@code Game} above which a frame
+     * is considered long.
+     * 
+     * @return the threshold in nanoseconds
+     */
+    public long getLongFrameThreshold() {
+        return this.longFrameThreshold;
+    }
+
+    /**
+     * Returns how many times the {@code Game}
+     * was updated in the last second.
+     * 
+     * @return the measured fps of this
+     * {@code GameFlow}
+     */
+    public int getMeasuredFps() {
+        return this.measuredFps;
+    }
+
+    /**
+     * Configures if the fps should be displayed
+     * over the {@code Game} or not, depending on
+     * the value of the {@code displayFps} argument.
      * 
      * @param displayFps boolean describing
      * visibility of the fps
+     * 
+     * @see Game#setDisplayFps(boolean)
      */
     public void setDisplayFps(boolean displayFps) {
-        this.displayFps = displayFps;
+        game.setDisplayFps(displayFps);
     }
 
     /**
@@ -218,7 +297,7 @@ public class GameFlow implements Runnable {
      * fps visibility
      */
     public boolean getDisplayFps() {
-        return this.displayFps;
+        return game.getDisplayFps();
     }
 
     /**
@@ -229,6 +308,7 @@ public class GameFlow implements Runnable {
      */
     public void startFlow() {
         lastTime = System.nanoTime();
+        lastFrameTime = lastTime;
         game.start();
         flow.start();
     }
@@ -246,6 +326,11 @@ public class GameFlow implements Runnable {
      * The execution of this method causes calls to the
      * {@code update} and {@code draw} methods of the
      * {@code Game} that uses this {@code GameFlow}.
+     * <p>
+     * Each update emits a {@code FrameEvent} to the
+     * Flight Recorder, and a {@code LongFrameEvent} if
+     * it came too long after the previous one. Both
+     * cost nothing while no recording is running.
      */
     @Override
     public void run() {
@@ -256,23 +341,47 @@ public class GameFlow implements Runnable {
             lastTime = currentTime;
 
             if(delta >= 1) {
+                frame++;
+                long frameTime = currentTime - lastFrameTime;
+                lastFrameTime = currentTime;
+                if(frameTime > longFrameThreshold) {
+                    emitLongFrame(frameTime);
+                }
+
+                FrameEvent event = new FrameEvent();
+                event.begin();
                 game.update();
                 game.repaintGamePanel();
+                if(event.shouldCommit()) {
+                    event.setFrame(frame, game.getCurrentStage());
+                    event.commit();
+                }
                 delta--;
 
                 timesUpdated++;
             }
 
             if(timer >= 1000000000) {
-                if(displayFps) {
-                    System.out.println (
-                        "FPS: " + timesUpdated
-                    );
-                }
+                measuredFps = timesUpdated;
                 timer = 0;
                 timesUpdated = 0;
             }
         }
     }
 
+    /**
+     * Emits a {@code LongFrameEvent} for the
+     * current frame, if it is being recorded.
+     * 
+     * @param frameTime the time since the
+     * previous update in nanoseconds
+     */
+    private void emitLongFrame(long frameTime) {
+        LongFrameEvent event = new LongFrameEvent();
+        if(event.shouldCommit()) {
+            event.setFrame(frame, frameTime, (long) fpsInterval, game.getCurrentStage());
+            event.commit();
+        }
+    }
+
 }
\ No newline at end of file
@@ -1,11 +1,24 @@
 package imagine.game;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.awt.Graphics2D;
 
+import imagine.capture.FrameCapture;
+import imagine.debug.FrameStats;
+import imagine.debug.PerformanceHud;
+import imagine.debug.StageTransitionEvent;
 import imagine.flow.*;
 import imagine.input.KeyHandler;
+import imagine.render.SoftwareRenderer;
+import imagine.render.TiledRasterizer;
 import imagine.stage.Stage;
+import imagine.stage.transition.StageTransition;
 
 /**
  * Abstract class for creating a new game.
@@ -52,8 +65,48 @@ public abstract class Game implements GameFluid {
 
     /**
      * Stores the current stage of this {@code Game}.
+     * It is read by the thread that draws the game.
      */
-    private Stage currentStage;
+    private volatile Stage currentStage;
+
+    /**
+     * The thread where stages are preloaded
+     * and released, created when first needed.
+     */
+    private ExecutorService stageLoader;
+
+    /**
+     * The stages being preloaded or already
+     * preloaded, with their loading tasks.
+     */
+    private IdentityHashMap<Stage, Future<?>> preloads = new IdentityHashMap<Stage, Future<?>>();
+
+    /**
+     * The stages swapped out by a transition, which
+     * are released once the game panel finishes its
+     * next painting, since it may still be drawing them.
+     */
+    private final ArrayList<Stage> swappedStages = new ArrayList<Stage>();
+
+    /**
+     * The stage that will become the current
+     * one at the end of a transition, or
+     * {@code null} if there is none.
+     */
+    private Stage nextStage;
+
+    /**
+     * The effect of the transition in
+     * progress, or {@code null} if there
+     * is none.
+     */
+    private volatile StageTransition transition;
+
+    /**
+     * The Flight Recorder event of the change
+     * of stages in progress, if any.
+     */
+    private StageTransitionEvent transitionEvent;
 
     /**
      * Boolean value to configure if a tile
@@ -62,6 +115,50 @@ public abstract class Game implements GameFluid {
      */
     private boolean drawTileGrid = false;
 
+    /**
+     * The {@code FrameCapture} to which every frame
+     * drawn by the panel of this {@code Game} is
+     * handed, or {@code null} if frames are
+     * not captured.
+     */
+    private volatile FrameCapture frameCapture;
+
+    /**
+     * How long the last frames of this
+     * {@code Game} took to update.
+     */
+    private FrameStats updateStats = new FrameStats();
+
+    /**
+     * How long the last frames of this
+     * {@code Game} took to draw.
+     */
+    private FrameStats drawStats = new FrameStats();
+
+    /**
+     * How long the last frames of this {@code Game}
+     * took to be presented to the screen.
+     */
+    private FrameStats presentStats = new FrameStats();
+
+    /**
+     * The overlay drawn over this {@code Game}
+     * with its performance, if it has one.
+     */
+    private volatile PerformanceHud performanceHud;
+
+    /**
+     * The width of the panel of this {@code Game}
+     * when it is headless.
+     */
+    private int headlessWidth;
+
+    /**
+     * The height of the panel of this {@code Game}
+     * when it is headless.
+     */
+    private int headlessHeight;
+
     /**
      * Constructs a new {@code Game} instance
      * with the default size of {@code 1024} by {@code 576} pixels.
@@ -73,6 +170,38 @@ public abstract class Game implements GameFluid {
         createKeyHandler();
     }
 
+    /**
+     * Constructs a new headless {@code Game} instance,
+     * which has no {@code GameFrame} and is never shown,
+     * behaving as if its panel had {@code width} by
+     * {@code height} pixels.
+     * <p>
+     * Headless games can still build, update and draw
+     * their stages, which is useful for tools and
+     * benchmarks that run without a screen.
+     * 
+     * @param width the width of the panel
+     * @param height the height of the panel
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code width} or {@code height} is negative
+     */
+    public Game(int width, int height) {
+        setSize(width, height);
+        createKeyHandler();
+    }
+
+    /**
+     * Returns {@code true} if this {@code Game} has
+     * no {@code GameFrame} and {@code false} otherwise.
+     * 
+     * @return boolean specifying if this
+     * {@code Game} is headless
+     */
+    public boolean isHeadless() {
+        return gameFrame == null;
+    }
+
     /**
      * Creates a new {@code GameFrame}
      * instance for holding this game.
@@ -84,7 +213,8 @@ public abstract class Game implements GameFluid {
     /**
      * Returns the frame which is holding this game.
      * 
-     * @return the {@code GameFrame}
+     * @return the {@code GameFrame}, or {@code null}
+     * if this {@code Game} is headless
      */
     public GameFrame getGameFrame() {
         return this.gameFrame;
@@ -96,6 +226,10 @@ public abstract class Game implements GameFluid {
      * @return the {@code GameFrame} width
      */
     public int getGameFrameWidth() {
+        if(isHeadless()) {
+            return headlessWidth;
+        }
+
         return getGameFrame().getWidth();
     }
 
@@ -105,6 +239,10 @@ public abstract class Game implements GameFluid {
      * @return the {@code GameFrame} height
      */
     public int getGameFrameHeight() {
+        if(isHeadless()) {
+            return headlessHeight;
+        }
+
         return getGameFrame().getHeight();
     }
 
@@ -115,6 +253,10 @@ public abstract class Game implements GameFluid {
      * @return the content pane width
      */
     public int getContentPaneWidth() {
+        if(isHeadless()) {
+            return headlessWidth;
+        }
+
         return getGameFrame().getContentPaneWidth();
     }
 
@@ -125,40 +267,69 @@ public abstract class Game implements GameFluid {
      * @return the content pane height
      */
     public int getContentPaneHeight() {
+        if(isHeadless()) {
+            return headlessHeight;
+        }
+
         return getGameFrame().getContentPaneHeight();
     }
 
     /**
      * Returns the panel where this {@code Game} is drawn.
      * 
-     * @return the {@code GamePanel}
+     * @return the {@code GamePanel}, or {@code null}
+     * if this {@code Game} is headless
      */
     public GamePanel getGamePanel() {
+        if(isHeadless()) {
+            return null;
+        }
+
         return getGameFrame().getGamePanel();
     }
 
     /**
      * Returns the width of the panel of this {@code Game}.
+     * <p>
+     * If a virtual resolution is set, the width of
+     * the virtual resolution is returned instead,
+     * since that is the area where the game is drawn.
      * 
      * @return the {@code GamePanel} width
      */
     public int getGamePanelWidth() {
-        return getGamePanel().getWidth();
+        if(isHeadless()) {
+            return headlessWidth;
+        }
+
+        return getGamePanel().getRenderWidth();
     }
 
     /**
      * Returns the height of the panel of this {@code Game}.
+     * <p>
+     * If a virtual resolution is set, the height of
+     * the virtual resolution is returned instead,
+     * since that is the area where the game is drawn.
      * 
      * @return the {@code GamePanel} height
      */
     public int getGamePanelHeight() {
-        return getGamePanel().getHeight();
+        if(isHeadless()) {
+            return headlessHeight;
+        }
+
+        return getGamePanel().getRenderHeight();
     }
 
     /**
      * Centralizes the game on the screen.
      */
     public void centralize() {
+        if(isHeadless()) {
+            return;
+        }
+
         gameFrame.setLocationRelativeTo(null);
     }
 
@@ -168,6 +339,10 @@ public abstract class Game implements GameFluid {
      * the {@code GamePanel}.
      */
     public void repaintGamePanel() {
+        if(isHeadless()) {
+            return;
+        }
+
         getGamePanel().repaint();
     }
 
@@ -177,7 +352,9 @@ public abstract class Game implements GameFluid {
      */
     private void createKeyHandler() {
         this.keyHandler = new KeyHandler();
-        getGameFrame().addKeyListener(this.keyHandler);
+        if(!isHeadless()) {
+            getGameFrame().addKeyListener(this.keyHandler);
+        }
     }
 
     /**
@@ -249,33 +426,114 @@ public abstract class Game implements GameFluid {
     }
 
     /**
-     * Sets if the fps should or shouldn't
-     * be displayed on the console.
+     * Sets if the fps should or shouldn't be
+     * displayed over this {@code Game}. The fps is
+     * displayed by a {@code PerformanceHud}, which
+     * is created if this {@code Game} has none
+     * and removed when the fps is hidden.
      * 
      * @param displayFps boolean to
      * configure the fps display
+     * 
+     * @see #setPerformanceHud(PerformanceHud)
      */
     public void setDisplayFps(boolean displayFps) {
-        if(gameFlow != null) {
-            gameFlow.setDisplayFps(displayFps);
+        if(!displayFps) {
+            removePerformanceHud();
+        } else if(performanceHud == null) {
+            setPerformanceHud(new PerformanceHud());
         }
     }
 
     /**
      * Returns {@code true} if the fps is configured
-     * to be displayed on the console and {@code false}
-     * otherwise. {@code false} is also returned
-     * if there is no {@code GameFlow} executing.
+     * to be displayed over this {@code Game} and
+     * {@code false} otherwise.
      * 
      * @return boolean indicating fps display
      * state
      */
     public boolean getDisplayFps() {
-        if(gameFlow != null) {
-            return gameFlow.getDisplayFps();
-        } else {
-            return false;
+        return performanceHud != null;
+    }
+
+    /**
+     * Sets the {@code PerformanceHud} of this
+     * {@code Game}, which is drawn over every frame,
+     * after the current stage and the transition.
+     * 
+     * @param performanceHud the overlay to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code performanceHud} argument is {@code null}
+     */
+    public void setPerformanceHud(PerformanceHud performanceHud) {
+        if(performanceHud == null) {
+            throw new IllegalArgumentException (
+                "cannot set null performance hud"
+            );
         }
+
+        this.performanceHud = performanceHud;
+    }
+
+    /**
+     * Removes the {@code PerformanceHud}
+     * of this {@code Game}, if it has one.
+     * 
+     * @return the removed overlay or
+     * {@code null} if none is removed
+     */
+    public PerformanceHud removePerformanceHud() {
+        PerformanceHud removedHud = this.performanceHud;
+        this.performanceHud = null;
+        return removedHud;
+    }
+
+    /**
+     * Returns the {@code PerformanceHud}
+     * of this {@code Game}.
+     * 
+     * @return the overlay of this {@code Game}
+     * or {@code null} if it has none
+     */
+    public PerformanceHud getPerformanceHud() {
+        return this.performanceHud;
+    }
+
+    /**
+     * Returns how long the last frames
+     * of this {@code Game} took to update.
+     * 
+     * @return the update durations
+     */
+    public FrameStats getUpdateStats() {
+        return this.updateStats;
+    }
+
+    /**
+     * Returns how long the last frames of this
+     * {@code Game} took to draw, not counting
+     * its {@code PerformanceHud}.
+     * 
+     * @return the draw durations
+     */
+    public FrameStats getDrawStats() {
+        return this.drawStats;
+    }
+
+    /**
+     * Returns how long the last frames of this
+     * {@code Game} took to be presented, which is
+     * how long its panel took to upscale or copy
+     * the backbuffer to the screen. Frames drawn
+     * straight into the panel are presented by
+     * Swing and are not counted.
+     * 
+     * @return the present durations
+     */
+    public FrameStats getPresentStats() {
+        return this.presentStats;
     }
 
     /**
@@ -663,10 +921,301 @@ public abstract class Game implements GameFluid {
         }
 
         Stage currentStage = stages.get(position);
-        currentStage.start();
+        if(currentStage == nextStage) {
+            this.nextStage = null;
+            this.transition = null;
+            this.transitionEvent = null;
+        }
+
+        Future<?> preload = preloads.remove(currentStage);
+        if(preload == null) {
+            currentStage.start();
+        } else if(!finishPreload(preload)) {
+            return;
+        }
         this.currentStage = currentStage;
     }
 
+    /**
+     * Starts the stage specified by the passed
+     * {@code position} on a background thread, so
+     * that it is ready when selected or transitioned
+     * to, without stopping the current stage.
+     * <p>
+     * If the stage is already being preloaded,
+     * does nothing.
+     * 
+     * @param position a position specifying
+     * the stage to preload
+     * 
+     * @throws IndexOutOfBoundsException if the argument
+     * doesn't correspond to a stage
+     * @throws IllegalArgumentException if the
+     * stage is the current one
+     */
+    public void preloadStage(int position) {
+        if(position < 0 || position >= stages.size()) {
+            throw new IndexOutOfBoundsException (
+                "position " + position +
+                " does not correspond to a stage"
+            );
+        }
+
+        preload(stages.get(position));
+    }
+
+    /**
+     * Starts the passed {@code stage} on the stage
+     * loader thread, if it isn't being preloaded yet.
+     * A stage swapped out but not released yet is
+     * released right before starting again.
+     * 
+     * @param stage the stage to be preloaded
+     */
+    private void preload(final Stage stage) {
+        if(stage == currentStage) {
+            throw new IllegalArgumentException (
+                "cannot preload the current stage"
+            );
+        }
+        if(preloads.containsKey(stage)) {
+            return;
+        }
+
+        final boolean swapped;
+        synchronized(swappedStages) {
+            swapped = swappedStages.remove(stage);
+        }
+        preloads.put(stage, getStageLoader().submit(new Runnable() {
+            @Override
+            public void run() {
+                if(swapped) {
+                    stage.release();
+                }
+                stage.start();
+            }
+        }));
+    }
+
+    /**
+     * Forgets the preload of the passed {@code stage}
+     * and releases it on the stage loader thread,
+     * after it finishes starting.
+     * 
+     * @param stage the preloaded stage
+     */
+    private void releasePreload(final Stage stage) {
+        if(preloads.remove(stage) == null) {
+            return;
+        }
+
+        getStageLoader().execute(new Runnable() {
+            @Override
+            public void run() {
+                stage.release();
+            }
+        });
+    }
+
+    /**
+     * Releases on the stage loader thread the stages
+     * swapped out since the last call. It is called
+     * by the {@code GamePanel} after each painting,
+     * once it can no longer be drawing them.
+     */
+    void releaseSwappedStages() {
+        synchronized(swappedStages) {
+            for(final Stage stage : swappedStages) {
+                getStageLoader().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        stage.release();
+                    }
+                });
+            }
+            swappedStages.clear();
+        }
+    }
+
+    /**
+     * Returns the thread where stages are preloaded
+     * and released, creating it if needed.
+     * 
+     * @return the stage loader thread
+     */
+    private ExecutorService getStageLoader() {
+        if(stageLoader == null) {
+            this.stageLoader = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "imagine-stage-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return this.stageLoader;
+    }
+
+    /**
+     * Waits for the passed {@code preload} to finish.
+     * If the stage failed to start, the error is printed.
+     * 
+     * @param preload the preloading task
+     * 
+     * @return boolean specifying if the stage
+     * started successfully
+     */
+    private static boolean finishPreload(Future<?> preload) {
+        try {
+            preload.get();
+            return true;
+        }
+        catch(ExecutionException e) {
+            e.getCause().printStackTrace();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Changes to the stage specified by the passed
+     * {@code position} without a transition effect.
+     * 
+     * @param position a position specifying
+     * the stage to change to
+     * 
+     * @throws IndexOutOfBoundsException if the argument
+     * doesn't correspond to a stage
+     * 
+     * @see #transitionToStage(int, StageTransition)
+     */
+    public void transitionToStage(int position) {
+        transitionToStage(position, null);
+    }
+
+    /**
+     * Changes to the stage specified by the passed
+     * {@code position}, showing the passed
+     * {@code transition} over the game.
+     * <p>
+     * The stage is started on a background thread, unless
+     * it was preloaded already, while the current stage
+     * keeps running. Once it is ready and the transition
+     * reaches its swap point, the stages are swapped
+     * between two updates, and the previous stage is
+     * released on a background thread once it is
+     * no longer being drawn.
+     * <p>
+     * If another stage was being transitioned to, it
+     * is released on a background thread, since it
+     * was started but will not be swapped in.
+     * 
+     * @param position a position specifying
+     * the stage to change to
+     * @param transition the effect shown during the
+     * change, or {@code null} for no effect
+     * 
+     * @throws IndexOutOfBoundsException if the argument
+     * doesn't correspond to a stage
+     * @throws IllegalArgumentException if the
+     * stage is the current one
+     */
+    public void transitionToStage(int position, StageTransition transition) {
+        preloadStage(position);
+        if(nextStage != null && nextStage != stages.get(position)) {
+            releasePreload(nextStage);
+        }
+
+        if(transitionEvent == null) {
+            this.transitionEvent = new StageTransitionEvent();
+            transitionEvent.begin();
+        }
+        this.nextStage = stages.get(position);
+        if(transition != null) {
+            transition.restart();
+        }
+        this.transition = transition;
+    }
+
+    /**
+     * Returns {@code true} if this {@code Game} is
+     * changing stages and {@code false} otherwise.
+     * 
+     * @return boolean specifying if a
+     * transition is in progress
+     */
+    public boolean isTransitioning() {
+        return nextStage != null || transition != null;
+    }
+
+    /**
+     * Swaps the stages if the next stage is ready and
+     * the transition reached its swap point, and then
+     * advances the transition.
+     */
+    private void updateTransition() {
+        if(nextStage != null && (transition == null || transition.reachedSwapPoint())) {
+            Future<?> preload = preloads.get(nextStage);
+            if(preload == null) {
+                this.nextStage = null;
+                this.transition = null;
+                this.transitionEvent = null;
+            } else if(preload.isDone()) {
+                swapStage(preload);
+            }
+        }
+
+        StageTransition transition = this.transition;
+        if(transition != null) {
+            transition.advance(nextStage == null);
+            if(nextStage == null && transition.isFinished()) {
+                this.transition = null;
+            }
+        }
+    }
+
+    /**
+     * Makes the next stage the current one and
+     * releases the previous one on the stage loader
+     * thread after the game panel finishes its next
+     * painting, which may still be drawing it. If the
+     * next stage failed to start, the
+     * transition is cancelled instead.
+     * 
+     * @param preload the preloading task
+     * of the next stage
+     */
+    private void swapStage(Future<?> preload) {
+        Stage stage = this.nextStage;
+        this.nextStage = null;
+        preloads.remove(stage);
+        StageTransitionEvent event = this.transitionEvent;
+        this.transitionEvent = null;
+        if(!finishPreload(preload)) {
+            this.transition = null;
+            return;
+        }
+
+        Stage previousStage = this.currentStage;
+        this.currentStage = stage;
+        if(event.shouldCommit()) {
+            event.setStages(previousStage, stage, transition);
+            event.commit();
+        }
+        if(previousStage != null && previousStage != stage) {
+            synchronized(swappedStages) {
+                swappedStages.add(previousStage);
+            }
+            if(isHeadless()) {
+                releaseSwappedStages();
+            }
+        }
+    }
+
     /**
      * Unselects whatever stage
      * is currently selected.
@@ -759,15 +1308,266 @@ public abstract class Game implements GameFluid {
     /**
      * Sets the size of the frame
      * containing this {@code Game}.
+     * <p>
+     * If this {@code Game} is headless, sets
+     * the size its panel behaves as having.
      * 
      * @param width the width to be set
      * @param height the height to be set
      */
     public void setSize(int width, int height) {
+        if(isHeadless()) {
+            if(width < 0 || height < 0) {
+                throw new IllegalArgumentException (
+                    "can't set size to " + width + "x" + height +
+                    ": dimensions cannot be negative"
+                );
+            }
+
+            this.headlessWidth = width;
+            this.headlessHeight = height;
+            return;
+        }
+
         getGameFrame().setContentPaneSize(width, height);
         getGamePanel().setSize(width, height);
     }
 
+    /**
+     * Makes this {@code Game} be drawn with a fixed
+     * virtual resolution of {@code width} by
+     * {@code height} pixels. Every frame is drawn at
+     * this resolution and then upscaled once to the
+     * {@code GamePanel}, so the cost of drawing does
+     * not depend on the size of the window.
+     * <p>
+     * The virtual resolution should be set before
+     * the stages are created, since their cameras
+     * take the size of the {@code GamePanel}.
+     * 
+     * @param width the width of the virtual resolution
+     * @param height the height of the virtual resolution
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code width} or {@code height} argument
+     * is not positive
+     */
+    public void setVirtualResolution(int width, int height) {
+        if(isHeadless()) {
+            if(width <= 0 || height <= 0) {
+                throw new IllegalArgumentException (
+                    "virtual resolution must be positive"
+                );
+            }
+
+            setSize(width, height);
+            return;
+        }
+
+        getGamePanel().setVirtualResolution(width, height);
+    }
+
+    /**
+     * Makes this {@code Game} be drawn straight
+     * into the {@code GamePanel} again, without
+     * a virtual resolution.
+     */
+    public void removeVirtualResolution() {
+        if(!isHeadless()) {
+            getGamePanel().removeVirtualResolution();
+        }
+    }
+
+    /**
+     * Returns {@code true} if this {@code Game}
+     * is drawn with a virtual resolution and
+     * {@code false} otherwise.
+     * 
+     * @return boolean indicating if there
+     * is a virtual resolution
+     */
+    public boolean hasVirtualResolution() {
+        if(isHeadless()) {
+            return false;
+        }
+
+        return getGamePanel().hasVirtualResolution();
+    }
+
+    /**
+     * Makes the virtual resolution be
+     * upscaled with the nearest neighbor
+     * filter.
+     */
+    public void setUpscaleFilterNearest() {
+        if(!isHeadless()) {
+            getGamePanel().setUpscaleFilterNearest();
+        }
+    }
+
+    /**
+     * Makes the virtual resolution be
+     * upscaled with the bilinear filter.
+     */
+    public void setUpscaleFilterBilinear() {
+        if(!isHeadless()) {
+            getGamePanel().setUpscaleFilterBilinear();
+        }
+    }
+
+    /**
+     * Defines if the images and rectangles of this
+     * {@code Game} should be drawn by a
+     * {@code SoftwareRenderer} straight into the pixels
+     * of the virtual resolution backbuffer, instead of
+     * by Java2D. This only has effect while a virtual
+     * resolution is set, and only for the stages drawn
+     * through a {@code RenderBatch}.
+     * 
+     * @param softwareRendering {@code boolean}
+     * determining if software rendering is used
+     * 
+     * @see #setVirtualResolution(int, int)
+     */
+    public void setSoftwareRendering(boolean softwareRendering) {
+        if(!isHeadless()) {
+            getGamePanel().setSoftwareRendering(softwareRendering);
+        }
+    }
+
+    /**
+     * Returns {@code true} if software rendering
+     * is used and {@code false} otherwise.
+     * 
+     * @return boolean indicating if software
+     * rendering is used
+     */
+    public boolean getSoftwareRendering() {
+        if(isHeadless()) {
+            return false;
+        }
+
+        return getGamePanel().getSoftwareRendering();
+    }
+
+    /**
+     * Returns the {@code SoftwareRenderer} that draws
+     * this {@code Game} while it is being drawn with
+     * software rendering.
+     * 
+     * @return the software renderer or {@code null}
+     * if this {@code Game} is not being drawn with
+     * software rendering
+     */
+    public SoftwareRenderer getSoftwareRenderer() {
+        if(isHeadless()) {
+            return null;
+        }
+
+        return getGamePanel().getSoftwareRenderer();
+    }
+
+    /**
+     * Sets how many threads rasterize this {@code Game}
+     * with software rendering. With more than one, the
+     * frame is split in bands drawn in parallel, giving
+     * the same pixels as with one thread.
+     * 
+     * @param rasterThreads the amount of threads
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code rasterThreads} is not positive
+     * 
+     * @see #setSoftwareRendering(boolean)
+     */
+    public void setRasterThreads(int rasterThreads) {
+        if(isHeadless()) {
+            if(rasterThreads <= 0) {
+                throw new IllegalArgumentException (
+                    "raster threads must be positive"
+                );
+            }
+            return;
+        }
+
+        getGamePanel().setRasterThreads(rasterThreads);
+    }
+
+    /**
+     * Returns the {@code TiledRasterizer} that draws this
+     * {@code Game} in parallel bands while it is being
+     * drawn with software rendering on more than one thread.
+     * 
+     * @return the tiled rasterizer or {@code null} if this
+     * {@code Game} is not being drawn with software
+     * rendering on more than one thread
+     */
+    public TiledRasterizer getTiledRasterizer() {
+        if(isHeadless()) {
+            return null;
+        }
+
+        return getGamePanel().getTiledRasterizer();
+    }
+
+    /**
+     * Sets the {@code FrameCapture} of this {@code Game},
+     * to which every frame drawn by its panel is handed.
+     * The frames are drawn into the backbuffer of the
+     * panel while they are captured, at the virtual
+     * resolution if one is set. If there was a frame
+     * capture already, it is stopped and replaced.
+     * <p>
+     * Headless games draw no frames by themselves,
+     * so tools running them should pass their images
+     * to the {@code capture} method of the
+     * {@code FrameCapture} instead.
+     * 
+     * @param frameCapture the frame capture to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code frameCapture} argument is {@code null}
+     */
+    public void setFrameCapture(FrameCapture frameCapture) {
+        if(frameCapture == null) {
+            throw new IllegalArgumentException (
+                "cannot set null frame capture"
+            );
+        }
+
+        removeFrameCapture();
+        this.frameCapture = frameCapture;
+    }
+
+    /**
+     * Removes the {@code FrameCapture} of this
+     * {@code Game}, if it has one, and stops it,
+     * waiting for the captured frames to be written.
+     * 
+     * @return the removed frame capture or
+     * {@code null} if none is removed
+     */
+    public FrameCapture removeFrameCapture() {
+        FrameCapture removedCapture = this.frameCapture;
+        if(removedCapture != null) {
+            this.frameCapture = null;
+            removedCapture.stop();
+        }
+        return removedCapture;
+    }
+
+    /**
+     * Returns the {@code FrameCapture}
+     * of this {@code Game}.
+     * 
+     * @return the frame capture of this
+     * {@code Game} or {@code null} if
+     * it has none
+     */
+    public FrameCapture getFrameCapture() {
+        return this.frameCapture;
+    }
+
     /**
      * Method executed once the flow of
      * this {@code Game} starts.
@@ -791,7 +1591,9 @@ public abstract class Game implements GameFluid {
 
     /**
      * Executed every frame of this {@code Game} to
-     * update the current stage.
+     * update the current stage. If a transition is
+     * in progress, the stages are swapped here, before
+     * the current stage is updated.
      * <p>
      * This method also executes the {@code onUpdate}
      * method.
@@ -800,11 +1602,18 @@ public abstract class Game implements GameFluid {
      */
     @Override
     public void update() {
+        long startTime = System.nanoTime();
+        if(isTransitioning()) {
+            updateTransition();
+        }
+
+        Stage currentStage = this.currentStage;
         if(currentStage != null) {
             currentStage.update();
         }
 
         onUpdate();
+        updateStats.add(System.nanoTime() - startTime);
     }
     
     /**
@@ -820,7 +1629,9 @@ public abstract class Game implements GameFluid {
      * draw the current stage.
      * <p>
      * This method also executes the {@code onDraw}
-     * method.
+     * method, after which the effect of the
+     * transition in progress, if any, is drawn,
+     * and then the {@code PerformanceHud}.
      * 
      * @param g2 a {@code Graphics2D} instance used
      * for drawing the game.
@@ -830,11 +1641,24 @@ public abstract class Game implements GameFluid {
      */
     @Override
     public void draw(Graphics2D g2) {
+        long startTime = System.nanoTime();
+        Stage currentStage = this.currentStage;
         if(currentStage != null) {
             currentStage.draw(g2);
         }
 
         onDraw(g2);
+
+        StageTransition transition = this.transition;
+        if(transition != null) {
+            transition.draw(g2, getGamePanelWidth(), getGamePanelHeight());
+        }
+        drawStats.add(System.nanoTime() - startTime);
+
+        PerformanceHud performanceHud = this.performanceHud;
+        if(performanceHud != null) {
+            performanceHud.draw(g2, this);
+        }
     }
     
     /**
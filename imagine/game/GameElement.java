@@ -1,5 +1,7 @@
 package imagine.game;
 
+import java.nio.ByteBuffer;
+
 /**
  * Class to represent a generic
  * {@code GameElement}.
@@ -253,4 +255,43 @@ public abstract class GameElement {
         return x;
     }
 
+    /**
+     * Writes the state of this {@code GameElement}
+     * into the passed {@code buffer}, at its position.
+     * <p>
+     * Subclasses with more state should override this
+     * method, calling it first and then writing their
+     * own state, and override {@code loadState} to read
+     * it back in the same order.
+     * 
+     * @param buffer the buffer to write to
+     * 
+     * @throws java.nio.BufferOverflowException if
+     * the {@code buffer} has no room left
+     * 
+     * @see #loadState(ByteBuffer)
+     */
+    public void saveState(ByteBuffer buffer) {
+        buffer.putInt(x);
+        buffer.putInt(y);
+        buffer.putInt(width);
+        buffer.putInt(height);
+    }
+
+    /**
+     * Reads the state of this {@code GameElement}
+     * from the passed {@code buffer}, at its position,
+     * as written by {@code saveState}.
+     * 
+     * @param buffer the buffer to read from
+     * 
+     * @see #saveState(ByteBuffer)
+     */
+    public void loadState(ByteBuffer buffer) {
+        this.x = buffer.getInt();
+        this.y = buffer.getInt();
+        this.width = buffer.getInt();
+        this.height = buffer.getInt();
+    }
+
 }
\ No newline at end of file
@@ -4,6 +4,13 @@ import javax.swing.JPanel;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import imagine.capture.FrameCapture;
+import imagine.render.SoftwareRenderer;
+import imagine.render.TiledRasterizer;
 
 /**
  * Class used for creating a 
@@ -24,6 +31,76 @@ public class GamePanel extends JPanel {
      */
     private GameFrame gameFrame;
 
+    /**
+     * The width of the virtual resolution with
+     * which the {@code Game} is drawn. If set
+     * to {@code 0}, the {@code Game} is drawn
+     * straight into this {@code GamePanel}.
+     */
+    private int virtualWidth = 0;
+
+    /**
+     * The height of the virtual resolution with
+     * which the {@code Game} is drawn. If set
+     * to {@code 0}, the {@code Game} is drawn
+     * straight into this {@code GamePanel}.
+     */
+    private int virtualHeight = 0;
+
+    /**
+     * The interpolation used when the
+     * {@code backbuffer} is upscaled to the
+     * size of this {@code GamePanel}.
+     * <p>
+     * Is initially set to nearest neighbor,
+     * which keeps pixel art sharp.
+     */
+    private Object upscaleFilter = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+
+    /**
+     * The image where the {@code Game} is drawn
+     * when a virtual resolution is set. It is
+     * upscaled once to this {@code GamePanel}
+     * every frame.
+     */
+    private BufferedImage backbuffer;
+
+    /**
+     * Tells if the images and rectangles of the
+     * {@code Game} are drawn into the backbuffer by
+     * a {@code SoftwareRenderer} instead of Java2D.
+     * <p>
+     * Is initially set to {@code false}.
+     */
+    private boolean softwareRendering = false;
+
+    /**
+     * The {@code SoftwareRenderer} that
+     * draws into the backbuffer.
+     */
+    private SoftwareRenderer softwareRenderer;
+
+    /**
+     * How many threads rasterize the backbuffer
+     * with software rendering.
+     * <p>
+     * Is initially set to {@code 1}.
+     */
+    private int rasterThreads = 1;
+
+    /**
+     * The {@code TiledRasterizer} that splits software
+     * rendering among threads, if more than one
+     * thread is used.
+     */
+    private TiledRasterizer tiledRasterizer;
+
+    /**
+     * Tells if the {@code Game} is being
+     * drawn into the backbuffer.
+     */
+    private boolean drawingBackbuffer = false;
+
     /**
      * Creates a new {@code GamePanel} that will
      * be contained inside the passed {@code gameFrame}.
@@ -75,11 +152,334 @@ public class GamePanel extends JPanel {
         return gameFrame.getGame();
     }
 
+    /**
+     * Sets the virtual resolution with which the
+     * {@code Game} is drawn. Once set, the whole
+     * {@code Game} is drawn into a backbuffer of
+     * {@code width} by {@code height} pixels that
+     * is then upscaled once to this {@code GamePanel},
+     * making the cost of drawing a frame independent
+     * of the size of the window.
+     * 
+     * @param width the width of the virtual resolution
+     * @param height the height of the virtual resolution
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code width} or {@code height} argument
+     * is not positive
+     */
+    public void setVirtualResolution(int width, int height) {
+        if(width <= 0 || height <= 0) {
+            throw new IllegalArgumentException (
+                "cannot set virtual resolution to " +
+                width + "x" + height +
+                " (dimensions must be positive)"
+            );
+        }
+
+        this.virtualWidth = width;
+        this.virtualHeight = height;
+    }
+
+    /**
+     * Removes the virtual resolution of this
+     * {@code GamePanel}, making the {@code Game}
+     * be drawn straight into it again.
+     */
+    public void removeVirtualResolution() {
+        this.virtualWidth = 0;
+        this.virtualHeight = 0;
+        this.backbuffer = null;
+    }
+
+    /**
+     * Returns {@code true} if a virtual
+     * resolution is set for this
+     * {@code GamePanel} and {@code false}
+     * otherwise.
+     * 
+     * @return boolean indicating if there
+     * is a virtual resolution
+     */
+    public boolean hasVirtualResolution() {
+        return virtualWidth > 0 && virtualHeight > 0;
+    }
+
+    /**
+     * Returns the width of the area where the
+     * {@code Game} is drawn. This is the width
+     * of the virtual resolution if one is set
+     * and the width of this {@code GamePanel}
+     * otherwise.
+     * 
+     * @return the width of the drawing area
+     */
+    public int getRenderWidth() {
+        if(hasVirtualResolution()) {
+            return this.virtualWidth;
+        } else {
+            return getWidth();
+        }
+    }
+
+    /**
+     * Returns the height of the area where the
+     * {@code Game} is drawn. This is the height
+     * of the virtual resolution if one is set
+     * and the height of this {@code GamePanel}
+     * otherwise.
+     * 
+     * @return the height of the drawing area
+     */
+    public int getRenderHeight() {
+        if(hasVirtualResolution()) {
+            return this.virtualHeight;
+        } else {
+            return getHeight();
+        }
+    }
+
+    /**
+     * Makes the virtual resolution be upscaled
+     * with the nearest neighbor filter, which
+     * keeps the pixels sharp.
+     */
+    public void setUpscaleFilterNearest() {
+        this.upscaleFilter = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+    }
+
+    /**
+     * Makes the virtual resolution be upscaled
+     * with the bilinear filter, which smooths
+     * the pixels.
+     */
+    public void setUpscaleFilterBilinear() {
+        this.upscaleFilter = RenderingHints.VALUE_INTERPOLATION_BILINEAR;
+    }
+
+    /**
+     * Returns the {@code RenderingHints} interpolation
+     * value used to upscale the virtual resolution.
+     * 
+     * @return the upscale filter
+     */
+    public Object getUpscaleFilter() {
+        return this.upscaleFilter;
+    }
+
+    /**
+     * Defines if the images and rectangles of the
+     * {@code Game} should be drawn into the backbuffer
+     * by a {@code SoftwareRenderer} instead of Java2D.
+     * This only has effect while a virtual resolution
+     * is set, and only for the stages drawn through
+     * a {@code RenderBatch}.
+     * 
+     * @param softwareRendering {@code boolean}
+     * determining if software rendering is used
+     */
+    public void setSoftwareRendering(boolean softwareRendering) {
+        if(softwareRendering != this.softwareRendering) {
+            this.softwareRendering = softwareRendering;
+            this.backbuffer = null;
+            releaseSoftwareRenderer();
+        }
+    }
+
+    /**
+     * Sets how many threads rasterize the backbuffer
+     * with software rendering. With more than one, the
+     * backbuffer is split in bands drawn in parallel.
+     * 
+     * @param rasterThreads the amount of threads
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code rasterThreads} is not positive
+     */
+    public void setRasterThreads(int rasterThreads) {
+        if(rasterThreads <= 0) {
+            throw new IllegalArgumentException (
+                "cannot set " + rasterThreads + " raster threads" +
+                " (amount must be positive)"
+            );
+        }
+
+        if(rasterThreads != this.rasterThreads) {
+            this.rasterThreads = rasterThreads;
+            releaseSoftwareRenderer();
+        }
+    }
+
+    /**
+     * Returns how many threads rasterize the
+     * backbuffer with software rendering.
+     * 
+     * @return the amount of threads
+     */
+    public int getRasterThreads() {
+        return this.rasterThreads;
+    }
+
+    /**
+     * Discards the software renderer and stops
+     * the threads of the tiled rasterizer, if any.
+     */
+    private void releaseSoftwareRenderer() {
+        if(tiledRasterizer != null) {
+            tiledRasterizer.shutdown();
+            this.tiledRasterizer = null;
+        }
+        this.softwareRenderer = null;
+    }
+
+    /**
+     * Returns {@code true} if software rendering
+     * is used and {@code false} otherwise.
+     * 
+     * @return boolean indicating if software
+     * rendering is used
+     */
+    public boolean getSoftwareRendering() {
+        return this.softwareRendering;
+    }
+
+    /**
+     * Returns the {@code SoftwareRenderer} that
+     * draws into the backbuffer while the {@code Game}
+     * is being drawn into it with software rendering.
+     * 
+     * @return the software renderer or {@code null}
+     * if the {@code Game} is not being drawn with
+     * software rendering
+     */
+    public SoftwareRenderer getSoftwareRenderer() {
+        if(!drawingBackbuffer || !softwareRendering) {
+            return null;
+        }
+
+        if(softwareRenderer == null || softwareRenderer.getTarget() != backbuffer) {
+            releaseSoftwareRenderer();
+            softwareRenderer = new SoftwareRenderer(backbuffer);
+        }
+        return this.softwareRenderer;
+    }
+
+    /**
+     * Returns the {@code TiledRasterizer} that draws
+     * into the backbuffer in parallel bands while the
+     * {@code Game} is being drawn into it with software
+     * rendering on more than one thread.
+     * 
+     * @return the tiled rasterizer or {@code null} if
+     * the {@code Game} is not being drawn with software
+     * rendering on more than one thread
+     */
+    public TiledRasterizer getTiledRasterizer() {
+        SoftwareRenderer renderer = getSoftwareRenderer();
+        if(renderer == null || rasterThreads == 1) {
+            return null;
+        }
+
+        if(tiledRasterizer == null) {
+            tiledRasterizer = new TiledRasterizer(renderer, 32, rasterThreads);
+        }
+        return this.tiledRasterizer;
+    }
+
+    /**
+     * Returns the backbuffer where the {@code Game}
+     * is drawn when a virtual resolution is set or
+     * frames are captured, creating it first if it
+     * doesn't exist or doesn't match the size of
+     * the drawing area.
+     * <p>
+     * The backbuffer is created compatible with the
+     * screen of this {@code GamePanel} whenever
+     * possible, so that upscaling it is cheap. With
+     * software rendering, it is always an integer RGB
+     * image, whose pixels are written directly.
+     * 
+     * @return the backbuffer of this {@code GamePanel}
+     */
+    public BufferedImage getBackbuffer() {
+        int width = getRenderWidth();
+        int height = getRenderHeight();
+        if (
+            backbuffer == null ||
+            backbuffer.getWidth() != width ||
+            backbuffer.getHeight() != height
+        ) {
+            GraphicsConfiguration configuration = getGraphicsConfiguration();
+            if(configuration != null && !softwareRendering) {
+                backbuffer = configuration.createCompatibleImage (
+                    width, height
+                );
+            } else {
+                backbuffer = new BufferedImage (
+                    width, height,
+                    BufferedImage.TYPE_INT_RGB
+                );
+            }
+        }
+
+        return this.backbuffer;
+    }
+
+    /**
+     * Draws the {@code Game} into the backbuffer,
+     * clearing it first with the background color
+     * of this {@code GamePanel}.
+     */
+    private void drawBackbuffer() {
+        Graphics2D bufferGraphics = getBackbuffer().createGraphics();
+        bufferGraphics.setColor(getBackground());
+        bufferGraphics.fillRect(0, 0, backbuffer.getWidth(), backbuffer.getHeight());
+        this.drawingBackbuffer = true;
+        getGame().draw(bufferGraphics);
+        this.drawingBackbuffer = false;
+        bufferGraphics.dispose();
+    }
+
+    /**
+     * Upscales the backbuffer once to fit this
+     * {@code GamePanel}, keeping its aspect ratio
+     * and centralizing it.
+     * 
+     * @param g2 a {@code Graphics2D} instance used
+     * for drawing on this {@code GamePanel}
+     */
+    private void presentBackbuffer(Graphics2D g2) {
+        int bufferWidth = backbuffer.getWidth();
+        int bufferHeight = backbuffer.getHeight();
+        int width = getWidth();
+        int height = getHeight();
+        if((long) width * bufferHeight > (long) height * bufferWidth) {
+            width = height * bufferWidth / bufferHeight;
+        } else {
+            height = width * bufferHeight / bufferWidth;
+        }
+
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, upscaleFilter);
+        g2.drawImage (
+            backbuffer,
+            (getWidth() - width) / 2, (getHeight() - height) / 2,
+            width, height,
+            null
+        );
+    }
+
     /**
      * Calls the {@code draw} method of the
      * displayed {@code Game} passing a
      * {@code Graphics2D} instance obtained
      * from the {@code g} parameter.
+     * <p>
+     * If a virtual resolution is set, the
+     * {@code Game} is drawn into the backbuffer
+     * instead, which is then upscaled to this
+     * {@code GamePanel}. The backbuffer is also
+     * used while the {@code Game} has a frame
+     * capture, which is handed every frame.
      * 
      * @param g a {@code Graphics} instance used
      * for drawing on this {@code GamePanel}
@@ -89,9 +489,21 @@ public class GamePanel extends JPanel {
         super.paintComponent(g);
 
         Graphics2D g2 = (Graphics2D) g;
-        getGame().draw(g2);
+        FrameCapture capture = getGame().getFrameCapture();
+        if(hasVirtualResolution() || (capture != null && getWidth() > 0 && getHeight() > 0)) {
+            drawBackbuffer();
+            if(capture != null) {
+                capture.capture(backbuffer);
+            }
+            long presentTime = System.nanoTime();
+            presentBackbuffer(g2);
+            getGame().getPresentStats().add(System.nanoTime() - presentTime);
+        } else {
+            getGame().draw(g2);
+        }
         
         g2.dispose();
+        getGame().releaseSwappedStages();
     }
 
 }
\ No newline at end of file
@@ -67,6 +67,31 @@ public class KeyHandler implements KeyListener {
         activeKeys.remove((Integer) keyCode);
     }
 
+    /**
+     * Presses or releases the key specified by the
+     * passed {@code keyCode} without a keyboard event,
+     * which is useful for scripted input and for
+     * games that run headless.
+     * 
+     * @param keyCode the code of the key
+     * @param pressed {@code true} to press the key
+     * and {@code false} to release it
+     */
+    public void setPressed(int keyCode, boolean pressed) {
+        if(pressed) {
+            addKey(keyCode);
+        } else {
+            removeKey(keyCode);
+        }
+    }
+
+    /**
+     * Releases every pressed key.
+     */
+    public void releaseAll() {
+        activeKeys.clear();
+    }
+
     /**
      * Verifies if a key specified by the
      * passed {@code keyCode} argument
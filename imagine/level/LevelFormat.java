@@ -0,0 +1,99 @@
+package imagine.level;
+
+/**
+ * Constants of the binary level format written by
+ * {@code LevelWriter} and read by {@code LevelReader}.
+ * <p>
+ * Every value is stored big-endian, in this order:
+ * <ol>
+ * <li>the magic number and the format version;</li>
+ * <li>the width and height of the stage;</li>
+ * <li>the sprite table, with the path, rows, columns
+ * and gap of each sprite sheet referenced below;</li>
+ * <li>the render layers;</li>
+ * <li>the scenarios, each one with its layer (background
+ * or foreground), type, sprite, bounds and parallax;</li>
+ * <li>the tile map, if there is one, with its sprite,
+ * position, dimensions, tile ids and solid ids;</li>
+ * <li>the objects, each one with its type id, sprite,
+ * bounds, z index and render layer.</li>
+ * </ol>
+ * Strings are stored as an unsigned short length
+ * followed by their UTF-8 bytes. Sprites and render
+ * layers are referenced by their index in their tables,
+ * or {@code NONE}.
+ * 
+ * @author Daniel O Sousa
+ */
+final class LevelFormat {
+
+    /**
+     * The first four bytes of every
+     * level file ("IMLV").
+     */
+    static final int MAGIC = 0x494D4C56;
+
+    /**
+     * The version of the format
+     * written by {@code LevelWriter}.
+     */
+    static final short VERSION = 1;
+
+    /**
+     * The index referencing no sprite
+     * or render layer.
+     */
+    static final int NONE = -1;
+
+    /**
+     * The layer of a background scenario.
+     */
+    static final byte BACKGROUND = 0;
+
+    /**
+     * The layer of a foreground scenario.
+     */
+    static final byte FOREGROUND = 1;
+
+    /**
+     * The code of a scenario that doesn't repeat.
+     */
+    static final byte NO_REPEAT = 0;
+
+    /**
+     * The code of a scenario repeated horizontally.
+     */
+    static final byte REPEAT_X = 1;
+
+    /**
+     * The code of a scenario repeated vertically.
+     */
+    static final byte REPEAT_Y = 2;
+
+    /**
+     * The code of a scenario repeated
+     * horizontally and vertically.
+     */
+    static final byte REPEAT_XY = 3;
+
+    /**
+     * The names of the scenario types, indexed by
+     * the codes they are stored with, from
+     * {@code NO_REPEAT} to {@code REPEAT_XY}.
+     */
+    static final String[] SCENARIO_TYPES = {
+        "NoRepeat", "RepeatX", "RepeatY", "RepeatXY"
+    };
+
+    /**
+     * The biggest type id an object can have.
+     */
+    static final int MAX_TYPE_ID = 0xFFFF;
+
+    /**
+     * This class only holds constants.
+     */
+    private LevelFormat() {
+    }
+
+}
@@ -0,0 +1,459 @@
+package imagine.level;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+import imagine.object.GameObject;
+import imagine.scenario.Scenario;
+import imagine.sprite.SpriteSheet;
+import imagine.stage.RenderLayer;
+import imagine.stage.Stage;
+import imagine.tile.TileMap;
+
+/**
+ * Class for loading the binary level files written
+ * by {@code LevelWriter} into a {@code Stage}.
+ * <p>
+ * The file is memory-mapped and read in place, so
+ * loading a level costs little more than creating
+ * its objects: the tile ids are copied in bulk, each
+ * sprite sheet is loaded once however many elements
+ * reference it, and the lists of the stage are grown
+ * once to fit every object.
+ * <p>
+ * Like objects added in code inside the {@code onStart}
+ * method of a stage, the objects read there are not
+ * started by the stage.
+ * 
+ * @author Daniel O Sousa
+ */
+public class LevelReader {
+
+    /**
+     * The factories of the object
+     * types, indexed by type id.
+     */
+    private ObjectFactory[] objectFactories = new ObjectFactory[0];
+
+    /**
+     * The factory of the scenarios, or {@code null}
+     * to create scenarios without behavior.
+     */
+    private ScenarioFactory scenarioFactory;
+
+    /**
+     * The sprite sheets registered or already
+     * loaded, by their path.
+     */
+    private HashMap<String, SpriteSheet> spriteSheets = new HashMap<String, SpriteSheet>();
+
+    /**
+     * Registers the {@code factory} that creates the
+     * objects of the specified {@code typeId}.
+     * 
+     * @param typeId the id of the type, from
+     * {@code 0} to {@code 65535}
+     * @param factory the factory of the type
+     * 
+     * @throws IllegalArgumentException if the {@code factory}
+     * is {@code null} or the {@code typeId} is out of range
+     */
+    public void registerObjectType(int typeId, ObjectFactory factory) {
+        if(typeId < 0 || typeId > LevelFormat.MAX_TYPE_ID) {
+            throw new IllegalArgumentException (
+                "type id " + typeId + " is out of range"
+            );
+        }
+        if(factory == null) {
+            throw new IllegalArgumentException (
+                "cannot register null factory"
+            );
+        }
+
+        if(typeId >= objectFactories.length) {
+            ObjectFactory[] factories = new ObjectFactory[typeId + 1];
+            System.arraycopy(objectFactories, 0, factories, 0, objectFactories.length);
+            this.objectFactories = factories;
+        }
+        objectFactories[typeId] = factory;
+    }
+
+    /**
+     * Sets the {@code factory} that creates the
+     * scenarios of the levels. If {@code null},
+     * scenarios without behavior are created.
+     * 
+     * @param factory the factory to be set
+     */
+    public void setScenarioFactory(ScenarioFactory factory) {
+        this.scenarioFactory = factory;
+    }
+
+    /**
+     * Registers the {@code spriteSheet} to be used
+     * wherever a level references the specified
+     * {@code path}, instead of loading it.
+     * <p>
+     * Sprite sheets loaded by this {@code LevelReader}
+     * are also kept, so levels sharing sprites don't
+     * load them again.
+     * 
+     * @param path the path referencing the sprite sheet
+     * @param spriteSheet the sprite sheet
+     * 
+     * @throws IllegalArgumentException if any
+     * argument is {@code null}
+     */
+    public void registerSpriteSheet(String path, SpriteSheet spriteSheet) {
+        if(path == null || spriteSheet == null) {
+            throw new IllegalArgumentException (
+                "cannot register null path or sprite sheet"
+            );
+        }
+
+        spriteSheets.put(path, spriteSheet);
+    }
+
+    /**
+     * Reads the level file at the specified {@code path}
+     * into the passed {@code stage}, adding its scenarios,
+     * tile map and objects after the ones it already has.
+     * 
+     * @param path the path of the level file
+     * @param stage the stage to be populated
+     * 
+     * @throws IOException if the file cannot be read
+     * or is not a valid level file
+     * @throws IllegalArgumentException if an
+     * argument is {@code null}
+     */
+    public void read(Path path, Stage stage) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException (
+                "cannot read null path"
+            );
+        }
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), stage);
+        }
+    }
+
+    /**
+     * Reads a level from the passed {@code buffer}, from
+     * its position, into the passed {@code stage}, adding
+     * its scenarios, tile map and objects after the ones
+     * it already has.
+     * 
+     * @param buffer the buffer with the level
+     * @param stage the stage to be populated
+     * 
+     * @throws IOException if the buffer does not
+     * hold a valid level
+     * @throws IllegalArgumentException if an
+     * argument is {@code null}
+     */
+    public void read(ByteBuffer buffer, Stage stage) throws IOException {
+        if(buffer == null || stage == null) {
+            throw new IllegalArgumentException (
+                "cannot read null buffer or stage"
+            );
+        }
+
+        try {
+            if(buffer.getInt() != LevelFormat.MAGIC) {
+                throw new IOException("not a level file");
+            }
+            short version = buffer.getShort();
+            if(version < 1 || version > LevelFormat.VERSION) {
+                throw new IOException("unsupported level version " + version);
+            }
+
+            stage.setSize(buffer.getInt(), buffer.getInt());
+
+            SpriteSheet[] sprites = readSpriteSheets(buffer);
+            RenderLayer[] renderLayers = readRenderLayers(buffer, stage);
+            readScenarios(buffer, stage, sprites);
+            readTileMap(buffer, stage, sprites);
+            readObjects(buffer, stage, sprites, renderLayers);
+        }
+        catch(BufferUnderflowException e) {
+            throw new IOException("truncated level file", e);
+        }
+    }
+
+    /**
+     * Reads the sprite table, loading the sprite
+     * sheets that aren't known yet.
+     * 
+     * @param buffer the buffer with the level
+     * 
+     * @return the sprite sheets of the table
+     * 
+     * @throws IOException if the table is not valid
+     */
+    private SpriteSheet[] readSpriteSheets(ByteBuffer buffer) throws IOException {
+        SpriteSheet[] sprites = new SpriteSheet[readCount(buffer)];
+        for(int i = 0; i < sprites.length; i++) {
+            String path = readString(buffer);
+            int rows = buffer.getInt();
+            int columns = buffer.getInt();
+            int gap = buffer.getInt();
+
+            SpriteSheet spriteSheet = spriteSheets.get(path);
+            if(spriteSheet == null) {
+                spriteSheet = new SpriteSheet(path, rows, columns, gap);
+                spriteSheets.put(path, spriteSheet);
+            }
+            sprites[i] = spriteSheet;
+        }
+
+        return sprites;
+    }
+
+    /**
+     * Reads the render layers, adding to the
+     * {@code stage} the ones it doesn't have.
+     * 
+     * @param buffer the buffer with the level
+     * @param stage the stage being populated
+     * 
+     * @return the render layers of the level
+     * 
+     * @throws IOException if the layers are not valid
+     */
+    private RenderLayer[] readRenderLayers(ByteBuffer buffer, Stage stage) throws IOException {
+        RenderLayer[] renderLayers = new RenderLayer[readCount(buffer)];
+        for(int i = 0; i < renderLayers.length; i++) {
+            String name = readString(buffer);
+            int depth = buffer.getInt();
+            boolean ySorted = buffer.get() != 0;
+
+            RenderLayer renderLayer = stage.getRenderLayer(name);
+            if(renderLayer == null) {
+                renderLayer = stage.addRenderLayer(name, depth);
+            }
+            renderLayer.setDepth(depth);
+            renderLayer.setYSorted(ySorted);
+            renderLayers[i] = renderLayer;
+        }
+
+        return renderLayers;
+    }
+
+    /**
+     * Reads the scenarios, adding them to the
+     * {@code stage} as its furthest backgrounds
+     * and foregrounds.
+     * 
+     * @param buffer the buffer with the level
+     * @param stage the stage being populated
+     * @param sprites the sprite table
+     * 
+     * @throws IOException if the scenarios are not valid
+     */
+    private void readScenarios(ByteBuffer buffer, Stage stage, SpriteSheet[] sprites) throws IOException {
+        int count = readCount(buffer);
+        for(int i = 0; i < count; i++) {
+            byte layer = buffer.get();
+            byte type = buffer.get();
+            SpriteSheet spriteSheet = getSprite(sprites, buffer.getInt());
+
+            Scenario scenario = scenarioFactory != null ?
+                scenarioFactory.create(spriteSheet) :
+                new LevelScenario(spriteSheet);
+            scenario.setCoordinates(buffer.getInt(), buffer.getInt());
+            scenario.setSize(buffer.getInt(), buffer.getInt());
+            scenario.setXParallaxSpeed(buffer.getInt());
+            scenario.setYParallaxSpeed(buffer.getInt());
+
+            switch(type) {
+                case LevelFormat.NO_REPEAT:
+                    scenario.setTypeNoRepeat();
+                    break;
+                case LevelFormat.REPEAT_X:
+                    scenario.setTypeRepeatX();
+                    break;
+                case LevelFormat.REPEAT_Y:
+                    scenario.setTypeRepeatY();
+                    break;
+                case LevelFormat.REPEAT_XY:
+                    scenario.setTypeRepeatXY();
+                    break;
+                default:
+                    throw new IOException("unknown scenario type " + type);
+            }
+
+            if(layer == LevelFormat.BACKGROUND) {
+                stage.addFurthestBackground(scenario);
+            } else if(layer == LevelFormat.FOREGROUND) {
+                stage.addFurthestForeground(scenario);
+            } else {
+                throw new IOException("unknown scenario layer " + layer);
+            }
+        }
+    }
+
+    /**
+     * Reads the tile map, if there is one, and
+     * sets it to the {@code stage}. The tile ids
+     * are copied in bulk.
+     * 
+     * @param buffer the buffer with the level
+     * @param stage the stage being populated
+     * @param sprites the sprite table
+     * 
+     * @throws IOException if the tile map is not valid
+     */
+    private void readTileMap(ByteBuffer buffer, Stage stage, SpriteSheet[] sprites) throws IOException {
+        if(buffer.get() == 0) {
+            return;
+        }
+
+        SpriteSheet spriteSheet = getSprite(sprites, buffer.getInt());
+        int x = buffer.getInt();
+        int y = buffer.getInt();
+        int columns = buffer.getInt();
+        int rows = buffer.getInt();
+        int chunkSize = buffer.getInt();
+        if(spriteSheet == null || columns < 0 || rows < 0 || chunkSize <= 0) {
+            throw new IOException("invalid tile map");
+        }
+
+        TileMap tileMap = new TileMap(spriteSheet, columns, rows);
+        tileMap.setCoordinates(x, y);
+        tileMap.setChunkSize(chunkSize);
+
+        short[] tiles = tileMap.getTiles();
+        buffer.asShortBuffer().get(tiles);
+        buffer.position(buffer.position() + tiles.length * 2);
+
+        int tileCount = tileMap.getTileCount();
+        for(short tile : tiles) {
+            if(tile < TileMap.EMPTY || tile >= tileCount) {
+                throw new IOException("invalid tile id " + tile);
+            }
+        }
+        tileMap.invalidate();
+
+        int solidCount = readCount(buffer);
+        for(int i = 0; i < solidCount; i++) {
+            int id = buffer.getShort();
+            if(id < 0 || id >= tileCount) {
+                throw new IOException("invalid solid tile id " + id);
+            }
+            tileMap.setSolid(id, true);
+        }
+
+        stage.setTileMap(tileMap);
+    }
+
+    /**
+     * Reads the objects, creating them through the
+     * registered factories and adding them to the
+     * {@code stage}.
+     * 
+     * @param buffer the buffer with the level
+     * @param stage the stage being populated
+     * @param sprites the sprite table
+     * @param renderLayers the render layers
+     * of the level
+     * 
+     * @throws IOException if the objects are not valid
+     */
+    private void readObjects(ByteBuffer buffer, Stage stage, SpriteSheet[] sprites, RenderLayer[] renderLayers) throws IOException {
+        int count = readCount(buffer);
+        stage.getObjects().ensureCapacity(stage.getObjects().size() + count);
+        stage.getDrawOrder().ensureCapacity(stage.getDrawOrder().size() + count);
+
+        for(int i = 0; i < count; i++) {
+            int typeId = buffer.getShort() & 0xFFFF;
+            if(typeId >= objectFactories.length || objectFactories[typeId] == null) {
+                throw new IOException("no factory registered for type id " + typeId);
+            }
+
+            SpriteSheet spriteSheet = getSprite(sprites, buffer.getInt());
+            GameObject object = objectFactories[typeId].create (
+                spriteSheet,
+                buffer.getInt(),
+                buffer.getInt(),
+                buffer.getInt(),
+                buffer.getInt()
+            );
+            object.setZIndex(buffer.getInt());
+
+            int renderLayer = buffer.getInt();
+            if(renderLayer != LevelFormat.NONE) {
+                if(renderLayer < 0 || renderLayer >= renderLayers.length) {
+                    throw new IOException("invalid render layer " + renderLayer);
+                }
+                object.setRenderLayer(renderLayers[renderLayer]);
+            }
+
+            stage.addObject(object);
+        }
+    }
+
+    /**
+     * Returns the sprite sheet at the specified
+     * {@code index} of the sprite table.
+     * 
+     * @param sprites the sprite table
+     * @param index the index of the sprite sheet
+     * 
+     * @return the sprite sheet, or {@code null}
+     * if the index is {@code NONE}
+     * 
+     * @throws IOException if the index is not valid
+     */
+    private static SpriteSheet getSprite(SpriteSheet[] sprites, int index) throws IOException {
+        if(index == LevelFormat.NONE) {
+            return null;
+        }
+        if(index < 0 || index >= sprites.length) {
+            throw new IOException("invalid sprite index " + index);
+        }
+
+        return sprites[index];
+    }
+
+    /**
+     * Reads an amount of elements, which
+     * cannot be negative.
+     * 
+     * @param buffer the buffer with the level
+     * 
+     * @return the amount of elements
+     * 
+     * @throws IOException if the amount is negative
+     */
+    private static int readCount(ByteBuffer buffer) throws IOException {
+        int count = buffer.getInt();
+        if(count < 0) {
+            throw new IOException("invalid element count " + count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads a string stored as its length
+     * followed by its UTF-8 bytes.
+     * 
+     * @param buffer the buffer with the level
+     * 
+     * @return the string read
+     */
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,40 @@
+package imagine.level;
+
+import java.awt.Graphics2D;
+
+import imagine.scenario.Scenario;
+import imagine.sprite.SpriteSheet;
+
+/**
+ * Scenario with no behavior of its own, created
+ * by {@code LevelReader} when no
+ * {@code ScenarioFactory} is set.
+ * 
+ * @author Daniel O Sousa
+ */
+class LevelScenario extends Scenario {
+
+    /**
+     * Constructs a {@code LevelScenario} with
+     * the specified {@code spriteSheet}.
+     * 
+     * @param spriteSheet the sprite sheet
+     * of the scenario
+     */
+    LevelScenario(SpriteSheet spriteSheet) {
+        super(spriteSheet);
+    }
+
+    @Override
+    public void onStart() {
+    }
+
+    @Override
+    public void onUpdate() {
+    }
+
+    @Override
+    public void onDraw(Graphics2D g2) {
+    }
+
+}
@@ -0,0 +1,403 @@
+package imagine.level;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import imagine.object.GameObject;
+import imagine.scenario.Scenario;
+import imagine.sprite.SpriteSheet;
+import imagine.stage.RenderLayer;
+import imagine.stage.Stage;
+import imagine.tile.TileMap;
+
+/**
+ * Class for writing the content of a {@code Stage}
+ * into a binary level file, which can be loaded
+ * back by a {@code LevelReader} much faster than
+ * the stage can be built in code.
+ * <p>
+ * The classes of the objects must be registered
+ * with a type id, and every sprite sheet must have
+ * a path, either the one it was loaded from or one
+ * registered through {@code registerSpriteSheet}.
+ * 
+ * @author Daniel O Sousa
+ */
+public class LevelWriter {
+
+    /**
+     * The type ids of the
+     * registered object classes.
+     */
+    private HashMap<Class<?>, Integer> objectTypes = new HashMap<Class<?>, Integer>();
+
+    /**
+     * The paths registered for sprite
+     * sheets that weren't loaded from one.
+     */
+    private IdentityHashMap<SpriteSheet, String> spritePaths = new IdentityHashMap<SpriteSheet, String>();
+
+    /**
+     * The sprite sheets referenced by the
+     * stage being written, in the order they
+     * are stored in the sprite table.
+     */
+    private ArrayList<SpriteSheet> spriteSheets = new ArrayList<SpriteSheet>();
+
+    /**
+     * The index of each sprite sheet
+     * in the sprite table.
+     */
+    private IdentityHashMap<SpriteSheet, Integer> spriteIndexes = new IdentityHashMap<SpriteSheet, Integer>();
+
+    /**
+     * Registers the {@code typeId} with which the objects
+     * of the specified {@code type} are written. The
+     * {@code LevelReader} must have an {@code ObjectFactory}
+     * registered with the same id.
+     * 
+     * @param type the class of the objects
+     * @param typeId the id of the type, from
+     * {@code 0} to {@code 65535}
+     * 
+     * @throws IllegalArgumentException if the {@code type}
+     * is {@code null} or the {@code typeId} is out of range
+     */
+    public void registerObjectType(Class<? extends GameObject> type, int typeId) {
+        if(type == null) {
+            throw new IllegalArgumentException (
+                "cannot register null type"
+            );
+        }
+        if(typeId < 0 || typeId > LevelFormat.MAX_TYPE_ID) {
+            throw new IllegalArgumentException (
+                "type id " + typeId + " is out of range"
+            );
+        }
+
+        objectTypes.put(type, typeId);
+    }
+
+    /**
+     * Registers the {@code path} with which the passed
+     * {@code spriteSheet} is referenced, for sprite
+     * sheets created directly from an image.
+     * 
+     * @param spriteSheet the sprite sheet
+     * @param path the path referencing it
+     * 
+     * @throws IllegalArgumentException if any
+     * argument is {@code null}
+     */
+    public void registerSpriteSheet(SpriteSheet spriteSheet, String path) {
+        if(spriteSheet == null || path == null) {
+            throw new IllegalArgumentException (
+                "cannot register null sprite sheet or path"
+            );
+        }
+
+        spritePaths.put(spriteSheet, path);
+    }
+
+    /**
+     * Writes the scenarios, tile map and objects of
+     * the passed {@code stage} into the file at the
+     * specified {@code path}, replacing it if it exists.
+     * 
+     * @param stage the stage to be written
+     * @param path the path of the level file
+     * 
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if an argument is
+     * {@code null}, an object class is not registered,
+     * a sprite sheet has no path or a scenario has a
+     * type that cannot be written
+     */
+    public void write(Stage stage, Path path) throws IOException {
+        if(stage == null || path == null) {
+            throw new IllegalArgumentException (
+                "cannot write null stage or path"
+            );
+        }
+
+        collectSpriteSheets(stage);
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(LevelFormat.MAGIC);
+            out.writeShort(LevelFormat.VERSION);
+            out.writeInt(stage.getWidth());
+            out.writeInt(stage.getHeight());
+
+            writeSpriteSheets(out);
+            writeRenderLayers(out, stage.getRenderLayers());
+            writeScenarios(out, stage);
+            writeTileMap(out, stage.getTileMap());
+            writeObjects(out, stage);
+        }
+        finally {
+            spriteSheets.clear();
+            spriteIndexes.clear();
+        }
+    }
+
+    /**
+     * Fills the sprite table with the sprite sheets
+     * referenced by the passed {@code stage}.
+     * 
+     * @param stage the stage being written
+     */
+    private void collectSpriteSheets(Stage stage) {
+        for(Scenario background : stage.getBackgrounds()) {
+            collectSpriteSheet(background.getSpriteSheet());
+        }
+        for(Scenario foreground : stage.getForegrounds()) {
+            collectSpriteSheet(foreground.getSpriteSheet());
+        }
+        if(stage.getTileMap() != null) {
+            collectSpriteSheet(stage.getTileMap().getSpriteSheet());
+        }
+        for(GameObject object : stage.getObjects()) {
+            collectSpriteSheet(object.getSpriteSheet());
+        }
+    }
+
+    /**
+     * Adds the passed {@code spriteSheet} to the
+     * sprite table, if it isn't there yet.
+     * 
+     * @param spriteSheet the sprite sheet to be added
+     */
+    private void collectSpriteSheet(SpriteSheet spriteSheet) {
+        if(spriteSheet == null || spriteIndexes.containsKey(spriteSheet)) {
+            return;
+        }
+
+        spriteIndexes.put(spriteSheet, spriteSheets.size());
+        spriteSheets.add(spriteSheet);
+    }
+
+    /**
+     * Returns the index of the passed {@code spriteSheet}
+     * in the sprite table.
+     * 
+     * @param spriteSheet the sprite sheet
+     * 
+     * @return the index of the sprite sheet, or
+     * {@code NONE} if it is {@code null}
+     */
+    private int getSpriteIndex(SpriteSheet spriteSheet) {
+        if(spriteSheet == null) {
+            return LevelFormat.NONE;
+        }
+
+        return spriteIndexes.get(spriteSheet);
+    }
+
+    /**
+     * Writes the sprite table.
+     * 
+     * @param out the stream of the level file
+     * 
+     * @throws IOException if the file cannot be written
+     */
+    private void writeSpriteSheets(DataOutputStream out) throws IOException {
+        out.writeInt(spriteSheets.size());
+        for(SpriteSheet spriteSheet : spriteSheets) {
+            String path = spritePaths.get(spriteSheet);
+            if(path == null) {
+                path = spriteSheet.getPath();
+            }
+            if(path == null) {
+                throw new IllegalArgumentException (
+                    "cannot write sprite sheet without a path"
+                );
+            }
+
+            writeString(out, path);
+            out.writeInt(spriteSheet.getRows());
+            out.writeInt(spriteSheet.getColumns());
+            out.writeInt(spriteSheet.getGap());
+        }
+    }
+
+    /**
+     * Writes the render layers.
+     * 
+     * @param out the stream of the level file
+     * @param renderLayers the render layers
+     * of the stage
+     * 
+     * @throws IOException if the file cannot be written
+     */
+    private void writeRenderLayers(DataOutputStream out, ArrayList<RenderLayer> renderLayers) throws IOException {
+        out.writeInt(renderLayers.size());
+        for(RenderLayer renderLayer : renderLayers) {
+            writeString(out, renderLayer.getName());
+            out.writeInt(renderLayer.getDepth());
+            out.writeBoolean(renderLayer.getYSorted());
+        }
+    }
+
+    /**
+     * Writes the backgrounds and
+     * foregrounds of the {@code stage}.
+     * 
+     * @param out the stream of the level file
+     * @param stage the stage being written
+     * 
+     * @throws IOException if the file cannot be written
+     */
+    private void writeScenarios(DataOutputStream out, Stage stage) throws IOException {
+        out.writeInt(stage.getBackgrounds().size() + stage.getForegrounds().size());
+        for(Scenario background : stage.getBackgrounds()) {
+            writeScenario(out, background, LevelFormat.BACKGROUND);
+        }
+        for(Scenario foreground : stage.getForegrounds()) {
+            writeScenario(out, foreground, LevelFormat.FOREGROUND);
+        }
+    }
+
+    /**
+     * Writes a single {@code scenario}.
+     * 
+     * @param out the stream of the level file
+     * @param scenario the scenario to be written
+     * @param layer the layer of the scenario
+     * 
+     * @throws IOException if the file cannot be written
+     */
+    private void writeScenario(DataOutputStream out, Scenario scenario, byte layer) throws IOException {
+        int type = getScenarioTypeCode(scenario.getType());
+
+        out.writeByte(layer);
+        out.writeByte(type);
+        out.writeInt(getSpriteIndex(scenario.getSpriteSheet()));
+        out.writeInt(scenario.getX());
+        out.writeInt(scenario.getY());
+        out.writeInt(scenario.getWidth());
+        out.writeInt(scenario.getHeight());
+        out.writeInt(scenario.getXParallaxSpeed());
+        out.writeInt(scenario.getYParallaxSpeed());
+    }
+
+    /**
+     * Returns the code with which the scenario
+     * type of the specified {@code name} is stored.
+     * 
+     * @param name the name of the scenario type
+     * 
+     * @return the code of the scenario type
+     * 
+     * @throws IllegalArgumentException if the
+     * type cannot be written
+     */
+    private static int getScenarioTypeCode(String name) {
+        for(int i = 0; i < LevelFormat.SCENARIO_TYPES.length; i++) {
+            if(LevelFormat.SCENARIO_TYPES[i].equals(name)) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException (
+            "cannot write scenario of type " + name
+        );
+    }
+
+    /**
+     * Writes the {@code tileMap}, if there is one.
+     * 
+     * @param out the stream of the level file
+     * @param tileMap the tile map of the stage
+     * 
+     * @throws IOException if the file cannot be written
+     */
+    private void writeTileMap(DataOutputStream out, TileMap tileMap) throws IOException {
+        out.writeBoolean(tileMap != null);
+        if(tileMap == null) {
+            return;
+        }
+
+        out.writeInt(getSpriteIndex(tileMap.getSpriteSheet()));
+        out.writeInt(tileMap.getX());
+        out.writeInt(tileMap.getY());
+        out.writeInt(tileMap.getColumns());
+        out.writeInt(tileMap.getRows());
+        out.writeInt(tileMap.getChunkSize());
+        for(short tile : tileMap.getTiles()) {
+            out.writeShort(tile);
+        }
+
+        int solidCount = 0;
+        for(int id = 0; id < tileMap.getTileCount(); id++) {
+            if(tileMap.isSolid(id)) {
+                solidCount++;
+            }
+        }
+        out.writeInt(solidCount);
+        for(int id = 0; id < tileMap.getTileCount(); id++) {
+            if(tileMap.isSolid(id)) {
+                out.writeShort(id);
+            }
+        }
+    }
+
+    /**
+     * Writes the objects of the {@code stage}.
+     * 
+     * @param out the stream of the level file
+     * @param stage the stage being written
+     * 
+     * @throws IOException if the file cannot be written
+     */
+    private void writeObjects(DataOutputStream out, Stage stage) throws IOException {
+        ArrayList<RenderLayer> renderLayers = stage.getRenderLayers();
+
+        out.writeInt(stage.getObjects().size());
+        for(GameObject object : stage.getObjects()) {
+            Integer typeId = objectTypes.get(object.getClass());
+            if(typeId == null) {
+                throw new IllegalArgumentException (
+                    "object type " + object.getClass().getName() +
+                    " is not registered"
+                );
+            }
+
+            out.writeShort(typeId);
+            out.writeInt(getSpriteIndex(object.getSpriteSheet()));
+            out.writeInt(object.getX());
+            out.writeInt(object.getY());
+            out.writeInt(object.getWidth());
+            out.writeInt(object.getHeight());
+            out.writeInt(object.getZIndex());
+            out.writeInt(renderLayers.indexOf(object.getRenderLayer()));
+        }
+    }
+
+    /**
+     * Writes a {@code string} as its length
+     * followed by its UTF-8 bytes.
+     * 
+     * @param out the stream of the level file
+     * @param string the string to be written
+     * 
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException (
+                "cannot write string longer than 65535 bytes"
+            );
+        }
+
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+}
@@ -0,0 +1,29 @@
+package imagine.level;
+
+import imagine.object.GameObject;
+import imagine.sprite.SpriteSheet;
+
+/**
+ * Interface for creating the objects of a
+ * type id when a level is read.
+ * 
+ * @author Daniel O Sousa
+ */
+public interface ObjectFactory {
+
+    /**
+     * Creates a new {@code GameObject} with
+     * the passed properties.
+     * 
+     * @param spriteSheet the sprite sheet of the
+     * object, which may be {@code null}
+     * @param x the x coordinate of the object
+     * @param y the y coordinate of the object
+     * @param width the width of the object
+     * @param height the height of the object
+     * 
+     * @return the created {@code GameObject}
+     */
+    public GameObject create(SpriteSheet spriteSheet, int x, int y, int width, int height);
+
+}
@@ -0,0 +1,25 @@
+package imagine.level;
+
+import imagine.scenario.Scenario;
+import imagine.sprite.SpriteSheet;
+
+/**
+ * Interface for creating the scenarios
+ * of a level when it is read.
+ * 
+ * @author Daniel O Sousa
+ */
+public interface ScenarioFactory {
+
+    /**
+     * Creates a new {@code Scenario} with
+     * the passed {@code spriteSheet}.
+     * 
+     * @param spriteSheet the sprite sheet of the
+     * scenario, which may be {@code null}
+     * 
+     * @return the created {@code Scenario}
+     */
+    public Scenario create(SpriteSheet spriteSheet);
+
+}
@@ -2,9 +2,17 @@ package imagine.object;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
 
+import imagine.debug.ObjectProfiler;
 import imagine.stage.AnimatableStageElement;
+import imagine.stage.RenderLayer;
+import imagine.stage.Stage;
 import imagine.flow.GameFluid;
+import imagine.render.CustomDrawable;
+import imagine.render.RenderBatch;
+import imagine.sprite.Sprite;
 import imagine.sprite.SpriteSheet;
 
 /**
@@ -12,7 +20,7 @@ import imagine.sprite.SpriteSheet;
  * 
  * @author Daniel O Sousa
  */
-public abstract class GameObject extends AnimatableStageElement implements GameFluid {
+public abstract class GameObject extends AnimatableStageElement implements GameFluid, CustomDrawable {
 
     /**
      * The color with which this {@code GameObject}
@@ -42,6 +50,46 @@ public abstract class GameObject extends AnimatableStageElement implements GameF
      */
     private boolean showSprite = true;
 
+    /**
+     * Determines if the {@code onDraw} method of
+     * this object is called when it is drawn through
+     * a {@code RenderBatch}. Each call is recorded as
+     * a custom drawing, which sprites of other objects
+     * cannot be batched across, so it should only be
+     * set if {@code onDraw} draws something.
+     * <p>
+     * This property is initially set to {@code false}.
+     */
+    private boolean customDrawing = false;
+
+    /**
+     * The z index of this {@code GameObject}. Inside
+     * a {@code RenderLayer}, objects with smaller z
+     * indexes are drawn behind objects with bigger
+     * ones.
+     * <p>
+     * This property is initially set to {@code 0}.
+     */
+    private int zIndex = 0;
+
+    /**
+     * The {@code RenderLayer} in which this
+     * {@code GameObject} is drawn. If {@code null},
+     * this {@code GameObject} is drawn as if it was
+     * in a layer of depth {@code 0}.
+     */
+    private RenderLayer renderLayer;
+
+    /**
+     * Tells if this {@code GameObject} is dormant,
+     * that is, if it is outside the activity region
+     * of its {@code Stage} and is neither updated
+     * every frame nor drawn.
+     * <p>
+     * This property is initially set to {@code false}.
+     */
+    private boolean dormant = false;
+
     /**
      * Constructs a {@code GameObject} instance that will
      * have the passed {@code spriteSheet}, {@code x} and
@@ -133,6 +181,133 @@ public abstract class GameObject extends AnimatableStageElement implements GameF
         return this.showBoundingBox;
     }
 
+    /**
+     * Defines if the {@code onDraw} method of this
+     * {@code GameObject} should be called when it is
+     * drawn through a {@code RenderBatch}. Objects
+     * whose {@code onDraw} draws nothing should leave
+     * it unset, so that their sprites can be batched
+     * with the ones of other objects.
+     * 
+     * @param customDrawing a {@code boolean} specifying
+     * if {@code onDraw} is called in batch rendering
+     */
+    public void setCustomDrawing(boolean customDrawing) {
+        this.customDrawing = customDrawing;
+    }
+
+    /**
+     * Returns {@code true} if the {@code onDraw}
+     * method of this {@code GameObject} is called
+     * when it is drawn through a {@code RenderBatch},
+     * and {@code false} otherwise.
+     * 
+     * @return a {@code boolean} value
+     */
+    public boolean getCustomDrawing() {
+        return this.customDrawing;
+    }
+
+    /**
+     * Sets the z index of this {@code GameObject}.
+     * Inside its {@code RenderLayer}, objects with
+     * smaller z indexes are drawn first.
+     * 
+     * @param zIndex the z index to be set
+     */
+    public void setZIndex(int zIndex) {
+        this.zIndex = zIndex;
+    }
+
+    /**
+     * Returns the z index of this
+     * {@code GameObject}.
+     * 
+     * @return the z index
+     */
+    public int getZIndex() {
+        return this.zIndex;
+    }
+
+    /**
+     * Sets the {@code RenderLayer} in which this
+     * {@code GameObject} is drawn. If {@code null}
+     * is passed, this {@code GameObject} is drawn
+     * as if it was in a layer of depth {@code 0}.
+     * 
+     * @param renderLayer the layer to be set
+     */
+    public void setRenderLayer(RenderLayer renderLayer) {
+        this.renderLayer = renderLayer;
+    }
+
+    /**
+     * Returns the {@code RenderLayer} in which
+     * this {@code GameObject} is drawn.
+     * 
+     * @return the layer of this {@code GameObject}
+     */
+    public RenderLayer getRenderLayer() {
+        return this.renderLayer;
+    }
+
+    /**
+     * Defines if this {@code GameObject} is dormant.
+     * This is set by the {@code ActivityRegion} of
+     * its {@code Stage} and shouldn't be set otherwise.
+     * 
+     * @param dormant boolean specifying if this
+     * {@code GameObject} is dormant
+     */
+    public void setDormant(boolean dormant) {
+        this.dormant = dormant;
+    }
+
+    /**
+     * Returns {@code true} if this {@code GameObject}
+     * is dormant, outside the activity region of its
+     * {@code Stage}, and {@code false} otherwise.
+     * 
+     * @return boolean specifying if this
+     * {@code GameObject} is dormant
+     */
+    public boolean getDormant() {
+        return this.dormant;
+    }
+
+    /**
+     * Returns the depth of the {@code RenderLayer}
+     * of this {@code GameObject}, or {@code 0} if
+     * it has no layer.
+     * 
+     * @return the depth with which this
+     * {@code GameObject} is drawn
+     */
+    public int getDrawDepth() {
+        if(renderLayer != null) {
+            return renderLayer.getDepth();
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the key that orders this {@code GameObject}
+     * inside its {@code RenderLayer}. This is the bottom
+     * coordinate if the layer is y sorted and the z
+     * index otherwise.
+     * 
+     * @return the key with which this
+     * {@code GameObject} is sorted
+     */
+    public int getDrawKey() {
+        if(renderLayer != null && renderLayer.getYSorted()) {
+            return getBottom();
+        } else {
+            return zIndex;
+        }
+    }
+
     /**
      * Returns the apparent x coordinate of
      * this {@code GameObject} when taking into
@@ -223,14 +398,37 @@ public abstract class GameObject extends AnimatableStageElement implements GameF
 
     /**
      * Executes the {@code onUpdate} method.
+     * <p>
+     * If the {@code Stage} of this {@code GameObject}
+     * has an {@code ObjectProfiler}, the update is
+     * measured with it.
      * 
      * @see #onUpdate()
      */
     @Override
     public void update() {
+        ObjectProfiler profiler = getProfiler();
+        long startTime = profiler != null ? System.nanoTime() : 0;
+
         move();
         
         onUpdate();
+
+        if(profiler != null) {
+            profiler.addUpdate(this, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Returns the {@code ObjectProfiler} of the
+     * {@code Stage} of this {@code GameObject}.
+     * 
+     * @return the profiler or {@code null}
+     * if there is none
+     */
+    private ObjectProfiler getProfiler() {
+        Stage stage = getStage();
+        return stage != null ? stage.getObjectProfiler() : null;
     }
 
     /**
@@ -245,6 +443,27 @@ public abstract class GameObject extends AnimatableStageElement implements GameF
      */
     public abstract void onUpdate();
 
+    /**
+     * Returns the image of the current frame of this
+     * {@code GameObject}, pre-scaled if the zoom of
+     * the {@code Camera} makes it be drawn at half
+     * its size or less.
+     * 
+     * @return the image to be drawn
+     */
+    private BufferedImage getFrameImage() {
+        Sprite frame = getCurrentFrame();
+        if(getCamera() == null || getCamera().getZoom() >= 1) {
+            return frame.getImage();
+        }
+
+        double scale = getCamera().getZoom() * Math.max (
+            getWidth() / (double) frame.getWidth(),
+            getHeight() / (double) frame.getHeight()
+        );
+        return frame.getImage(scale);
+    }
+
     /**
      * Draws this {@code GameObject} using the passed
      * {@code Graphics2D} instance.
@@ -257,6 +476,10 @@ public abstract class GameObject extends AnimatableStageElement implements GameF
      * <p>
      * After drawing the {@code GameObject}, this method calls the
      * {@code onDraw} method.
+     * <p>
+     * If the {@code Stage} of this {@code GameObject}
+     * has an {@code ObjectProfiler}, the drawing is
+     * measured with it.
      * 
      * @param g2 a {@code Graphics2D} instance
      * 
@@ -264,6 +487,9 @@ public abstract class GameObject extends AnimatableStageElement implements GameF
      */
     @Override
     public void draw(Graphics2D g2) {
+        ObjectProfiler profiler = getProfiler();
+        long startTime = profiler != null ? System.nanoTime() : 0;
+
         if(showBoundingBox) {
             g2.setColor(color);
             g2.fillRect (
@@ -273,7 +499,7 @@ public abstract class GameObject extends AnimatableStageElement implements GameF
         }
         if(showSprite && getSpriteSheet() != null) {
             g2.drawImage (
-                getCurrentFrame().getImage(),
+                getFrameImage(),
                 getApparentX(), getApparentY(),
                 getWidth(), getHeight(),
                 null
@@ -281,6 +507,57 @@ public abstract class GameObject extends AnimatableStageElement implements GameF
         }
 
         onDraw(g2);
+
+        if(profiler != null) {
+            profiler.addDraw(this, System.nanoTime() - startTime);
+        }
+    }
+    
+    /**
+     * Records the drawing of this {@code GameObject}
+     * into the passed {@code batch}. The bounding box
+     * and the sprite are recorded the same way as they
+     * are drawn by {@code draw(Graphics2D)}, and, if
+     * custom drawing is set, the {@code onDraw} method
+     * is recorded to be called after them.
+     * <p>
+     * If the {@code Stage} of this {@code GameObject}
+     * has an {@code ObjectProfiler}, the recording is
+     * measured with it. The {@code onDraw} method runs
+     * when the batch is submitted, and is measured by
+     * the batch as a drawing of its own.
+     * 
+     * @param batch a {@code RenderBatch} where
+     * this {@code GameObject} is recorded
+     * 
+     * @see #draw(Graphics2D)
+     */
+    public void draw(RenderBatch batch) {
+        ObjectProfiler profiler = getProfiler();
+        long startTime = profiler != null ? System.nanoTime() : 0;
+
+        if(showBoundingBox) {
+            batch.fillRect (
+                color,
+                getApparentX(), getApparentY(),
+                getWidth(), getHeight()
+            );
+        }
+        if(showSprite && getSpriteSheet() != null) {
+            batch.drawImage (
+                getFrameImage(),
+                getApparentX(), getApparentY(),
+                getWidth(), getHeight()
+            );
+        }
+
+        if(customDrawing) {
+            batch.customDraw(this);
+        }
+
+        if(profiler != null) {
+            profiler.addDraw(this, System.nanoTime() - startTime);
+        }
     }
     
     /**
@@ -298,6 +575,40 @@ public abstract class GameObject extends AnimatableStageElement implements GameF
      * 
      * @see #draw(Graphics2D)
      */
+    @Override
     public abstract void onDraw(Graphics2D g2);
 
+    /**
+     * Writes the state of this {@code GameObject},
+     * including its z index and what is shown of it,
+     * into the passed {@code buffer}.
+     * 
+     * @param buffer the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.putInt(zIndex);
+        buffer.put ((byte) (
+            (showSprite ? 1 : 0) |
+            (showBoundingBox ? 2 : 0)
+        ));
+    }
+
+    /**
+     * Reads the state of this {@code GameObject}
+     * from the passed {@code buffer}.
+     * 
+     * @param buffer the buffer to read from
+     */
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        this.zIndex = buffer.getInt();
+
+        byte flags = buffer.get();
+        this.showSprite = (flags & 1) != 0;
+        this.showBoundingBox = (flags & 2) != 0;
+    }
+
 }
\ No newline at end of file
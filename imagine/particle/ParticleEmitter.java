@@ -0,0 +1,403 @@
+package imagine.particle;
+
+import imagine.game.GameElement;
+import imagine.sprite.SpriteSheet;
+
+/**
+ * Class that defines how the particles of a
+ * {@code ParticleSystem} are emitted and how
+ * they look.
+ * <p>
+ * Particles are emitted at random points of the
+ * area of the emitter, which may have no size, with
+ * a random speed and direction within the spread
+ * around its angle, and live a random amount of
+ * frames. Their color goes from the start color
+ * to the end color over their lifetime, and if the
+ * emitter has a sprite sheet, they are drawn with
+ * its frames in order over their lifetime instead.
+ * 
+ * @author Daniel O Sousa
+ */
+public class ParticleEmitter extends GameElement {
+
+    /**
+     * How many particles are emitted
+     * per frame, which may be a fraction.
+     * <p>
+     * Is initially set to {@code 0}.
+     */
+    private float rate = 0;
+
+    /**
+     * The direction in which the
+     * particles are emitted, in radians.
+     * <p>
+     * Is initially set to {@code 0}.
+     */
+    private float angle = 0;
+
+    /**
+     * How many radians around the angle
+     * the direction of the particles may be.
+     * <p>
+     * Is initially set to a full turn.
+     */
+    private float spread = (float) (Math.PI * 2);
+
+    /**
+     * The minimum speed of the
+     * particles, in pixels per frame.
+     */
+    private float minSpeed = 1;
+
+    /**
+     * The maximum speed of the
+     * particles, in pixels per frame.
+     */
+    private float maxSpeed = 1;
+
+    /**
+     * The minimum amount of frames
+     * the particles live.
+     */
+    private int minLifetime = 60;
+
+    /**
+     * The maximum amount of frames
+     * the particles live.
+     */
+    private int maxLifetime = 60;
+
+    /**
+     * The horizontal acceleration of the
+     * particles, in pixels per frame squared.
+     */
+    private float gravityX = 0;
+
+    /**
+     * The vertical acceleration of the
+     * particles, in pixels per frame squared.
+     */
+    private float gravityY = 0;
+
+    /**
+     * The ARGB color of the particles
+     * when they are emitted.
+     */
+    private int startColor = 0xFFFFFFFF;
+
+    /**
+     * The ARGB color of the particles
+     * when they die.
+     */
+    private int endColor = 0xFFFFFFFF;
+
+    /**
+     * The width and height of
+     * the particles, in pixels.
+     */
+    private int particleSize = 1;
+
+    /**
+     * The sprite sheet whose frames are the
+     * frames of the particles, or {@code null}
+     * if the particles are drawn with colors.
+     */
+    private SpriteSheet spriteSheet;
+
+    /**
+     * The particles not yet emitted
+     * of the fraction of the rate.
+     */
+    float pendingParticles;
+
+    /**
+     * Constructs a {@code ParticleEmitter} that
+     * emits particles at the passed coordinates.
+     * 
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public ParticleEmitter(int x, int y) {
+        setCoordinates(x, y);
+    }
+
+    /**
+     * Sets how many particles are emitted per frame,
+     * which may be a fraction. A rate of {@code 0}
+     * only emits the particles explicitly requested
+     * to the {@code ParticleSystem}.
+     * 
+     * @param rate the particles per frame
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code rate} is negative
+     */
+    public void setRate(float rate) {
+        if(!(rate >= 0)) {
+            throw new IllegalArgumentException (
+                "cannot set rate " + rate + " (rate must not be negative)"
+            );
+        }
+
+        this.rate = rate;
+    }
+
+    /**
+     * Returns how many particles
+     * are emitted per frame.
+     * 
+     * @return the particles per frame
+     */
+    public float getRate() {
+        return this.rate;
+    }
+
+    /**
+     * Sets the direction in which the particles
+     * are emitted and how many radians around
+     * it their direction may be.
+     * 
+     * @param angle the direction in radians
+     * @param spread the spread in radians
+     */
+    public void setDirection(float angle, float spread) {
+        this.angle = angle;
+        this.spread = spread;
+    }
+
+    /**
+     * Returns the direction in which the
+     * particles are emitted, in radians.
+     * 
+     * @return the angle
+     */
+    public float getAngle() {
+        return this.angle;
+    }
+
+    /**
+     * Returns how many radians around the angle
+     * the direction of the particles may be.
+     * 
+     * @return the spread
+     */
+    public float getSpread() {
+        return this.spread;
+    }
+
+    /**
+     * Sets the minimum and maximum speeds
+     * of the particles, in pixels per frame.
+     * 
+     * @param minSpeed the minimum speed
+     * @param maxSpeed the maximum speed
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code minSpeed} is greater than the
+     * {@code maxSpeed}
+     */
+    public void setSpeed(float minSpeed, float maxSpeed) {
+        if(!(minSpeed <= maxSpeed)) {
+            throw new IllegalArgumentException (
+                "cannot set speed from " + minSpeed + " to " + maxSpeed
+            );
+        }
+
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+    }
+
+    /**
+     * Returns the minimum speed of the
+     * particles, in pixels per frame.
+     * 
+     * @return the minimum speed
+     */
+    public float getMinSpeed() {
+        return this.minSpeed;
+    }
+
+    /**
+     * Returns the maximum speed of the
+     * particles, in pixels per frame.
+     * 
+     * @return the maximum speed
+     */
+    public float getMaxSpeed() {
+        return this.maxSpeed;
+    }
+
+    /**
+     * Sets the minimum and maximum amount
+     * of frames the particles live.
+     * 
+     * @param minLifetime the minimum lifetime
+     * @param maxLifetime the maximum lifetime
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code minLifetime} is not positive or is
+     * greater than the {@code maxLifetime}
+     */
+    public void setLifetime(int minLifetime, int maxLifetime) {
+        if(minLifetime <= 0 || minLifetime > maxLifetime) {
+            throw new IllegalArgumentException (
+                "cannot set lifetime from " + minLifetime + " to " + maxLifetime
+            );
+        }
+
+        this.minLifetime = minLifetime;
+        this.maxLifetime = maxLifetime;
+    }
+
+    /**
+     * Returns the minimum amount of
+     * frames the particles live.
+     * 
+     * @return the minimum lifetime
+     */
+    public int getMinLifetime() {
+        return this.minLifetime;
+    }
+
+    /**
+     * Returns the maximum amount of
+     * frames the particles live.
+     * 
+     * @return the maximum lifetime
+     */
+    public int getMaxLifetime() {
+        return this.maxLifetime;
+    }
+
+    /**
+     * Sets the acceleration of the particles,
+     * in pixels per frame squared.
+     * 
+     * @param gravityX the horizontal acceleration
+     * @param gravityY the vertical acceleration
+     */
+    public void setGravity(float gravityX, float gravityY) {
+        this.gravityX = gravityX;
+        this.gravityY = gravityY;
+    }
+
+    /**
+     * Returns the horizontal acceleration of
+     * the particles, in pixels per frame squared.
+     * 
+     * @return the horizontal acceleration
+     */
+    public float getGravityX() {
+        return this.gravityX;
+    }
+
+    /**
+     * Returns the vertical acceleration of
+     * the particles, in pixels per frame squared.
+     * 
+     * @return the vertical acceleration
+     */
+    public float getGravityY() {
+        return this.gravityY;
+    }
+
+    /**
+     * Sets the ARGB colors of the particles when
+     * they are emitted and when they die.
+     * 
+     * @param startColor the color when emitted
+     * @param endColor the color when dying
+     */
+    public void setColors(int startColor, int endColor) {
+        this.startColor = startColor;
+        this.endColor = endColor;
+    }
+
+    /**
+     * Returns the ARGB color of the
+     * particles when they are emitted.
+     * 
+     * @return the start color
+     */
+    public int getStartColor() {
+        return this.startColor;
+    }
+
+    /**
+     * Returns the ARGB color of
+     * the particles when they die.
+     * 
+     * @return the end color
+     */
+    public int getEndColor() {
+        return this.endColor;
+    }
+
+    /**
+     * Sets the width and height of
+     * the particles, in pixels.
+     * 
+     * @param particleSize the size of the particles
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code particleSize} is not positive
+     */
+    public void setParticleSize(int particleSize) {
+        if(particleSize <= 0) {
+            throw new IllegalArgumentException (
+                "cannot set particle size " + particleSize +
+                " (size must be positive)"
+            );
+        }
+
+        this.particleSize = particleSize;
+    }
+
+    /**
+     * Returns the width and height
+     * of the particles, in pixels.
+     * 
+     * @return the size of the particles
+     */
+    public int getParticleSize() {
+        return this.particleSize;
+    }
+
+    /**
+     * Sets the sprite sheet whose frames are the frames
+     * of the particles over their lifetime. If it is
+     * {@code null}, the particles are drawn with colors.
+     * 
+     * @param spriteSheet the sprite sheet of the particles
+     */
+    public void setSpriteSheet(SpriteSheet spriteSheet) {
+        this.spriteSheet = spriteSheet;
+    }
+
+    /**
+     * Returns the sprite sheet
+     * of the particles.
+     * 
+     * @return the sprite sheet or {@code null}
+     * if the particles are drawn with colors
+     */
+    public SpriteSheet getSpriteSheet() {
+        return this.spriteSheet;
+    }
+
+    /**
+     * Returns how many frames the
+     * particles of this emitter have.
+     * 
+     * @return the amount of frames
+     */
+    int getFrameCount() {
+        if(spriteSheet == null) {
+            return 1;
+        }
+        return spriteSheet.getRows() * spriteSheet.getColumns();
+    }
+
+}
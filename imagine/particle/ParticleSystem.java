@@ -0,0 +1,761 @@
+package imagine.particle;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+import imagine.camera.Camera;
+import imagine.render.RenderBatch;
+import imagine.sprite.Sprite;
+import imagine.sprite.SpriteSheet;
+import imagine.stage.Stage;
+
+/**
+ * Class that keeps, updates and draws the particles
+ * of a {@code Stage}, such as sparks, smoke and
+ * explosions.
+ * <p>
+ * The particles are not objects: their positions,
+ * speeds, lifetimes, colors and frames are kept in
+ * primitive arrays of a fixed capacity, so that no
+ * memory is allocated while they are emitted, updated
+ * and drawn. How they are emitted and look is defined
+ * by {@code ParticleEmitter}s.
+ * <p>
+ * The update of the particles can be split among
+ * several threads. Only the particles within the view
+ * of the {@code Camera} are drawn: the ones with a
+ * sprite sheet are drawn with its frames, and the
+ * others are written into an overlay image which is
+ * drawn at once over them.
+ * 
+ * @author Daniel O Sousa
+ */
+public class ParticleSystem {
+
+    /**
+     * The smallest amount of particles for which
+     * the update is split among the threads.
+     */
+    private static final int MIN_PARALLEL_PARTICLES = 4096;
+
+    /**
+     * The {@code Stage} of the particles.
+     */
+    private Stage stage;
+
+    /**
+     * The maximum amount of particles.
+     */
+    private int capacity;
+
+    /**
+     * The amount of living particles,
+     * which are the first ones of the arrays.
+     */
+    private int count;
+
+    /**
+     * The x coordinates of the particles.
+     */
+    private float[] x;
+
+    /**
+     * The y coordinates of the particles.
+     */
+    private float[] y;
+
+    /**
+     * The x speeds of the particles.
+     */
+    private float[] xSpeed;
+
+    /**
+     * The y speeds of the particles.
+     */
+    private float[] ySpeed;
+
+    /**
+     * How many frames each particle has lived.
+     */
+    private int[] life;
+
+    /**
+     * How many frames each particle lives.
+     */
+    private int[] lifetime;
+
+    /**
+     * The ARGB colors of the particles.
+     */
+    private int[] color;
+
+    /**
+     * The frames of the particles.
+     */
+    private short[] frame;
+
+    /**
+     * The emitter of each particle.
+     */
+    private ParticleEmitter[] emitterOf;
+
+    /**
+     * The emitters that emit particles
+     * every frame according to their rate.
+     */
+    private ArrayList<ParticleEmitter> emitters = new ArrayList<ParticleEmitter>();
+
+    /**
+     * The state of the random numbers
+     * of the emitted particles.
+     */
+    private int seed = 0x2545F491;
+
+    /**
+     * How many threads update the particles,
+     * counting the thread that updates the stage.
+     * <p>
+     * Is initially set to {@code 1}.
+     */
+    private int threadCount = 1;
+
+    /**
+     * The threads that help updating
+     * the particles, if any.
+     */
+    private Thread[] workers;
+
+    /**
+     * The barrier where the threads wait for
+     * the start and end of each update.
+     */
+    private CyclicBarrier barrier;
+
+    /**
+     * Tells if the worker threads
+     * should keep running.
+     */
+    private volatile boolean running;
+
+    /**
+     * The image where the particles
+     * without sprite sheets are written.
+     */
+    private BufferedImage overlay;
+
+    /**
+     * The pixels of the {@code overlay}.
+     */
+    private int[] overlayPixels;
+
+    /**
+     * The first row of the {@code overlay}
+     * written in the last drawing.
+     */
+    private int overlayTop;
+
+    /**
+     * The last row of the {@code overlay} written
+     * in the last drawing, or {@code -1} if
+     * nothing was written.
+     */
+    private int overlayBottom = -1;
+
+    /**
+     * How many particles were
+     * drawn in the last drawing.
+     */
+    private int drawnCount;
+
+    /**
+     * How many particles were outside the
+     * view in the last drawing.
+     */
+    private int culledCount;
+
+    /**
+     * Constructs a {@code ParticleSystem} for the
+     * passed {@code stage} that holds up to
+     * {@code capacity} particles.
+     * 
+     * @param stage the stage of the particles
+     * @param capacity the maximum amount of particles
+     * 
+     * @throws IllegalArgumentException if the {@code stage}
+     * is {@code null} or the {@code capacity} is not positive
+     */
+    public ParticleSystem(Stage stage, int capacity) {
+        if(stage == null) {
+            throw new IllegalArgumentException("cannot store null stage");
+        }
+        if(capacity <= 0) {
+            throw new IllegalArgumentException (
+                "cannot create particle system with capacity " + capacity
+            );
+        }
+
+        this.stage = stage;
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.xSpeed = new float[capacity];
+        this.ySpeed = new float[capacity];
+        this.life = new int[capacity];
+        this.lifetime = new int[capacity];
+        this.color = new int[capacity];
+        this.frame = new short[capacity];
+        this.emitterOf = new ParticleEmitter[capacity];
+    }
+
+    /**
+     * Returns the {@code Stage} of
+     * this {@code ParticleSystem}.
+     * 
+     * @return the stage of the particles
+     */
+    public Stage getStage() {
+        return this.stage;
+    }
+
+    /**
+     * Returns the maximum amount of particles
+     * of this {@code ParticleSystem}.
+     * 
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the amount of living particles
+     * of this {@code ParticleSystem}.
+     * 
+     * @return the amount of particles
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns how many particles
+     * were drawn in the last drawing.
+     * 
+     * @return the drawn particle count
+     */
+    public int getDrawnCount() {
+        return this.drawnCount;
+    }
+
+    /**
+     * Returns how many particles were outside
+     * the view in the last drawing.
+     * 
+     * @return the culled particle count
+     */
+    public int getCulledCount() {
+        return this.culledCount;
+    }
+
+    /**
+     * Adds an emitter that will emit particles
+     * every frame according to its rate.
+     * 
+     * @param emitter the emitter to be added
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code emitter} is {@code null}
+     */
+    public void addEmitter(ParticleEmitter emitter) {
+        if(emitter == null) {
+            throw new IllegalArgumentException("cannot add null emitter");
+        }
+
+        emitters.add(emitter);
+    }
+
+    /**
+     * Removes the passed {@code emitter}, which
+     * stops emitting particles every frame. The
+     * particles it emitted keep living.
+     * 
+     * @param emitter the emitter to be removed
+     */
+    public void removeEmitter(ParticleEmitter emitter) {
+        emitters.remove(emitter);
+    }
+
+    /**
+     * Returns the emitters that emit
+     * particles every frame.
+     * 
+     * @return the emitters
+     */
+    public ArrayList<ParticleEmitter> getEmitters() {
+        return this.emitters;
+    }
+
+    /**
+     * Emits {@code amount} particles at once from
+     * the passed {@code emitter}, or as many as fit
+     * in the capacity, as in an explosion.
+     * 
+     * @param emitter the emitter of the particles
+     * @param amount how many particles to emit
+     * 
+     * @return how many particles were emitted
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code emitter} is {@code null}
+     */
+    public int emit(ParticleEmitter emitter, int amount) {
+        if(emitter == null) {
+            throw new IllegalArgumentException("cannot emit from null emitter");
+        }
+
+        int emitted = Math.max(0, Math.min(amount, capacity - count));
+        for(int i = 0; i < emitted; i++) {
+            spawn(emitter);
+        }
+        return emitted;
+    }
+
+    /**
+     * Removes every particle.
+     */
+    public void clear() {
+        Arrays.fill(emitterOf, 0, count, null);
+        this.count = 0;
+    }
+
+    /**
+     * Sets how many threads update the particles,
+     * counting the thread that updates the stage.
+     * The extra threads are started now and wait for
+     * the updates.
+     * 
+     * @param threadCount how many threads to use
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code threadCount} is not positive
+     */
+    public void setThreadCount(int threadCount) {
+        if(threadCount <= 0) {
+            throw new IllegalArgumentException (
+                "cannot set thread count " + threadCount +
+                " (count must be positive)"
+            );
+        }
+
+        stopWorkers();
+        this.threadCount = threadCount;
+        if(threadCount > 1) {
+            startWorkers();
+        }
+    }
+
+    /**
+     * Returns how many threads update the
+     * particles, counting the thread that
+     * updates the stage.
+     * 
+     * @return the thread count
+     */
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+    /**
+     * Starts the worker threads, each one updating
+     * its slice of the particles between the barriers.
+     */
+    private void startWorkers() {
+        this.running = true;
+        this.barrier = new CyclicBarrier(threadCount);
+        this.workers = new Thread[threadCount - 1];
+        for(int i = 0; i < workers.length; i++) {
+            final int slice = i + 1;
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work(slice);
+                }
+            }, "imagine-particles-" + slice);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Loop of a worker thread, which waits for
+     * the start of an update, updates its
+     * {@code slice} and waits for the others.
+     * 
+     * @param slice the slice of the worker
+     */
+    private void work(int slice) {
+        try {
+            while(running) {
+                barrier.await();
+                if(!running) {
+                    return;
+                }
+                integrateSlice(slice);
+                barrier.await();
+            }
+        }
+        catch(InterruptedException | BrokenBarrierException e) {
+            // the workers were stopped
+        }
+    }
+
+    /**
+     * Stops the worker threads, if any.
+     */
+    private void stopWorkers() {
+        if(workers == null) {
+            return;
+        }
+
+        this.running = false;
+        barrier.reset();
+        for(Thread worker : workers) {
+            worker.interrupt();
+        }
+        this.workers = null;
+        this.barrier = null;
+        this.threadCount = 1;
+    }
+
+    /**
+     * Stops the threads that help updating the
+     * particles. The particles are updated on the
+     * thread of the stage from then on.
+     */
+    public void shutdown() {
+        stopWorkers();
+    }
+
+    /**
+     * Updates the particles: moves them, ages them,
+     * updates their colors and frames and removes the
+     * dead ones. Then, the emitters emit the particles
+     * of this frame.
+     * <p>
+     * This method should be called every frame, which
+     * the {@code Stage} does if this
+     * {@code ParticleSystem} is set to it.
+     */
+    public void update() {
+        if(workers != null && count >= MIN_PARALLEL_PARTICLES) {
+            integrateInParallel();
+        } else {
+            integrate(0, count);
+        }
+        removeDeadParticles();
+        emitParticles();
+    }
+
+    /**
+     * Updates the particles split among the
+     * worker threads and the current thread.
+     */
+    private void integrateInParallel() {
+        try {
+            barrier.await();
+            integrateSlice(0);
+            barrier.await();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopWorkers();
+        }
+        catch(BrokenBarrierException e) {
+            stopWorkers();
+        }
+    }
+
+    /**
+     * Updates the particles of the
+     * passed {@code slice}.
+     * 
+     * @param slice the index of the slice
+     */
+    private void integrateSlice(int slice) {
+        int size = (count + threadCount - 1) / threadCount;
+        int from = slice * size;
+        integrate(from, Math.min(count, from + size));
+    }
+
+    /**
+     * Moves and ages the particles from {@code from}
+     * (inclusive) to {@code to} (exclusive), and updates
+     * their colors and frames.
+     * 
+     * @param from the first particle
+     * @param to the end of the particles
+     */
+    private void integrate(int from, int to) {
+        for(int i = from; i < to; i++) {
+            ParticleEmitter emitter = emitterOf[i];
+            xSpeed[i] += emitter.getGravityX();
+            ySpeed[i] += emitter.getGravityY();
+            x[i] += xSpeed[i];
+            y[i] += ySpeed[i];
+
+            int age = ++life[i];
+            if(age >= lifetime[i]) {
+                continue;
+            }
+
+            float progress = age / (float) lifetime[i];
+            int startColor = emitter.getStartColor();
+            int endColor = emitter.getEndColor();
+            if(startColor != endColor) {
+                color[i] = interpolate(startColor, endColor, progress);
+            }
+            int frameCount = emitter.getFrameCount();
+            if(frameCount > 1) {
+                frame[i] = (short) Math.min(frameCount - 1, (int) (progress * frameCount));
+            }
+        }
+    }
+
+    /**
+     * Returns the ARGB color {@code progress}
+     * of the way from {@code from} to {@code to}.
+     * 
+     * @param from the first color
+     * @param to the last color
+     * @param progress from {@code 0} to {@code 1}
+     * 
+     * @return the interpolated color
+     */
+    private static int interpolate(int from, int to, float progress) {
+        int result = 0;
+        for(int shift = 0; shift < 32; shift += 8) {
+            int start = (from >>> shift) & 0xFF;
+            int end = (to >>> shift) & 0xFF;
+            result |= (start + (int) ((end - start) * progress)) << shift;
+        }
+        return result;
+    }
+
+    /**
+     * Removes the dead particles, moving the
+     * last particle into the place of each one.
+     */
+    private void removeDeadParticles() {
+        int i = 0;
+        while(i < count) {
+            if(life[i] < lifetime[i]) {
+                i++;
+                continue;
+            }
+
+            int last = --count;
+            x[i] = x[last];
+            y[i] = y[last];
+            xSpeed[i] = xSpeed[last];
+            ySpeed[i] = ySpeed[last];
+            life[i] = life[last];
+            lifetime[i] = lifetime[last];
+            color[i] = color[last];
+            frame[i] = frame[last];
+            emitterOf[i] = emitterOf[last];
+            emitterOf[last] = null;
+        }
+    }
+
+    /**
+     * Emits the particles of this frame
+     * of every emitter with a rate.
+     */
+    private void emitParticles() {
+        for(int i = 0; i < emitters.size(); i++) {
+            ParticleEmitter emitter = emitters.get(i);
+            if(emitter.getRate() == 0) {
+                continue;
+            }
+
+            emitter.pendingParticles += emitter.getRate();
+            int amount = (int) emitter.pendingParticles;
+            emitter.pendingParticles -= amount;
+            emit(emitter, amount);
+        }
+    }
+
+    /**
+     * Creates a particle of the passed {@code emitter}
+     * at the end of the living particles.
+     * 
+     * @param emitter the emitter of the particle
+     */
+    private void spawn(ParticleEmitter emitter) {
+        int i = count++;
+        float angle = emitter.getAngle() + (nextFloat() - 0.5f) * emitter.getSpread();
+        float speed = emitter.getMinSpeed() + nextFloat() * (emitter.getMaxSpeed() - emitter.getMinSpeed());
+        int lifetimeRange = emitter.getMaxLifetime() - emitter.getMinLifetime() + 1;
+
+        x[i] = emitter.getX() + nextFloat() * emitter.getWidth();
+        y[i] = emitter.getY() + nextFloat() * emitter.getHeight();
+        xSpeed[i] = (float) Math.cos(angle) * speed;
+        ySpeed[i] = (float) Math.sin(angle) * speed;
+        life[i] = 0;
+        lifetime[i] = emitter.getMinLifetime() + (int) (nextFloat() * lifetimeRange);
+        color[i] = emitter.getStartColor();
+        frame[i] = 0;
+        emitterOf[i] = emitter;
+    }
+
+    /**
+     * Returns the next random
+     * number from {@code 0} to {@code 1}.
+     * 
+     * @return a random float
+     */
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return (seed >>> 8) * (1f / (1 << 24));
+    }
+
+    /**
+     * Draws the particles within the view of the
+     * {@code Camera} using the passed {@code Graphics2D}.
+     * 
+     * @param g2 a {@code Graphics2D} instance
+     */
+    public void draw(Graphics2D g2) {
+        drawParticles(g2, null);
+    }
+
+    /**
+     * Records the drawing of the particles within the
+     * view of the {@code Camera} into the passed
+     * {@code batch}, where the sprites of the particles
+     * are grouped by image.
+     * 
+     * @param batch a {@code RenderBatch} to record into
+     */
+    public void draw(RenderBatch batch) {
+        drawParticles(null, batch);
+    }
+
+    /**
+     * Draws or records the particles within the view
+     * of the {@code Camera}. Exactly one of the
+     * arguments is expected to be {@code null}.
+     * <p>
+     * The particles may be updated meanwhile by the
+     * game loop, so their count is read once, and
+     * slots emptied by the removal of dead particles
+     * are skipped. A particle moved into another slot
+     * during the drawing may be drawn twice or missed
+     * for this frame.
+     * 
+     * @param g2 a {@code Graphics2D} to draw with
+     * @param batch a {@code RenderBatch} to record into
+     */
+    private void drawParticles(Graphics2D g2, RenderBatch batch) {
+        Camera camera = stage.getCurrentCamera();
+        int viewLeft = camera.getViewLeft();
+        int viewTop = camera.getViewTop();
+        int viewWidth = camera.getViewRight() - viewLeft;
+        int viewHeight = camera.getViewBottom() - viewTop;
+        if(viewWidth <= 0 || viewHeight <= 0) {
+            return;
+        }
+
+        prepareOverlay(viewWidth, viewHeight);
+        int top = viewHeight;
+        int bottom = -1;
+        int drawn = 0;
+        int particleCount = this.count;
+        for(int i = 0; i < particleCount; i++) {
+            ParticleEmitter emitter = emitterOf[i];
+            if(emitter == null) {
+                continue;
+            }
+            int size = emitter.getParticleSize();
+            int left = (int) Math.floor(x[i]) - viewLeft;
+            int particleTop = (int) Math.floor(y[i]) - viewTop;
+            if(left + size <= 0 || left >= viewWidth || particleTop + size <= 0 || particleTop >= viewHeight) {
+                continue;
+            }
+            drawn++;
+
+            SpriteSheet spriteSheet = emitter.getSpriteSheet();
+            if(spriteSheet != null) {
+                Sprite[][] sprites = spriteSheet.getSprites();
+                int columns = spriteSheet.getColumns();
+                int spriteFrame = Math.min(frame[i], sprites.length * columns - 1);
+                Sprite sprite = sprites[spriteFrame / columns][spriteFrame % columns];
+                int apparentX = left + viewLeft - camera.getX();
+                int apparentY = particleTop + viewTop - camera.getY();
+                if(batch != null) {
+                    batch.drawImage(sprite.getImage(), apparentX, apparentY, size, size);
+                } else {
+                    g2.drawImage(sprite.getImage(), apparentX, apparentY, size, size, null);
+                }
+                continue;
+            }
+
+            int firstColumn = Math.max(0, left);
+            int lastColumn = Math.min(viewWidth, left + size);
+            int firstRow = Math.max(0, particleTop);
+            int lastRow = Math.min(viewHeight, particleTop + size);
+            int particleColor = color[i];
+            for(int row = firstRow; row < lastRow; row++) {
+                int offset = row * viewWidth;
+                Arrays.fill(overlayPixels, offset + firstColumn, offset + lastColumn, particleColor);
+            }
+            top = Math.min(top, firstRow);
+            bottom = Math.max(bottom, lastRow - 1);
+        }
+
+        this.drawnCount = drawn;
+        this.culledCount = particleCount - drawn;
+        this.overlayTop = top;
+        this.overlayBottom = bottom;
+        if(bottom < 0) {
+            return;
+        }
+
+        int overlayX = viewLeft - camera.getX();
+        int overlayY = viewTop - camera.getY();
+        if(batch != null) {
+            batch.drawImage(overlay, overlayX, overlayY, viewWidth, viewHeight);
+        } else {
+            g2.drawImage(overlay, overlayX, overlayY, null);
+        }
+    }
+
+    /**
+     * Makes the overlay have the passed size and
+     * clears the rows written in the last drawing.
+     * 
+     * @param width the width of the view
+     * @param height the height of the view
+     */
+    private void prepareOverlay(int width, int height) {
+        if(overlay == null || overlay.getWidth() != width || overlay.getHeight() != height) {
+            this.overlay = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            this.overlayPixels = ((DataBufferInt) overlay.getRaster().getDataBuffer()).getData();
+            this.overlayBottom = -1;
+            return;
+        }
+
+        if(overlayBottom >= 0) {
+            Arrays.fill(overlayPixels, overlayTop * width, (overlayBottom + 1) * width, 0);
+            this.overlayBottom = -1;
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package imagine.regression;
+
+import java.io.File;
+
+/**
+ * Class holding the result of comparing a
+ * rendered frame with its golden image.
+ * 
+ * @author Daniel O Sousa
+ */
+public class FrameComparison {
+
+    /**
+     * The name of the frame.
+     */
+    private String name;
+
+    /**
+     * The tick at which the frame was rendered.
+     */
+    private int tick;
+
+    /**
+     * The amount of pixels that differ by
+     * more than the tolerance, or {@code -1}
+     * if the images could not be compared.
+     */
+    private int differentPixels;
+
+    /**
+     * The biggest difference of a
+     * channel between the images.
+     */
+    private int maxDifference;
+
+    /**
+     * Tells if the frame matches
+     * its golden image.
+     */
+    private boolean passed;
+
+    /**
+     * Describes why the frame
+     * did not match, or is
+     * {@code null} if it did.
+     */
+    private String message;
+
+    /**
+     * The diff image written for a frame that
+     * did not match, or {@code null} if none
+     * was written.
+     */
+    private File diffFile;
+
+    /**
+     * Creates a new {@code FrameComparison}
+     * with the passed values.
+     * 
+     * @param name the name of the frame
+     * @param tick the tick of the frame
+     * @param differentPixels the amount of pixels
+     * that differ by more than the tolerance
+     * @param maxDifference the biggest difference
+     * of a channel
+     * @param passed if the frame matches
+     * @param message why the frame did not match
+     * @param diffFile the written diff image
+     */
+    FrameComparison (
+        String name, int tick, int differentPixels, int maxDifference,
+        boolean passed, String message, File diffFile
+    ) {
+        this.name = name;
+        this.tick = tick;
+        this.differentPixels = differentPixels;
+        this.maxDifference = maxDifference;
+        this.passed = passed;
+        this.message = message;
+        this.diffFile = diffFile;
+    }
+
+    /**
+     * Returns the name of the frame.
+     * 
+     * @return the name of the frame
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the tick at which
+     * the frame was rendered.
+     * 
+     * @return the tick of the frame
+     */
+    public int getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Returns the amount of pixels that
+     * differ by more than the tolerance.
+     * 
+     * @return the amount of different pixels, or
+     * {@code -1} if the images could not be compared
+     */
+    public int getDifferentPixels() {
+        return this.differentPixels;
+    }
+
+    /**
+     * Returns the biggest difference of
+     * a channel between the images.
+     * 
+     * @return the biggest difference
+     */
+    public int getMaxDifference() {
+        return this.maxDifference;
+    }
+
+    /**
+     * Returns {@code true} if the frame matches
+     * its golden image and {@code false} otherwise.
+     * 
+     * @return boolean specifying if the
+     * comparison passed
+     */
+    public boolean getPassed() {
+        return this.passed;
+    }
+
+    /**
+     * Returns why the frame did not
+     * match its golden image.
+     * 
+     * @return the message or {@code null}
+     * if the comparison passed
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Returns the diff image written
+     * for a frame that did not match.
+     * 
+     * @return the diff image or {@code null}
+     * if none was written
+     */
+    public File getDiffFile() {
+        return this.diffFile;
+    }
+
+    /**
+     * Returns a line describing
+     * this {@code FrameComparison}.
+     * 
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        if(passed) {
+            return name + " (tick " + tick + "): passed, max difference " + maxDifference;
+        }
+        return name + " (tick " + tick + "): FAILED, " + message;
+    }
+
+}
@@ -0,0 +1,579 @@
+package imagine.regression;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import javax.imageio.ImageIO;
+
+import imagine.game.Game;
+
+/**
+ * Class that checks that a {@code Game} keeps
+ * drawing the same frames, by comparing them with
+ * stored golden images.
+ * <p>
+ * The harness updates a headless {@code Game} for a
+ * number of ticks, applying an {@code InputScript} to
+ * its {@code KeyHandler} before each update. At the
+ * chosen ticks, the game is drawn into an image of the
+ * size of its panel, cleared with the background color,
+ * and compared pixel by pixel with the golden image of
+ * the same name. Pixels whose channels differ by more
+ * than the tolerance are counted as different.
+ * <p>
+ * When a frame fails, the drawn image and a diff image,
+ * where different pixels are red over a faded copy of
+ * the golden image, are written into the diff directory.
+ * In record mode, the drawn frames are written as the
+ * new golden images instead.
+ * <p>
+ * The game must be started, with its stage selected,
+ * before being run, and it should not depend on the
+ * time or on other threads to be reproducible.
+ * 
+ * @author Daniel O Sousa
+ */
+public class GoldenImageHarness {
+
+    /**
+     * The {@code Game} that is run.
+     */
+    private Game game;
+
+    /**
+     * The directory of the golden images.
+     */
+    private File goldenDirectory;
+
+    /**
+     * The directory where the drawn and diff
+     * images of the failed frames are written.
+     * <p>
+     * Is initially set to the golden directory.
+     */
+    private File diffDirectory;
+
+    /**
+     * The input applied to the game.
+     */
+    private InputScript input = new InputScript();
+
+    /**
+     * The color with which the
+     * frames are cleared.
+     * <p>
+     * Is initially set to {@code Color.BLACK}.
+     */
+    private Color background = Color.BLACK;
+
+    /**
+     * By how much a channel of a pixel can differ
+     * from the golden image without the pixel
+     * being counted as different.
+     * <p>
+     * Is initially set to {@code 0}.
+     */
+    private int tolerance = 0;
+
+    /**
+     * How many pixels can differ in
+     * a frame that still passes.
+     * <p>
+     * Is initially set to {@code 0}.
+     */
+    private int maxDifferentPixels = 0;
+
+    /**
+     * Tells if the drawn frames are written as
+     * the golden images instead of compared.
+     * <p>
+     * Is initially set to {@code false}.
+     */
+    private boolean recording = false;
+
+    /**
+     * The ticks at which frames are
+     * drawn, in increasing order.
+     */
+    private ArrayList<Integer> frameTicks = new ArrayList<Integer>();
+
+    /**
+     * The names of the frames,
+     * in the order of their ticks.
+     */
+    private ArrayList<String> frameNames = new ArrayList<String>();
+
+    /**
+     * The comparisons of the last run.
+     */
+    private ArrayList<FrameComparison> comparisons = new ArrayList<FrameComparison>();
+
+    /**
+     * Creates a new {@code GoldenImageHarness}
+     * that runs the passed {@code game} and compares
+     * its frames with the golden images in the
+     * {@code goldenDirectory}.
+     * 
+     * @param game the game to be run
+     * @param goldenDirectory the directory
+     * of the golden images
+     * 
+     * @throws IllegalArgumentException if any
+     * argument is {@code null}
+     */
+    public GoldenImageHarness(Game game, File goldenDirectory) {
+        if(game == null || goldenDirectory == null) {
+            throw new IllegalArgumentException (
+                "cannot create harness with null game or directory"
+            );
+        }
+
+        this.game = game;
+        this.goldenDirectory = goldenDirectory;
+        this.diffDirectory = goldenDirectory;
+    }
+
+    /**
+     * Returns the {@code Game} that is run.
+     * 
+     * @return the game of this harness
+     */
+    public Game getGame() {
+        return this.game;
+    }
+
+    /**
+     * Sets the directory where the drawn and diff
+     * images of the failed frames are written.
+     * 
+     * @param diffDirectory the directory to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code diffDirectory} argument is {@code null}
+     */
+    public void setDiffDirectory(File diffDirectory) {
+        if(diffDirectory == null) {
+            throw new IllegalArgumentException (
+                "cannot set null diff directory"
+            );
+        }
+
+        this.diffDirectory = diffDirectory;
+    }
+
+    /**
+     * Returns the directory where the drawn and
+     * diff images of the failed frames are written.
+     * 
+     * @return the diff directory
+     */
+    public File getDiffDirectory() {
+        return this.diffDirectory;
+    }
+
+    /**
+     * Sets the input applied to the game.
+     * 
+     * @param input the input script to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code input} argument is {@code null}
+     */
+    public void setInput(InputScript input) {
+        if(input == null) {
+            throw new IllegalArgumentException (
+                "cannot set null input"
+            );
+        }
+
+        this.input = input;
+    }
+
+    /**
+     * Returns the input applied to the game.
+     * 
+     * @return the input script
+     */
+    public InputScript getInput() {
+        return this.input;
+    }
+
+    /**
+     * Sets the color with which the frames are
+     * cleared, which should be the background
+     * color of the panel of the game.
+     * 
+     * @param background the color to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code background} argument is {@code null}
+     */
+    public void setBackground(Color background) {
+        if(background == null) {
+            throw new IllegalArgumentException (
+                "cannot set null background"
+            );
+        }
+
+        this.background = background;
+    }
+
+    /**
+     * Returns the color with which
+     * the frames are cleared.
+     * 
+     * @return the background color
+     */
+    public Color getBackground() {
+        return this.background;
+    }
+
+    /**
+     * Sets by how much a channel of a pixel can
+     * differ from the golden image without the
+     * pixel being counted as different.
+     * 
+     * @param tolerance the tolerance to be set,
+     * from {@code 0} to {@code 255}
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code tolerance} is out of range
+     */
+    public void setTolerance(int tolerance) {
+        if(tolerance < 0 || tolerance > 255) {
+            throw new IllegalArgumentException (
+                "tolerance must be between 0 and 255"
+            );
+        }
+
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Returns by how much a channel of a
+     * pixel can differ from the golden image.
+     * 
+     * @return the tolerance
+     */
+    public int getTolerance() {
+        return this.tolerance;
+    }
+
+    /**
+     * Sets how many pixels can differ
+     * in a frame that still passes.
+     * 
+     * @param maxDifferentPixels the amount to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code maxDifferentPixels} is negative
+     */
+    public void setMaxDifferentPixels(int maxDifferentPixels) {
+        if(maxDifferentPixels < 0) {
+            throw new IllegalArgumentException (
+                "maximum amount of different pixels cannot be negative"
+            );
+        }
+
+        this.maxDifferentPixels = maxDifferentPixels;
+    }
+
+    /**
+     * Returns how many pixels can differ
+     * in a frame that still passes.
+     * 
+     * @return the maximum amount of different pixels
+     */
+    public int getMaxDifferentPixels() {
+        return this.maxDifferentPixels;
+    }
+
+    /**
+     * Defines if the drawn frames are written
+     * as the golden images instead of compared,
+     * which is used to create or update them.
+     * 
+     * @param recording boolean specifying if
+     * golden images are recorded
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Returns {@code true} if golden images are
+     * recorded and {@code false} otherwise.
+     * 
+     * @return boolean specifying if golden
+     * images are recorded
+     */
+    public boolean getRecording() {
+        return this.recording;
+    }
+
+    /**
+     * Makes the frame drawn after the passed
+     * {@code tick} be compared with the golden
+     * image named {@code name}, with the
+     * {@code .png} extension.
+     * 
+     * @param tick the tick after which the
+     * frame is drawn, starting at {@code 1}
+     * @param name the name of the frame
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code tick} is not positive, the {@code name}
+     * is {@code null} or a frame is already
+     * drawn at the {@code tick}
+     */
+    public void addFrame(int tick, String name) {
+        if(tick <= 0 || name == null) {
+            throw new IllegalArgumentException (
+                "frame needs a positive tick and a name"
+            );
+        }
+
+        int index = 0;
+        while(index < frameTicks.size() && frameTicks.get(index) < tick) {
+            index++;
+        }
+        if(index < frameTicks.size() && frameTicks.get(index) == tick) {
+            throw new IllegalArgumentException (
+                "a frame is already drawn at tick " + tick
+            );
+        }
+
+        frameTicks.add(index, tick);
+        frameNames.add(index, name);
+    }
+
+    /**
+     * Returns the comparisons of the last run,
+     * in the order of their ticks.
+     * 
+     * @return the comparisons
+     */
+    public ArrayList<FrameComparison> getComparisons() {
+        return this.comparisons;
+    }
+
+    /**
+     * Updates the game until the tick of the last
+     * frame, applying the input before each update,
+     * and compares or records the frames.
+     * 
+     * @return {@code true} if every frame matches its
+     * golden image or was recorded, {@code false}
+     * otherwise
+     * 
+     * @throws IOException if an image cannot
+     * be read or written
+     */
+    public boolean run() throws IOException {
+        comparisons.clear();
+        if(frameTicks.isEmpty()) {
+            return true;
+        }
+
+        int lastTick = frameTicks.get(frameTicks.size() - 1);
+        int frame = 0;
+        boolean passed = true;
+        for(int tick = 1; tick <= lastTick; tick++) {
+            input.apply(tick, game.getKeyHandler());
+            game.update();
+
+            if(frameTicks.get(frame) == tick) {
+                BufferedImage image = drawFrame();
+                FrameComparison comparison = check(frameNames.get(frame), tick, image);
+                comparisons.add(comparison);
+                passed &= comparison.getPassed();
+                frame++;
+            }
+        }
+        game.getKeyHandler().releaseAll();
+
+        return passed;
+    }
+
+    /**
+     * Draws the game into a new image
+     * of the size of its panel.
+     * 
+     * @return the drawn image
+     */
+    public BufferedImage drawFrame() {
+        int width = Math.max(1, game.getGamePanelWidth());
+        int height = Math.max(1, game.getGamePanelHeight());
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setColor(background);
+        g2.fillRect(0, 0, width, height);
+        game.draw(g2);
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * Compares the passed {@code image} with
+     * the golden image named {@code name}, or
+     * records it as the golden image.
+     * 
+     * @param name the name of the frame
+     * @param tick the tick of the frame
+     * @param image the drawn frame
+     * 
+     * @return the comparison
+     * 
+     * @throws IOException if an image cannot
+     * be read or written
+     */
+    private FrameComparison check(String name, int tick, BufferedImage image) throws IOException {
+        File goldenFile = new File(goldenDirectory, name + ".png");
+        if(recording) {
+            write(image, goldenFile);
+            return new FrameComparison(name, tick, 0, 0, true, null, null);
+        }
+        if(!goldenFile.isFile()) {
+            write(image, new File(diffDirectory, name + "-actual.png"));
+            return new FrameComparison (
+                name, tick, -1, 0, false,
+                "missing golden image " + goldenFile, null
+            );
+        }
+
+        BufferedImage golden = ImageIO.read(goldenFile);
+        if(golden == null) {
+            throw new IOException("cannot decode golden image " + goldenFile);
+        }
+        return compare(name, tick, golden, image);
+    }
+
+    /**
+     * Compares the {@code actual} image with the
+     * {@code expected} one, writing the actual and
+     * diff images if they do not match.
+     * 
+     * @param name the name of the frame
+     * @param tick the tick of the frame
+     * @param expected the expected image
+     * @param actual the drawn image
+     * 
+     * @return the comparison
+     * 
+     * @throws IOException if an image
+     * cannot be written
+     */
+    public FrameComparison compare(String name, int tick, BufferedImage expected, BufferedImage actual) throws IOException {
+        int width = expected.getWidth();
+        int height = expected.getHeight();
+        if(actual.getWidth() != width || actual.getHeight() != height) {
+            write(actual, new File(diffDirectory, name + "-actual.png"));
+            return new FrameComparison (
+                name, tick, -1, 0, false,
+                "size " + actual.getWidth() + "x" + actual.getHeight() +
+                " differs from golden size " + width + "x" + height,
+                null
+            );
+        }
+
+        int[] expectedRow = new int[width];
+        int[] actualRow = new int[width];
+        BufferedImage diff = null;
+        int differentPixels = 0;
+        int maxDifference = 0;
+        for(int y = 0; y < height; y++) {
+            expected.getRGB(0, y, width, 1, expectedRow, 0, width);
+            actual.getRGB(0, y, width, 1, actualRow, 0, width);
+            for(int x = 0; x < width; x++) {
+                int difference = channelDifference(expectedRow[x], actualRow[x]);
+                maxDifference = Math.max(maxDifference, difference);
+                if(difference > tolerance) {
+                    if(diff == null) {
+                        diff = createDiff(expected);
+                    }
+                    diff.setRGB(x, y, 0xFF0000);
+                    differentPixels++;
+                }
+            }
+        }
+
+        if(differentPixels <= maxDifferentPixels) {
+            return new FrameComparison(name, tick, differentPixels, maxDifference, true, null, null);
+        }
+
+        File diffFile = new File(diffDirectory, name + "-diff.png");
+        write(actual, new File(diffDirectory, name + "-actual.png"));
+        write(diff, diffFile);
+        return new FrameComparison (
+            name, tick, differentPixels, maxDifference, false,
+            differentPixels + " pixels differ by more than " + tolerance +
+            ", max difference " + maxDifference,
+            diffFile
+        );
+    }
+
+    /**
+     * Returns the biggest difference between
+     * the red, green and blue channels of the
+     * passed pixels.
+     * 
+     * @param first the first pixel
+     * @param second the second pixel
+     * 
+     * @return the biggest channel difference
+     */
+    private static int channelDifference(int first, int second) {
+        int red = Math.abs(((first >> 16) & 0xFF) - ((second >> 16) & 0xFF));
+        int green = Math.abs(((first >> 8) & 0xFF) - ((second >> 8) & 0xFF));
+        int blue = Math.abs((first & 0xFF) - (second & 0xFF));
+        return Math.max(red, Math.max(green, blue));
+    }
+
+    /**
+     * Creates the base of a diff image, which is a
+     * faded gray copy of the {@code expected} image.
+     * 
+     * @param expected the expected image
+     * 
+     * @return the diff image
+     */
+    private static BufferedImage createDiff(BufferedImage expected) {
+        int width = expected.getWidth();
+        int height = expected.getHeight();
+        BufferedImage diff = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                int pixel = expected.getRGB(x, y);
+                int gray = (((pixel >> 16) & 0xFF) + ((pixel >> 8) & 0xFF) + (pixel & 0xFF)) / 3;
+                int faded = 128 + gray / 2;
+                diff.setRGB(x, y, faded << 16 | faded << 8 | faded);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Writes the passed {@code image} as a PNG
+     * image, creating its directory if needed.
+     * 
+     * @param image the image to be written
+     * @param file the file to be written
+     * 
+     * @throws IOException if the image
+     * cannot be written
+     */
+    private static void write(BufferedImage image, File file) throws IOException {
+        File directory = file.getParentFile();
+        if(directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create directory " + directory);
+        }
+        if(!ImageIO.write(image, "png", file)) {
+            throw new IOException("no PNG writer available");
+        }
+    }
+
+}
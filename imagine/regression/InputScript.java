@@ -0,0 +1,188 @@
+package imagine.regression;
+
+import java.util.ArrayList;
+
+import imagine.input.KeyHandler;
+
+/**
+ * Class that holds the keys pressed and released
+ * at each tick of a scripted run of a {@code Game},
+ * so that the run can be repeated exactly.
+ * <p>
+ * The events of a tick are applied to the
+ * {@code KeyHandler} of the game before it is
+ * updated, in the order they were added.
+ * 
+ * @author Daniel O Sousa
+ */
+public class InputScript {
+
+    /**
+     * The events of this {@code InputScript},
+     * sorted by tick.
+     */
+    private ArrayList<KeyEvent> events = new ArrayList<KeyEvent>();
+
+    /**
+     * Adds a press of the key specified by
+     * the {@code keyCode} at the passed {@code tick}.
+     * 
+     * @param tick the tick of the press,
+     * starting at {@code 1}
+     * @param keyCode the code of the key
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code tick} argument is not positive
+     */
+    public void press(int tick, int keyCode) {
+        addEvent(tick, keyCode, true);
+    }
+
+    /**
+     * Adds a release of the key specified by
+     * the {@code keyCode} at the passed {@code tick}.
+     * 
+     * @param tick the tick of the release,
+     * starting at {@code 1}
+     * @param keyCode the code of the key
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code tick} argument is not positive
+     */
+    public void release(int tick, int keyCode) {
+        addEvent(tick, keyCode, false);
+    }
+
+    /**
+     * Adds a press of the key specified by the
+     * {@code keyCode} at the {@code tick} and its
+     * release {@code duration} ticks later.
+     * 
+     * @param tick the tick of the press,
+     * starting at {@code 1}
+     * @param keyCode the code of the key
+     * @param duration for how many ticks
+     * the key is held
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code tick} or {@code duration} argument
+     * is not positive
+     */
+    public void hold(int tick, int keyCode, int duration) {
+        if(duration <= 0) {
+            throw new IllegalArgumentException (
+                "duration must be positive"
+            );
+        }
+
+        press(tick, keyCode);
+        release(tick + duration, keyCode);
+    }
+
+    /**
+     * Returns the amount of events
+     * of this {@code InputScript}.
+     * 
+     * @return the amount of events
+     */
+    public int getEventCount() {
+        return events.size();
+    }
+
+    /**
+     * Applies the events of the passed
+     * {@code tick} to the {@code keyHandler}.
+     * 
+     * @param tick the tick whose events are applied
+     * @param keyHandler the key handler of the game
+     */
+    public void apply(int tick, KeyHandler keyHandler) {
+        int index = firstEvent(tick);
+        while(index < events.size() && events.get(index).tick == tick) {
+            KeyEvent event = events.get(index);
+            keyHandler.setPressed(event.keyCode, event.pressed);
+            index++;
+        }
+    }
+
+    /**
+     * Adds an event, keeping the
+     * events sorted by tick.
+     * 
+     * @param tick the tick of the event
+     * @param keyCode the code of the key
+     * @param pressed if the key is pressed
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code tick} argument is not positive
+     */
+    private void addEvent(int tick, int keyCode, boolean pressed) {
+        if(tick <= 0) {
+            throw new IllegalArgumentException (
+                "tick must be positive"
+            );
+        }
+
+        events.add(firstEvent(tick + 1), new KeyEvent(tick, keyCode, pressed));
+    }
+
+    /**
+     * Returns the index of the first event
+     * at or after the passed {@code tick}.
+     * 
+     * @param tick the tick to search
+     * 
+     * @return the index of the first event
+     */
+    private int firstEvent(int tick) {
+        int low = 0;
+        int high = events.size();
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(events.get(middle).tick < tick) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A key pressed or released at a tick.
+     */
+    private static final class KeyEvent {
+
+        /**
+         * The tick of the event.
+         */
+        private final int tick;
+
+        /**
+         * The code of the key.
+         */
+        private final int keyCode;
+
+        /**
+         * Tells if the key is pressed
+         * or released.
+         */
+        private final boolean pressed;
+
+        /**
+         * Creates a new {@code KeyEvent}
+         * with the passed values.
+         * 
+         * @param tick the tick of the event
+         * @param keyCode the code of the key
+         * @param pressed if the key is pressed
+         */
+        private KeyEvent(int tick, int keyCode, boolean pressed) {
+            this.tick = tick;
+            this.keyCode = keyCode;
+            this.pressed = pressed;
+        }
+
+    }
+
+}
@@ -0,0 +1,24 @@
+package imagine.render;
+
+import java.awt.Graphics2D;
+
+/**
+ * Interface to represent classes that
+ * do custom drawings after being drawn
+ * by the engine.
+ * 
+ * @author Daniel O Sousa
+ */
+public interface CustomDrawable {
+
+    /**
+     * Method used to do the custom
+     * drawings of the class that
+     * implements this interface.
+     * 
+     * @param g2 a {@code Graphics2D}
+     * instance to draw with
+     */
+    void onDraw(Graphics2D g2);
+
+}
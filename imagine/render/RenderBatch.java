@@ -0,0 +1,724 @@
+package imagine.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import imagine.debug.ObjectProfiler;
+import imagine.object.GameObject;
+
+/**
+ * Class that records the drawings of a frame
+ * into a buffer of primitive commands and then
+ * submits them grouped by source image and color,
+ * reducing the state changes done by Java2D.
+ * <p>
+ * Every command belongs to a group. Groups are
+ * always submitted in the order in which they
+ * were recorded. Inside a group, a command is
+ * moved back to join an earlier batch with the
+ * same image or color only if it passes over
+ * commands of the same type that it doesn't
+ * overlap, so overlapping drawings keep their
+ * order and the frame looks the same as if the
+ * commands were submitted as recorded. Commands
+ * never pass over a command of another type or
+ * a custom drawing.
+ * 
+ * @author Daniel O Sousa
+ */
+public class RenderBatch {
+
+    /**
+     * Type of the commands that
+     * fill a rectangle with a color.
+     */
+    public static final int FILL = 0;
+
+    /**
+     * Type of the commands that
+     * draw an image.
+     */
+    public static final int IMAGE = 1;
+
+    /**
+     * Type of the commands that call
+     * the {@code onDraw} method of
+     * a {@code CustomDrawable}.
+     */
+    public static final int CUSTOM = 2;
+
+    /**
+     * The amount of commands this
+     * {@code RenderBatch} can initially
+     * hold before growing.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * How many batches back a command
+     * is looked for a batch to join.
+     */
+    private static final int MAX_LOOKBACK = 16;
+
+    /**
+     * The types of the recorded commands.
+     */
+    private int[] types = new int[INITIAL_CAPACITY];
+
+    /**
+     * The groups of the recorded commands.
+     */
+    private int[] groups = new int[INITIAL_CAPACITY];
+
+    /**
+     * The x coordinates of the
+     * recorded commands.
+     */
+    private int[] xs = new int[INITIAL_CAPACITY];
+
+    /**
+     * The y coordinates of the
+     * recorded commands.
+     */
+    private int[] ys = new int[INITIAL_CAPACITY];
+
+    /**
+     * The widths of the recorded commands.
+     */
+    private int[] widths = new int[INITIAL_CAPACITY];
+
+    /**
+     * The heights of the recorded commands.
+     */
+    private int[] heights = new int[INITIAL_CAPACITY];
+
+    /**
+     * The resources of the recorded commands:
+     * a {@code BufferedImage} for images, a
+     * {@code Color} for rectangles and a
+     * {@code CustomDrawable} for custom drawings.
+     */
+    private Object[] resources = new Object[INITIAL_CAPACITY];
+
+    /**
+     * The indices of the commands in the
+     * order in which they are submitted.
+     */
+    private int[] order = new int[INITIAL_CAPACITY];
+
+    /**
+     * The index of the next command of the same
+     * batch of each command, or {@code -1} if it
+     * is the last one.
+     */
+    private int[] nextInBatch = new int[INITIAL_CAPACITY];
+
+    /**
+     * The first command of each batch.
+     */
+    private int[] batchFirst = new int[INITIAL_CAPACITY];
+
+    /**
+     * The last command of each batch.
+     */
+    private int[] batchLast = new int[INITIAL_CAPACITY];
+
+    /**
+     * The left of the bounds of each batch.
+     */
+    private int[] batchLefts = new int[INITIAL_CAPACITY];
+
+    /**
+     * The top of the bounds of each batch.
+     */
+    private int[] batchTops = new int[INITIAL_CAPACITY];
+
+    /**
+     * The right of the bounds of each batch.
+     */
+    private int[] batchRights = new int[INITIAL_CAPACITY];
+
+    /**
+     * The bottom of the bounds of each batch.
+     */
+    private int[] batchBottoms = new int[INITIAL_CAPACITY];
+
+    /**
+     * The amount of recorded commands.
+     */
+    private int size = 0;
+
+    /**
+     * The group of the commands being recorded.
+     */
+    private int group = 0;
+
+    /**
+     * How many times the resource changes
+     * between the commands in the order in
+     * which they were recorded.
+     */
+    private int recordedStateChanges = 0;
+
+    /**
+     * The resource of the last recorded command,
+     * used for counting the state changes in the
+     * order in which the commands were recorded.
+     */
+    private Object lastRecordedResource;
+
+    /**
+     * How many batches, that is, runs of
+     * commands with the same resource, were
+     * submitted in the last frame.
+     */
+    private int batchCount = 0;
+
+    /**
+     * How many state changes were saved in
+     * the last frame by submitting the commands
+     * grouped instead of in recording order.
+     */
+    private int stateChangesSaved = 0;
+
+    /**
+     * How many image and rectangle commands were
+     * submitted in the last frame as part of a
+     * batch started by an earlier command.
+     */
+    private int drawCallsSaved = 0;
+
+    /**
+     * How many commands were submitted
+     * in the last frame.
+     */
+    private int commandCount = 0;
+
+    /**
+     * The sink through which commands are
+     * submitted to a {@code Graphics2D}.
+     */
+    private final GraphicsSink graphicsSink = new GraphicsSink();
+
+    /**
+     * The profiler with which the custom drawings
+     * of game objects are measured, or {@code null}
+     * if they aren't.
+     */
+    private ObjectProfiler objectProfiler;
+
+    /**
+     * Sets the {@code ObjectProfiler} with which the
+     * {@code onDraw} methods of game objects are measured
+     * when they are called, during the submission.
+     * 
+     * @param objectProfiler the profiler to be set,
+     * or {@code null} to stop measuring
+     */
+    public void setObjectProfiler(ObjectProfiler objectProfiler) {
+        this.objectProfiler = objectProfiler;
+    }
+
+    /**
+     * Returns the {@code ObjectProfiler} with
+     * which the custom drawings are measured.
+     * 
+     * @return the profiler, or {@code null}
+     * if there is none
+     */
+    public ObjectProfiler getObjectProfiler() {
+        return this.objectProfiler;
+    }
+
+    /**
+     * Starts recording a new frame,
+     * discarding any commands that
+     * were not submitted.
+     */
+    public void begin() {
+        Arrays.fill(resources, 0, size, null);
+        this.size = 0;
+        this.group = 0;
+        this.recordedStateChanges = 0;
+        this.lastRecordedResource = null;
+    }
+
+    /**
+     * Makes the next recorded commands belong
+     * to a new group, which will be submitted
+     * after every command recorded so far.
+     */
+    public void nextGroup() {
+        if(size > 0 && groups[size - 1] == group) {
+            group++;
+        }
+    }
+
+    /**
+     * Records a command for drawing the {@code image}
+     * at the {@code x} and {@code y} coordinates with
+     * the {@code width} and {@code height} dimensions.
+     * 
+     * @param image the image to be drawn
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    public void drawImage(BufferedImage image, int x, int y, int width, int height) {
+        if(image != null) {
+            record(IMAGE, image, x, y, width, height);
+        }
+    }
+
+    /**
+     * Records a command for filling the rectangle at
+     * the {@code x} and {@code y} coordinates with the
+     * {@code width} and {@code height} dimensions with
+     * the specified {@code color}.
+     * 
+     * @param color the color of the rectangle
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    public void fillRect(Color color, int x, int y, int width, int height) {
+        if(color != null) {
+            record(FILL, color, x, y, width, height);
+        }
+    }
+
+    /**
+     * Records a command for calling the {@code onDraw}
+     * method of the passed {@code drawable} after the
+     * other commands of the current group.
+     * 
+     * @param drawable the {@code CustomDrawable}
+     * whose {@code onDraw} method will be called
+     */
+    public void customDraw(CustomDrawable drawable) {
+        if(drawable != null) {
+            record(CUSTOM, drawable, 0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Stores a command at the end of the
+     * buffers, growing them if needed.
+     * 
+     * @param type the type of the command
+     * @param resource the resource of the command
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    private void record(int type, Object resource, int x, int y, int width, int height) {
+        if(size == types.length) {
+            grow();
+        }
+        if(type != CUSTOM && resource != lastRecordedResource) {
+            recordedStateChanges++;
+        }
+        lastRecordedResource = type == CUSTOM ? null : resource;
+
+        types[size] = type;
+        groups[size] = group;
+        xs[size] = x;
+        ys[size] = y;
+        widths[size] = width;
+        heights[size] = height;
+        resources[size] = resource;
+        size++;
+    }
+
+    /**
+     * Doubles the capacity of
+     * the buffers.
+     */
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        groups = Arrays.copyOf(groups, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        resources = Arrays.copyOf(resources, capacity);
+        order = Arrays.copyOf(order, capacity);
+        nextInBatch = Arrays.copyOf(nextInBatch, capacity);
+        batchFirst = Arrays.copyOf(batchFirst, capacity);
+        batchLast = Arrays.copyOf(batchLast, capacity);
+        batchLefts = Arrays.copyOf(batchLefts, capacity);
+        batchTops = Arrays.copyOf(batchTops, capacity);
+        batchRights = Arrays.copyOf(batchRights, capacity);
+        batchBottoms = Arrays.copyOf(batchBottoms, capacity);
+    }
+
+    /**
+     * Puts the recorded commands in the order in which
+     * they are submitted, into the {@code order} array.
+     * <p>
+     * Each command is appended to the latest batch of
+     * its group with the same type and resource, looking
+     * at most {@code MAX_LOOKBACK} batches back, if every
+     * batch it passes over has the same type and bounds
+     * that don't overlap its own. Otherwise it starts a
+     * new batch. The batches are then submitted in order,
+     * each one with its commands in recording order.
+     */
+    private void sort() {
+        int batches = 0;
+        int groupStart = 0;
+        for(int i = 0; i < size; i++) {
+            nextInBatch[i] = -1;
+            if(i > 0 && groups[i] != groups[i - 1]) {
+                groupStart = batches;
+            }
+
+            int joined = -1;
+            if(types[i] != CUSTOM) {
+                int right = xs[i] + widths[i];
+                int bottom = ys[i] + heights[i];
+                int oldest = Math.max(groupStart, batches - MAX_LOOKBACK);
+                for(int batch = batches - 1; batch >= oldest; batch--) {
+                    int first = batchFirst[batch];
+                    if(types[first] != types[i]) {
+                        break;
+                    }
+                    if(resources[first] == resources[i]) {
+                        joined = batch;
+                        break;
+                    }
+                    if (
+                        xs[i] < batchRights[batch] && right > batchLefts[batch] &&
+                        ys[i] < batchBottoms[batch] && bottom > batchTops[batch]
+                    ) {
+                        break;
+                    }
+                }
+            }
+
+            if(joined == -1) {
+                joined = batches++;
+                batchFirst[joined] = i;
+                batchLefts[joined] = xs[i];
+                batchTops[joined] = ys[i];
+                batchRights[joined] = xs[i] + widths[i];
+                batchBottoms[joined] = ys[i] + heights[i];
+            } else {
+                nextInBatch[batchLast[joined]] = i;
+                batchLefts[joined] = Math.min(batchLefts[joined], xs[i]);
+                batchTops[joined] = Math.min(batchTops[joined], ys[i]);
+                batchRights[joined] = Math.max(batchRights[joined], xs[i] + widths[i]);
+                batchBottoms[joined] = Math.max(batchBottoms[joined], ys[i] + heights[i]);
+            }
+            batchLast[joined] = i;
+        }
+
+        int position = 0;
+        for(int batch = 0; batch < batches; batch++) {
+            for(int command = batchFirst[batch]; command != -1; command = nextInBatch[command]) {
+                order[position++] = command;
+            }
+        }
+    }
+
+    /**
+     * Submits the recorded commands to the passed
+     * {@code Graphics2D}, grouped by resource, and
+     * starts recording a new frame.
+     * 
+     * @param g2 the {@code Graphics2D} to
+     * submit the commands to
+     */
+    public void submit(Graphics2D g2) {
+        graphicsSink.setGraphics(g2);
+        dispatch(graphicsSink, g2);
+        graphicsSink.setGraphics(null);
+    }
+
+    /**
+     * Submits the recorded commands grouped by resource
+     * like {@code submit(Graphics2D)}, but draws the
+     * images and rectangles with the passed
+     * {@code renderer}, and starts recording a new frame.
+     * The custom drawings are still done with the
+     * {@code g2}, which must draw into the target of
+     * the {@code renderer}.
+     * <p>
+     * The translation and clip of the {@code g2} are
+     * applied to the {@code renderer}. If the {@code g2}
+     * is scaled, rotated or translated by a fraction of
+     * a pixel, every command is submitted to it instead.
+     * 
+     * @param renderer the renderer that draws
+     * the images and rectangles
+     * @param g2 the {@code Graphics2D} to submit
+     * the custom drawings to
+     */
+    public void submit(SoftwareRenderer renderer, Graphics2D g2) {
+        if(!applyGraphics(renderer, g2)) {
+            submit(g2);
+            return;
+        }
+
+        dispatch(renderer, g2);
+        renderer.resetClip();
+    }
+
+    /**
+     * Submits the recorded commands grouped by resource
+     * like {@code submit(SoftwareRenderer, Graphics2D)},
+     * but the images and rectangles are rasterized in
+     * parallel bands by the passed {@code rasterizer}, and
+     * starts recording a new frame. The bands are flushed
+     * before each custom drawing, which is done with
+     * the {@code g2}.
+     * 
+     * @param rasterizer the rasterizer that draws
+     * the images and rectangles
+     * @param g2 the {@code Graphics2D} to submit
+     * the custom drawings to
+     */
+    public void submit(TiledRasterizer rasterizer, Graphics2D g2) {
+        SoftwareRenderer renderer = rasterizer.getRenderer();
+        if(!applyGraphics(renderer, g2)) {
+            submit(g2);
+            return;
+        }
+
+        dispatch(rasterizer, g2);
+        renderer.resetClip();
+    }
+
+    /**
+     * Sorts the recorded commands and hands the images
+     * and rectangles to the passed {@code sink}, which
+     * is flushed before each custom drawing and at the
+     * end, and starts recording a new frame.
+     * 
+     * @param sink where the images and
+     * rectangles are drawn
+     * @param g2 the {@code Graphics2D} to submit
+     * the custom drawings to
+     */
+    private void dispatch(RenderSink sink, Graphics2D g2) {
+        sort();
+
+        Object currentResource = null;
+        int batches = 0;
+        int drawings = 0;
+        for(int i = 0; i < size; i++) {
+            int command = order[i];
+            Object resource = resources[command];
+            if(types[command] != CUSTOM) {
+                drawings++;
+                if(resource != currentResource) {
+                    batches++;
+                }
+            }
+
+            switch(types[command]) {
+                case FILL:
+                    sink.fillRect (
+                        (Color) resource,
+                        xs[command], ys[command],
+                        widths[command], heights[command]
+                    );
+                    currentResource = resource;
+                    break;
+                case IMAGE:
+                    sink.drawImage (
+                        (BufferedImage) resource,
+                        xs[command], ys[command],
+                        widths[command], heights[command]
+                    );
+                    currentResource = resource;
+                    break;
+                default:
+                    sink.flush();
+                    customDraw((CustomDrawable) resource, g2);
+                    currentResource = null;
+                    break;
+            }
+        }
+        sink.flush();
+
+        this.commandCount = size;
+        this.batchCount = batches;
+        this.stateChangesSaved = recordedStateChanges - batches;
+        this.drawCallsSaved = drawings - batches;
+        begin();
+    }
+
+    /**
+     * Calls the {@code onDraw} method of the passed
+     * {@code drawable}, measuring it with the profiler
+     * if there is one and the {@code drawable} is a
+     * game object.
+     * 
+     * @param drawable the {@code CustomDrawable}
+     * whose {@code onDraw} method is called
+     * @param g2 the {@code Graphics2D} to draw with
+     */
+    private void customDraw(CustomDrawable drawable, Graphics2D g2) {
+        ObjectProfiler profiler = this.objectProfiler;
+        if(profiler == null || !(drawable instanceof GameObject)) {
+            drawable.onDraw(g2);
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        drawable.onDraw(g2);
+        profiler.addDraw((GameObject) drawable, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Gives the passed {@code renderer} the translation
+     * and clip of the {@code g2}, if the {@code g2} is
+     * only translated by whole pixels.
+     * 
+     * @param renderer the renderer to be set up
+     * @param g2 the {@code Graphics2D} whose
+     * translation and clip are used
+     * 
+     * @return {@code true} if the {@code renderer} can
+     * draw what the {@code g2} would and {@code false}
+     * otherwise
+     */
+    private static boolean applyGraphics(SoftwareRenderer renderer, Graphics2D g2) {
+        AffineTransform transform = g2.getTransform();
+        double translateX = transform.getTranslateX();
+        double translateY = transform.getTranslateY();
+        if (
+            (transform.getType() & ~AffineTransform.TYPE_TRANSLATION) != 0 ||
+            translateX != Math.rint(translateX) ||
+            translateY != Math.rint(translateY)
+        ) {
+            return false;
+        }
+
+        renderer.setOrigin((int) translateX, (int) translateY);
+        Rectangle clip = g2.getClipBounds();
+        if(clip != null) {
+            renderer.setClip (
+                clip.x + (int) translateX, clip.y + (int) translateY,
+                clip.width, clip.height
+            );
+        }
+        return true;
+    }
+
+    /**
+     * Returns the amount of commands
+     * recorded so far in this frame.
+     * 
+     * @return the amount of recorded commands
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns how many commands were
+     * submitted in the last frame.
+     * 
+     * @return the amount of submitted commands
+     */
+    public int getCommandCount() {
+        return this.commandCount;
+    }
+
+    /**
+     * Returns how many batches, that is, runs
+     * of commands with the same image or color,
+     * were submitted in the last frame.
+     * 
+     * @return the amount of batches
+     */
+    public int getBatchCount() {
+        return this.batchCount;
+    }
+
+    /**
+     * Returns how many image or color changes were
+     * saved in the last frame by submitting the
+     * commands grouped instead of in the order in
+     * which they were recorded.
+     * 
+     * @return the amount of saved state changes
+     */
+    public int getStateChangesSaved() {
+        return this.stateChangesSaved;
+    }
+
+    /**
+     * Returns how many image and rectangle commands
+     * were merged in the last frame into a batch
+     * started by an earlier command, that is, how
+     * many draw calls were saved compared to
+     * submitting one batch per command.
+     * 
+     * @return the amount of saved draw calls
+     */
+    public int getDrawCallsSaved() {
+        return this.drawCallsSaved;
+    }
+
+    /**
+     * Sink that draws the images and rectangles
+     * with a {@code Graphics2D}, only changing its
+     * color when a rectangle has a different one.
+     */
+    private static final class GraphicsSink implements RenderSink {
+
+        /**
+         * The {@code Graphics2D} to draw with.
+         */
+        private Graphics2D g2;
+
+        /**
+         * The color last set to the {@code g2},
+         * or {@code null} if it may have changed.
+         */
+        private Color color;
+
+        /**
+         * Sets the {@code Graphics2D} to draw with.
+         * 
+         * @param g2 the {@code Graphics2D}, or
+         * {@code null} once the submission ends
+         */
+        void setGraphics(Graphics2D g2) {
+            this.g2 = g2;
+            this.color = null;
+        }
+
+        @Override
+        public void fillRect(Color color, int x, int y, int width, int height) {
+            if(color != this.color) {
+                g2.setColor(color);
+                this.color = color;
+            }
+            g2.fillRect(x, y, width, height);
+        }
+
+        @Override
+        public void drawImage(BufferedImage image, int x, int y, int width, int height) {
+            g2.drawImage(image, x, y, width, height, null);
+        }
+
+        @Override
+        public void flush() {
+            this.color = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package imagine.render;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+/**
+ * Interface to represent what the images and
+ * rectangles of a {@code RenderBatch} are
+ * submitted to, such as a {@code SoftwareRenderer}
+ * or a {@code TiledRasterizer}.
+ * 
+ * @author Daniel O Sousa
+ */
+public interface RenderSink {
+
+    /**
+     * Fills the specified rectangle
+     * with the passed {@code color}.
+     * 
+     * @param color the color of the rectangle
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    void fillRect(Color color, int x, int y, int width, int height);
+
+    /**
+     * Draws the passed {@code image} scaled
+     * to fit the specified rectangle.
+     * 
+     * @param image the image to be drawn
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    void drawImage(BufferedImage image, int x, int y, int width, int height);
+
+    /**
+     * Finishes the drawings done so far, before
+     * something else draws into the same target,
+     * such as a custom drawing.
+     */
+    void flush();
+
+}
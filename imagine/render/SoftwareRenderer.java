@@ -0,0 +1,723 @@
+package imagine.render;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.WeakHashMap;
+
+/**
+ * Class that draws images and rectangles straight
+ * into the pixels of a {@code BufferedImage} of the
+ * {@code TYPE_INT_RGB} or {@code TYPE_INT_ARGB} type,
+ * without going through Java2D.
+ * <p>
+ * The pixels of each drawn image are looked up once
+ * and cached: images of the same integer types are read
+ * in place, and images of other types are converted.
+ * Converted images are classified as opaque, alpha-tested
+ * (every pixel fully opaque or fully transparent) or
+ * blended, and each kind is drawn with its own loop.
+ * Unscaled opaque images are copied row by row, giving
+ * the same pixels as Java2D. Scaled images are sampled
+ * with the nearest neighbor, like Java2D does by default.
+ * <p>
+ * If the contents of a converted image change, it must
+ * be invalidated so that its pixels are read again.
+ * 
+ * @author Daniel O Sousa
+ */
+public class SoftwareRenderer implements RenderSink {
+
+    /**
+     * Kind of images whose pixels
+     * are all fully opaque.
+     */
+    public static final int OPAQUE = 0;
+
+    /**
+     * Kind of images whose pixels are all
+     * fully opaque or fully transparent.
+     */
+    public static final int ALPHA_TEST = 1;
+
+    /**
+     * Kind of images with partially
+     * transparent pixels.
+     */
+    public static final int BLEND = 2;
+
+    /**
+     * The image drawn into.
+     */
+    private BufferedImage target;
+
+    /**
+     * The pixels of the {@code target}.
+     */
+    private int[] pixels;
+
+    /**
+     * The index of the top left
+     * pixel of the {@code target}.
+     */
+    private int pixelOffset;
+
+    /**
+     * How many pixels there are from the start
+     * of a row of the {@code target} to the next.
+     */
+    private int stride;
+
+    /**
+     * Tells if the {@code target}
+     * has an alpha channel.
+     */
+    private boolean targetAlpha;
+
+    /**
+     * The x coordinate of the {@code target}
+     * where drawings at x {@code 0} are done.
+     */
+    private int originX;
+
+    /**
+     * The y coordinate of the {@code target}
+     * where drawings at y {@code 0} are done.
+     */
+    private int originY;
+
+    /**
+     * The left limit of the drawings.
+     */
+    private int clipLeft;
+
+    /**
+     * The top limit of the drawings.
+     */
+    private int clipTop;
+
+    /**
+     * The right limit of the drawings.
+     */
+    private int clipRight;
+
+    /**
+     * The bottom limit of the drawings.
+     */
+    private int clipBottom;
+
+    /**
+     * The pixels of the drawn images.
+     */
+    private WeakHashMap<BufferedImage, Pixels> imagePixels = new WeakHashMap<BufferedImage, Pixels>();
+
+    /**
+     * The image drawn last.
+     */
+    private BufferedImage lastImage;
+
+    /**
+     * The pixels of the image drawn last, kept
+     * since consecutive drawings of a batch
+     * usually have the same image.
+     */
+    private Pixels lastPixels;
+
+    /**
+     * The column of the image sampled for each
+     * column of the last scaled drawing.
+     */
+    private int[] sampledColumns = new int[0];
+
+    /**
+     * Constructs a {@code SoftwareRenderer}
+     * that draws into the passed {@code target}.
+     * 
+     * @param target the image to draw into
+     * 
+     * @throws IllegalArgumentException if the {@code target}
+     * is {@code null} or is not of the {@code TYPE_INT_RGB}
+     * or {@code TYPE_INT_ARGB} type
+     */
+    public SoftwareRenderer(BufferedImage target) {
+        storeTarget(target);
+        resetClip();
+    }
+
+    /**
+     * Constructs a {@code SoftwareRenderer} that draws
+     * into the same target as the passed {@code renderer}
+     * with its own clip, so that both can draw into
+     * different parts of the target at the same time.
+     * 
+     * @param renderer the renderer whose target is used
+     */
+    SoftwareRenderer(SoftwareRenderer renderer) {
+        this.target = renderer.target;
+        this.pixels = renderer.pixels;
+        this.pixelOffset = renderer.pixelOffset;
+        this.stride = renderer.stride;
+        this.targetAlpha = renderer.targetAlpha;
+        resetClip();
+    }
+
+    /**
+     * Stores the {@code target} argument
+     * in the {@code target} field.
+     * 
+     * @param target the image to be stored
+     * 
+     * @throws IllegalArgumentException if the {@code target}
+     * is {@code null} or is not of the {@code TYPE_INT_RGB}
+     * or {@code TYPE_INT_ARGB} type
+     */
+    private void storeTarget(BufferedImage target) {
+        if(target == null) {
+            throw new IllegalArgumentException("cannot store null target");
+        }
+        if(target.getType() != BufferedImage.TYPE_INT_RGB && target.getType() != BufferedImage.TYPE_INT_ARGB) {
+            throw new IllegalArgumentException (
+                "cannot draw into image of type " + target.getType() +
+                " (type must be TYPE_INT_RGB or TYPE_INT_ARGB)"
+            );
+        }
+
+        Pixels targetPixels = readInPlace(target, 0);
+        this.target = target;
+        this.pixels = targetPixels.data;
+        this.pixelOffset = targetPixels.offset;
+        this.stride = targetPixels.stride;
+        this.targetAlpha = target.getType() == BufferedImage.TYPE_INT_ARGB;
+    }
+
+    /**
+     * Returns the image this
+     * {@code SoftwareRenderer} draws into.
+     * 
+     * @return the target image
+     */
+    public BufferedImage getTarget() {
+        return this.target;
+    }
+
+    /**
+     * Sets the point of the target where the
+     * drawings at the coordinates {@code 0, 0}
+     * are done.
+     * 
+     * @param x the x coordinate of the origin
+     * @param y the y coordinate of the origin
+     */
+    public void setOrigin(int x, int y) {
+        this.originX = x;
+        this.originY = y;
+    }
+
+    /**
+     * Returns the x coordinate of the origin.
+     * 
+     * @return the x coordinate of the origin
+     */
+    int getOriginX() {
+        return this.originX;
+    }
+
+    /**
+     * Returns the y coordinate of the origin.
+     * 
+     * @return the y coordinate of the origin
+     */
+    int getOriginY() {
+        return this.originY;
+    }
+
+    /**
+     * Returns the left limit of the drawings.
+     * 
+     * @return the left of the clip
+     */
+    int getClipLeft() {
+        return this.clipLeft;
+    }
+
+    /**
+     * Returns the top limit of the drawings.
+     * 
+     * @return the top of the clip
+     */
+    int getClipTop() {
+        return this.clipTop;
+    }
+
+    /**
+     * Returns the right limit of the drawings.
+     * 
+     * @return the right of the clip
+     */
+    int getClipRight() {
+        return this.clipRight;
+    }
+
+    /**
+     * Returns the bottom limit of the drawings.
+     * 
+     * @return the bottom of the clip
+     */
+    int getClipBottom() {
+        return this.clipBottom;
+    }
+
+    /**
+     * Limits the drawings to the passed rectangle
+     * of the target, which is intersected with the
+     * bounds of the target.
+     * 
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    public void setClip(int x, int y, int width, int height) {
+        this.clipLeft = Math.max(0, x);
+        this.clipTop = Math.max(0, y);
+        this.clipRight = Math.min(target.getWidth(), x + width);
+        this.clipBottom = Math.min(target.getHeight(), y + height);
+    }
+
+    /**
+     * Makes the drawings be limited only
+     * by the bounds of the target and
+     * moves the origin back to its corner.
+     */
+    public void resetClip() {
+        setOrigin(0, 0);
+        setClip(0, 0, target.getWidth(), target.getHeight());
+    }
+
+    /**
+     * Does nothing, since a {@code SoftwareRenderer}
+     * draws into its target right away.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Makes the pixels of the passed {@code image}
+     * be read again the next time it is drawn. This
+     * must be done after the contents of an image
+     * that isn't of an integer RGB type change.
+     * 
+     * @param image the image to be invalidated
+     */
+    public void invalidate(BufferedImage image) {
+        imagePixels.remove(image);
+        if(image == lastImage) {
+            this.lastImage = null;
+            this.lastPixels = null;
+        }
+    }
+
+    /**
+     * Returns the kind of the passed {@code image},
+     * which defines the loop it is drawn with.
+     * 
+     * @param image the image to be classified
+     * 
+     * @return {@code OPAQUE}, {@code ALPHA_TEST}
+     * or {@code BLEND}
+     */
+    public int getKind(BufferedImage image) {
+        return getPixels(image).kind;
+    }
+
+    /**
+     * Fills the specified rectangle with the
+     * passed {@code color}, blending it if it
+     * is partially transparent.
+     * 
+     * @param color the color of the rectangle
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    @Override
+    public void fillRect(Color color, int x, int y, int width, int height) {
+        fillRect(color.getRGB(), x, y, width, height);
+    }
+
+    /**
+     * Fills the specified rectangle with the
+     * passed ARGB {@code color}, blending it if
+     * it is partially transparent.
+     * 
+     * @param color the ARGB color of the rectangle
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    public void fillRect(int color, int x, int y, int width, int height) {
+        int left = Math.max(clipLeft, x + originX);
+        int top = Math.max(clipTop, y + originY);
+        int right = Math.min(clipRight, x + originX + width);
+        int bottom = Math.min(clipBottom, y + originY + height);
+        int alpha = color >>> 24;
+        if(left >= right || top >= bottom || alpha == 0) {
+            return;
+        }
+
+        for(int row = top; row < bottom; row++) {
+            int index = pixelOffset + row * stride;
+            if(alpha == 255) {
+                Arrays.fill(pixels, index + left, index + right, color);
+            } else {
+                for(int column = left; column < right; column++) {
+                    pixels[index + column] = blend(color, pixels[index + column]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the passed {@code image} unscaled with
+     * its top left corner at the specified point.
+     * 
+     * @param image the image to be drawn
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public void drawImage(BufferedImage image, int x, int y) {
+        drawImage(image, x, y, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Draws the passed {@code image} scaled to
+     * fit the specified rectangle.
+     * 
+     * @param image the image to be drawn
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    @Override
+    public void drawImage(BufferedImage image, int x, int y, int width, int height) {
+        drawPixels(getPixels(image), x, y, width, height);
+    }
+
+    /**
+     * Draws the passed image pixels scaled to
+     * fit the specified rectangle.
+     * 
+     * @param source the pixels of the image
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    void drawPixels(Pixels source, int x, int y, int width, int height) {
+        int left = Math.max(clipLeft, x + originX);
+        int top = Math.max(clipTop, y + originY);
+        int right = Math.min(clipRight, x + originX + width);
+        int bottom = Math.min(clipBottom, y + originY + height);
+        if(left >= right || top >= bottom) {
+            return;
+        }
+
+        int imageX = x + originX;
+        int imageY = y + originY;
+        if(width == source.width && height == source.height) {
+            for(int row = top; row < bottom; row++) {
+                int sourceIndex = source.offset + (row - imageY) * source.stride + left - imageX;
+                int index = pixelOffset + row * stride + left;
+                drawRow(source, sourceIndex, index, right - left);
+            }
+            return;
+        }
+
+        if(sampledColumns.length < right - left) {
+            sampledColumns = new int[right - left];
+        }
+        for(int column = left; column < right; column++) {
+            sampledColumns[column - left] = sample(column - imageX, width, source.width);
+        }
+        for(int row = top; row < bottom; row++) {
+            int sourceRow = source.offset + sample(row - imageY, height, source.height) * source.stride;
+            int index = pixelOffset + row * stride + left;
+            drawSampledRow(source, sourceRow, index, right - left);
+        }
+    }
+
+    /**
+     * Returns the pixel of the image sampled for the
+     * pixel {@code position} of a drawing of
+     * {@code size} pixels, which is the one under
+     * the center of the pixel. A center exactly on
+     * the edge between two pixels samples the first
+     * one, as Java2D does.
+     * 
+     * @param position the position in the drawing
+     * @param size the size of the drawing
+     * @param imageSize the size of the image
+     * 
+     * @return the position in the image
+     */
+    private static int sample(int position, int size, int imageSize) {
+        return (int) (((2L * position + 1) * imageSize - 1) / (2L * size));
+    }
+
+    /**
+     * Draws {@code length} consecutive pixels of
+     * the {@code source} into the target with the
+     * loop of the kind of the {@code source}.
+     * 
+     * @param source the pixels of the image
+     * @param sourceIndex the first pixel of the image
+     * @param index the first pixel of the target
+     * @param length how many pixels to draw
+     */
+    private void drawRow(Pixels source, int sourceIndex, int index, int length) {
+        int[] data = source.data;
+        if(source.kind == OPAQUE) {
+            if(source.alphaMask == 0) {
+                System.arraycopy(data, sourceIndex, pixels, index, length);
+            } else {
+                for(int i = 0; i < length; i++) {
+                    pixels[index + i] = data[sourceIndex + i] | source.alphaMask;
+                }
+            }
+        } else if(source.kind == ALPHA_TEST) {
+            for(int i = 0; i < length; i++) {
+                int pixel = data[sourceIndex + i];
+                if(pixel >>> 24 != 0) {
+                    pixels[index + i] = pixel;
+                }
+            }
+        } else {
+            for(int i = 0; i < length; i++) {
+                int pixel = data[sourceIndex + i];
+                int alpha = pixel >>> 24;
+                if(alpha == 255) {
+                    pixels[index + i] = pixel;
+                } else if(alpha != 0) {
+                    pixels[index + i] = blend(pixel, pixels[index + i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws {@code length} pixels of a row of the
+     * {@code source} sampled at the columns of the
+     * last scaled drawing into the target.
+     * 
+     * @param source the pixels of the image
+     * @param sourceRow the first pixel of the row
+     * @param index the first pixel of the target
+     * @param length how many pixels to draw
+     */
+    private void drawSampledRow(Pixels source, int sourceRow, int index, int length) {
+        int[] data = source.data;
+        for(int i = 0; i < length; i++) {
+            int pixel = data[sourceRow + sampledColumns[i]];
+            int alpha = source.kind == OPAQUE ? 255 : pixel >>> 24;
+            if(alpha == 255) {
+                pixels[index + i] = pixel | source.alphaMask;
+            } else if(alpha != 0) {
+                pixels[index + i] = blend(pixel, pixels[index + i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the ARGB {@code color} drawn over
+     * the {@code pixel} of the target.
+     * 
+     * @param color a partially transparent color
+     * @param pixel the pixel of the target
+     * 
+     * @return the blended pixel
+     */
+    private int blend(int color, int pixel) {
+        int alpha = color >>> 24;
+        int inverse = 255 - alpha;
+        if(!targetAlpha) {
+            int redBlue = (color & 0xFF00FF) * alpha + (pixel & 0xFF00FF) * inverse + 0x800080;
+            int green = (color & 0xFF00) * alpha + (pixel & 0xFF00) * inverse + 0x8000;
+            redBlue = ((redBlue + ((redBlue >>> 8) & 0xFF00FF)) >>> 8) & 0xFF00FF;
+            green = ((green + ((green >>> 8) & 0xFF00)) >>> 8) & 0xFF00;
+            return (pixel & 0xFF000000) | redBlue | green;
+        }
+
+        int pixelAlpha = targetAlpha ? pixel >>> 24 : 255;
+        int resultAlpha = alpha + (pixelAlpha * inverse + 127) / 255;
+        if(resultAlpha == 0) {
+            return 0;
+        }
+
+        int result = targetAlpha ? resultAlpha << 24 : pixel & 0xFF000000;
+        int pixelWeight = pixelAlpha * inverse / 255;
+        for(int shift = 0; shift < 24; shift += 8) {
+            int channel = (color >>> shift) & 0xFF;
+            int pixelChannel = (pixel >>> shift) & 0xFF;
+            int mixed = (channel * alpha + pixelChannel * pixelWeight + resultAlpha / 2) / resultAlpha;
+            result |= Math.min(255, mixed) << shift;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached pixels of the passed
+     * {@code image}, reading them first if they
+     * aren't cached.
+     * 
+     * @param image the drawn image
+     * 
+     * @return the pixels of the image
+     */
+    Pixels getPixels(BufferedImage image) {
+        if(image == lastImage) {
+            return this.lastPixels;
+        }
+
+        Pixels cached = imagePixels.get(image);
+        if(cached == null) {
+            cached = readPixels(image);
+            imagePixels.put(image, cached);
+        }
+        this.lastImage = image;
+        this.lastPixels = cached;
+        return cached;
+    }
+
+    /**
+     * Reads the pixels of the passed {@code image},
+     * in place if it is of an integer RGB type.
+     * 
+     * @param image the image to be read
+     * 
+     * @return the pixels of the image
+     */
+    private static Pixels readPixels(BufferedImage image) {
+        if(image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return readInPlace(image, OPAQUE);
+        }
+        if(image.getType() == BufferedImage.TYPE_INT_ARGB) {
+            return readInPlace(image, BLEND);
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] data = image.getRGB(0, 0, width, height, null, 0, width);
+        int kind = OPAQUE;
+        for(int pixel : data) {
+            int alpha = pixel >>> 24;
+            if(alpha != 255) {
+                if(alpha != 0) {
+                    kind = BLEND;
+                    break;
+                }
+                kind = ALPHA_TEST;
+            }
+        }
+
+        return new Pixels(data, 0, width, width, height, kind, 0);
+    }
+
+    /**
+     * Returns the pixels of an image of an integer
+     * RGB type, which are used in place.
+     * 
+     * @param image the image to be read
+     * @param kind the kind of the image
+     * 
+     * @return the pixels of the image
+     */
+    private static Pixels readInPlace(BufferedImage image, int kind) {
+        WritableRaster raster = image.getRaster();
+        DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+        int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        int offset =
+            buffer.getOffset() -
+            raster.getSampleModelTranslateY() * stride -
+            raster.getSampleModelTranslateX();
+
+        return new Pixels (
+            buffer.getData(), offset, stride,
+            image.getWidth(), image.getHeight(), kind,
+            image.getType() == BufferedImage.TYPE_INT_RGB ? 0xFF000000 : 0
+        );
+    }
+
+    /**
+     * The pixels of an image, as ARGB integers.
+     */
+    static final class Pixels {
+
+        /**
+         * The array with the pixels.
+         */
+        final int[] data;
+
+        /**
+         * The index of the top left pixel.
+         */
+        final int offset;
+
+        /**
+         * How many pixels there are from
+         * the start of a row to the next.
+         */
+        final int stride;
+
+        /**
+         * The width of the image.
+         */
+        final int width;
+
+        /**
+         * The height of the image.
+         */
+        final int height;
+
+        /**
+         * The kind of the image.
+         */
+        final int kind;
+
+        /**
+         * The bits put into every pixel, which make
+         * the pixels of images without an alpha
+         * channel opaque.
+         */
+        final int alphaMask;
+
+        /**
+         * Constructs the pixels of an image.
+         * 
+         * @param data the array with the pixels
+         * @param offset the index of the top left pixel
+         * @param stride the distance between rows
+         * @param width the width of the image
+         * @param height the height of the image
+         * @param kind the kind of the image
+         * @param alphaMask the bits put into every pixel
+         */
+        Pixels(int[] data, int offset, int stride, int width, int height, int kind, int alphaMask) {
+            this.data = data;
+            this.offset = offset;
+            this.stride = stride;
+            this.width = width;
+            this.height = height;
+            this.kind = kind;
+            this.alphaMask = alphaMask;
+        }
+
+    }
+
+}
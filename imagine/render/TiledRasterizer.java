@@ -0,0 +1,404 @@
+package imagine.render;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class that splits the drawing of a
+ * {@code SoftwareRenderer} among several threads.
+ * <p>
+ * The target is split in horizontal bands. Each drawn
+ * image or rectangle is put in the bins of the bands it
+ * covers, and when the drawings are flushed, the bands
+ * are rasterized in parallel on a {@code ForkJoinPool},
+ * each one drawing its bin in order and clipped to its
+ * rows. Since every pixel belongs to exactly one band,
+ * the result is the same for any amount of threads.
+ * 
+ * @author Daniel O Sousa
+ */
+public class TiledRasterizer implements RenderSink {
+
+    /**
+     * The initial capacity of the buffers.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * The renderer whose target, origin, clip
+     * and cached pixels are used.
+     */
+    private SoftwareRenderer renderer;
+
+    /**
+     * The height of each band in pixels.
+     */
+    private int bandHeight;
+
+    /**
+     * The pool where the bands are rasterized.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The renderer of each band,
+     * clipped to the band.
+     */
+    private SoftwareRenderer[] bandRenderers;
+
+    /**
+     * The indexes of the commands
+     * in the bin of each band.
+     */
+    private int[][] bins;
+
+    /**
+     * The amount of commands in
+     * the bin of each band.
+     */
+    private int[] binSizes;
+
+    /**
+     * The task that rasterizes each band.
+     */
+    private BandTask[] bandTasks;
+
+    /**
+     * The task that rasterizes every band.
+     */
+    private FlushTask flushTask = new FlushTask();
+
+    /**
+     * The ARGB color of each command, or
+     * {@code 0} if the command is an image.
+     */
+    private int[] colors = new int[INITIAL_CAPACITY];
+
+    /**
+     * The pixels of the image of each command,
+     * or {@code null} if it is a rectangle.
+     */
+    private SoftwareRenderer.Pixels[] images = new SoftwareRenderer.Pixels[INITIAL_CAPACITY];
+
+    /**
+     * The x coordinates of the commands
+     * in the target.
+     */
+    private int[] xs = new int[INITIAL_CAPACITY];
+
+    /**
+     * The y coordinates of the commands
+     * in the target.
+     */
+    private int[] ys = new int[INITIAL_CAPACITY];
+
+    /**
+     * The widths of the commands.
+     */
+    private int[] widths = new int[INITIAL_CAPACITY];
+
+    /**
+     * The heights of the commands.
+     */
+    private int[] heights = new int[INITIAL_CAPACITY];
+
+    /**
+     * The amount of commands
+     * waiting to be flushed.
+     */
+    private int size = 0;
+
+    /**
+     * Constructs a {@code TiledRasterizer} that draws
+     * with the passed {@code renderer} split in bands of
+     * {@code bandHeight} pixels among {@code threadCount}
+     * threads.
+     * 
+     * @param renderer the renderer whose target is drawn into
+     * @param bandHeight the height of each band
+     * @param threadCount how many threads draw the bands
+     * 
+     * @throws IllegalArgumentException if the {@code renderer}
+     * is {@code null} or the {@code bandHeight} or
+     * {@code threadCount} is not positive
+     */
+    public TiledRasterizer(SoftwareRenderer renderer, int bandHeight, int threadCount) {
+        if(renderer == null) {
+            throw new IllegalArgumentException("cannot store null renderer");
+        }
+        if(bandHeight <= 0 || threadCount <= 0) {
+            throw new IllegalArgumentException (
+                "band height and thread count must be positive"
+            );
+        }
+
+        this.renderer = renderer;
+        this.bandHeight = bandHeight;
+        this.pool = new ForkJoinPool(threadCount);
+
+        int bandCount = (renderer.getTarget().getHeight() + bandHeight - 1) / bandHeight;
+        this.bandRenderers = new SoftwareRenderer[bandCount];
+        this.bins = new int[bandCount][INITIAL_CAPACITY];
+        this.binSizes = new int[bandCount];
+        this.bandTasks = new BandTask[bandCount];
+        for(int i = 0; i < bandCount; i++) {
+            bandRenderers[i] = new SoftwareRenderer(renderer);
+            bandTasks[i] = new BandTask(i);
+        }
+    }
+
+    /**
+     * Returns the renderer whose target, origin,
+     * clip and cached pixels are used.
+     * 
+     * @return the renderer
+     */
+    public SoftwareRenderer getRenderer() {
+        return this.renderer;
+    }
+
+    /**
+     * Returns the height of each band in pixels.
+     * 
+     * @return the band height
+     */
+    public int getBandHeight() {
+        return this.bandHeight;
+    }
+
+    /**
+     * Returns the amount of bands.
+     * 
+     * @return the band count
+     */
+    public int getBandCount() {
+        return bandRenderers.length;
+    }
+
+    /**
+     * Returns how many threads draw the bands.
+     * 
+     * @return the thread count
+     */
+    public int getThreadCount() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Adds a rectangle filled with the passed
+     * {@code color} to the drawings to be flushed.
+     * 
+     * @param color the color of the rectangle
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    @Override
+    public void fillRect(Color color, int x, int y, int width, int height) {
+        add(color.getRGB(), null, x, y, width, height);
+    }
+
+    /**
+     * Adds the passed {@code image} scaled to fit the
+     * specified rectangle to the drawings to be flushed.
+     * 
+     * @param image the image to be drawn
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    @Override
+    public void drawImage(BufferedImage image, int x, int y, int width, int height) {
+        add(0, renderer.getPixels(image), x, y, width, height);
+    }
+
+    /**
+     * Stores a command, translated by the origin of
+     * the renderer, and puts it in the bins of the
+     * bands it covers within the clip.
+     * 
+     * @param color the color of a rectangle
+     * @param image the pixels of an image
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param width the width dimension
+     * @param height the height dimension
+     */
+    private void add(int color, SoftwareRenderer.Pixels image, int x, int y, int width, int height) {
+        x += renderer.getOriginX();
+        y += renderer.getOriginY();
+        int top = Math.max(renderer.getClipTop(), y);
+        int bottom = Math.min(renderer.getClipBottom(), y + height);
+        if (
+            top >= bottom ||
+            Math.max(renderer.getClipLeft(), x) >= Math.min(renderer.getClipRight(), x + width)
+        ) {
+            return;
+        }
+
+        if(size == xs.length) {
+            grow();
+        }
+        colors[size] = color;
+        images[size] = image;
+        xs[size] = x;
+        ys[size] = y;
+        widths[size] = width;
+        heights[size] = height;
+
+        int lastBand = (bottom - 1) / bandHeight;
+        for(int band = top / bandHeight; band <= lastBand; band++) {
+            if(binSizes[band] == bins[band].length) {
+                bins[band] = Arrays.copyOf(bins[band], binSizes[band] * 2);
+            }
+            bins[band][binSizes[band]++] = size;
+        }
+        size++;
+    }
+
+    /**
+     * Doubles the capacity of
+     * the command buffers.
+     */
+    private void grow() {
+        int capacity = xs.length * 2;
+        colors = Arrays.copyOf(colors, capacity);
+        images = Arrays.copyOf(images, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+    }
+
+    /**
+     * Rasterizes the bands with the commands added
+     * since the last flush and empties the bins. This
+     * must be done before anything else draws into the
+     * target, such as a custom drawing.
+     */
+    @Override
+    public void flush() {
+        if(size == 0) {
+            return;
+        }
+
+        if(pool.getParallelism() == 1) {
+            for(int band = 0; band < bandTasks.length; band++) {
+                rasterize(band);
+            }
+        } else {
+            flushTask.reinitialize();
+            pool.invoke(flushTask);
+        }
+
+        Arrays.fill(images, 0, size, null);
+        this.size = 0;
+    }
+
+    /**
+     * Draws the bin of the passed {@code band}
+     * clipped to its rows and empties the bin.
+     * 
+     * @param band the index of the band
+     */
+    private void rasterize(int band) {
+        int binSize = binSizes[band];
+        if(binSize == 0) {
+            return;
+        }
+
+        SoftwareRenderer bandRenderer = bandRenderers[band];
+        int top = Math.max(renderer.getClipTop(), band * bandHeight);
+        int bottom = Math.min(renderer.getClipBottom(), (band + 1) * bandHeight);
+        bandRenderer.setClip (
+            renderer.getClipLeft(), top,
+            renderer.getClipRight() - renderer.getClipLeft(), bottom - top
+        );
+
+        int[] bin = bins[band];
+        for(int i = 0; i < binSize; i++) {
+            int command = bin[i];
+            if(images[command] != null) {
+                bandRenderer.drawPixels (
+                    images[command],
+                    xs[command], ys[command],
+                    widths[command], heights[command]
+                );
+            } else {
+                bandRenderer.fillRect (
+                    colors[command],
+                    xs[command], ys[command],
+                    widths[command], heights[command]
+                );
+            }
+        }
+        binSizes[band] = 0;
+    }
+
+    /**
+     * Stops the threads of this
+     * {@code TiledRasterizer}.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Task that rasterizes one band.
+     */
+    private final class BandTask extends RecursiveAction {
+
+        /**
+         * The version of the serialized form
+         * inherited from {@code RecursiveAction}.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The index of the band.
+         */
+        private final int band;
+
+        /**
+         * Constructs the task of the passed {@code band}.
+         * 
+         * @param band the index of the band
+         */
+        BandTask(int band) {
+            this.band = band;
+        }
+
+        @Override
+        protected void compute() {
+            rasterize(band);
+        }
+
+    }
+
+    /**
+     * Task that rasterizes every band in parallel.
+     */
+    private final class FlushTask extends RecursiveAction {
+
+        /**
+         * The version of the serialized form
+         * inherited from {@code RecursiveAction}.
+         */
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            for(BandTask task : bandTasks) {
+                task.reinitialize();
+            }
+            invokeAll(bandTasks);
+        }
+
+    }
+
+}
@@ -1,9 +1,12 @@
 package imagine.scenario;
 
 import java.awt.Graphics2D;
+import java.nio.ByteBuffer;
 
 import imagine.stage.AnimatableStageElement;
 import imagine.flow.GameFluid;
+import imagine.render.CustomDrawable;
+import imagine.render.RenderBatch;
 import imagine.scenario.type.*;
 import imagine.sprite.SpriteSheet;
 
@@ -13,7 +16,7 @@ import imagine.sprite.SpriteSheet;
  * 
  * @author Daniel O Sousa
  */
-public abstract class Scenario extends AnimatableStageElement implements GameFluid {
+public abstract class Scenario extends AnimatableStageElement implements GameFluid, CustomDrawable {
 
     /**
      * The speed with which the scenario will
@@ -47,6 +50,15 @@ public abstract class Scenario extends AnimatableStageElement implements GameFlu
      */
     private ScenarioType type;
 
+    /**
+     * Determines if the {@code onDraw} method of
+     * this scenario is called when it is drawn
+     * through a {@code RenderBatch}.
+     * <p>
+     * This property is initially set to {@code false}.
+     */
+    private boolean customDrawing = false;
+
     /**
      * Constructs a {@code Scenario} which will
      * have the specified {@code spriteSheet}.
@@ -130,6 +142,33 @@ public abstract class Scenario extends AnimatableStageElement implements GameFlu
         this.type = type;
     }
 
+    /**
+     * Defines if the {@code onDraw} method of this
+     * {@code Scenario} should be called when it is
+     * drawn through a {@code RenderBatch}. Scenarios
+     * whose {@code onDraw} draws nothing should leave
+     * it unset, so that their images can be batched
+     * with the ones of other scenarios.
+     * 
+     * @param customDrawing a {@code boolean} specifying
+     * if {@code onDraw} is called in batch rendering
+     */
+    public void setCustomDrawing(boolean customDrawing) {
+        this.customDrawing = customDrawing;
+    }
+
+    /**
+     * Returns {@code true} if the {@code onDraw}
+     * method of this {@code Scenario} is called
+     * when it is drawn through a {@code RenderBatch},
+     * and {@code false} otherwise.
+     * 
+     * @return a {@code boolean} value
+     */
+    public boolean getCustomDrawing() {
+        return this.customDrawing;
+    }
+
     /**
      * Sets the type of this {@code Scenario}
      * to "no repeat", which means that it won't
@@ -169,6 +208,15 @@ public abstract class Scenario extends AnimatableStageElement implements GameFlu
         setType(new RepeatXY(this));
     }
 
+    /**
+     * Releases the images that the type of this
+     * {@code Scenario} keeps cached for drawing.
+     * They are built again when needed.
+     */
+    public void flush() {
+        type.flush();
+    }
+
     /**
      * Returns the type of this {@code Scenario}.
      * 
@@ -266,6 +314,26 @@ public abstract class Scenario extends AnimatableStageElement implements GameFlu
         onDraw(g2);
     }
     
+    /**
+     * Records the drawing of this {@code Scenario}
+     * into the passed {@code batch} according to
+     * its type. If custom drawing is set, the
+     * {@code onDraw} method is recorded to be
+     * called after it.
+     * 
+     * @param batch a {@code RenderBatch} where
+     * this {@code Scenario} is recorded
+     */
+    public void draw(RenderBatch batch) {
+        if(getCurrentFrame() != null && getWidth() != 0 && getHeight() != 0) {
+            type.draw(batch);
+        }
+
+        if(customDrawing) {
+            batch.customDraw(this);
+        }
+    }
+
     /**
      * Method used for defining what should
      * happen every time this {@code Scenario}
@@ -274,6 +342,34 @@ public abstract class Scenario extends AnimatableStageElement implements GameFlu
      * @param g2 a {@code Graphics2D} instance used
      * in the drawing
      */
+    @Override
     public abstract void onDraw(Graphics2D g2);
 
+    /**
+     * Writes the state of this {@code Scenario},
+     * including its parallax speeds, into the
+     * passed {@code buffer}.
+     * 
+     * @param buffer the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.putInt(xParallaxSpeed);
+        buffer.putInt(yParallaxSpeed);
+    }
+
+    /**
+     * Reads the state of this {@code Scenario}
+     * from the passed {@code buffer}.
+     * 
+     * @param buffer the buffer to read from
+     */
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        this.xParallaxSpeed = buffer.getInt();
+        this.yParallaxSpeed = buffer.getInt();
+    }
+
 }
\ No newline at end of file
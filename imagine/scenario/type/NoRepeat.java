@@ -4,6 +4,8 @@ import imagine.scenario.Scenario;
 
 import java.awt.Graphics2D;
 
+import imagine.render.RenderBatch;
+
 /**
  * Class to represent a {@code ScenarioType}
  * that has as characteristic not repeat itself
@@ -82,5 +84,31 @@ public class NoRepeat implements ScenarioType {
             null
         );
     }
-    
-}
\ No newline at end of file
+
+    /**
+     * Records the drawing of the {@code Scenario}
+     * that has this {@code ScenarioType} with its
+     * apparent x and y coordinates and width and
+     * height dimensions.
+     * 
+     * @param batch a {@code RenderBatch} where
+     * the said {@code Scenario} is recorded
+     */
+    @Override
+    public void draw(RenderBatch batch) {
+        batch.drawImage (
+            scenario.getCurrentFrame().getImage(),
+            scenario.getApparentX(), scenario.getApparentY(),
+            scenario.getWidth(), scenario.getHeight()
+        );
+    }
+
+    /**
+     * Does nothing, since this {@code ScenarioType}
+     * doesn't cache any image.
+     */
+    @Override
+    public void flush() {
+    }
+
+}
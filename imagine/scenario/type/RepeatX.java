@@ -3,6 +3,9 @@ package imagine.scenario.type;
 import imagine.scenario.Scenario;
 
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.render.RenderBatch;
 
 /**
  * Class to represent a {@code ScenarioType}
@@ -26,6 +29,31 @@ public class RepeatX implements ScenarioType {
      */
     private Scenario scenario;
 
+    /**
+     * Cache of the frame of the {@code scenario}
+     * repeated enough times to cover the
+     * {@code GamePanel} plus one tile of margin.
+     */
+    private TileStrip strip = new TileStrip();
+
+    /**
+     * The strip image to be drawn in the
+     * current frame.
+     */
+    private BufferedImage stripImage;
+
+    /**
+     * The x coordinate where the strip
+     * is drawn in the current frame.
+     */
+    private int drawingX;
+
+    /**
+     * The y coordinate where the strip
+     * is drawn in the current frame.
+     */
+    private int drawingY;
+
     /**
      * Constructs a new {@code RepeatX}
      * {@code ScenarioType} that characterizes
@@ -71,29 +99,79 @@ public class RepeatX implements ScenarioType {
      * {@code ScenarioType} in a way that it repeats
      * itself to fill the {@code GamePanel} on the
      * x axis.
+     * <p>
+     * The repeated frames are cached in a strip as
+     * wide as the {@code GamePanel} plus one tile,
+     * so drawing takes a single blit at the offset
+     * given by the parallax.
      * 
      * @param g2 a {@code Graphics2D} instance used
      * for drawing the said {@code Scenario}
      */
     @Override
     public void draw(Graphics2D g2) {
-        if(scenario.getGamePanelWidth() == 0 || scenario.getGamePanelHeight() == 0) {
-            return;
+        if(prepareStrip()) {
+            g2.drawImage(stripImage, drawingX, drawingY, null);
         }
+    }
 
-        int drawingX =
-            scenario.getApparentX() <= 0 ?
-            scenario.getApparentX() % scenario.getWidth() :
-            scenario.getApparentX() % scenario.getWidth() - scenario.getWidth();
-        while(drawingX < scenario.getGamePanelWidth()) {
-            g2.drawImage (
-                scenario.getCurrentFrame().getImage(),
-                drawingX, scenario.getApparentY(),
-                scenario.getWidth(), scenario.getHeight(),
-                null
+    /**
+     * Records the drawing of the {@code Scenario}
+     * that has this {@code ScenarioType} in a way that
+     * it repeats itself to fill the {@code GamePanel}
+     * on the x axis.
+     * 
+     * @param batch a {@code RenderBatch} where
+     * the said {@code Scenario} is recorded
+     */
+    @Override
+    public void draw(RenderBatch batch) {
+        if(prepareStrip()) {
+            batch.drawImage (
+                stripImage, drawingX, drawingY,
+                stripImage.getWidth(), stripImage.getHeight()
             );
-            drawingX += scenario.getWidth();
         }
     }
-    
-}
\ No newline at end of file
+
+    /**
+     * Gets the strip image from the cache and
+     * calculates where it should be drawn in
+     * the current frame.
+     * 
+     * @return {@code false} if there is
+     * nothing to be drawn and {@code true}
+     * otherwise
+     */
+    private boolean prepareStrip() {
+        int panelWidth = scenario.getGamePanelWidth();
+        if(panelWidth == 0 || scenario.getGamePanelHeight() == 0) {
+            return false;
+        }
+
+        int width = scenario.getWidth();
+        int apparentX = scenario.getApparentX();
+        drawingX =
+            apparentX <= 0 ?
+            apparentX % width :
+            apparentX % width - width;
+        stripImage = strip.getImage (
+            scenario, scenario.getCurrentFrame().getImage(),
+            width, scenario.getHeight(),
+            (panelWidth + width - 1) / width + 1, 1
+        );
+        drawingY = scenario.getApparentY();
+        return true;
+    }
+
+    /**
+     * Releases the cached strip image. It will
+     * be built again the next time it is drawn.
+     */
+    @Override
+    public void flush() {
+        strip.flush();
+        this.stripImage = null;
+    }
+
+}
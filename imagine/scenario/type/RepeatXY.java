@@ -3,6 +3,9 @@ package imagine.scenario.type;
 import imagine.scenario.Scenario;
 
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.render.RenderBatch;
 
 /**
  * Class to represent a {@code ScenarioType}
@@ -26,6 +29,31 @@ public class RepeatXY implements ScenarioType {
      */
     private Scenario scenario;
 
+    /**
+     * Cache of the frame of the {@code scenario}
+     * repeated enough times to cover the
+     * {@code GamePanel} plus one tile of margin.
+     */
+    private TileStrip strip = new TileStrip();
+
+    /**
+     * The strip image to be drawn in the
+     * current frame.
+     */
+    private BufferedImage stripImage;
+
+    /**
+     * The x coordinate where the strip
+     * is drawn in the current frame.
+     */
+    private int drawingX;
+
+    /**
+     * The y coordinate where the strip
+     * is drawn in the current frame.
+     */
+    private int drawingY;
+
     /**
      * Constructs a new {@code RepeatXY}
      * {@code ScenarioType} that characterizes
@@ -71,36 +99,86 @@ public class RepeatXY implements ScenarioType {
      * {@code ScenarioType} in a way that it repeats
      * itself to fill the {@code GamePanel} on the
      * x and y axis.
+     * <p>
+     * The repeated frames are cached in an image as
+     * big as the {@code GamePanel} plus one tile on
+     * each axis, so drawing takes a single blit at
+     * the offset given by the parallax.
      * 
      * @param g2 a {@code Graphics2D} instance used
      * for drawing the said {@code Scenario}
      */
     @Override
     public void draw(Graphics2D g2) {
-        if(scenario.getGamePanelWidth() == 0 || scenario.getGamePanelHeight() == 0) {
-            return;
+        if(prepareStrip()) {
+            g2.drawImage(stripImage, drawingX, drawingY, null);
         }
+    }
 
-        int drawingY =
-            scenario.getApparentY() <= 0 ?
-            scenario.getApparentY() % scenario.getHeight() :
-            scenario.getApparentY() % scenario.getHeight() - scenario.getHeight();
-        while(drawingY < scenario.getGamePanelHeight()) {
-            int drawingX =
-                scenario.getApparentX() <= 0 ?
-                scenario.getApparentX() % scenario.getWidth() :
-                scenario.getApparentX() % scenario.getWidth() - scenario.getWidth();
-            while(drawingX < scenario.getGamePanelWidth()) {
-                g2.drawImage (
-                    scenario.getCurrentFrame().getImage(),
-                    drawingX, drawingY,
-                    scenario.getWidth(), scenario.getHeight(),
-                    null
-                );
-                drawingX += scenario.getWidth();
-            }
-            drawingY += scenario.getHeight();
+    /**
+     * Records the drawing of the {@code Scenario}
+     * that has this {@code ScenarioType} in a way that
+     * it repeats itself to fill the {@code GamePanel}
+     * on the x and y axis.
+     * 
+     * @param batch a {@code RenderBatch} where
+     * the said {@code Scenario} is recorded
+     */
+    @Override
+    public void draw(RenderBatch batch) {
+        if(prepareStrip()) {
+            batch.drawImage (
+                stripImage, drawingX, drawingY,
+                stripImage.getWidth(), stripImage.getHeight()
+            );
         }
     }
-    
-}
\ No newline at end of file
+
+    /**
+     * Gets the strip image from the cache and
+     * calculates where it should be drawn in
+     * the current frame.
+     * 
+     * @return {@code false} if there is
+     * nothing to be drawn and {@code true}
+     * otherwise
+     */
+    private boolean prepareStrip() {
+        int panelWidth = scenario.getGamePanelWidth();
+        int panelHeight = scenario.getGamePanelHeight();
+        if(panelWidth == 0 || panelHeight == 0) {
+            return false;
+        }
+
+        int width = scenario.getWidth();
+        int height = scenario.getHeight();
+        int apparentX = scenario.getApparentX();
+        int apparentY = scenario.getApparentY();
+        drawingX =
+            apparentX <= 0 ?
+            apparentX % width :
+            apparentX % width - width;
+        drawingY =
+            apparentY <= 0 ?
+            apparentY % height :
+            apparentY % height - height;
+        stripImage = strip.getImage (
+            scenario, scenario.getCurrentFrame().getImage(),
+            width, height,
+            (panelWidth + width - 1) / width + 1,
+            (panelHeight + height - 1) / height + 1
+        );
+        return true;
+    }
+
+    /**
+     * Releases the cached strip image. It will
+     * be built again the next time it is drawn.
+     */
+    @Override
+    public void flush() {
+        strip.flush();
+        this.stripImage = null;
+    }
+
+}
@@ -3,6 +3,9 @@ package imagine.scenario.type;
 import imagine.scenario.Scenario;
 
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.render.RenderBatch;
 
 /**
  * Class to represent a {@code ScenarioType}
@@ -26,6 +29,31 @@ public class RepeatY implements ScenarioType {
      */
     private Scenario scenario;
 
+    /**
+     * Cache of the frame of the {@code scenario}
+     * repeated enough times to cover the
+     * {@code GamePanel} plus one tile of margin.
+     */
+    private TileStrip strip = new TileStrip();
+
+    /**
+     * The strip image to be drawn in the
+     * current frame.
+     */
+    private BufferedImage stripImage;
+
+    /**
+     * The x coordinate where the strip
+     * is drawn in the current frame.
+     */
+    private int drawingX;
+
+    /**
+     * The y coordinate where the strip
+     * is drawn in the current frame.
+     */
+    private int drawingY;
+
     /**
      * Constructs a new {@code RepeatY}
      * {@code ScenarioType} that characterizes
@@ -71,29 +99,79 @@ public class RepeatY implements ScenarioType {
      * {@code ScenarioType} in a way that it repeats
      * itself to fill the {@code GamePanel} on the
      * y axis.
+     * <p>
+     * The repeated frames are cached in a strip as
+     * tall as the {@code GamePanel} plus one tile,
+     * so drawing takes a single blit at the offset
+     * given by the parallax.
      * 
      * @param g2 a {@code Graphics2D} instance used
      * for drawing the said {@code Scenario}
      */
     @Override
     public void draw(Graphics2D g2) {
-        if(scenario.getGamePanelWidth() == 0 || scenario.getGamePanelHeight() == 0) {
-            return;
+        if(prepareStrip()) {
+            g2.drawImage(stripImage, drawingX, drawingY, null);
         }
+    }
 
-        int drawingY =
-            scenario.getApparentY() <= 0 ?
-            scenario.getApparentY() % scenario.getHeight() :
-            scenario.getApparentY() % scenario.getHeight() - scenario.getHeight();
-        while(drawingY < scenario.getGamePanelHeight()) {
-            g2.drawImage (
-                scenario.getCurrentFrame().getImage(),
-                scenario.getApparentX(), drawingY,
-                scenario.getWidth(), scenario.getHeight(),
-                null
+    /**
+     * Records the drawing of the {@code Scenario}
+     * that has this {@code ScenarioType} in a way that
+     * it repeats itself to fill the {@code GamePanel}
+     * on the y axis.
+     * 
+     * @param batch a {@code RenderBatch} where
+     * the said {@code Scenario} is recorded
+     */
+    @Override
+    public void draw(RenderBatch batch) {
+        if(prepareStrip()) {
+            batch.drawImage (
+                stripImage, drawingX, drawingY,
+                stripImage.getWidth(), stripImage.getHeight()
             );
-            drawingY += scenario.getHeight();
         }
     }
-    
-}
\ No newline at end of file
+
+    /**
+     * Gets the strip image from the cache and
+     * calculates where it should be drawn in
+     * the current frame.
+     * 
+     * @return {@code false} if there is
+     * nothing to be drawn and {@code true}
+     * otherwise
+     */
+    private boolean prepareStrip() {
+        int panelHeight = scenario.getGamePanelHeight();
+        if(scenario.getGamePanelWidth() == 0 || panelHeight == 0) {
+            return false;
+        }
+
+        int height = scenario.getHeight();
+        int apparentY = scenario.getApparentY();
+        drawingY =
+            apparentY <= 0 ?
+            apparentY % height :
+            apparentY % height - height;
+        stripImage = strip.getImage (
+            scenario, scenario.getCurrentFrame().getImage(),
+            scenario.getWidth(), height,
+            1, (panelHeight + height - 1) / height + 1
+        );
+        drawingX = scenario.getApparentX();
+        return true;
+    }
+
+    /**
+     * Releases the cached strip image. It will
+     * be built again the next time it is drawn.
+     */
+    @Override
+    public void flush() {
+        strip.flush();
+        this.stripImage = null;
+    }
+
+}
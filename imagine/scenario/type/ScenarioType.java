@@ -2,6 +2,8 @@ package imagine.scenario.type;
 
 import java.awt.Graphics2D;
 
+import imagine.render.RenderBatch;
+
 /**
  * Interface that every scenario
  * type implements.
@@ -29,4 +31,22 @@ public interface ScenarioType {
      */
     void draw(Graphics2D g2);
 
-}
\ No newline at end of file
+    /**
+     * Method to determine how a
+     * {@code ScenarioType} should be
+     * recorded into a {@code RenderBatch}.
+     * 
+     * @param batch a {@code RenderBatch}
+     * where the drawing is recorded
+     */
+    void draw(RenderBatch batch);
+
+    /**
+     * Method to release the images that a
+     * {@code ScenarioType} keeps cached for
+     * drawing. They should be built again
+     * when needed.
+     */
+    void flush();
+
+}
@@ -0,0 +1,162 @@
+package imagine.scenario.type;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.game.Game;
+import imagine.render.SoftwareRenderer;
+import imagine.scenario.Scenario;
+import imagine.sprite.CompatibleImage;
+
+/**
+ * Class that caches an image made of a frame
+ * repeated a number of times on the x and y
+ * axis. The repeat {@code ScenarioType}s use it
+ * to draw themselves with a single blit instead
+ * of one scaled blit per tile.
+ * 
+ * @author Daniel O Sousa
+ */
+class TileStrip {
+
+    /**
+     * The cached image with the
+     * repeated frames.
+     */
+    private BufferedImage image;
+
+    /**
+     * The frame that was repeated
+     * to build the {@code image}.
+     */
+    private BufferedImage frame;
+
+    /**
+     * The width with which each
+     * frame was drawn into the
+     * {@code image}.
+     */
+    private int tileWidth;
+
+    /**
+     * The height with which each
+     * frame was drawn into the
+     * {@code image}.
+     */
+    private int tileHeight;
+
+    /**
+     * How many times the frame is
+     * repeated on the x axis.
+     */
+    private int columns;
+
+    /**
+     * How many times the frame is
+     * repeated on the y axis.
+     */
+    private int rows;
+
+    /**
+     * Returns an image where the passed {@code frame} is
+     * repeated {@code columns} times on the x axis and
+     * {@code rows} times on the y axis, each repetition
+     * having {@code tileWidth} by {@code tileHeight} pixels.
+     * <p>
+     * The image is only built again if any of the
+     * arguments changed since the last call.
+     * 
+     * @param scenario the scenario being drawn
+     * @param frame the frame to be repeated
+     * @param tileWidth the width of each repetition
+     * @param tileHeight the height of each repetition
+     * @param columns the amount of repetitions on the x axis
+     * @param rows the amount of repetitions on the y axis
+     * 
+     * @return the image with the repeated frame
+     */
+    BufferedImage getImage(
+        Scenario scenario, BufferedImage frame,
+        int tileWidth, int tileHeight, int columns, int rows
+    ) {
+        if (
+            image == null || this.frame != frame ||
+            this.tileWidth != tileWidth || this.tileHeight != tileHeight ||
+            this.columns != columns || this.rows != rows
+        ) {
+            invalidate(scenario);
+            build(frame, tileWidth, tileHeight, columns, rows);
+        }
+
+        return this.image;
+    }
+
+    /**
+     * Makes the software renderer of the game of the
+     * {@code scenario}, if it is drawn with one, drop
+     * the pixels it converted from the {@code image},
+     * which is about to be replaced.
+     * 
+     * @param scenario the scenario being drawn
+     */
+    private void invalidate(Scenario scenario) {
+        Game game = scenario.getGame();
+        SoftwareRenderer renderer = game != null ? game.getSoftwareRenderer() : null;
+        if(image != null && renderer != null) {
+            renderer.invalidate(image);
+        }
+    }
+
+    /**
+     * Builds the {@code image} by drawing the
+     * {@code frame} once for every tile.
+     * 
+     * @param frame the frame to be repeated
+     * @param tileWidth the width of each repetition
+     * @param tileHeight the height of each repetition
+     * @param columns the amount of repetitions on the x axis
+     * @param rows the amount of repetitions on the y axis
+     */
+    private void build(
+        BufferedImage frame, int tileWidth, int tileHeight, int columns, int rows
+    ) {
+        flush();
+        this.image = CompatibleImage.create (
+            tileWidth * columns, tileHeight * rows,
+            frame.getColorModel().getTransparency()
+        );
+        this.frame = frame;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.columns = columns;
+        this.rows = rows;
+
+        Graphics2D g2 = image.createGraphics();
+        for(int i = 0; i < rows; i++) {
+            for(int j = 0; j < columns; j++) {
+                g2.drawImage (
+                    frame,
+                    tileWidth * j, tileHeight * i,
+                    tileWidth, tileHeight,
+                    null
+                );
+            }
+        }
+        g2.dispose();
+    }
+
+    /**
+     * Releases the cached image. It
+     * will be built again the next time
+     * it is requested.
+     */
+    void flush() {
+        if(image != null) {
+            image.flush();
+        }
+
+        this.image = null;
+        this.frame = null;
+    }
+
+}
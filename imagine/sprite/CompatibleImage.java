@@ -0,0 +1,68 @@
+package imagine.sprite;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Class used for creating images that are
+ * compatible with the screen, which makes
+ * drawing them much cheaper than drawing
+ * images of arbitrary formats.
+ * 
+ * @author Daniel O Sousa
+ */
+public final class CompatibleImage {
+
+    /**
+     * This class only has static
+     * methods, so it can't be
+     * instantiated.
+     */
+    private CompatibleImage() {
+
+    }
+
+    /**
+     * Creates an image of {@code width} by {@code height}
+     * pixels compatible with the default screen and with
+     * the specified {@code transparency}. If there is no
+     * screen available, an image of a standard integer
+     * RGB or ARGB type is created instead.
+     * 
+     * @param width the width of the image
+     * @param height the height of the image
+     * @param transparency one of the {@code Transparency}
+     * constants
+     * 
+     * @return the created image
+     * 
+     * @throws IllegalArgumentException if the {@code width}
+     * or {@code height} argument is not positive
+     */
+    public static BufferedImage create(int width, int height, int transparency) {
+        if(width <= 0 || height <= 0) {
+            throw new IllegalArgumentException (
+                "cannot create image of " + width + "x" + height +
+                " (dimensions must be positive)"
+            );
+        }
+
+        if(!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration configuration = GraphicsEnvironment
+                .getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice()
+                .getDefaultConfiguration();
+            return configuration.createCompatibleImage(width, height, transparency);
+        }
+
+        return new BufferedImage (
+            width, height,
+            transparency == Transparency.OPAQUE ?
+            BufferedImage.TYPE_INT_RGB :
+            BufferedImage.TYPE_INT_ARGB
+        );
+    }
+
+}
@@ -1,9 +1,13 @@
 package imagine.sprite;
 
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
 import java.io.IOException;
 
+import imagine.debug.AssetDecodeEvent;
+
 /**
  * A class that instantiates and loads a sprite.
  * 
@@ -21,6 +25,13 @@ public class Sprite {
      */
     private BufferedImage img;
 
+    /**
+     * The pre-scaled versions of the image, each
+     * one half the size of the previous, created
+     * when they are first needed.
+     */
+    private BufferedImage[] mipmaps;
+
     /**
      * Constructs a {@code Sprite}, loading its image from
      * where the {@code path} specifies.
@@ -105,6 +116,78 @@ public class Sprite {
         return this.img;
     }
 
+    /**
+     * Returns the version of this sprite's image that
+     * is best for drawing it scaled by {@code scale}.
+     * If the sprite is drawn at half its size or less,
+     * a pre-scaled version of the image is returned,
+     * so that it isn't heavily scaled when drawn.
+     * <p>
+     * The pre-scaled versions are created with bilinear
+     * filtering when they are first needed and kept.
+     * 
+     * @param scale how many times bigger than the
+     * image the sprite is drawn
+     * 
+     * @return the image to be drawn
+     */
+    public BufferedImage getImage(double scale) {
+        if(!(scale <= 0.5) || img == null) {
+            return img;
+        }
+
+        int level = 0;
+        int width = img.getWidth();
+        int height = img.getHeight();
+        while(scale <= 0.5 && width > 1 && height > 1) {
+            scale *= 2;
+            width = Math.max(1, width / 2);
+            height = Math.max(1, height / 2);
+            level++;
+        }
+        if(level == 0) {
+            return img;
+        }
+
+        if(mipmaps == null) {
+            mipmaps = new BufferedImage[level];
+        } else if(mipmaps.length < level) {
+            BufferedImage[] grown = new BufferedImage[level];
+            System.arraycopy(mipmaps, 0, grown, 0, mipmaps.length);
+            mipmaps = grown;
+        }
+        for(int i = 0; i < level; i++) {
+            if(mipmaps[i] == null) {
+                mipmaps[i] = halve(i == 0 ? img : mipmaps[i - 1]);
+            }
+        }
+
+        return mipmaps[level - 1];
+    }
+
+    /**
+     * Creates a copy of the passed {@code image}
+     * with half its size, scaled with bilinear
+     * filtering.
+     * 
+     * @param image the image to be halved
+     * 
+     * @return the halved image
+     */
+    private static BufferedImage halve(BufferedImage image) {
+        int width = Math.max(1, image.getWidth() / 2);
+        int height = Math.max(1, image.getHeight() / 2);
+        BufferedImage halved = CompatibleImage.create(width, height, image.getTransparency());
+        Graphics2D g2 = halved.createGraphics();
+        g2.setRenderingHint (
+            RenderingHints.KEY_INTERPOLATION,
+            RenderingHints.VALUE_INTERPOLATION_BILINEAR
+        );
+        g2.drawImage(image, 0, 0, width, height, null);
+        g2.dispose();
+        return halved;
+    }
+
     /**
      * Returns this sprite's width in pixels.
      * 
@@ -128,12 +211,18 @@ public class Sprite {
      * the {@code img} property.
      */
     private void load() {
+        AssetDecodeEvent event = new AssetDecodeEvent();
+        event.begin();
         try {
             img = ImageIO.read(getClass().getResourceAsStream("./../../" + path));
         }
         catch(IOException e) {
             e.printStackTrace();
         }
+        if(event.shouldCommit()) {
+            event.setAsset(path, img);
+            event.commit();
+        }
     }
     
 }
\ No newline at end of file
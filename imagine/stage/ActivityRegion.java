@@ -0,0 +1,612 @@
+package imagine.stage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import imagine.game.GameElement;
+import imagine.object.GameObject;
+
+/**
+ * Class that limits the objects of a {@code Stage}
+ * that are updated every frame to the ones around
+ * the {@code Camera}.
+ * <p>
+ * The stage is split in a grid of square cells, and an
+ * object belongs to the cell of its top left corner.
+ * Objects in the cells within the margin around the
+ * {@code Camera} are active. The other objects are
+ * dormant: they are kept by cell, are not updated nor
+ * drawn, and are woken when the {@code Camera} gets
+ * close to their cell. The cost of a frame thus depends
+ * on the content around the {@code Camera}, not on the
+ * size of the stage.
+ * <p>
+ * The cell size should be at least the size of the
+ * biggest object, so that objects become active before
+ * entering the view. Dormant objects can optionally
+ * be updated at a low frequency.
+ * <p>
+ * While the activity region is set, active objects are
+ * updated in the order they became active, and dormant
+ * objects should only be moved by their own updates.
+ * 
+ * @author Daniel O Sousa
+ */
+public class ActivityRegion {
+
+    /**
+     * The {@code Stage} of this
+     * {@code ActivityRegion}.
+     */
+    private Stage stage;
+
+    /**
+     * How many pixels around the {@code Camera}
+     * objects stay active.
+     */
+    private int margin;
+
+    /**
+     * The size of the cells of the grid.
+     * <p>
+     * Is initially set to {@code 256}.
+     */
+    private int cellSize = 256;
+
+    /**
+     * In how many frames every dormant object is
+     * updated once, or {@code 0} if dormant objects
+     * are never updated.
+     * <p>
+     * Is initially set to {@code 0}.
+     */
+    private int dormantTickInterval = 0;
+
+    /**
+     * The objects that are updated every frame.
+     */
+    private ArrayList<GameObject> activeObjects = new ArrayList<GameObject>();
+
+    /**
+     * The dormant objects, by the
+     * packed column and row of their cell.
+     */
+    private HashMap<Long, ArrayList<GameObject>> dormantCells = new HashMap<Long, ArrayList<GameObject>>();
+
+    /**
+     * Every dormant object, kept only while dormant
+     * objects are updated, in the order they are.
+     */
+    private ArrayList<GameObject> dormantObjects = new ArrayList<GameObject>();
+
+    /**
+     * The amount of dormant objects.
+     */
+    private int dormantCount;
+
+    /**
+     * Tells if {@code dormantObjects} has objects
+     * that are not dormant anymore.
+     */
+    private boolean dormantObjectsDirty;
+
+    /**
+     * The index of the next dormant
+     * object to be updated.
+     */
+    private int dormantCursor;
+
+    /**
+     * The first column of the active cells.
+     */
+    private int firstColumn;
+
+    /**
+     * The last column of the active cells.
+     */
+    private int lastColumn = -1;
+
+    /**
+     * The first row of the active cells.
+     */
+    private int firstRow;
+
+    /**
+     * The last row of the active cells.
+     */
+    private int lastRow = -1;
+
+    /**
+     * Creates a new {@code ActivityRegion} in which
+     * the objects stay active within {@code margin}
+     * pixels around the {@code Camera}.
+     * 
+     * @param margin the margin around the camera
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code margin} is negative
+     */
+    public ActivityRegion(int margin) {
+        setMargin(margin);
+    }
+
+    /**
+     * Sets how many pixels around the {@code Camera}
+     * the objects stay active.
+     * 
+     * @param margin the margin to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code margin} is negative
+     */
+    public void setMargin(int margin) {
+        if(margin < 0) {
+            throw new IllegalArgumentException (
+                "margin cannot be negative"
+            );
+        }
+
+        this.margin = margin;
+    }
+
+    /**
+     * Returns how many pixels around the
+     * {@code Camera} the objects stay active.
+     * 
+     * @return the margin around the camera
+     */
+    public int getMargin() {
+        return this.margin;
+    }
+
+    /**
+     * Sets the size of the cells of the grid. This
+     * can only be done before this {@code ActivityRegion}
+     * is set to a {@code Stage}.
+     * 
+     * @param cellSize the size to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code cellSize} is not positive or this
+     * {@code ActivityRegion} is already in use
+     */
+    public void setCellSize(int cellSize) {
+        if(cellSize <= 0) {
+            throw new IllegalArgumentException (
+                "cell size must be positive"
+            );
+        }
+        if(stage != null) {
+            throw new IllegalArgumentException (
+                "cannot change cell size of a region in use"
+            );
+        }
+
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Returns the size of the cells of the grid.
+     * 
+     * @return the cell size
+     */
+    public int getCellSize() {
+        return this.cellSize;
+    }
+
+    /**
+     * Sets in how many frames every dormant object is
+     * updated once. The updates are spread across the
+     * frames, so only a fraction of the dormant objects
+     * is updated each frame. If {@code 0}, dormant
+     * objects are never updated.
+     * 
+     * @param dormantTickInterval the interval to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code dormantTickInterval} is negative
+     */
+    public void setDormantTickInterval(int dormantTickInterval) {
+        if(dormantTickInterval < 0) {
+            throw new IllegalArgumentException (
+                "dormant tick interval cannot be negative"
+            );
+        }
+
+        if(this.dormantTickInterval == 0 && dormantTickInterval > 0) {
+            dormantObjects.clear();
+            for(ArrayList<GameObject> cell : dormantCells.values()) {
+                dormantObjects.addAll(cell);
+            }
+            this.dormantObjectsDirty = false;
+            this.dormantCursor = 0;
+        } else if(dormantTickInterval == 0) {
+            dormantObjects.clear();
+        }
+        this.dormantTickInterval = dormantTickInterval;
+    }
+
+    /**
+     * Returns in how many frames every
+     * dormant object is updated once.
+     * 
+     * @return the dormant tick interval
+     */
+    public int getDormantTickInterval() {
+        return this.dormantTickInterval;
+    }
+
+    /**
+     * Returns the objects updated every frame.
+     * 
+     * @return the active objects
+     */
+    public ArrayList<GameObject> getActiveObjects() {
+        return this.activeObjects;
+    }
+
+    /**
+     * Returns the amount of active objects.
+     * 
+     * @return the active object count
+     */
+    public int getActiveCount() {
+        return activeObjects.size();
+    }
+
+    /**
+     * Returns the amount of dormant objects.
+     * 
+     * @return the dormant object count
+     */
+    public int getDormantCount() {
+        return this.dormantCount;
+    }
+
+    /**
+     * Sets the {@code stage} of this {@code ActivityRegion},
+     * making every object of the stage active until the
+     * next update.
+     * 
+     * @param stage the stage to be attached to
+     * 
+     * @throws IllegalArgumentException if this
+     * {@code ActivityRegion} already has a stage
+     */
+    void attach(Stage stage) {
+        if(this.stage != null) {
+            throw new IllegalArgumentException (
+                "activity region already belongs to a stage"
+            );
+        }
+
+        this.stage = stage;
+        activeObjects.addAll(stage.getObjects());
+        this.lastColumn = -1;
+        this.lastRow = -1;
+    }
+
+    /**
+     * Wakes every dormant object and
+     * detaches this {@code ActivityRegion}
+     * from its stage.
+     */
+    void detach() {
+        for(ArrayList<GameObject> cell : dormantCells.values()) {
+            for(GameObject object : cell) {
+                object.setDormant(false);
+            }
+        }
+
+        dormantCells.clear();
+        dormantObjects.clear();
+        activeObjects.clear();
+        this.dormantCount = 0;
+        this.stage = null;
+    }
+
+    /**
+     * Makes the passed {@code object},
+     * just added to the stage, active.
+     * 
+     * @param object the added object
+     */
+    void add(GameObject object) {
+        activeObjects.add(object);
+    }
+
+    /**
+     * Forgets the passed {@code object},
+     * just removed from the stage.
+     * 
+     * @param object the removed object
+     */
+    void remove(GameObject object) {
+        if(!object.getDormant()) {
+            activeObjects.remove(object);
+            return;
+        }
+
+        object.setDormant(false);
+        if(!removeFromCell(getCellKey(object), object)) {
+            for(ArrayList<GameObject> cell : dormantCells.values()) {
+                if(cell.remove(object)) {
+                    break;
+                }
+            }
+        }
+        this.dormantCount--;
+        this.dormantObjectsDirty = true;
+    }
+
+    /**
+     * Removes the passed {@code object} from the dormant
+     * cell with the specified {@code key}, forgetting
+     * the cell if it becomes empty.
+     * 
+     * @param key the key of the cell
+     * @param object the object to be removed
+     * 
+     * @return boolean specifying if the object
+     * was in the cell
+     */
+    private boolean removeFromCell(long key, GameObject object) {
+        ArrayList<GameObject> cell = dormantCells.get(key);
+        if(cell == null || !cell.remove(object)) {
+            return false;
+        }
+
+        if(cell.isEmpty()) {
+            dormantCells.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Packs a {@code column} and a {@code row}
+     * into the key of a cell.
+     * 
+     * @param column the column of the cell
+     * @param row the row of the cell
+     * 
+     * @return the key of the cell
+     */
+    private static long key(int column, int row) {
+        return (long) column << 32 | (row & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the key of the cell to
+     * which the passed {@code object} belongs.
+     * 
+     * @param object the object
+     * 
+     * @return the key of its cell
+     */
+    private long getCellKey(GameObject object) {
+        return key (
+            Math.floorDiv(object.getX(), cellSize),
+            Math.floorDiv(object.getY(), cellSize)
+        );
+    }
+
+    /**
+     * Returns {@code true} if the passed {@code object}
+     * belongs to an active cell and {@code false}
+     * otherwise.
+     * 
+     * @param object the object
+     * 
+     * @return boolean specifying if the
+     * object should be active
+     */
+    private boolean isInActiveCell(GameObject object) {
+        int column = Math.floorDiv(object.getX(), cellSize);
+        int row = Math.floorDiv(object.getY(), cellSize);
+        return
+            column >= firstColumn && column <= lastColumn &&
+            row >= firstRow && row <= lastRow;
+    }
+
+    /**
+     * Updates the active objects, puts to sleep the
+     * ones that left the active cells and wakes the
+     * dormant objects whose cells became active. If
+     * dormant objects are updated, some of them are
+     * updated as well.
+     */
+    void update() {
+        updateActiveCells(stage.getView());
+
+        for(int i = 0; i < activeObjects.size(); i++) {
+            activeObjects.get(i).update();
+        }
+
+        sleepObjects();
+        if(dormantTickInterval > 0) {
+            updateDormantObjects();
+        }
+    }
+
+    /**
+     * Finds the cells within the margin around the
+     * {@code camera}, waking the dormant objects in
+     * them if they changed. The cells are extended by
+     * one to the left and to the top, since the objects
+     * of those cells may reach into the margin.
+     * 
+     * @param camera the view of the stage
+     */
+    private void updateActiveCells(GameElement camera) {
+        int first = Math.floorDiv(camera.getLeft() - margin, cellSize) - 1;
+        int last = Math.floorDiv(camera.getRight() - 1 + margin, cellSize);
+        int top = Math.floorDiv(camera.getTop() - margin, cellSize) - 1;
+        int bottom = Math.floorDiv(camera.getBottom() - 1 + margin, cellSize);
+        if(first == firstColumn && last == lastColumn && top == firstRow && bottom == lastRow) {
+            return;
+        }
+
+        this.firstColumn = first;
+        this.lastColumn = last;
+        this.firstRow = top;
+        this.lastRow = bottom;
+
+        if(dormantCount == 0) {
+            return;
+        }
+        for(int row = top; row <= bottom; row++) {
+            for(int column = first; column <= last; column++) {
+                ArrayList<GameObject> cell = dormantCells.remove(key(column, row));
+                if(cell != null) {
+                    wakeCell(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes every object of the passed
+     * dormant {@code cell} active.
+     * 
+     * @param cell the objects of the cell
+     */
+    private void wakeCell(ArrayList<GameObject> cell) {
+        for(GameObject object : cell) {
+            object.setDormant(false);
+            activeObjects.add(object);
+        }
+
+        this.dormantCount -= cell.size();
+        this.dormantObjectsDirty = true;
+    }
+
+    /**
+     * Moves the active objects that are not in the
+     * active cells anymore to their dormant cells.
+     */
+    private void sleepObjects() {
+        int kept = 0;
+        for(int i = 0; i < activeObjects.size(); i++) {
+            GameObject object = activeObjects.get(i);
+            if(isInActiveCell(object)) {
+                activeObjects.set(kept++, object);
+            } else {
+                sleep(object);
+            }
+        }
+
+        for(int i = activeObjects.size() - 1; i >= kept; i--) {
+            activeObjects.remove(i);
+        }
+    }
+
+    /**
+     * Puts the passed {@code object} into its
+     * dormant cell. The woken objects are removed
+     * from {@code dormantObjects} first, since the
+     * {@code object} may have been woken and still
+     * be listed there.
+     * 
+     * @param object the object to be put to sleep
+     */
+    private void sleep(GameObject object) {
+        if(dormantTickInterval > 0 && dormantObjectsDirty) {
+            removeWokenObjects();
+        }
+
+        moveToCell(object);
+        object.setDormant(true);
+        this.dormantCount++;
+        if(dormantTickInterval > 0) {
+            dormantObjects.add(object);
+        }
+    }
+
+    /**
+     * Moves the passed dormant {@code object}
+     * to the cell where it is now.
+     * 
+     * @param object the object that moved
+     */
+    private void moveToCell(GameObject object) {
+        long key = getCellKey(object);
+        ArrayList<GameObject> cell = dormantCells.get(key);
+        if(cell == null) {
+            cell = new ArrayList<GameObject>();
+            dormantCells.put(key, cell);
+        }
+
+        cell.add(object);
+    }
+
+    /**
+     * Updates the share of dormant objects of this
+     * frame, so that every dormant object is updated
+     * once each {@code dormantTickInterval} frames.
+     * Objects that move into the active cells are
+     * woken and objects that move to another cell
+     * are moved to it.
+     */
+    private void updateDormantObjects() {
+        if(dormantObjectsDirty) {
+            removeWokenObjects();
+        }
+        if(dormantObjects.isEmpty()) {
+            return;
+        }
+
+        int count = (dormantObjects.size() + dormantTickInterval - 1) / dormantTickInterval;
+        for(int i = 0; i < count && !dormantObjects.isEmpty(); i++) {
+            if(dormantCursor >= dormantObjects.size()) {
+                this.dormantCursor = 0;
+            }
+
+            GameObject object = dormantObjects.get(dormantCursor++);
+            if(!object.getDormant()) {
+                continue;
+            }
+
+            long key = getCellKey(object);
+            object.update();
+            if(!object.getDormant() || object.getStage() != stage) {
+                continue;
+            }
+
+            if(isInActiveCell(object)) {
+                removeFromCell(key, object);
+                object.setDormant(false);
+                activeObjects.add(object);
+                this.dormantCount--;
+                this.dormantObjectsDirty = true;
+            } else if(getCellKey(object) != key) {
+                removeFromCell(key, object);
+                moveToCell(object);
+            }
+        }
+    }
+
+    /**
+     * Removes from {@code dormantObjects} the
+     * objects that are not dormant anymore,
+     * keeping the cursor on the same object.
+     */
+    private void removeWokenObjects() {
+        int kept = 0;
+        int cursor = dormantCursor;
+        for(int i = 0; i < dormantObjects.size(); i++) {
+            GameObject object = dormantObjects.get(i);
+            if(object.getDormant()) {
+                dormantObjects.set(kept++, object);
+            } else if(i < dormantCursor) {
+                cursor--;
+            }
+        }
+
+        for(int i = dormantObjects.size() - 1; i >= kept; i--) {
+            dormantObjects.remove(i);
+        }
+        this.dormantCursor = cursor;
+        this.dormantObjectsDirty = false;
+    }
+
+}
@@ -1,5 +1,7 @@
 package imagine.stage;
 
+import java.nio.ByteBuffer;
+
 import imagine.sprite.*;
 import imagine.camera.Camera;
 
@@ -186,7 +188,10 @@ public abstract class AnimatableStageElement extends StageElement {
     /**
      * Returns the {@code Camera} of the
      * {@code Stage} that contains this
-     * {@code AnimatableStageElement}.
+     * {@code AnimatableStageElement}. While
+     * the stage draws its viewports, the
+     * thread drawing them gets the camera
+     * of the viewport being drawn.
      * 
      * @return the {@code Camera} of the
      * {@code Stage} of this
@@ -194,7 +199,7 @@ public abstract class AnimatableStageElement extends StageElement {
      */
     public Camera getCamera() {
         if(getStage() != null) {
-            return getStage().getCamera();
+            return getStage().getCurrentCamera();
         } else {
             return null;
         }
@@ -238,4 +243,39 @@ public abstract class AnimatableStageElement extends StageElement {
         }
     }
 
+    /**
+     * Writes the state of this {@code AnimatableStageElement},
+     * including its current frame, into the passed
+     * {@code buffer}.
+     * 
+     * @param buffer the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.putInt(getFrameX());
+        buffer.putInt(getFrameY());
+    }
+
+    /**
+     * Reads the state of this {@code AnimatableStageElement}
+     * from the passed {@code buffer}.
+     * 
+     * @param buffer the buffer to read from
+     */
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        int frameX = buffer.getInt();
+        int frameY = buffer.getInt();
+        if(frameManager != null) {
+            if(frameManager.getFrameX() != frameX) {
+                frameManager.setFrameX(frameX);
+            }
+            if(frameManager.getFrameY() != frameY) {
+                frameManager.setFrameY(frameY);
+            }
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,843 @@
+package imagine.stage;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import imagine.camera.Camera;
+import imagine.object.GameObject;
+import imagine.particle.ParticleSystem;
+import imagine.scenario.Scenario;
+import imagine.sprite.Sprite;
+
+/**
+ * Class that draws a {@code Stage} into a retained
+ * backbuffer, redrawing only the regions of it
+ * that changed since the previous frame.
+ * <p>
+ * Every frame, the position, size, frame, color and
+ * visibility of each object are compared with the ones
+ * it was drawn with. When they differ, the rectangles the
+ * object covered and covers now are marked as damaged.
+ * Damaged rectangles that touch are merged, and only
+ * the resulting regions are cleared and drawn again,
+ * with the objects that intersect them. The retained
+ * backbuffer is then drawn to the panel at once.
+ * <p>
+ * The whole backbuffer is redrawn when the {@code Camera}
+ * moves, when the panel is resized, when a scenario changes
+ * its offset or frame, while the particle system has particles
+ * and when the damaged regions cover most of the panel.
+ * <p>
+ * Changes that cannot be seen by comparing the objects, like
+ * drawings made in their {@code onDraw} methods, must be
+ * marked through {@code addDamage}. Tiles changed in the tile
+ * map of the stage are marked automatically.
+ * <p>
+ * Damage may be added by the game loop while the stage is
+ * drawn. It is queued under a lock and only merged into the
+ * damaged regions when the next drawing starts, so damage
+ * added during a drawing is redrawn in the next one.
+ * 
+ * @author Daniel O Sousa
+ */
+public class DamageTracker {
+
+    /**
+     * The most rectangles queued between two drawings.
+     * When there would be more, the whole backbuffer
+     * is redrawn instead.
+     */
+    private static final int MAX_PENDING = 256;
+
+    /**
+     * The {@code Stage} of this
+     * {@code DamageTracker}.
+     */
+    private Stage stage;
+
+    /**
+     * The color with which the damaged
+     * regions are cleared before being drawn.
+     * <p>
+     * Is initially set to {@code Color.BLACK}.
+     */
+    private Color clearColor = Color.BLACK;
+
+    /**
+     * The maximum amount of separate regions
+     * redrawn in a frame. When there would be more,
+     * the closest ones are merged.
+     * <p>
+     * Is initially set to {@code 8}.
+     */
+    private volatile int maxRegions = 8;
+
+    /**
+     * The retained backbuffer with
+     * the drawing of the stage.
+     */
+    private BufferedImage buffer;
+
+    /**
+     * Tells if the whole backbuffer
+     * is redrawn in the next frame.
+     */
+    private boolean fullRedraw = true;
+
+    /**
+     * The left, top, right and bottom
+     * of the damaged regions, in panel
+     * coordinates, four ints per region.
+     */
+    private int[] regions = new int[4 * 8];
+
+    /**
+     * The amount of damaged regions.
+     */
+    private int regionCount;
+
+    /**
+     * The left, top, right and bottom of the
+     * rectangles damaged since the last drawing
+     * started, in panel coordinates, four ints per
+     * rectangle. It is only accessed while holding
+     * its own lock.
+     */
+    private final int[] pendingRegions = new int[4 * MAX_PENDING];
+
+    /**
+     * The amount of queued rectangles.
+     */
+    private int pendingCount;
+
+    /**
+     * Tells if the whole backbuffer was damaged
+     * since the last drawing started. It is only
+     * accessed while holding the lock of the
+     * {@code pendingRegions}.
+     */
+    private boolean pendingFullRedraw;
+
+    /**
+     * The state with which every
+     * object was drawn last.
+     */
+    private IdentityHashMap<GameObject, DrawnState> objectStates = new IdentityHashMap<GameObject, DrawnState>();
+
+    /**
+     * The state with which every background
+     * and foreground was drawn last, from the
+     * furthest background to the closest foreground.
+     */
+    private ArrayList<DrawnState> scenarioStates = new ArrayList<DrawnState>();
+
+    /**
+     * The objects drawn in the
+     * region being redrawn.
+     */
+    private ArrayList<GameObject> regionObjects = new ArrayList<GameObject>();
+
+    /**
+     * The x coordinate of the camera
+     * in the previous frame.
+     */
+    private int lastCameraX;
+
+    /**
+     * The y coordinate of the camera
+     * in the previous frame.
+     */
+    private int lastCameraY;
+
+    /**
+     * Tells if the particle system had
+     * particles in the previous frame.
+     */
+    private boolean lastParticles;
+
+    /**
+     * The amount of frames drawn, used to
+     * find the objects that were removed.
+     */
+    private int frameCount;
+
+    /**
+     * The amount of regions
+     * redrawn in the last frame.
+     */
+    private int redrawnRegions;
+
+    /**
+     * The amount of pixels
+     * redrawn in the last frame.
+     */
+    private long redrawnArea;
+
+    /**
+     * Tells if the whole backbuffer
+     * was redrawn in the last frame.
+     */
+    private boolean lastFullRedraw;
+
+    /**
+     * Sets the color with which the damaged
+     * regions are cleared before being drawn.
+     * 
+     * @param clearColor the color to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code clearColor} argument is {@code null}
+     */
+    public void setClearColor(Color clearColor) {
+        if(clearColor == null) {
+            throw new IllegalArgumentException (
+                "cannot set null clear color"
+            );
+        }
+
+        this.clearColor = clearColor;
+        damageAll();
+    }
+
+    /**
+     * Returns the color with which the damaged
+     * regions are cleared before being drawn.
+     * 
+     * @return the clear color
+     */
+    public Color getClearColor() {
+        return this.clearColor;
+    }
+
+    /**
+     * Sets the maximum amount of separate
+     * regions redrawn in a frame.
+     * 
+     * @param maxRegions the maximum amount
+     * of regions to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code maxRegions} argument is not positive
+     */
+    public void setMaxRegions(int maxRegions) {
+        if(maxRegions <= 0) {
+            throw new IllegalArgumentException (
+                "maximum amount of regions must be positive"
+            );
+        }
+
+        this.maxRegions = maxRegions;
+        damageAll();
+    }
+
+    /**
+     * Returns the maximum amount of
+     * separate regions redrawn in a frame.
+     * 
+     * @return the maximum amount of regions
+     */
+    public int getMaxRegions() {
+        return this.maxRegions;
+    }
+
+    /**
+     * Returns the {@code Stage} of
+     * this {@code DamageTracker}.
+     * 
+     * @return the stage of this {@code DamageTracker}
+     * or {@code null} if it has none
+     */
+    public Stage getStage() {
+        return this.stage;
+    }
+
+    /**
+     * Returns the amount of regions
+     * redrawn in the last frame.
+     * 
+     * @return the amount of redrawn regions
+     */
+    public int getRedrawnRegions() {
+        return this.redrawnRegions;
+    }
+
+    /**
+     * Returns the amount of pixels
+     * redrawn in the last frame.
+     * 
+     * @return the redrawn area
+     */
+    public long getRedrawnArea() {
+        return this.redrawnArea;
+    }
+
+    /**
+     * Tells if the whole backbuffer
+     * was redrawn in the last frame.
+     * 
+     * @return {@code true} if the last frame
+     * was fully redrawn, {@code false} otherwise
+     */
+    public boolean getFullRedraw() {
+        return this.lastFullRedraw;
+    }
+
+    /**
+     * Marks the passed rectangle of the stage
+     * as damaged, so that it is redrawn in
+     * the next frame.
+     * 
+     * @param x the x coordinate of the rectangle
+     * @param y the y coordinate of the rectangle
+     * @param width the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    public void addDamage(int x, int y, int width, int height) {
+        Stage stage = this.stage;
+        if(stage == null || width <= 0 || height <= 0) {
+            return;
+        }
+
+        Camera camera = stage.getCamera();
+        int left = x - camera.getX();
+        int top = y - camera.getY();
+        synchronized(pendingRegions) {
+            if(pendingFullRedraw) {
+                return;
+            }
+            if(pendingCount == MAX_PENDING) {
+                this.pendingFullRedraw = true;
+                return;
+            }
+
+            pendingRegions[4 * pendingCount] = left;
+            pendingRegions[4 * pendingCount + 1] = top;
+            pendingRegions[4 * pendingCount + 2] = left + width;
+            pendingRegions[4 * pendingCount + 3] = top + height;
+            pendingCount++;
+        }
+    }
+
+    /**
+     * Makes the whole backbuffer
+     * be redrawn in the next frame.
+     */
+    public void damageAll() {
+        synchronized(pendingRegions) {
+            this.pendingFullRedraw = true;
+            this.pendingCount = 0;
+        }
+    }
+
+    /**
+     * Sets the {@code stage} of this
+     * {@code DamageTracker}.
+     * 
+     * @param stage the stage to be attached to
+     * 
+     * @throws IllegalArgumentException if this
+     * {@code DamageTracker} already has a stage
+     */
+    void attach(Stage stage) {
+        if(this.stage != null) {
+            throw new IllegalArgumentException (
+                "damage tracker already belongs to a stage"
+            );
+        }
+
+        this.stage = stage;
+        this.fullRedraw = true;
+    }
+
+    /**
+     * Detaches this {@code DamageTracker}
+     * from its stage, releasing the
+     * retained backbuffer.
+     */
+    void detach() {
+        objectStates.clear();
+        scenarioStates.clear();
+        regionObjects.clear();
+        this.buffer = null;
+        this.regionCount = 0;
+        this.fullRedraw = true;
+        this.stage = null;
+    }
+
+    /**
+     * Releases the retained backbuffer, which
+     * is fully redrawn in the next frame.
+     */
+    void flush() {
+        this.buffer = null;
+        damageAll();
+    }
+
+    /**
+     * Redraws the damaged regions of the retained
+     * backbuffer, or all of it, and draws the
+     * backbuffer with the passed {@code g2}.
+     * 
+     * @param g2 the {@code Graphics2D} of the panel
+     */
+    void draw(Graphics2D g2) {
+        int width = stage.getGamePanelWidth();
+        int height = stage.getGamePanelHeight();
+        if(width <= 0 || height <= 0) {
+            return;
+        }
+        if(buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+            this.buffer = g2.getDeviceConfiguration().createCompatibleImage(width, height);
+            this.fullRedraw = true;
+        }
+
+        takePendingDamage();
+        findDamage(width, height);
+
+        Graphics2D bufferGraphics = buffer.createGraphics();
+        if(fullRedraw) {
+            bufferGraphics.setColor(clearColor);
+            bufferGraphics.fillRect(0, 0, width, height);
+            stage.drawScene(bufferGraphics, stage.getCamera(), stage.getDrawOrder());
+            this.redrawnRegions = 1;
+            this.redrawnArea = (long) width * height;
+        } else {
+            long area = 0;
+            for(int i = 0; i < regionCount; i++) {
+                int left = regions[4 * i];
+                int top = regions[4 * i + 1];
+                int right = regions[4 * i + 2];
+                int bottom = regions[4 * i + 3];
+                bufferGraphics.setClip(left, top, right - left, bottom - top);
+                bufferGraphics.setColor(clearColor);
+                bufferGraphics.fillRect(left, top, right - left, bottom - top);
+                findObjects(left, top, right, bottom);
+                stage.drawScene(bufferGraphics, stage.getCamera(), regionObjects);
+                area += (long) (right - left) * (bottom - top);
+            }
+            regionObjects.clear();
+            this.redrawnRegions = regionCount;
+            this.redrawnArea = area;
+        }
+        bufferGraphics.dispose();
+
+        this.lastFullRedraw = fullRedraw;
+        this.fullRedraw = false;
+        this.regionCount = 0;
+        g2.drawImage(buffer, 0, 0, null);
+    }
+
+    /**
+     * Merges the rectangles queued by {@code addDamage}
+     * into the damaged regions and empties the queue.
+     * If the whole backbuffer was damaged or the maximum
+     * amount of regions changed, it is fully redrawn.
+     */
+    private void takePendingDamage() {
+        if(regions.length != 4 * maxRegions) {
+            this.regions = new int[4 * maxRegions];
+            this.regionCount = 0;
+            this.fullRedraw = true;
+        }
+
+        synchronized(pendingRegions) {
+            if(pendingFullRedraw) {
+                this.fullRedraw = true;
+            } else if(!fullRedraw) {
+                for(int i = 0; i < pendingCount; i++) {
+                    addRegion (
+                        pendingRegions[4 * i], pendingRegions[4 * i + 1],
+                        pendingRegions[4 * i + 2], pendingRegions[4 * i + 3]
+                    );
+                }
+            }
+            this.pendingFullRedraw = false;
+            this.pendingCount = 0;
+        }
+    }
+
+    /**
+     * Compares the camera, scenarios, particles and
+     * objects of the stage with the previous frame,
+     * damaging what changed. If the damaged regions
+     * cover most of the panel, the whole backbuffer
+     * is redrawn instead.
+     * 
+     * @param width the width of the panel
+     * @param height the height of the panel
+     */
+    private void findDamage(int width, int height) {
+        Camera camera = stage.getCamera();
+        if(camera.getX() != lastCameraX || camera.getY() != lastCameraY) {
+            this.lastCameraX = camera.getX();
+            this.lastCameraY = camera.getY();
+            this.fullRedraw = true;
+        }
+
+        ParticleSystem particleSystem = stage.getParticleSystem();
+        boolean particles = particleSystem != null && particleSystem.getCount() > 0;
+        if(particles || lastParticles) {
+            this.fullRedraw = true;
+        }
+        this.lastParticles = particles;
+
+        if(findScenarioDamage()) {
+            this.fullRedraw = true;
+        }
+        findObjectDamage();
+
+        if(!fullRedraw) {
+            long area = 0;
+            for(int i = 0; i < regionCount; i++) {
+                area += (long) (regions[4 * i + 2] - regions[4 * i]) *
+                    (regions[4 * i + 3] - regions[4 * i + 1]);
+            }
+            if(area * 4 > (long) width * height * 3) {
+                this.fullRedraw = true;
+            }
+        }
+    }
+
+    /**
+     * Updates the states of the backgrounds and
+     * foregrounds of the stage, telling if any of
+     * them changed since the previous frame.
+     * 
+     * @return {@code true} if a scenario changed,
+     * {@code false} otherwise
+     */
+    private boolean findScenarioDamage() {
+        ArrayList<Scenario> backgrounds = stage.getBackgrounds();
+        ArrayList<Scenario> foregrounds = stage.getForegrounds();
+        int count = backgrounds.size() + foregrounds.size();
+        boolean changed = false;
+        while(scenarioStates.size() < count) {
+            scenarioStates.add(new DrawnState());
+            changed = true;
+        }
+        while(scenarioStates.size() > count) {
+            scenarioStates.remove(scenarioStates.size() - 1);
+            changed = true;
+        }
+
+        int index = 0;
+        for(int i = backgrounds.size() - 1; i >= 0; i--) {
+            changed |= scenarioStates.get(index++).updateScenario(backgrounds.get(i));
+        }
+        for(int i = foregrounds.size() - 1; i >= 0; i--) {
+            changed |= scenarioStates.get(index++).updateScenario(foregrounds.get(i));
+        }
+        return changed;
+    }
+
+    /**
+     * Updates the states of the objects of the
+     * stage, damaging the rectangles of the ones
+     * that changed, were added or were removed
+     * since the previous frame.
+     */
+    private void findObjectDamage() {
+        this.frameCount++;
+        for(GameObject object : stage.getDrawOrder()) {
+            DrawnState state = objectStates.get(object);
+            if(state == null) {
+                state = new DrawnState();
+                objectStates.put(object, state);
+            }
+            state.frame = frameCount;
+
+            boolean visible = state.visible;
+            int left = state.x;
+            int top = state.y;
+            int right = state.x + state.width;
+            int bottom = state.y + state.height;
+            if(state.updateObject(object) && !fullRedraw) {
+                if(visible) {
+                    addRegion(left, top, right, bottom);
+                }
+                if(state.visible) {
+                    addRegion(state.x, state.y, state.x + state.width, state.y + state.height);
+                }
+            }
+        }
+
+        if(objectStates.size() > stage.getDrawOrder().size()) {
+            Iterator<DrawnState> iterator = objectStates.values().iterator();
+            while(iterator.hasNext()) {
+                DrawnState state = iterator.next();
+                if(state.frame != frameCount) {
+                    if(state.visible && !fullRedraw) {
+                        addRegion(state.x, state.y, state.x + state.width, state.y + state.height);
+                    }
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts in the region objects the objects of the
+     * stage that are not dormant and intersect the
+     * passed region, in drawing order.
+     * 
+     * @param left the left of the region
+     * @param top the top of the region
+     * @param right the right of the region
+     * @param bottom the bottom of the region
+     */
+    private void findObjects(int left, int top, int right, int bottom) {
+        regionObjects.clear();
+        for(GameObject object : stage.getDrawOrder()) {
+            if(object.getDormant()) {
+                continue;
+            }
+            if(
+                object.getApparentRight() > left &&
+                object.getApparentLeft() < right &&
+                object.getApparentBottom() > top &&
+                object.getApparentTop() < bottom
+            ) {
+                regionObjects.add(object);
+            }
+        }
+    }
+
+    /**
+     * Adds the passed rectangle, in panel coordinates,
+     * to the damaged regions. Regions it touches are
+     * merged with it, and if there are too many regions,
+     * the two closest ones are merged.
+     * 
+     * @param left the left of the rectangle
+     * @param top the top of the rectangle
+     * @param right the right of the rectangle
+     * @param bottom the bottom of the rectangle
+     */
+    private void addRegion(int left, int top, int right, int bottom) {
+        if(buffer != null) {
+            left = Math.max(left, 0);
+            top = Math.max(top, 0);
+            right = Math.min(right, buffer.getWidth());
+            bottom = Math.min(bottom, buffer.getHeight());
+        }
+        if(left >= right || top >= bottom) {
+            return;
+        }
+
+        int i = 0;
+        while(i < regionCount) {
+            if(
+                regions[4 * i] <= right && regions[4 * i + 2] >= left &&
+                regions[4 * i + 1] <= bottom && regions[4 * i + 3] >= top
+            ) {
+                left = Math.min(left, regions[4 * i]);
+                top = Math.min(top, regions[4 * i + 1]);
+                right = Math.max(right, regions[4 * i + 2]);
+                bottom = Math.max(bottom, regions[4 * i + 3]);
+                removeRegion(i);
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+
+        if(4 * regionCount == regions.length) {
+            int closest = 0;
+            long closestGrowth = Long.MAX_VALUE;
+            for(int j = 0; j < regionCount; j++) {
+                long growth = unionArea (
+                    left, top, right, bottom,
+                    regions[4 * j], regions[4 * j + 1],
+                    regions[4 * j + 2], regions[4 * j + 3]
+                ) - (long) (regions[4 * j + 2] - regions[4 * j]) * (regions[4 * j + 3] - regions[4 * j + 1]);
+                if(growth < closestGrowth) {
+                    closest = j;
+                    closestGrowth = growth;
+                }
+            }
+            left = Math.min(left, regions[4 * closest]);
+            top = Math.min(top, regions[4 * closest + 1]);
+            right = Math.max(right, regions[4 * closest + 2]);
+            bottom = Math.max(bottom, regions[4 * closest + 3]);
+            removeRegion(closest);
+            addRegion(left, top, right, bottom);
+            return;
+        }
+
+        regions[4 * regionCount] = left;
+        regions[4 * regionCount + 1] = top;
+        regions[4 * regionCount + 2] = right;
+        regions[4 * regionCount + 3] = bottom;
+        regionCount++;
+    }
+
+    /**
+     * Removes the damaged region at the passed
+     * {@code index}, moving the last region to it.
+     * 
+     * @param index the index of the region
+     */
+    private void removeRegion(int index) {
+        regionCount--;
+        System.arraycopy(regions, 4 * regionCount, regions, 4 * index, 4);
+    }
+
+    /**
+     * Returns the area of the bounding
+     * rectangle of the two passed rectangles.
+     * 
+     * @param left the left of the first rectangle
+     * @param top the top of the first rectangle
+     * @param right the right of the first rectangle
+     * @param bottom the bottom of the first rectangle
+     * @param otherLeft the left of the second rectangle
+     * @param otherTop the top of the second rectangle
+     * @param otherRight the right of the second rectangle
+     * @param otherBottom the bottom of the second rectangle
+     * 
+     * @return the area of the bounding rectangle
+     */
+    private static long unionArea (
+        int left, int top, int right, int bottom,
+        int otherLeft, int otherTop, int otherRight, int otherBottom
+    ) {
+        return (long) (Math.max(right, otherRight) - Math.min(left, otherLeft)) *
+            (Math.max(bottom, otherBottom) - Math.min(top, otherTop));
+    }
+
+    /**
+     * The state with which an object or
+     * scenario was drawn last.
+     */
+    private static final class DrawnState {
+
+        /**
+         * The apparent x coordinate.
+         */
+        private int x;
+
+        /**
+         * The apparent y coordinate.
+         */
+        private int y;
+
+        /**
+         * The width.
+         */
+        private int width;
+
+        /**
+         * The height.
+         */
+        private int height;
+
+        /**
+         * The drawn frame, or {@code null}
+         * if no sprite was drawn.
+         */
+        private Sprite sprite;
+
+        /**
+         * The color of the drawn bounding box, or
+         * {@code null} if no bounding box was drawn.
+         */
+        private Color color;
+
+        /**
+         * Tells if anything was drawn.
+         */
+        private boolean visible;
+
+        /**
+         * The last frame in which the
+         * object was found in the stage.
+         */
+        private int frame;
+
+        /**
+         * The scenario, for
+         * scenario states.
+         */
+        private Scenario scenario;
+
+        /**
+         * Updates this state to the passed
+         * {@code object}, telling if it changed.
+         * 
+         * @param object the object
+         * 
+         * @return {@code true} if the state
+         * changed, {@code false} otherwise
+         */
+        private boolean updateObject(GameObject object) {
+            boolean newVisible = !object.getDormant();
+            Sprite newSprite = object.getShowSprite() ? object.getCurrentFrame() : null;
+            Color newColor = object.getShowBoundingBox() ? object.getColor() : null;
+            return update (
+                object.getApparentX(), object.getApparentY(),
+                object.getWidth(), object.getHeight(),
+                newSprite, newColor, newVisible
+            );
+        }
+
+        /**
+         * Updates this state to the passed
+         * {@code scenario}, telling if it changed.
+         * 
+         * @param newScenario the scenario
+         * 
+         * @return {@code true} if the state
+         * changed, {@code false} otherwise
+         */
+        private boolean updateScenario(Scenario newScenario) {
+            boolean changed = scenario != newScenario;
+            this.scenario = newScenario;
+            return update (
+                newScenario.getApparentX(), newScenario.getApparentY(),
+                newScenario.getWidth(), newScenario.getHeight(),
+                newScenario.getCurrentFrame(), null, true
+            ) || changed;
+        }
+
+        /**
+         * Updates this state to the passed
+         * values, telling if it changed.
+         * 
+         * @param newX the apparent x coordinate
+         * @param newY the apparent y coordinate
+         * @param newWidth the width
+         * @param newHeight the height
+         * @param newSprite the drawn frame
+         * @param newColor the color of the bounding box
+         * @param newVisible if anything is drawn
+         * 
+         * @return {@code true} if the state
+         * changed, {@code false} otherwise
+         */
+        private boolean update (
+            int newX, int newY, int newWidth, int newHeight,
+            Sprite newSprite, Color newColor, boolean newVisible
+        ) {
+            boolean changed = (
+                newX != x || newY != y ||
+                newWidth != width || newHeight != height ||
+                newSprite != sprite || newVisible != visible ||
+                (newColor == null ? color != null : !newColor.equals(color))
+            );
+            this.x = newX;
+            this.y = newY;
+            this.width = newWidth;
+            this.height = newHeight;
+            this.sprite = newSprite;
+            this.color = newColor;
+            this.visible = newVisible;
+            return changed;
+        }
+
+    }
+
+}
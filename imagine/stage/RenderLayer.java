@@ -0,0 +1,128 @@
+package imagine.stage;
+
+/**
+ * Class that represents a named layer
+ * in which the objects of a {@code Stage}
+ * are drawn.
+ * <p>
+ * Layers with smaller depths are drawn
+ * first. Inside a layer, objects are
+ * drawn in the order of their z index or,
+ * if the layer is y sorted, in the order
+ * of their bottom coordinates, which is
+ * what top-down games usually need.
+ * 
+ * @author Daniel O Sousa
+ */
+public class RenderLayer {
+
+    /**
+     * The name of this {@code RenderLayer}.
+     */
+    private String name;
+
+    /**
+     * The depth of this {@code RenderLayer}.
+     * Layers with smaller depths are drawn
+     * behind layers with bigger depths.
+     */
+    private int depth;
+
+    /**
+     * Tells if the objects of this
+     * {@code RenderLayer} are sorted by their
+     * bottom coordinates instead of their
+     * z indexes.
+     * <p>
+     * Is initially set to {@code false}.
+     */
+    private boolean ySorted = false;
+
+    /**
+     * Creates a new {@code RenderLayer} with the
+     * specified {@code name} and {@code depth}.
+     * 
+     * @param name the name of the layer
+     * @param depth the depth of the layer
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code name} argument is {@code null}
+     */
+    public RenderLayer(String name, int depth) {
+        storeName(name);
+        setDepth(depth);
+    }
+
+    /**
+     * Stores the {@code name} argument
+     * into the {@code name} field.
+     * 
+     * @param name the name to be stored
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code name} argument is {@code null}
+     */
+    private void storeName(String name) {
+        if(name == null) {
+            throw new IllegalArgumentException("cannot store null name");
+        }
+
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of this
+     * {@code RenderLayer}.
+     * 
+     * @return the name of this layer
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Sets the depth of this {@code RenderLayer}.
+     * 
+     * @param depth the depth to be set
+     */
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Returns the depth of this
+     * {@code RenderLayer}.
+     * 
+     * @return the depth of this layer
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Defines if the objects of this
+     * {@code RenderLayer} should be sorted
+     * by their bottom coordinates instead of
+     * their z indexes.
+     * 
+     * @param ySorted boolean specifying if
+     * this layer is y sorted
+     */
+    public void setYSorted(boolean ySorted) {
+        this.ySorted = ySorted;
+    }
+
+    /**
+     * Returns {@code true} if the objects
+     * of this {@code RenderLayer} are sorted
+     * by their bottom coordinates and
+     * {@code false} otherwise.
+     * 
+     * @return boolean specifying if this
+     * layer is y sorted
+     */
+    public boolean getYSorted() {
+        return this.ySorted;
+    }
+
+}
@@ -2,13 +2,25 @@ package imagine.stage;
 
 import java.util.ArrayList;
 import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.nio.ByteBuffer;
 
 import imagine.flow.GameFluid;
 import imagine.game.Game;
+import imagine.game.GameElement;
 import imagine.scenario.Scenario;
 import imagine.object.GameObject;
+import imagine.particle.ParticleSystem;
 import imagine.camera.*;
 import imagine.camera.type.CameraType;
+import imagine.debug.ObjectProfiler;
+import imagine.debug.StageDrawEvent;
+import imagine.debug.StageUpdateEvent;
+import imagine.render.RenderBatch;
+import imagine.render.SoftwareRenderer;
+import imagine.render.TiledRasterizer;
+import imagine.stage.streaming.StageStreamer;
+import imagine.tile.TileMap;
 
 /**
  * Class for creating a stage for a {@code Game}.
@@ -42,11 +54,32 @@ public abstract class Stage implements GameFluid {
      */
     private ArrayList<Scenario> backgrounds = new ArrayList<Scenario>();
 
+    /**
+     * The tile map of this {@code Stage}, drawn
+     * between the backgrounds and the objects.
+     */
+    private TileMap tileMap;
+
     /**
      * The objects of this {@code Stage}.
      */
     private ArrayList<GameObject> objects = new ArrayList<GameObject>();
 
+    /**
+     * The objects of this {@code Stage} in the
+     * order in which they are drawn.
+     * <p>
+     * This list is kept sorted by an insertion
+     * sort every update, which is cheap since the
+     * order barely changes between frames.
+     */
+    private ArrayList<GameObject> drawOrder = new ArrayList<GameObject>();
+
+    /**
+     * The render layers of this {@code Stage}.
+     */
+    private ArrayList<RenderLayer> renderLayers = new ArrayList<RenderLayer>();
+
     /**
      * The foregrounds of this {@code Stage}.
      */
@@ -57,6 +90,119 @@ public abstract class Stage implements GameFluid {
      */
     private Camera camera;
 
+    /**
+     * The viewports of this {@code Stage}, each showing
+     * what a camera sees at a rectangle of the
+     * {@code GamePanel}. If there are none, the
+     * stage is drawn on the whole panel through
+     * its camera.
+     */
+    private ArrayList<Viewport> viewports = new ArrayList<Viewport>();
+
+    /**
+     * The viewport being drawn by each thread. Only
+     * the thread drawing a viewport sees it, so the
+     * elements updated meanwhile on the game loop
+     * still see the whole panel and the camera
+     * of this {@code Stage}.
+     */
+    private final ThreadLocal<Viewport> drawnViewport = new ThreadLocal<Viewport>();
+
+    /**
+     * The union of the views of the cameras of the
+     * viewports of this {@code Stage}, or the view of
+     * its {@code Camera} if it has no viewports.
+     * <p>
+     * It is only computed on the game loop, which
+     * replaces it instead of changing it, so that
+     * drawing reads a consistent snapshot.
+     */
+    private volatile GameElement view = new GameElement() {};
+
+    /**
+     * The objects within the transformed view
+     * of the camera, in drawing order. It is
+     * only used by the thread drawing the stage.
+     */
+    private ArrayList<GameObject> visibleObjects = new ArrayList<GameObject>();
+
+    /**
+     * Tells if the objects were culled in the last
+     * drawing, which only happens if this {@code Stage}
+     * has viewports or its camera is zoomed or rotated.
+     */
+    private volatile boolean culling;
+
+    /**
+     * How many objects were seen by the camera
+     * or by any viewport in the last drawing.
+     */
+    private int visibleCount;
+
+    /**
+     * How many objects were seen by neither the
+     * camera nor any viewport in the last drawing.
+     */
+    private int culledCount;
+
+    /**
+     * The {@code ActivityRegion} that limits the
+     * objects updated each frame to the ones around
+     * the camera, if this {@code Stage} has one.
+     */
+    private ActivityRegion activityRegion;
+
+    /**
+     * The {@code StageStreamer} that loads and
+     * unloads the regions of this {@code Stage}
+     * around the camera, if it is streamed.
+     */
+    private StageStreamer streamer;
+
+    /**
+     * The {@code ParticleSystem} of this {@code Stage},
+     * updated after the objects and drawn over them,
+     * if it has one.
+     */
+    private ParticleSystem particleSystem;
+
+    /**
+     * The {@code DamageTracker} of this {@code Stage},
+     * with which only the regions that changed are
+     * redrawn, if it has one.
+     */
+    private DamageTracker damageTracker;
+
+    /**
+     * Tells if this {@code Stage} is being drawn
+     * into the retained backbuffer of its
+     * damage tracker.
+     */
+    private boolean drawingDamage;
+
+    /**
+     * The {@code ObjectProfiler} with which the objects
+     * of this {@code Stage} measure their updates and
+     * drawings, if it has one.
+     */
+    private ObjectProfiler objectProfiler;
+
+    /**
+     * Tells if this {@code Stage} is drawn
+     * through its {@code renderBatch}, grouping
+     * the drawings by image and color.
+     * <p>
+     * Is initially set to {@code false}.
+     */
+    private boolean batchRendering = false;
+
+    /**
+     * The {@code RenderBatch} where the drawings
+     * of this {@code Stage} are recorded when
+     * batch rendering is enabled.
+     */
+    private RenderBatch renderBatch = new RenderBatch();
+
     /**
      * Creates a new {@code Stage} that will
      * belong to the passed {@code game}.
@@ -97,12 +243,17 @@ public abstract class Stage implements GameFluid {
 
     /**
      * Returns the width of the {@code GamePanel}
-     * where this {@code Stage} is exhibited.
+     * where this {@code Stage} is exhibited, or the
+     * width of the viewport being drawn by the
+     * calling thread.
      * 
      * @return the width of the {@code GamePanel}
      */
     public int getGamePanelWidth() {
-        if(game != null) {
+        Viewport viewport = getDrawnViewport();
+        if(viewport != null) {
+            return viewport.getWidth();
+        } else if(game != null) {
             return game.getGamePanelWidth();
         } else {
             return 0;
@@ -111,12 +262,17 @@ public abstract class Stage implements GameFluid {
 
     /**
      * Returns the height of the {@code GamePanel}
-     * where this {@code Stage} is exhibited.
+     * where this {@code Stage} is exhibited, or the
+     * height of the viewport being drawn by the
+     * calling thread.
      * 
      * @return the height of the {@code GamePanel}
      */
     public int getGamePanelHeight() {
-        if(game != null) {
+        Viewport viewport = getDrawnViewport();
+        if(viewport != null) {
+            return viewport.getHeight();
+        } else if(game != null) {
             return game.getGamePanelHeight();
         } else {
             return 0;
@@ -423,6 +579,56 @@ public abstract class Stage implements GameFluid {
         return backgrounds.get(position);
     }
 
+    /**
+     * Sets the {@code TileMap} of this {@code Stage},
+     * which is drawn between the backgrounds and the
+     * objects. If there was a tile map already, it
+     * is replaced.
+     * 
+     * @param tileMap the tile map to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code tileMap} argument is {@code null}
+     */
+    public void setTileMap(TileMap tileMap) {
+        if(tileMap == null) {
+            throw new IllegalArgumentException (
+                "cannot set null tile map"
+            );
+        }
+
+        removeTileMap();
+        tileMap.setStage(this);
+        this.tileMap = tileMap;
+    }
+
+    /**
+     * Removes the {@code TileMap} of this
+     * {@code Stage}, if it has one.
+     * 
+     * @return the removed tile map or {@code null}
+     * if no tile map is removed
+     */
+    public TileMap removeTileMap() {
+        TileMap removedTileMap = this.tileMap;
+        if(removedTileMap != null) {
+            removedTileMap.setStage(null);
+            this.tileMap = null;
+        }
+        return removedTileMap;
+    }
+
+    /**
+     * Returns the {@code TileMap} of this
+     * {@code Stage}.
+     * 
+     * @return the tile map of this {@code Stage}
+     * or {@code null} if it has none
+     */
+    public TileMap getTileMap() {
+        return this.tileMap;
+    }
+
     /**
      * Adds a {@code GameObject} to the
      * end of the list of objects of this
@@ -468,6 +674,10 @@ public abstract class Stage implements GameFluid {
 
         object.setStage(this);
         objects.add(object);
+        drawOrder.add(object);
+        if(activityRegion != null) {
+            activityRegion.add(object);
+        }
     }
 
     /**
@@ -499,7 +709,15 @@ public abstract class Stage implements GameFluid {
         }
 
         object.setStage(this);
+        if(position == objects.size()) {
+            drawOrder.add(object);
+        } else {
+            drawOrder.add(drawOrder.indexOf(objects.get(position)), object);
+        }
         objects.add(position, object);
+        if(activityRegion != null) {
+            activityRegion.add(object);
+        }
     }
 
     /**
@@ -527,6 +745,10 @@ public abstract class Stage implements GameFluid {
         
         object.setStage(this);
         objects.add(0, object);
+        drawOrder.add(0, object);
+        if(activityRegion != null) {
+            activityRegion.add(object);
+        }
     }
 
     /**
@@ -543,6 +765,10 @@ public abstract class Stage implements GameFluid {
         }
 
         GameObject removedObject = objects.remove(objects.size() - 1);
+        drawOrder.remove(removedObject);
+        if(activityRegion != null) {
+            activityRegion.remove(removedObject);
+        }
         removedObject.setStage(null);
         return removedObject;
     }
@@ -574,6 +800,10 @@ public abstract class Stage implements GameFluid {
         }
 
         GameObject removedObject = objects.remove(position);
+        drawOrder.remove(removedObject);
+        if(activityRegion != null) {
+            activityRegion.remove(removedObject);
+        }
         removedObject.setStage(null);
         return removedObject;
     }
@@ -587,6 +817,10 @@ public abstract class Stage implements GameFluid {
      */
     public void removeObject(GameObject object) {
         if(objects.remove(object)) {
+            drawOrder.remove(object);
+            if(activityRegion != null) {
+                activityRegion.remove(object);
+            }
             object.setStage(null);
         }
     }
@@ -605,6 +839,10 @@ public abstract class Stage implements GameFluid {
         }
 
         GameObject removedObject = objects.remove(0);
+        drawOrder.remove(removedObject);
+        if(activityRegion != null) {
+            activityRegion.remove(removedObject);
+        }
         removedObject.setStage(null);
         return removedObject;
     }
@@ -638,6 +876,155 @@ public abstract class Stage implements GameFluid {
         return objects.get(position);
     }
 
+    /**
+     * Returns an {@code ArrayList} containing
+     * the objects of this {@code Stage} in the
+     * order in which they are drawn.
+     * 
+     * @return the objects of this {@code Stage}
+     * in drawing order
+     */
+    public ArrayList<GameObject> getDrawOrder() {
+        return drawOrder;
+    }
+
+    /**
+     * Creates and adds a {@code RenderLayer} with the
+     * specified {@code name} and {@code depth} to this
+     * {@code Stage}. Objects can then be put in this
+     * layer through their {@code setRenderLayer} method.
+     * 
+     * @param name the name of the layer
+     * @param depth the depth of the layer
+     * 
+     * @return the created {@code RenderLayer}
+     * 
+     * @throws IllegalArgumentException if the {@code name}
+     * argument is {@code null} or this {@code Stage}
+     * already has a layer with the same name
+     */
+    public RenderLayer addRenderLayer(String name, int depth) {
+        if(getRenderLayer(name) != null) {
+            throw new IllegalArgumentException (
+                "cannot add render layer " + name +
+                " (a layer with this name already exists)"
+            );
+        }
+
+        RenderLayer renderLayer = new RenderLayer(name, depth);
+        renderLayers.add(renderLayer);
+        return renderLayer;
+    }
+
+    /**
+     * Returns the {@code RenderLayer} of this
+     * {@code Stage} with the specified {@code name},
+     * or {@code null} if there is none.
+     * 
+     * @param name the name of the layer
+     * 
+     * @return the {@code RenderLayer} with
+     * the specified {@code name}
+     */
+    public RenderLayer getRenderLayer(String name) {
+        for(RenderLayer renderLayer : renderLayers) {
+            if(renderLayer.getName().equals(name)) {
+                return renderLayer;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the {@code RenderLayer} with the
+     * specified {@code name} from this {@code Stage},
+     * if it exists. The objects that were in this
+     * layer are drawn as if they had no layer.
+     * 
+     * @param name the name of the layer
+     * 
+     * @return the removed {@code RenderLayer} or
+     * {@code null} if no layer is removed
+     */
+    public RenderLayer removeRenderLayer(String name) {
+        RenderLayer renderLayer = getRenderLayer(name);
+        if(renderLayer == null) {
+            return null;
+        }
+
+        renderLayers.remove(renderLayer);
+        for(GameObject object : objects) {
+            if(object.getRenderLayer() == renderLayer) {
+                object.setRenderLayer(null);
+            }
+        }
+        return renderLayer;
+    }
+
+    /**
+     * Returns an {@code ArrayList} containing
+     * the render layers of this {@code Stage}.
+     * 
+     * @return the render layers of this {@code Stage}
+     */
+    public ArrayList<RenderLayer> getRenderLayers() {
+        return renderLayers;
+    }
+
+    /**
+     * Compares two objects by the order in which
+     * they should be drawn: first by the depth of
+     * their {@code RenderLayer}s and then by their
+     * keys inside the layers.
+     * 
+     * @param first the first object to compare
+     * @param second the second object to compare
+     * 
+     * @return a negative number, zero or a positive
+     * number if the {@code first} object should be
+     * drawn before, together with or after the
+     * {@code second} object
+     */
+    private int compareDrawOrder(GameObject first, GameObject second) {
+        int depthComparison = Integer.compare (
+            first.getDrawDepth(), second.getDrawDepth()
+        );
+        if(depthComparison != 0) {
+            return depthComparison;
+        }
+
+        return Integer.compare(first.getDrawKey(), second.getDrawKey());
+    }
+
+    /**
+     * Sorts the {@code drawOrder} with an insertion
+     * sort. Since the order of the objects barely
+     * changes between frames, this runs in near
+     * linear time. The sort is stable, so objects
+     * with the same depth and key keep the order
+     * they had in the previous frame. This is the
+     * order of the list of objects while no key
+     * changes, but once two objects swap places
+     * they stay swapped even if their keys become
+     * equal again.
+     */
+    private void sortDrawOrder() {
+        for(int i = 1; i < drawOrder.size(); i++) {
+            GameObject object = drawOrder.get(i);
+            int j = i - 1;
+            if(compareDrawOrder(drawOrder.get(j), object) <= 0) {
+                continue;
+            }
+
+            while(j >= 0 && compareDrawOrder(drawOrder.get(j), object) > 0) {
+                drawOrder.set(j + 1, drawOrder.get(j));
+                j--;
+            }
+            drawOrder.set(j + 1, object);
+        }
+    }
+
     /**
      * Adds a foreground to this {@code Stage}. This
      * foreground will be the furthest from the camera.
@@ -864,6 +1251,173 @@ public abstract class Stage implements GameFluid {
         return this.camera;
     }
 
+    /**
+     * Returns the {@code Camera} through which
+     * this {@code Stage} is being drawn, which is
+     * the camera of the viewport being drawn by the
+     * calling thread or the {@code Camera} of this
+     * {@code Stage}.
+     * 
+     * @return the current {@code Camera}
+     */
+    public Camera getCurrentCamera() {
+        Viewport viewport = getDrawnViewport();
+        if(viewport != null) {
+            return viewport.getCamera();
+        } else {
+            return this.camera;
+        }
+    }
+
+    /**
+     * Returns the viewport being drawn by
+     * the calling thread, if any.
+     * 
+     * @return the drawn viewport, or
+     * {@code null} if the calling thread
+     * isn't drawing a viewport
+     */
+    private Viewport getDrawnViewport() {
+        if(viewports.isEmpty()) {
+            return null;
+        }
+
+        return drawnViewport.get();
+    }
+
+    /**
+     * Returns the part of this {@code Stage} that
+     * is seen, which is the view of its {@code Camera}
+     * or the union of the views of the cameras of its
+     * viewports, if it has any. The zoom and rotation
+     * of the cameras are taken into account.
+     * 
+     * @return a {@code GameElement} with the
+     * bounds of the view
+     */
+    public GameElement getView() {
+        if(viewports.isEmpty() && !camera.isTransformed()) {
+            return this.camera;
+        } else {
+            return this.view;
+        }
+    }
+
+    /**
+     * Adds a viewport that shows this {@code Stage}
+     * at the specified rectangle of the {@code GamePanel}.
+     * The first viewport shows what the {@code Camera}
+     * of this {@code Stage} sees, and each of the next
+     * ones gets a {@code Camera} of its own.
+     * 
+     * @param x the x coordinate on the panel
+     * @param y the y coordinate on the panel
+     * @param width the width dimension
+     * @param height the height dimension
+     * 
+     * @return the added {@code Viewport}
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code width} or {@code height} is negative
+     */
+    public Viewport addViewport(int x, int y, int width, int height) {
+        Camera viewportCamera;
+        if(viewports.isEmpty()) {
+            viewportCamera = camera;
+        } else {
+            viewportCamera = new Camera(this);
+        }
+
+        Viewport viewport = new Viewport(viewportCamera, x, y, width, height);
+        viewports.add(viewport);
+        return viewport;
+    }
+
+    /**
+     * Adds the passed {@code viewport}
+     * to this {@code Stage}.
+     * 
+     * @param viewport the viewport to be added
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code viewport} is {@code null} or its
+     * camera belongs to another stage
+     */
+    public void addViewport(Viewport viewport) {
+        if(viewport == null) {
+            throw new IllegalArgumentException("cannot add null viewport");
+        }
+        if(viewport.getCamera().getStage() != this) {
+            throw new IllegalArgumentException (
+                "cannot add viewport whose camera belongs to another stage"
+            );
+        }
+
+        viewports.add(viewport);
+    }
+
+    /**
+     * Removes the passed {@code viewport} from this
+     * {@code Stage}. When the last viewport is removed,
+     * the {@code Camera} of this {@code Stage} gets
+     * back the size of the {@code GamePanel}.
+     * 
+     * @param viewport the viewport to be removed
+     */
+    public void removeViewport(Viewport viewport) {
+        viewports.remove(viewport);
+        if(viewports.isEmpty()) {
+            camera.setSize(getGamePanelWidth(), getGamePanelHeight());
+        }
+    }
+
+    /**
+     * Returns the viewports of
+     * this {@code Stage}.
+     * 
+     * @return the viewports of this {@code Stage}
+     */
+    public ArrayList<Viewport> getViewports() {
+        return this.viewports;
+    }
+
+    /**
+     * Returns {@code true} if the objects were culled
+     * in the last drawing, which only happens if this
+     * {@code Stage} has viewports or its camera is
+     * zoomed or rotated, and {@code false} otherwise.
+     * The visible and culled counts are only
+     * measured while the objects are culled.
+     * 
+     * @return boolean specifying if the
+     * objects were culled
+     */
+    public boolean isCulling() {
+        return this.culling;
+    }
+
+    /**
+     * Returns how many objects were seen by
+     * the camera or by any viewport in the
+     * last drawing.
+     * 
+     * @return the visible object count
+     */
+    public int getVisibleCount() {
+        return this.visibleCount;
+    }
+
+    /**
+     * Returns how many objects were seen by
+     * neither the camera nor any viewport in
+     * the last drawing.
+     * 
+     * @return the culled object count
+     */
+    public int getCulledCount() {
+        return this.culledCount;
+    }
+
     /**
      * Sets the coordinates of the
      * {@code Camera} of this {@code Stage}.
@@ -936,6 +1490,18 @@ public abstract class Stage implements GameFluid {
         camera.setTypeFollow(target);
     }
 
+    /**
+     * Sets the type of the {@code Camera} of
+     * this {@code Stage} to the {@code SmoothFollow}
+     * {@code CameraType}.
+     * 
+     * @param target the {@code GameObject} that
+     * the camera should follow
+     */
+    public void setCameraTypeSmoothFollow(GameObject target) {
+        camera.setTypeSmoothFollow(target);
+    }
+
     /**
      * Returns the {@code CameraType} of
      * the {@code Camera} of this {@code Stage}.
@@ -980,6 +1546,327 @@ public abstract class Stage implements GameFluid {
         return camera.getDrawGrid();
     }
 
+    /**
+     * Sets the {@code ActivityRegion} of this {@code Stage},
+     * so that only the objects around the camera are updated
+     * and drawn each frame. If there was an activity region
+     * already, it is removed and replaced.
+     * 
+     * @param activityRegion the activity region to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code activityRegion} argument is {@code null}
+     * or belongs to another stage
+     */
+    public void setActivityRegion(ActivityRegion activityRegion) {
+        if(activityRegion == null) {
+            throw new IllegalArgumentException (
+                "cannot set null activity region"
+            );
+        }
+
+        removeActivityRegion();
+        activityRegion.attach(this);
+        this.activityRegion = activityRegion;
+    }
+
+    /**
+     * Removes the {@code ActivityRegion} of this
+     * {@code Stage}, if it has one, waking every
+     * dormant object.
+     * 
+     * @return the removed activity region or
+     * {@code null} if none is removed
+     */
+    public ActivityRegion removeActivityRegion() {
+        ActivityRegion removedRegion = this.activityRegion;
+        if(removedRegion != null) {
+            removedRegion.detach();
+            this.activityRegion = null;
+        }
+        return removedRegion;
+    }
+
+    /**
+     * Returns the {@code ActivityRegion}
+     * of this {@code Stage}.
+     * 
+     * @return the activity region of this
+     * {@code Stage} or {@code null} if it
+     * has none
+     */
+    public ActivityRegion getActivityRegion() {
+        return this.activityRegion;
+    }
+
+    /**
+     * Sets the {@code StageStreamer} of this {@code Stage},
+     * which will be updated every frame after the camera,
+     * loading the regions around it and unloading the
+     * ones far from it. If there was a streamer already,
+     * it is shut down and replaced.
+     * 
+     * @param streamer the streamer to be set
+     * 
+     * @throws IllegalArgumentException if the {@code streamer}
+     * argument is {@code null} or streams another stage
+     */
+    public void setStreamer(StageStreamer streamer) {
+        if(streamer == null) {
+            throw new IllegalArgumentException (
+                "cannot set null streamer"
+            );
+        }
+        if(streamer.getStage() != this) {
+            throw new IllegalArgumentException (
+                "cannot set streamer of another stage"
+            );
+        }
+
+        removeStreamer();
+        this.streamer = streamer;
+    }
+
+    /**
+     * Removes and shuts down the {@code StageStreamer}
+     * of this {@code Stage}, if it has one. The objects
+     * already streamed stay in this {@code Stage}.
+     * 
+     * @return the removed streamer or {@code null}
+     * if no streamer is removed
+     */
+    public StageStreamer removeStreamer() {
+        StageStreamer removedStreamer = this.streamer;
+        if(removedStreamer != null) {
+            removedStreamer.shutdown();
+            this.streamer = null;
+        }
+        return removedStreamer;
+    }
+
+    /**
+     * Returns the {@code StageStreamer}
+     * of this {@code Stage}.
+     * 
+     * @return the streamer of this {@code Stage}
+     * or {@code null} if it is not streamed
+     */
+    public StageStreamer getStreamer() {
+        return this.streamer;
+    }
+
+    /**
+     * Sets the {@code ParticleSystem} of this {@code Stage},
+     * which will be updated every frame after the objects
+     * and drawn over them. If there was a particle system
+     * already, it is shut down and replaced.
+     * 
+     * @param particleSystem the particle system to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code particleSystem} is {@code null} or
+     * belongs to another stage
+     */
+    public void setParticleSystem(ParticleSystem particleSystem) {
+        if(particleSystem == null) {
+            throw new IllegalArgumentException (
+                "cannot set null particle system"
+            );
+        }
+        if(particleSystem.getStage() != this) {
+            throw new IllegalArgumentException (
+                "cannot set particle system of another stage"
+            );
+        }
+
+        removeParticleSystem();
+        this.particleSystem = particleSystem;
+    }
+
+    /**
+     * Removes and shuts down the {@code ParticleSystem}
+     * of this {@code Stage}, if it has one.
+     * 
+     * @return the removed particle system or
+     * {@code null} if none is removed
+     */
+    public ParticleSystem removeParticleSystem() {
+        ParticleSystem removedSystem = this.particleSystem;
+        if(removedSystem != null) {
+            removedSystem.shutdown();
+            this.particleSystem = null;
+        }
+        return removedSystem;
+    }
+
+    /**
+     * Returns the {@code ParticleSystem}
+     * of this {@code Stage}.
+     * 
+     * @return the particle system of this
+     * {@code Stage} or {@code null} if it
+     * has none
+     */
+    public ParticleSystem getParticleSystem() {
+        return this.particleSystem;
+    }
+
+    /**
+     * Sets the {@code DamageTracker} of this {@code Stage},
+     * so that it is drawn into a retained backbuffer where
+     * only the regions that changed are redrawn. If there
+     * was a damage tracker already, it is removed and
+     * replaced.
+     * <p>
+     * The damage tracker is only used while this
+     * {@code Stage} has no viewports and its camera is
+     * not zoomed nor rotated. Otherwise, this {@code Stage}
+     * is fully drawn every frame.
+     * 
+     * @param damageTracker the damage tracker to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code damageTracker} argument is {@code null}
+     * or belongs to another stage
+     */
+    public void setDamageTracker(DamageTracker damageTracker) {
+        if(damageTracker == null) {
+            throw new IllegalArgumentException (
+                "cannot set null damage tracker"
+            );
+        }
+
+        removeDamageTracker();
+        damageTracker.attach(this);
+        this.damageTracker = damageTracker;
+    }
+
+    /**
+     * Removes the {@code DamageTracker} of this
+     * {@code Stage}, if it has one, releasing
+     * its retained backbuffer.
+     * 
+     * @return the removed damage tracker or
+     * {@code null} if none is removed
+     */
+    public DamageTracker removeDamageTracker() {
+        DamageTracker removedTracker = this.damageTracker;
+        if(removedTracker != null) {
+            removedTracker.detach();
+            this.damageTracker = null;
+        }
+        return removedTracker;
+    }
+
+    /**
+     * Returns the {@code DamageTracker}
+     * of this {@code Stage}.
+     * 
+     * @return the damage tracker of this
+     * {@code Stage} or {@code null} if it
+     * has none
+     */
+    public DamageTracker getDamageTracker() {
+        return this.damageTracker;
+    }
+
+    /**
+     * Sets the {@code ObjectProfiler} of this
+     * {@code Stage}, with which its objects measure
+     * their updates and drawings. Each update of this
+     * {@code Stage} ends a frame of the profiler.
+     * 
+     * @param objectProfiler the profiler to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code objectProfiler} argument is {@code null}
+     */
+    public void setObjectProfiler(ObjectProfiler objectProfiler) {
+        if(objectProfiler == null) {
+            throw new IllegalArgumentException (
+                "cannot set null object profiler"
+            );
+        }
+
+        this.objectProfiler = objectProfiler;
+        renderBatch.setObjectProfiler(objectProfiler);
+    }
+
+    /**
+     * Removes the {@code ObjectProfiler} of this
+     * {@code Stage}, if it has one.
+     * 
+     * @return the removed profiler or
+     * {@code null} if none is removed
+     */
+    public ObjectProfiler removeObjectProfiler() {
+        ObjectProfiler removedProfiler = this.objectProfiler;
+        this.objectProfiler = null;
+        renderBatch.setObjectProfiler(null);
+        return removedProfiler;
+    }
+
+    /**
+     * Returns the {@code ObjectProfiler}
+     * of this {@code Stage}.
+     * 
+     * @return the profiler of this {@code Stage}
+     * or {@code null} if it has none
+     */
+    public ObjectProfiler getObjectProfiler() {
+        return this.objectProfiler;
+    }
+
+    /**
+     * Defines if this {@code Stage} should be drawn
+     * through a {@code RenderBatch}. When enabled, the
+     * drawings of the backgrounds, objects and
+     * foregrounds are recorded and then submitted
+     * grouped by image and color, which reduces the
+     * state changes done by Java2D.
+     * <p>
+     * The backgrounds and foregrounds are always drawn
+     * in their order, and so are the objects with
+     * different depths or keys. Objects with the same
+     * depth and key, however, may have their sprites
+     * drawn in a different order. The {@code onDraw}
+     * methods of objects and scenarios are only called
+     * if they have custom drawing set, since each call
+     * keeps the sprites around it from being batched.
+     * 
+     * @param batchRendering boolean specifying if
+     * batch rendering is enabled
+     */
+    public void setBatchRendering(boolean batchRendering) {
+        this.batchRendering = batchRendering;
+    }
+
+    /**
+     * Returns {@code true} if this {@code Stage}
+     * is drawn through a {@code RenderBatch}
+     * and {@code false} otherwise.
+     * 
+     * @return boolean specifying if batch
+     * rendering is enabled
+     */
+    public boolean getBatchRendering() {
+        return this.batchRendering;
+    }
+
+    /**
+     * Returns the {@code RenderBatch} used by
+     * this {@code Stage} when batch rendering is
+     * enabled. Its counters tell how many batches
+     * were drawn and how many draw calls and state
+     * changes were saved in the last frame.
+     * 
+     * @return the {@code RenderBatch} of
+     * this {@code Stage}
+     */
+    public RenderBatch getRenderBatch() {
+        return this.renderBatch;
+    }
+
     /**
      * Starts every background of this
      * {@code Stage} from the furthest to
@@ -1016,6 +1903,44 @@ public abstract class Stage implements GameFluid {
         }
     }
 
+    /**
+     * Records every background of this
+     * {@code Stage} from the furthest to
+     * the closest to the camera, each one
+     * in its own group.
+     */
+    private void recordBackgrounds() {
+        for(int i = backgrounds.size() - 1; i >= 0; i--) {
+            renderBatch.nextGroup();
+            backgrounds.get(i).draw(renderBatch);
+        }
+    }
+
+    /**
+     * Draws the tile map of this
+     * {@code Stage}, if it has one.
+     * 
+     * @param g2 a {@code Graphics2D} with
+     * which the tile map is drawn
+     */
+    private void drawTileMap(Graphics2D g2) {
+        if(tileMap != null) {
+            tileMap.draw(g2);
+        }
+    }
+
+    /**
+     * Records the tile map of this
+     * {@code Stage}, if it has one,
+     * in its own group.
+     */
+    private void recordTileMap() {
+        if(tileMap != null) {
+            renderBatch.nextGroup();
+            tileMap.draw(renderBatch);
+        }
+    }
+
     /**
      * Starts every object of this
      * {@code Stage}.
@@ -1028,24 +1953,79 @@ public abstract class Stage implements GameFluid {
 
     /**
      * Updates every object of this
-     * {@code Stage}.
+     * {@code Stage}, or only the active
+     * ones if it has an activity region.
      */
     private void updateObjects() {
+        if(activityRegion != null) {
+            activityRegion.update();
+            return;
+        }
+
         for(GameObject object : objects) {
             object.update();
         }
     }
 
     /**
-     * Draws every object of this
-     * {@code Stage}.
+     * Draws every object of the passed list
+     * that is not dormant in drawing order.
      * 
      * @param g2 a {@code Graphics2D} with
      * which the objects are drawn
+     * @param list the objects in drawing order
      */
-    private void drawObjects(Graphics2D g2) {
-        for(GameObject object : objects) {
-            object.draw(g2);
+    private void drawObjects(Graphics2D g2, ArrayList<GameObject> list) {
+        for(GameObject object : list) {
+            if(!object.getDormant()) {
+                object.draw(g2);
+            }
+        }
+    }
+
+    /**
+     * Records every object of the passed list
+     * that is not dormant in drawing order. Consecutive objects with the
+     * same depth and key are put in the same group,
+     * where their drawings can be grouped by image.
+     * 
+     * @param list the objects in drawing order
+     */
+    private void recordObjects(ArrayList<GameObject> list) {
+        GameObject previous = null;
+        for(GameObject object : list) {
+            if(object.getDormant()) {
+                continue;
+            }
+            if(previous == null || compareDrawOrder(previous, object) != 0) {
+                renderBatch.nextGroup();
+            }
+            object.draw(renderBatch);
+            previous = object;
+        }
+    }
+
+    /**
+     * Draws the particles of this {@code Stage},
+     * if it has a particle system.
+     * 
+     * @param g2 a {@code Graphics2D} with
+     * which the particles are drawn
+     */
+    private void drawParticles(Graphics2D g2) {
+        if(particleSystem != null) {
+            particleSystem.draw(g2);
+        }
+    }
+
+    /**
+     * Records the particles of this {@code Stage},
+     * if it has a particle system, in their own group.
+     */
+    private void recordParticles() {
+        if(particleSystem != null) {
+            renderBatch.nextGroup();
+            particleSystem.draw(renderBatch);
         }
     }
 
@@ -1086,36 +2066,251 @@ public abstract class Stage implements GameFluid {
     }
 
     /**
-     * Starts the camera of this
-     * {@code Stage}.
+     * Records every foreground of this
+     * {@code Stage} from the furthest to
+     * the closest to the camera, each one
+     * in its own group.
+     */
+    private void recordForegrounds() {
+        for(int i = foregrounds.size() - 1; i >= 0; i--) {
+            renderBatch.nextGroup();
+            foregrounds.get(i).draw(renderBatch);
+        }
+    }
+
+    /**
+     * Starts the camera of this {@code Stage}
+     * and the cameras of its viewports.
      */
     private void startCamera() {
         camera.start();
+        for(Viewport viewport : viewports) {
+            if(viewport.getCamera() != camera) {
+                viewport.getCamera().start();
+            }
+        }
+        updateView();
     }
 
     /**
-     * Updates the camera of this
-     * {@code Stage}.
+     * Updates the camera of this {@code Stage}
+     * and the cameras of its viewports.
      */
     private void updateCamera() {
         camera.update();
+        for(Viewport viewport : viewports) {
+            if(viewport.getCamera() != camera) {
+                viewport.getCamera().update();
+            }
+        }
+        updateView();
+    }
+
+    /**
+     * Updates the union of the views of the
+     * cameras of the viewports, or the view of
+     * the camera if there are no viewports.
+     */
+    private void updateView() {
+        int left = camera.getViewLeft();
+        int top = camera.getViewTop();
+        int right = camera.getViewRight();
+        int bottom = camera.getViewBottom();
+        if(!viewports.isEmpty()) {
+            left = Integer.MAX_VALUE;
+            top = Integer.MAX_VALUE;
+            right = Integer.MIN_VALUE;
+            bottom = Integer.MIN_VALUE;
+            for(Viewport viewport : viewports) {
+                Camera viewportCamera = viewport.getCamera();
+                left = Math.min(left, viewportCamera.getViewLeft());
+                top = Math.min(top, viewportCamera.getViewTop());
+                right = Math.max(right, viewportCamera.getViewRight());
+                bottom = Math.max(bottom, viewportCamera.getViewBottom());
+            }
+        }
+
+        GameElement view = new GameElement() {};
+        view.setCoordinates(left, top);
+        view.setSize(right - left, bottom - top);
+        this.view = view;
+    }
+
+    /**
+     * Puts in the visible objects the objects that
+     * are not dormant and are within the passed
+     * {@code view}, in drawing order.
+     * 
+     * @param view a snapshot of the view
+     * of this {@code Stage}
+     */
+    private void cullObjects(GameElement view) {
+        visibleObjects.clear();
+        int culled = 0;
+        for(GameObject object : drawOrder) {
+            if(object.getDormant()) {
+                continue;
+            }
+            if(
+                object.getRight() > view.getLeft() &&
+                object.getLeft() < view.getRight() &&
+                object.getBottom() > view.getTop() &&
+                object.getTop() < view.getBottom()
+            ) {
+                visibleObjects.add(object);
+            } else {
+                culled++;
+            }
+        }
+
+        this.visibleCount = visibleObjects.size();
+        this.culledCount = culled;
     }
 
     /**
-     * Draws the camera of this
-     * {@code Stage}.
+     * Puts in the visible objects of each viewport the
+     * objects that are not dormant and are seen by its
+     * camera, in drawing order. Each object is tested
+     * once against each viewport, since the union of
+     * the views of distant cameras would hardly
+     * cull anything.
+     */
+    private void cullViewports() {
+        int viewportCount = viewports.size();
+        for(int i = 0; i < viewportCount; i++) {
+            viewports.get(i).getVisibleObjects().clear();
+        }
+
+        int visible = 0;
+        int culled = 0;
+        for(GameObject object : drawOrder) {
+            if(object.getDormant()) {
+                continue;
+            }
+            boolean seen = false;
+            for(int i = 0; i < viewportCount; i++) {
+                Viewport viewport = viewports.get(i);
+                if(viewport.isVisible(object)) {
+                    viewport.getVisibleObjects().add(object);
+                    seen = true;
+                }
+            }
+            if(seen) {
+                visible++;
+            } else {
+                culled++;
+            }
+        }
+
+        this.visibleCount = visible;
+        this.culledCount = culled;
+    }
+
+    /**
+     * Draws every viewport of this {@code Stage}
+     * at its rectangle of the panel, each one with
+     * the objects seen by its camera.
      * 
-     * @param g2 a {@code Graphics2D} instance
-     * with which the camera can be drawn
+     * @param g2 the {@code Graphics2D} of the panel
+     */
+    private void drawViewports(Graphics2D g2) {
+        cullViewports();
+
+        for(Viewport viewport : viewports) {
+            Graphics2D viewportGraphics = (Graphics2D) g2.create (
+                viewport.getX(), viewport.getY(),
+                viewport.getWidth(), viewport.getHeight()
+            );
+            drawnViewport.set(viewport);
+            try {
+                drawScene(viewportGraphics, viewport.getCamera(), viewport.getVisibleObjects());
+            }
+            finally {
+                drawnViewport.remove();
+                viewportGraphics.dispose();
+            }
+        }
+    }
+
+    /**
+     * Submits the {@code RenderBatch} to the {@code g2},
+     * or to the {@code SoftwareRenderer} or
+     * {@code TiledRasterizer} of the {@code Game} if
+     * it is drawn with software rendering and this
+     * {@code Stage} is not being drawn into the
+     * backbuffer of its damage tracker.
+     * 
+     * @param g2 a {@code Graphics2D} to draw with
      */
-    private void drawCamera(Graphics2D g2) {
-        camera.draw(g2);;
+    private void submitRenderBatch(Graphics2D g2) {
+        TiledRasterizer rasterizer = game.getTiledRasterizer();
+        SoftwareRenderer renderer = game.getSoftwareRenderer();
+        if(drawingDamage) {
+            renderBatch.submit(g2);
+        } else if(rasterizer != null) {
+            renderBatch.submit(rasterizer, g2);
+        } else if(renderer != null) {
+            renderBatch.submit(renderer, g2);
+        } else {
+            renderBatch.submit(g2);
+        }
+    }
+
+    /**
+     * Draws the backgrounds, tile map, passed objects,
+     * particles, foregrounds and the {@code sceneCamera}.
+     * If the {@code sceneCamera} is zoomed or rotated, its
+     * transform is applied once to the tile map, the objects
+     * and the particles, and the scenarios are drawn
+     * without it.
+     * 
+     * @param g2 a {@code Graphics2D} to draw with
+     * @param sceneCamera the camera through
+     * which the scene is seen
+     * @param list the objects in drawing order
+     */
+    void drawScene(Graphics2D g2, Camera sceneCamera, ArrayList<GameObject> list) {
+        boolean transformed = sceneCamera.isTransformed();
+        AffineTransform panelTransform = g2.getTransform();
+        if(batchRendering) {
+            renderBatch.begin();
+            recordBackgrounds();
+            if(transformed) {
+                submitRenderBatch(g2);
+                g2.transform(sceneCamera.getTransform());
+                renderBatch.begin();
+            }
+            recordTileMap();
+            recordObjects(list);
+            recordParticles();
+            if(transformed) {
+                submitRenderBatch(g2);
+                g2.setTransform(panelTransform);
+                renderBatch.begin();
+            }
+            recordForegrounds();
+            submitRenderBatch(g2);
+        } else {
+            drawBackgrounds(g2);
+            if(transformed) {
+                g2.transform(sceneCamera.getTransform());
+            }
+            drawTileMap(g2);
+            drawObjects(g2, list);
+            drawParticles(g2);
+            if(transformed) {
+                g2.setTransform(panelTransform);
+            }
+            drawForegrounds(g2);
+        }
+        sceneCamera.draw(g2);
     }
 
     /**
      * Executes the {@code start} method of
-     * the backgrounds, objects, foregrounds
-     * and camera of this {@code Stage}.
+     * the backgrounds, tile map, objects,
+     * foregrounds and camera of this
+     * {@code Stage}.
      * <p>
      * Also Executes this {@code Stage}'s
      * {@code onStart} method.
@@ -1124,11 +2319,15 @@ public abstract class Stage implements GameFluid {
      */
     public void start() {
         startBackgrounds();
+        if(tileMap != null) {
+            tileMap.start();
+        }
         startObjects();
         startForegrounds();
         startCamera();
 
         onStart();
+        sortDrawOrder();
     }
 
     /**
@@ -1141,23 +2340,50 @@ public abstract class Stage implements GameFluid {
     /**
      * This method is executed every
      * frame to call the {@code update}
-     * method of the backgrounds, objects,
-     * foregrounds and camera of this
-     * {@code Stage}.
+     * method of the backgrounds, tile map,
+     * objects, particle system, foregrounds
+     * and camera of this {@code Stage}. If this {@code Stage}
+     * is streamed, its streamer is updated
+     * after the camera.
      * <p>
      * This method also calls this
      * {@code Stage}'s {@code onUpdate}
-     * method.
+     * method and then sorts the objects
+     * in the order they should be drawn
+     * and updates the view that drawing
+     * culls them against.
      * 
      * @see #onUpdate()
      */
     public void update() {
+        StageUpdateEvent event = new StageUpdateEvent();
+        event.begin();
+
         updateBackgrounds();
+        if(tileMap != null) {
+            tileMap.update();
+        }
         updateObjects();
+        if(particleSystem != null) {
+            particleSystem.update();
+        }
         updateForegrounds();
         updateCamera();
+        if(streamer != null) {
+            streamer.update();
+        }
 
         onUpdate();
+        sortDrawOrder();
+        updateView();
+        if(objectProfiler != null) {
+            objectProfiler.endFrame();
+        }
+
+        if(event.shouldCommit()) {
+            event.setStage(this);
+            event.commit();
+        }
     }
 
     /**
@@ -1170,9 +2396,27 @@ public abstract class Stage implements GameFluid {
     /**
      * This method is executed every frame
      * to call the {@code draw} method of
-     * the backgrounds, objects, foregrounds
-     * and camera of this {@code Stage},
-     * passing the {@code g2} argument.
+     * the backgrounds, tile map, objects,
+     * foregrounds and camera of this
+     * {@code Stage}, passing the {@code g2}
+     * argument.
+     * <p>
+     * If batch rendering is enabled, the backgrounds,
+     * objects and foregrounds are recorded into the
+     * {@code RenderBatch} and submitted at once.
+     * <p>
+     * If this {@code Stage} has viewports, each
+     * one is drawn at its rectangle of the panel
+     * through its camera, and {@code onDraw} is
+     * called after them on the whole panel.
+     * <p>
+     * If the camera is zoomed or rotated, only the
+     * objects within its transformed view are drawn.
+     * <p>
+     * Otherwise, if this {@code Stage} has a damage
+     * tracker, only the regions that changed are
+     * redrawn into its retained backbuffer, which
+     * is then drawn with the {@code g2}.
      * <p>
      * This method also calls this 
      * {@code Stage}'s {@code onDraw} method.
@@ -1182,14 +2426,40 @@ public abstract class Stage implements GameFluid {
      *           objects with
      * 
      * @see #onDraw(Graphics2D)
+     * @see #setBatchRendering(boolean)
+     * @see #setDamageTracker(DamageTracker)
      */
     public void draw(Graphics2D g2) {
-        drawBackgrounds(g2);
-        drawObjects(g2);
-        drawForegrounds(g2);
-        drawCamera(g2);
+        StageDrawEvent event = new StageDrawEvent();
+        event.begin();
+
+        if(damageTracker != null && (!viewports.isEmpty() || camera.isTransformed())) {
+            damageTracker.damageAll();
+        }
+
+        if(!viewports.isEmpty()) {
+            drawViewports(g2);
+            this.culling = true;
+        } else if(camera.isTransformed()) {
+            cullObjects(this.view);
+            drawScene(g2, camera, visibleObjects);
+            this.culling = true;
+        } else if(damageTracker != null) {
+            this.drawingDamage = true;
+            damageTracker.draw(g2);
+            this.drawingDamage = false;
+            this.culling = false;
+        } else {
+            drawScene(g2, camera, drawOrder);
+            this.culling = false;
+        }
         
         onDraw(g2);
+
+        if(event.shouldCommit()) {
+            event.setStage(this);
+            event.commit();
+        }
     }
 
     /**
@@ -1205,4 +2475,133 @@ public abstract class Stage implements GameFluid {
      */
     public abstract void onDraw(Graphics2D g2);
 
-}
\ No newline at end of file
+    /**
+     * Writes the state of the camera, backgrounds, tile
+     * map, objects and foregrounds of this {@code Stage}
+     * into the passed {@code buffer}, at its position.
+     * 
+     * @param buffer the buffer to write to
+     * 
+     * @throws java.nio.BufferOverflowException if
+     * the {@code buffer} has no room left
+     * 
+     * @see StageSnapshot
+     */
+    public void saveState(ByteBuffer buffer) {
+        buffer.putInt(backgrounds.size());
+        buffer.putInt(objects.size());
+        buffer.putInt(foregrounds.size());
+        buffer.put((byte) (tileMap != null ? 1 : 0));
+
+        camera.saveState(buffer);
+        for(Scenario background : backgrounds) {
+            background.saveState(buffer);
+        }
+        if(tileMap != null) {
+            tileMap.saveState(buffer);
+        }
+        for(GameObject object : objects) {
+            object.saveState(buffer);
+        }
+        for(Scenario foreground : foregrounds) {
+            foreground.saveState(buffer);
+        }
+    }
+
+    /**
+     * Reads the state of the camera, backgrounds, tile
+     * map, objects and foregrounds of this {@code Stage}
+     * from the passed {@code buffer}, as written by
+     * {@code saveState}. The existing elements are
+     * updated in place, so this {@code Stage} must have
+     * the same elements, in the same order, it had when
+     * the state was saved.
+     * 
+     * @param buffer the buffer to read from
+     * 
+     * @throws IllegalArgumentException if the amount of
+     * elements of this {@code Stage} differs from the
+     * saved state
+     * 
+     * @see StageSnapshot
+     */
+    public void loadState(ByteBuffer buffer) {
+        int backgroundCount = buffer.getInt();
+        int objectCount = buffer.getInt();
+        int foregroundCount = buffer.getInt();
+        boolean hasTileMap = buffer.get() != 0;
+        if (
+            backgroundCount != backgrounds.size() ||
+            objectCount != objects.size() ||
+            foregroundCount != foregrounds.size() ||
+            hasTileMap != (tileMap != null)
+        ) {
+            throw new IllegalArgumentException (
+                "saved state does not match the elements of the stage"
+            );
+        }
+
+        camera.loadState(buffer);
+        for(Scenario background : backgrounds) {
+            background.loadState(buffer);
+        }
+        if(tileMap != null) {
+            tileMap.loadState(buffer);
+        }
+        for(GameObject object : objects) {
+            object.loadState(buffer);
+        }
+        for(Scenario foreground : foregrounds) {
+            foreground.loadState(buffer);
+        }
+
+        sortDrawOrder();
+    }
+
+    /**
+     * Releases the resources this {@code Stage} keeps
+     * cached for drawing, like the strip images of its
+     * scenarios, the chunk images of its tile map and the
+     * retained backbuffer of its damage tracker, which
+     * are built again if the stage is drawn later.
+     * The threads of its particle system are stopped.
+     * <p>
+     * This is done by the {@code Game} on a background
+     * thread after a transition leaves this
+     * {@code Stage}. This method also calls this
+     * {@code Stage}'s {@code onRelease} method.
+     * 
+     * @see #onRelease()
+     */
+    public void release() {
+        for(Scenario background : backgrounds) {
+            background.flush();
+        }
+        if(tileMap != null) {
+            tileMap.flush();
+        }
+        for(Scenario foreground : foregrounds) {
+            foreground.flush();
+        }
+        if(particleSystem != null) {
+            particleSystem.shutdown();
+        }
+        if(damageTracker != null) {
+            damageTracker.flush();
+        }
+
+        onRelease();
+    }
+
+    /**
+     * This method is used to define what should
+     * happen when this {@code Stage} is released,
+     * such as freeing resources loaded in
+     * {@code onStart}. It does nothing by default.
+     * <p>
+     * It may be called on a background thread.
+     */
+    public void onRelease() {
+    }
+
+}
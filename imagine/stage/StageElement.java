@@ -1,7 +1,10 @@
 package imagine.stage;
 
+import java.nio.ByteBuffer;
+
 import imagine.game.Game;
 import imagine.game.GameElement;
+import imagine.tile.TileMap;
 
 /**
  * Super class for stage elements like
@@ -11,6 +14,18 @@ import imagine.game.GameElement;
  */
 public abstract class StageElement extends GameElement {
 
+    /**
+     * How many bits of the fixed-point positions
+     * and speeds are used for the fraction of a pixel.
+     */
+    public static final int FIXED_SHIFT = 16;
+
+    /**
+     * The value of one pixel in
+     * fixed-point positions and speeds.
+     */
+    public static final int FIXED_ONE = 1 << FIXED_SHIFT;
+
     /**
      * The stage where this
      * element is used.
@@ -27,6 +42,64 @@ public abstract class StageElement extends GameElement {
      */
     private int ySpeed = 0;
 
+    /**
+     * The speed on the x axis in fixed point, that
+     * is, in 1/65536ths of a pixel. It is a
+     * {@code long} so that any integer speed fits.
+     */
+    private long fixedXSpeed = 0;
+
+    /**
+     * The speed on the y axis in fixed point, that
+     * is, in 1/65536ths of a pixel. It is a
+     * {@code long} so that any integer speed fits.
+     */
+    private long fixedYSpeed = 0;
+
+    /**
+     * Tells if this {@code StageElement} moves
+     * by fractions of a pixel, according to
+     * its fixed-point speeds.
+     * <p>
+     * Is initially set to {@code false}.
+     */
+    private boolean subPixelMovement = false;
+
+    /**
+     * The fraction of a pixel, in 1/65536ths,
+     * to be added to the x coordinate.
+     */
+    private int subX = 0;
+
+    /**
+     * The fraction of a pixel, in 1/65536ths,
+     * to be added to the y coordinate.
+     */
+    private int subY = 0;
+
+    /**
+     * Tells if this {@code StageElement} collides
+     * with the solid tiles of the {@code TileMap}
+     * of its stage when it moves.
+     * <p>
+     * Is initially set to {@code false}.
+     */
+    private boolean tileCollision = false;
+
+    /**
+     * Tells if the last movement of this
+     * {@code StageElement} on the x axis was
+     * blocked by a solid tile.
+     */
+    private boolean blockedX = false;
+
+    /**
+     * Tells if the last movement of this
+     * {@code StageElement} on the y axis was
+     * blocked by a solid tile.
+     */
+    private boolean blockedY = false;
+
     /**
      * Sets the stage of this
      * {@code StageElement}.
@@ -94,13 +167,14 @@ public abstract class StageElement extends GameElement {
     /**
      * Returns the width of the panel
      * where this {@code StageElement}
-     * would be exhibited.
+     * would be exhibited, or of the viewport
+     * being drawn if its stage has viewports.
      * 
      * @return the game panel width
      */
     public int getGamePanelWidth() {
-        if(getGame() != null) {
-            return getGame().getGamePanelWidth();
+        if(stage != null) {
+            return stage.getGamePanelWidth();
         } else {
             return 0;
         }
@@ -109,13 +183,14 @@ public abstract class StageElement extends GameElement {
     /**
      * Returns the height of the panel
      * where this {@code StageElement}
-     * would be exhibited.
+     * would be exhibited, or of the viewport
+     * being drawn if its stage has viewports.
      * 
      * @return the game panel height
      */
     public int getGamePanelHeight() {
-        if(getGame() != null) {
-            return getGame().getGamePanelHeight();
+        if(stage != null) {
+            return stage.getGamePanelHeight();
         } else {
             return 0;
         }
@@ -129,7 +204,7 @@ public abstract class StageElement extends GameElement {
      * @param xSpeed the speed to be set
      */
     public void setXSpeed(int xSpeed) {
-        this.xSpeed = xSpeed;
+        setFixedXSpeed((long) xSpeed << FIXED_SHIFT);
     }
 
     /**
@@ -139,9 +214,12 @@ public abstract class StageElement extends GameElement {
      * 
      * @param value the value to
      * increment the x speed by
+     * 
+     * @throws IllegalArgumentException if the
+     * resulting speed doesn't fit in an {@code int}
      */
     public void increaseXSpeed(int value) {
-        setXSpeed(xSpeed + value);
+        setFixedXSpeed(fixedXSpeed + ((long) value << FIXED_SHIFT));
     }
 
     /**
@@ -151,15 +229,22 @@ public abstract class StageElement extends GameElement {
      * 
      * @param value the value to
      * decrement the x speed by
+     * 
+     * @throws IllegalArgumentException if the
+     * resulting speed doesn't fit in an {@code int}
      */
     public void decreaseXSpeed(int value) {
-        setXSpeed(xSpeed - value);
+        setFixedXSpeed(fixedXSpeed - ((long) value << FIXED_SHIFT));
     }
 
     /**
      * Returns the speed of this
      * {@code StageElement} on
-     * the x axis.
+     * the x axis. If the speed has a
+     * fraction of a pixel, it is
+     * rounded toward zero, like the
+     * movement without sub-pixel
+     * movement.
      * 
      * @return the x speed
      */
@@ -175,7 +260,7 @@ public abstract class StageElement extends GameElement {
      * @param ySpeed the speed to be set
      */
     public void setYSpeed(int ySpeed) {
-        this.ySpeed = ySpeed;
+        setFixedYSpeed((long) ySpeed << FIXED_SHIFT);
     }
 
     /**
@@ -185,9 +270,12 @@ public abstract class StageElement extends GameElement {
      * 
      * @param value the value to
      * increment the y speed by
+     * 
+     * @throws IllegalArgumentException if the
+     * resulting speed doesn't fit in an {@code int}
      */
     public void increaseYSpeed(int value) {
-        setYSpeed(ySpeed + value);
+        setFixedYSpeed(fixedYSpeed + ((long) value << FIXED_SHIFT));
     }
 
     /**
@@ -197,15 +285,22 @@ public abstract class StageElement extends GameElement {
      * 
      * @param value the value to
      * decrement the y speed by
+     * 
+     * @throws IllegalArgumentException if the
+     * resulting speed doesn't fit in an {@code int}
      */
     public void decreaseYSpeed(int value) {
-        setYSpeed(ySpeed - value);
+        setFixedYSpeed(fixedYSpeed - ((long) value << FIXED_SHIFT));
     }
 
     /**
      * Returns the speed of this
      * {@code StageElement} on
-     * the y axis.
+     * the y axis. If the speed has a
+     * fraction of a pixel, it is
+     * rounded toward zero, like the
+     * movement without sub-pixel
+     * movement.
      * 
      * @return the y speed
      */
@@ -213,14 +308,373 @@ public abstract class StageElement extends GameElement {
         return this.ySpeed;
     }
 
+    /**
+     * Sets the speed on the x axis of this
+     * {@code StageElement} in fixed point,
+     * that is, in 1/65536ths of a pixel.
+     * 
+     * @param fixedXSpeed the speed to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * speed in whole pixels doesn't fit in an
+     * {@code int}
+     */
+    public void setFixedXSpeed(long fixedXSpeed) {
+        this.xSpeed = toPixelSpeed(fixedXSpeed);
+        this.fixedXSpeed = fixedXSpeed;
+    }
+
+    /**
+     * Returns the speed on the x axis of this
+     * {@code StageElement} in fixed point.
+     * 
+     * @return the fixed-point x speed
+     */
+    public long getFixedXSpeed() {
+        return this.fixedXSpeed;
+    }
+
+    /**
+     * Sets the speed on the y axis of this
+     * {@code StageElement} in fixed point,
+     * that is, in 1/65536ths of a pixel.
+     * 
+     * @param fixedYSpeed the speed to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * speed in whole pixels doesn't fit in an
+     * {@code int}
+     */
+    public void setFixedYSpeed(long fixedYSpeed) {
+        this.ySpeed = toPixelSpeed(fixedYSpeed);
+        this.fixedYSpeed = fixedYSpeed;
+    }
+
+    /**
+     * Returns the speed on the y axis of this
+     * {@code StageElement} in fixed point.
+     * 
+     * @return the fixed-point y speed
+     */
+    public long getFixedYSpeed() {
+        return this.fixedYSpeed;
+    }
+
+    /**
+     * Sets the speed on the x axis of this
+     * {@code StageElement} in pixels, which may
+     * have a fraction. The speed is stored in
+     * fixed point, rounded to 1/65536th of a pixel.
+     * 
+     * @param xSpeed the speed to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code xSpeed} doesn't fit in an {@code int}
+     */
+    public void setPreciseXSpeed(double xSpeed) {
+        setFixedXSpeed(Math.round(xSpeed * FIXED_ONE));
+    }
+
+    /**
+     * Returns the speed on the x axis of this
+     * {@code StageElement} in pixels, including
+     * its fraction.
+     * 
+     * @return the precise x speed
+     */
+    public double getPreciseXSpeed() {
+        return (double) fixedXSpeed / FIXED_ONE;
+    }
+
+    /**
+     * Sets the speed on the y axis of this
+     * {@code StageElement} in pixels, which may
+     * have a fraction. The speed is stored in
+     * fixed point, rounded to 1/65536th of a pixel.
+     * 
+     * @param ySpeed the speed to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code ySpeed} doesn't fit in an {@code int}
+     */
+    public void setPreciseYSpeed(double ySpeed) {
+        setFixedYSpeed(Math.round(ySpeed * FIXED_ONE));
+    }
+
+    /**
+     * Returns the speed on the y axis of this
+     * {@code StageElement} in pixels, including
+     * its fraction.
+     * 
+     * @return the precise y speed
+     */
+    public double getPreciseYSpeed() {
+        return (double) fixedYSpeed / FIXED_ONE;
+    }
+
+    /**
+     * Defines if this {@code StageElement} should move
+     * by fractions of a pixel. If enabled, the fractions
+     * of its speeds accumulate between frames, and the
+     * integer coordinates only change by whole pixels,
+     * so drawing stays on exact pixels. If disabled,
+     * the fractions of the speeds are ignored.
+     * <p>
+     * Movement only uses integer math, so it gives
+     * the same result on every machine.
+     * 
+     * @param subPixelMovement boolean specifying
+     * if sub-pixel movement is enabled
+     */
+    public void setSubPixelMovement(boolean subPixelMovement) {
+        this.subPixelMovement = subPixelMovement;
+        if(!subPixelMovement) {
+            this.subX = 0;
+            this.subY = 0;
+        }
+    }
+
+    /**
+     * Returns {@code true} if this {@code StageElement}
+     * moves by fractions of a pixel and {@code false}
+     * otherwise.
+     * 
+     * @return boolean specifying if sub-pixel
+     * movement is enabled
+     */
+    public boolean getSubPixelMovement() {
+        return this.subPixelMovement;
+    }
+
+    /**
+     * Sets the x coordinate of this {@code StageElement}
+     * in pixels, keeping its fraction if sub-pixel
+     * movement is enabled.
+     * 
+     * @param x the x coordinate to be set
+     */
+    public void setPreciseX(double x) {
+        long fixedX = Math.round(x * FIXED_ONE);
+        setX((int) (fixedX >> FIXED_SHIFT));
+        this.subX = subPixelMovement ? (int) (fixedX & (FIXED_ONE - 1)) : 0;
+    }
+
+    /**
+     * Returns the x coordinate of this
+     * {@code StageElement} in pixels,
+     * including its fraction.
+     * 
+     * @return the precise x coordinate
+     */
+    public double getPreciseX() {
+        return getX() + (double) subX / FIXED_ONE;
+    }
+
+    /**
+     * Sets the y coordinate of this {@code StageElement}
+     * in pixels, keeping its fraction if sub-pixel
+     * movement is enabled.
+     * 
+     * @param y the y coordinate to be set
+     */
+    public void setPreciseY(double y) {
+        long fixedY = Math.round(y * FIXED_ONE);
+        setY((int) (fixedY >> FIXED_SHIFT));
+        this.subY = subPixelMovement ? (int) (fixedY & (FIXED_ONE - 1)) : 0;
+    }
+
+    /**
+     * Returns the y coordinate of this
+     * {@code StageElement} in pixels,
+     * including its fraction.
+     * 
+     * @return the precise y coordinate
+     */
+    public double getPreciseY() {
+        return getY() + (double) subY / FIXED_ONE;
+    }
+
+    /**
+     * Defines if this {@code StageElement} should
+     * collide with the solid tiles of the
+     * {@code TileMap} of its stage when it moves.
+     * 
+     * @param tileCollision boolean specifying if
+     * tile collision is enabled
+     */
+    public void setTileCollision(boolean tileCollision) {
+        this.tileCollision = tileCollision;
+    }
+
+    /**
+     * Returns {@code true} if this {@code StageElement}
+     * collides with the solid tiles of the {@code TileMap}
+     * of its stage and {@code false} otherwise.
+     * 
+     * @return boolean specifying if tile
+     * collision is enabled
+     */
+    public boolean getTileCollision() {
+        return this.tileCollision;
+    }
+
+    /**
+     * Returns {@code true} if the last movement of
+     * this {@code StageElement} on the x axis was
+     * blocked by a solid tile and {@code false}
+     * otherwise.
+     * 
+     * @return boolean specifying if the
+     * movement was blocked
+     */
+    public boolean getBlockedX() {
+        return this.blockedX;
+    }
+
+    /**
+     * Returns {@code true} if the last movement of
+     * this {@code StageElement} on the y axis was
+     * blocked by a solid tile and {@code false}
+     * otherwise.
+     * 
+     * @return boolean specifying if the
+     * movement was blocked
+     */
+    public boolean getBlockedY() {
+        return this.blockedY;
+    }
+
+    /**
+     * Returns the passed fixed-point speed in
+     * whole pixels, rounded toward zero.
+     * 
+     * @param fixedSpeed the fixed-point speed
+     * 
+     * @return the speed in pixels
+     * 
+     * @throws IllegalArgumentException if the
+     * speed in pixels doesn't fit in an {@code int}
+     */
+    private static int toPixelSpeed(long fixedSpeed) {
+        long speed = fixedSpeed / FIXED_ONE;
+        if(speed < Integer.MIN_VALUE || speed > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException (
+                "speed must be between " + Integer.MIN_VALUE +
+                " and " + Integer.MAX_VALUE + " pixels"
+            );
+        }
+
+        return (int) speed;
+    }
+
+    /**
+     * Returns the {@code TileMap} this
+     * {@code StageElement} collides with, or
+     * {@code null} if tile collision is disabled
+     * or its stage has no tile map.
+     * 
+     * @return the {@code TileMap} to collide with
+     */
+    private TileMap getCollisionTileMap() {
+        if(tileCollision && stage != null) {
+            return stage.getTileMap();
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Generic code for moving this
      * {@code StageElement} according
      * to its speed.
+     * <p>
+     * If sub-pixel movement is enabled, the fractions
+     * of the speeds accumulate and only whole pixels
+     * are moved.
+     * <p>
+     * If tile collision is enabled, the movement
+     * is resolved first on the x axis and then on
+     * the y axis, stopping each one at the edge of
+     * the first solid tile in the way. A blocked
+     * movement also discards the accumulated fraction.
      */
     public void move() {
-        increaseX(xSpeed);
-        increaseY(ySpeed);
+        int xMove = xSpeed;
+        int yMove = ySpeed;
+        if(subPixelMovement) {
+            long fixedX = subX + fixedXSpeed;
+            xMove = (int) (fixedX >> FIXED_SHIFT);
+            subX = (int) (fixedX & (FIXED_ONE - 1));
+
+            long fixedY = subY + fixedYSpeed;
+            yMove = (int) (fixedY >> FIXED_SHIFT);
+            subY = (int) (fixedY & (FIXED_ONE - 1));
+        }
+
+        TileMap tileMap = getCollisionTileMap();
+        if(tileMap == null) {
+            increaseX(xMove);
+            increaseY(yMove);
+            return;
+        }
+
+        int xDistance = tileMap.resolveMoveX(this, xMove);
+        blockedX = xDistance != xMove;
+        if(blockedX) {
+            subX = 0;
+        }
+        increaseX(xDistance);
+
+        int yDistance = tileMap.resolveMoveY(this, yMove);
+        blockedY = yDistance != yMove;
+        if(blockedY) {
+            subY = 0;
+        }
+        increaseY(yDistance);
+    }
+
+    /**
+     * Writes the state of this {@code StageElement},
+     * including its fixed-point speeds and fractions
+     * and its movement flags, into the passed
+     * {@code buffer}.
+     * 
+     * @param buffer the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.putLong(fixedXSpeed);
+        buffer.putLong(fixedYSpeed);
+        buffer.putInt(subX);
+        buffer.putInt(subY);
+        buffer.put ((byte) (
+            (tileCollision ? 1 : 0) |
+            (blockedX ? 2 : 0) |
+            (blockedY ? 4 : 0) |
+            (subPixelMovement ? 8 : 0)
+        ));
+    }
+
+    /**
+     * Reads the state of this {@code StageElement}
+     * from the passed {@code buffer}.
+     * 
+     * @param buffer the buffer to read from
+     */
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        setFixedXSpeed(buffer.getLong());
+        setFixedYSpeed(buffer.getLong());
+        this.subX = buffer.getInt();
+        this.subY = buffer.getInt();
+
+        byte flags = buffer.get();
+        this.tileCollision = (flags & 1) != 0;
+        this.blockedX = (flags & 2) != 0;
+        this.blockedY = (flags & 4) != 0;
+        this.subPixelMovement = (flags & 8) != 0;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package imagine.stage;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Class for saving the state of a {@code Stage}
+ * and restoring it later, for quick saves and
+ * rollbacks.
+ * <p>
+ * The state is written into a buffer that is reused
+ * by every capture, only growing when the state
+ * doesn't fit, and is restored into the existing
+ * elements of the {@code Stage} instead of creating
+ * new ones. Because of that, the stage must have the
+ * same elements, in the same order, when restored.
+ * <p>
+ * Only the state of the elements is saved: which
+ * elements the stage has, their sprite sheets and
+ * the type of the camera are not.
+ * 
+ * @author Daniel O Sousa
+ */
+public class StageSnapshot {
+
+    /**
+     * The {@code Stage} whose
+     * state is saved.
+     */
+    private Stage stage;
+
+    /**
+     * The buffer holding the state
+     * of the {@code Stage}.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The amount of bytes of the
+     * last captured state.
+     */
+    private int size;
+
+    /**
+     * Creates a new {@code StageSnapshot} of the
+     * passed {@code stage}. The state is only saved
+     * when {@code capture} is called.
+     * 
+     * @param stage the stage whose state is saved
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code stage} argument is {@code null}
+     */
+    public StageSnapshot(Stage stage) {
+        if(stage == null) {
+            throw new IllegalArgumentException (
+                "cannot store null stage"
+            );
+        }
+
+        this.stage = stage;
+        this.buffer = ByteBuffer.allocate(4096);
+    }
+
+    /**
+     * Returns the {@code Stage} whose
+     * state is saved.
+     * 
+     * @return the {@code Stage} of
+     * this {@code StageSnapshot}
+     */
+    public Stage getStage() {
+        return this.stage;
+    }
+
+    /**
+     * Saves the current state of the {@code Stage},
+     * replacing the previously captured one.
+     */
+    public void capture() {
+        while(true) {
+            buffer.clear();
+            try {
+                stage.saveState(buffer);
+                break;
+            }
+            catch(BufferOverflowException e) {
+                this.buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+
+        this.size = buffer.position();
+    }
+
+    /**
+     * Restores the {@code Stage} to the
+     * last captured state.
+     * 
+     * @throws IllegalArgumentException if no state was
+     * captured or the elements of the {@code Stage}
+     * don't match the captured state
+     */
+    public void restore() {
+        if(size == 0) {
+            throw new IllegalArgumentException (
+                "no state was captured"
+            );
+        }
+
+        buffer.clear();
+        buffer.limit(size);
+        stage.loadState(buffer);
+    }
+
+    /**
+     * Returns the amount of bytes
+     * of the captured state.
+     * 
+     * @return the size of the state
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns a read-only view of the captured
+     * state, from its first to its last byte,
+     * so that it can be stored or sent.
+     * 
+     * @return the captured state
+     */
+    public ByteBuffer getState() {
+        ByteBuffer state = buffer.asReadOnlyBuffer();
+        state.clear();
+        state.limit(size);
+        return state;
+    }
+
+}
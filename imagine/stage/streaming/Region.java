@@ -0,0 +1,246 @@
+package imagine.stage.streaming;
+
+import java.util.ArrayList;
+
+import imagine.object.GameObject;
+
+/**
+ * Class that represents a rectangular region
+ * of a streamed {@code Stage} together with
+ * the objects that were loaded for it.
+ * 
+ * @author Daniel O Sousa
+ */
+public class Region {
+
+    /**
+     * State of a region whose content is
+     * being loaded by the loader thread.
+     */
+    public static final int LOADING = 0;
+
+    /**
+     * State of a region whose objects are
+     * being added to the {@code Stage}.
+     */
+    public static final int ADDING = 1;
+
+    /**
+     * State of a region whose objects were
+     * all added to the {@code Stage}.
+     */
+    public static final int ACTIVE = 2;
+
+    /**
+     * State of a region whose objects are
+     * being removed from the {@code Stage}.
+     */
+    public static final int REMOVING = 3;
+
+    /**
+     * The column of this {@code Region}
+     * in the grid of regions.
+     */
+    private int column;
+
+    /**
+     * The row of this {@code Region}
+     * in the grid of regions.
+     */
+    private int row;
+
+    /**
+     * The x coordinate of this
+     * {@code Region} on the stage.
+     */
+    private int x;
+
+    /**
+     * The y coordinate of this
+     * {@code Region} on the stage.
+     */
+    private int y;
+
+    /**
+     * The width of this {@code Region}.
+     */
+    private int width;
+
+    /**
+     * The height of this {@code Region}.
+     */
+    private int height;
+
+    /**
+     * The objects loaded for
+     * this {@code Region}.
+     */
+    private ArrayList<GameObject> objects = new ArrayList<GameObject>();
+
+    /**
+     * The state of this {@code Region}.
+     */
+    private volatile int state = LOADING;
+
+    /**
+     * How many objects of this {@code Region}
+     * were added to the {@code Stage} so far,
+     * or how many are left to be removed.
+     */
+    private int progress = 0;
+
+    /**
+     * Creates a new {@code Region} at the specified
+     * {@code column} and {@code row} of a grid of
+     * regions of {@code width} by {@code height} pixels.
+     * 
+     * @param column the column of the region
+     * @param row the row of the region
+     * @param width the width of the region
+     * @param height the height of the region
+     */
+    Region(int column, int row, int width, int height) {
+        this.column = column;
+        this.row = row;
+        this.x = column * width;
+        this.y = row * height;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Returns the column of this
+     * {@code Region} in the grid
+     * of regions.
+     * 
+     * @return the column of this region
+     */
+    public int getColumn() {
+        return this.column;
+    }
+
+    /**
+     * Returns the row of this
+     * {@code Region} in the grid
+     * of regions.
+     * 
+     * @return the row of this region
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * Returns the x coordinate of
+     * this {@code Region} on the stage.
+     * 
+     * @return the x coordinate
+     */
+    public int getX() {
+        return this.x;
+    }
+
+    /**
+     * Returns the y coordinate of
+     * this {@code Region} on the stage.
+     * 
+     * @return the y coordinate
+     */
+    public int getY() {
+        return this.y;
+    }
+
+    /**
+     * Returns the width of
+     * this {@code Region}.
+     * 
+     * @return the width dimension
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the height of
+     * this {@code Region}.
+     * 
+     * @return the height dimension
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Adds an object to this {@code Region}.
+     * It will be added to the {@code Stage} once
+     * the region is loaded and removed from it
+     * once the region is unloaded.
+     * 
+     * @param object the object to be added
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code object} argument is {@code null}
+     */
+    public void addObject(GameObject object) {
+        if(object == null) {
+            throw new IllegalArgumentException (
+                "cannot add null object"
+            );
+        }
+
+        objects.add(object);
+    }
+
+    /**
+     * Returns the objects of
+     * this {@code Region}.
+     * 
+     * @return the objects of this region
+     */
+    public ArrayList<GameObject> getObjects() {
+        return this.objects;
+    }
+
+    /**
+     * Sets the state of this {@code Region}.
+     * 
+     * @param state the state to be set
+     */
+    void setState(int state) {
+        this.state = state;
+    }
+
+    /**
+     * Returns the state of this {@code Region},
+     * which is one of {@code LOADING}, {@code ADDING},
+     * {@code ACTIVE} or {@code REMOVING}.
+     * 
+     * @return the state of this region
+     */
+    public int getState() {
+        return this.state;
+    }
+
+    /**
+     * Sets how many objects of this {@code Region}
+     * were added so far, or how many are left to
+     * be removed.
+     * 
+     * @param progress the progress to be set
+     */
+    void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Returns how many objects of this {@code Region}
+     * were added so far, or how many are left to
+     * be removed.
+     * 
+     * @return the progress of this region
+     */
+    int getProgress() {
+        return this.progress;
+    }
+
+}
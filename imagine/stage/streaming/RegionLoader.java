@@ -0,0 +1,43 @@
+package imagine.stage.streaming;
+
+import java.io.IOException;
+
+/**
+ * Interface implemented by the classes that
+ * know how to load the regions of a streamed
+ * {@code Stage}.
+ * 
+ * @author Daniel O Sousa
+ */
+public interface RegionLoader {
+
+    /**
+     * Method used to load the content of the
+     * passed {@code region}, adding its objects
+     * through {@code Region.addObject}.
+     * <p>
+     * This method is called on the loader thread
+     * of the {@code StageStreamer}, so it must not
+     * touch the {@code Stage} or its objects.
+     * 
+     * @param region the region to be loaded
+     * 
+     * @throws IOException if the region
+     * can't be loaded
+     */
+    void load(Region region) throws IOException;
+
+    /**
+     * Method called once every object of the
+     * passed {@code region} was removed from
+     * the {@code Stage}, so that the resources
+     * of the region can be released.
+     * <p>
+     * This method is called on the thread that
+     * updates the {@code Stage}.
+     * 
+     * @param region the region that was unloaded
+     */
+    void unload(Region region);
+
+}
@@ -0,0 +1,611 @@
+package imagine.stage.streaming;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import imagine.game.GameElement;
+import imagine.object.GameObject;
+import imagine.stage.Stage;
+
+/**
+ * Class that streams the content of a {@code Stage}
+ * split in a grid of regions, so that only the part
+ * of the level around the {@code Camera} is kept
+ * in memory.
+ * <p>
+ * The regions that get within the load margin of the
+ * {@code Camera} are loaded by a {@code RegionLoader}
+ * on a background thread. The regions that get beyond
+ * the unload margin, which should be greater than the
+ * load margin to avoid loading and unloading the same
+ * region repeatedly, are unloaded.
+ * <p>
+ * Adding the objects of a loaded region to the
+ * {@code Stage} (and starting them) and removing the
+ * objects of an unloaded region are spread across
+ * frames, never handling more than a fixed amount of
+ * objects per frame.
+ * 
+ * @author Daniel O Sousa
+ */
+public class StageStreamer {
+
+    /**
+     * The {@code Stage} being streamed.
+     */
+    private Stage stage;
+
+    /**
+     * The {@code RegionLoader} that
+     * loads the regions.
+     */
+    private RegionLoader loader;
+
+    /**
+     * The width of each region.
+     */
+    private int regionWidth;
+
+    /**
+     * The height of each region.
+     */
+    private int regionHeight;
+
+    /**
+     * How many pixels around the {@code Camera}
+     * a region must be within to be loaded.
+     * <p>
+     * Is initially set to {@code 0}.
+     */
+    private int loadMargin = 0;
+
+    /**
+     * How many pixels around the {@code Camera}
+     * a region must be beyond to be unloaded.
+     * Is never considered smaller than the
+     * {@code loadMargin}.
+     * <p>
+     * Is initially set to {@code 0}.
+     */
+    private int unloadMargin = 0;
+
+    /**
+     * The maximum amount of objects added
+     * to or removed from the {@code Stage}
+     * each frame.
+     * <p>
+     * Is initially set to {@code 32}.
+     */
+    private int objectsPerFrame = 32;
+
+    /**
+     * The regions that are loading, loaded or
+     * being removed, by their packed column
+     * and row.
+     */
+    private HashMap<Long, Region> regions = new HashMap<Long, Region>();
+
+    /**
+     * The regions that the loader thread
+     * finished loading.
+     */
+    private ConcurrentLinkedQueue<Region> loadedRegions = new ConcurrentLinkedQueue<Region>();
+
+    /**
+     * The regions whose objects are being
+     * added to the {@code Stage}.
+     */
+    private ArrayDeque<Region> addingRegions = new ArrayDeque<Region>();
+
+    /**
+     * The regions whose objects are being
+     * removed from the {@code Stage}.
+     */
+    private ArrayDeque<Region> removingRegions = new ArrayDeque<Region>();
+
+    /**
+     * The thread where the regions are loaded.
+     */
+    private ExecutorService loaderThread;
+
+    /**
+     * The first column of the regions within the
+     * load margin when they were last requested.
+     */
+    private int firstColumn;
+
+    /**
+     * The last column of the regions within the
+     * load margin when they were last requested.
+     */
+    private int lastColumn = -1;
+
+    /**
+     * The first row of the regions within the
+     * load margin when they were last requested.
+     */
+    private int firstRow;
+
+    /**
+     * The last row of the regions within the
+     * load margin when they were last requested.
+     */
+    private int lastRow = -1;
+
+    /**
+     * Tells if the regions around the {@code Camera}
+     * must be requested again even if the
+     * {@code Camera} didn't change of region.
+     */
+    private boolean refresh = true;
+
+    /**
+     * Creates a new {@code StageStreamer} that streams
+     * the passed {@code stage} in regions of
+     * {@code regionWidth} by {@code regionHeight}
+     * pixels, loaded by the passed {@code loader}.
+     * 
+     * @param stage the {@code Stage} to be streamed
+     * @param loader the {@code RegionLoader} that
+     * loads the regions
+     * @param regionWidth the width of each region
+     * @param regionHeight the height of each region
+     * 
+     * @throws IllegalArgumentException if the {@code stage}
+     * or {@code loader} is {@code null} or the region
+     * dimensions are not positive
+     */
+    public StageStreamer(Stage stage, RegionLoader loader, int regionWidth, int regionHeight) {
+        if(stage == null) {
+            throw new IllegalArgumentException("cannot store null stage");
+        }
+        if(loader == null) {
+            throw new IllegalArgumentException("cannot store null loader");
+        }
+        if(regionWidth <= 0 || regionHeight <= 0) {
+            throw new IllegalArgumentException (
+                "region dimensions must be positive"
+            );
+        }
+
+        this.stage = stage;
+        this.loader = loader;
+        this.regionWidth = regionWidth;
+        this.regionHeight = regionHeight;
+        createLoaderThread();
+    }
+
+    /**
+     * Creates the daemon thread where
+     * the regions are loaded.
+     */
+    private void createLoaderThread() {
+        this.loaderThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "imagine-stage-streamer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Returns the {@code Stage} streamed
+     * by this {@code StageStreamer}.
+     * 
+     * @return the streamed {@code Stage}
+     */
+    public Stage getStage() {
+        return this.stage;
+    }
+
+    /**
+     * Returns the width of the regions.
+     * 
+     * @return the region width
+     */
+    public int getRegionWidth() {
+        return this.regionWidth;
+    }
+
+    /**
+     * Returns the height of the regions.
+     * 
+     * @return the region height
+     */
+    public int getRegionHeight() {
+        return this.regionHeight;
+    }
+
+    /**
+     * Sets how many pixels around the {@code Camera}
+     * a region must be within to be loaded.
+     * 
+     * @param loadMargin the margin to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code loadMargin} is negative
+     */
+    public void setLoadMargin(int loadMargin) {
+        if(loadMargin < 0) {
+            throw new IllegalArgumentException (
+                "load margin cannot be negative"
+            );
+        }
+
+        this.loadMargin = loadMargin;
+        this.refresh = true;
+    }
+
+    /**
+     * Returns how many pixels around the
+     * {@code Camera} a region must be
+     * within to be loaded.
+     * 
+     * @return the load margin
+     */
+    public int getLoadMargin() {
+        return this.loadMargin;
+    }
+
+    /**
+     * Sets how many pixels around the {@code Camera}
+     * a region must be beyond to be unloaded. Values
+     * smaller than the load margin behave as the
+     * load margin.
+     * 
+     * @param unloadMargin the margin to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code unloadMargin} is negative
+     */
+    public void setUnloadMargin(int unloadMargin) {
+        if(unloadMargin < 0) {
+            throw new IllegalArgumentException (
+                "unload margin cannot be negative"
+            );
+        }
+
+        this.unloadMargin = unloadMargin;
+        this.refresh = true;
+    }
+
+    /**
+     * Returns how many pixels around the
+     * {@code Camera} a region must be
+     * beyond to be unloaded.
+     * 
+     * @return the unload margin
+     */
+    public int getUnloadMargin() {
+        return Math.max(unloadMargin, loadMargin);
+    }
+
+    /**
+     * Sets the maximum amount of objects added
+     * to or removed from the {@code Stage}
+     * each frame.
+     * 
+     * @param objectsPerFrame the amount to be set
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code objectsPerFrame} is not positive
+     */
+    public void setObjectsPerFrame(int objectsPerFrame) {
+        if(objectsPerFrame <= 0) {
+            throw new IllegalArgumentException (
+                "objects per frame must be positive"
+            );
+        }
+
+        this.objectsPerFrame = objectsPerFrame;
+    }
+
+    /**
+     * Returns the maximum amount of objects
+     * added to or removed from the {@code Stage}
+     * each frame.
+     * 
+     * @return the amount of objects per frame
+     */
+    public int getObjectsPerFrame() {
+        return this.objectsPerFrame;
+    }
+
+    /**
+     * Returns the region at the specified {@code column}
+     * and {@code row}, or {@code null} if it is not
+     * loading, loaded or being removed.
+     * 
+     * @param column the column of the region
+     * @param row the row of the region
+     * 
+     * @return the region at the {@code column}
+     * and {@code row}
+     */
+    public Region getRegion(int column, int row) {
+        return regions.get(key(column, row));
+    }
+
+    /**
+     * Returns how many regions are loading,
+     * loaded or being removed.
+     * 
+     * @return the amount of regions
+     */
+    public int getRegionCount() {
+        return regions.size();
+    }
+
+    /**
+     * Packs a {@code column} and a {@code row}
+     * into the key of a region.
+     * 
+     * @param column the column of the region
+     * @param row the row of the region
+     * 
+     * @return the key of the region
+     */
+    private static long key(int column, int row) {
+        return (long) column << 32 | (row & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the last column of regions of the
+     * {@code Stage}, or {@code Integer.MAX_VALUE}
+     * if the stage has no width.
+     * 
+     * @return the last column of regions
+     */
+    private int getLastStageColumn() {
+        if(stage.getWidth() > 0) {
+            return (stage.getWidth() - 1) / regionWidth;
+        } else {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Returns the last row of regions of the
+     * {@code Stage}, or {@code Integer.MAX_VALUE}
+     * if the stage has no height.
+     * 
+     * @return the last row of regions
+     */
+    private int getLastStageRow() {
+        if(stage.getHeight() > 0) {
+            return (stage.getHeight() - 1) / regionHeight;
+        } else {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the passed {@code region}
+     * is within {@code margin} pixels around the
+     * {@code camera} and {@code false} otherwise.
+     * 
+     * @param region the region to verify
+     * @param camera the view of the stage
+     * @param margin the margin around the camera
+     * 
+     * @return boolean specifying if the region
+     * is within the margin
+     */
+    private static boolean isWithin(Region region, GameElement camera, int margin) {
+        return
+            region.getX() < camera.getRight() + margin &&
+            region.getX() + region.getWidth() > camera.getLeft() - margin &&
+            region.getY() < camera.getBottom() + margin &&
+            region.getY() + region.getHeight() > camera.getTop() - margin;
+    }
+
+    /**
+     * Loads and unloads the regions according to
+     * the position of the {@code Camera} and adds
+     * or removes up to the maximum amount of objects
+     * per frame.
+     * <p>
+     * This method should be called every frame,
+     * which the {@code Stage} does if this
+     * {@code StageStreamer} is set to it.
+     */
+    public void update() {
+        GameElement camera = stage.getView();
+        updateRegions(camera);
+        acceptLoadedRegions(camera);
+
+        int budget = addObjects(objectsPerFrame);
+        removeObjects(budget);
+    }
+
+    /**
+     * Requests the regions within the load margin of
+     * the {@code camera} and unloads the ones beyond the
+     * unload margin, if the {@code camera} changed of
+     * region since the last time this was done.
+     * 
+     * @param camera the view of the stage
+     */
+    private void updateRegions(GameElement camera) {
+        int first = Math.max(0, Math.floorDiv(camera.getLeft() - loadMargin, regionWidth));
+        int last = Math.min(getLastStageColumn(), Math.floorDiv(camera.getRight() - 1 + loadMargin, regionWidth));
+        int top = Math.max(0, Math.floorDiv(camera.getTop() - loadMargin, regionHeight));
+        int bottom = Math.min(getLastStageRow(), Math.floorDiv(camera.getBottom() - 1 + loadMargin, regionHeight));
+        if (
+            !refresh && first == firstColumn && last == lastColumn &&
+            top == firstRow && bottom == lastRow
+        ) {
+            return;
+        }
+
+        this.firstColumn = first;
+        this.lastColumn = last;
+        this.firstRow = top;
+        this.lastRow = bottom;
+        this.refresh = false;
+
+        for(int row = top; row <= bottom; row++) {
+            for(int column = first; column <= last; column++) {
+                if(!regions.containsKey(key(column, row))) {
+                    requestRegion(column, row);
+                }
+            }
+        }
+
+        int margin = getUnloadMargin();
+        for(Region region : regions.values()) {
+            int state = region.getState();
+            if((state == Region.ADDING || state == Region.ACTIVE) && !isWithin(region, camera, margin)) {
+                unloadRegion(region);
+            }
+        }
+    }
+
+    /**
+     * Creates the region at the specified {@code column}
+     * and {@code row} and sends it to be loaded by the
+     * loader thread.
+     * 
+     * @param column the column of the region
+     * @param row the row of the region
+     */
+    private void requestRegion(int column, int row) {
+        final Region region = new Region(column, row, regionWidth, regionHeight);
+        regions.put(key(column, row), region);
+        loaderThread.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    loader.load(region);
+                }
+                catch(IOException e) {
+                    e.printStackTrace();
+                }
+                loadedRegions.add(region);
+            }
+        });
+    }
+
+    /**
+     * Takes the regions that finished loading and
+     * starts adding their objects to the {@code Stage},
+     * unless they are already beyond the unload margin
+     * of the {@code camera}.
+     * 
+     * @param camera the view of the stage
+     */
+    private void acceptLoadedRegions(GameElement camera) {
+        Region region;
+        while((region = loadedRegions.poll()) != null) {
+            if(isWithin(region, camera, getUnloadMargin())) {
+                region.setState(Region.ADDING);
+                region.setProgress(0);
+                addingRegions.add(region);
+            } else {
+                region.setState(Region.REMOVING);
+                region.setProgress(0);
+                removingRegions.add(region);
+            }
+        }
+    }
+
+    /**
+     * Starts removing the objects of the passed
+     * {@code region} from the {@code Stage}.
+     * 
+     * @param region the region to be unloaded
+     */
+    private void unloadRegion(Region region) {
+        if(region.getState() == Region.ACTIVE) {
+            region.setProgress(region.getObjects().size());
+        }
+
+        region.setState(Region.REMOVING);
+        removingRegions.add(region);
+    }
+
+    /**
+     * Adds and starts up to {@code budget} objects
+     * of the regions that are being added.
+     * 
+     * @param budget the maximum amount of
+     * objects to be added
+     * 
+     * @return how much of the {@code budget}
+     * was not used
+     */
+    private int addObjects(int budget) {
+        while(budget > 0 && !addingRegions.isEmpty()) {
+            Region region = addingRegions.peek();
+            if(region.getState() != Region.ADDING) {
+                addingRegions.poll();
+                continue;
+            }
+
+            ArrayList<GameObject> objects = region.getObjects();
+            int progress = region.getProgress();
+            while(budget > 0 && progress < objects.size()) {
+                GameObject object = objects.get(progress++);
+                stage.addObject(object);
+                object.start();
+                budget--;
+            }
+            region.setProgress(progress);
+
+            if(progress == objects.size()) {
+                region.setState(Region.ACTIVE);
+                addingRegions.poll();
+            }
+        }
+
+        return budget;
+    }
+
+    /**
+     * Removes up to {@code budget} objects of
+     * the regions that are being removed. Once
+     * every object of a region is removed, the
+     * {@code RegionLoader} is told to unload it.
+     * 
+     * @param budget the maximum amount of
+     * objects to be removed
+     */
+    private void removeObjects(int budget) {
+        while(!removingRegions.isEmpty()) {
+            Region region = removingRegions.peek();
+            ArrayList<GameObject> objects = region.getObjects();
+            int progress = region.getProgress();
+            while(budget > 0 && progress > 0) {
+                stage.removeObject(objects.get(--progress));
+                budget--;
+            }
+            region.setProgress(progress);
+
+            if(progress > 0) {
+                return;
+            }
+
+            removingRegions.poll();
+            regions.remove(key(region.getColumn(), region.getRow()));
+            loader.unload(region);
+            this.refresh = true;
+        }
+    }
+
+    /**
+     * Stops the loader thread. The regions that
+     * were not loaded yet won't be loaded anymore.
+     */
+    public void shutdown() {
+        loaderThread.shutdownNow();
+    }
+
+}
@@ -0,0 +1,109 @@
+package imagine.stage.transition;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+
+/**
+ * Transition that fades the game out to a color
+ * and then fades it back in on the next stage.
+ * 
+ * @author Daniel O Sousa
+ */
+public class Fade extends StageTransition {
+
+    /**
+     * The color to which the game fades.
+     */
+    private Color color;
+
+    /**
+     * Creates a new {@code Fade} to black
+     * that lasts the specified amount of
+     * {@code frames}.
+     * 
+     * @param frames how many frames the
+     * transition lasts
+     * 
+     * @throws IllegalArgumentException if
+     * {@code frames} is not positive
+     */
+    public Fade(int frames) {
+        this(frames, Color.BLACK);
+    }
+
+    /**
+     * Creates a new {@code Fade} to the specified
+     * {@code color} that lasts the specified amount
+     * of {@code frames}.
+     * 
+     * @param frames how many frames the
+     * transition lasts
+     * @param color the color to fade to
+     * 
+     * @throws IllegalArgumentException if {@code frames}
+     * is not positive or {@code color} is {@code null}
+     */
+    public Fade(int frames, Color color) {
+        super(frames);
+        storeColor(color);
+    }
+
+    /**
+     * Stores the {@code color}
+     * of this {@code Fade}.
+     * 
+     * @param color the color to be stored
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code color} argument is {@code null}
+     */
+    private void storeColor(Color color) {
+        if(color == null) {
+            throw new IllegalArgumentException (
+                "cannot store null color"
+            );
+        }
+
+        this.color = color;
+    }
+
+    /**
+     * Returns the color to which
+     * this {@code Fade} fades.
+     * 
+     * @return the color of the fade
+     */
+    public Color getColor() {
+        return this.color;
+    }
+
+    /**
+     * Covers the game with the color of this
+     * {@code Fade}, fully opaque at the swap point
+     * and transparent at the beginning and end.
+     * 
+     * @param g2 a {@code Graphics2D} instance
+     * to draw with
+     * @param width the width of the area where
+     * the game is drawn
+     * @param height the height of the area where
+     * the game is drawn
+     */
+    @Override
+    public void draw(Graphics2D g2, int width, int height) {
+        float progress = getProgress();
+        float swapPoint = getSwapPoint();
+        float opacity =
+            progress < swapPoint ?
+            progress / swapPoint :
+            (1 - progress) / (1 - swapPoint);
+        int alpha = Math.max(0, Math.min(255, Math.round(opacity * color.getAlpha())));
+        if(alpha == 0) {
+            return;
+        }
+
+        g2.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha));
+        g2.fillRect(0, 0, width, height);
+    }
+
+}
@@ -0,0 +1,145 @@
+package imagine.stage.transition;
+
+import java.awt.Graphics2D;
+
+/**
+ * Abstract class for creating the effects shown
+ * while a {@code Game} changes from one stage to
+ * another.
+ * <p>
+ * A transition lasts a fixed amount of frames. The
+ * stages are swapped when its progress reaches the
+ * swap point; if the next stage is still loading by
+ * then, the transition waits at the swap point until
+ * it is ready.
+ * 
+ * @author Daniel O Sousa
+ */
+public abstract class StageTransition {
+
+    /**
+     * How many frames this
+     * transition lasts.
+     */
+    private int frames;
+
+    /**
+     * How many frames of this
+     * transition have passed.
+     */
+    private int frame;
+
+    /**
+     * Creates a new {@code StageTransition}
+     * that lasts the specified amount of
+     * {@code frames}.
+     * 
+     * @param frames how many frames the
+     * transition lasts
+     * 
+     * @throws IllegalArgumentException if
+     * {@code frames} is not positive
+     */
+    public StageTransition(int frames) {
+        if(frames <= 0) {
+            throw new IllegalArgumentException (
+                "transition must last at least one frame"
+            );
+        }
+
+        this.frames = frames;
+    }
+
+    /**
+     * Returns how many frames
+     * this transition lasts.
+     * 
+     * @return the duration in frames
+     */
+    public int getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * Returns the progress of this transition,
+     * from {@code 0} when it begins to {@code 1}
+     * when it is finished.
+     * 
+     * @return the progress of the transition
+     */
+    public float getProgress() {
+        return (float) frame / frames;
+    }
+
+    /**
+     * Returns the progress at which the stages are
+     * swapped. By default, they are swapped halfway
+     * through the transition.
+     * 
+     * @return the swap point, from {@code 0} to {@code 1}
+     */
+    public float getSwapPoint() {
+        return 0.5f;
+    }
+
+    /**
+     * Returns {@code true} if the progress of this
+     * transition reached the swap point and
+     * {@code false} otherwise.
+     * 
+     * @return boolean specifying if the stages
+     * can be swapped
+     */
+    public boolean reachedSwapPoint() {
+        return getProgress() >= getSwapPoint();
+    }
+
+    /**
+     * Returns {@code true} if this transition
+     * is finished and {@code false} otherwise.
+     * 
+     * @return boolean specifying if the
+     * transition is finished
+     */
+    public boolean isFinished() {
+        return frame >= frames;
+    }
+
+    /**
+     * Restarts this transition, so that
+     * it can be used again.
+     */
+    public void restart() {
+        this.frame = 0;
+    }
+
+    /**
+     * Advances this transition by one frame. If
+     * {@code swapped} is {@code false}, it doesn't
+     * advance past the swap point.
+     * 
+     * @param swapped boolean specifying if
+     * the stages were already swapped
+     */
+    public void advance(boolean swapped) {
+        if(isFinished() || (!swapped && reachedSwapPoint())) {
+            return;
+        }
+
+        this.frame++;
+    }
+
+    /**
+     * Draws the effect of this transition over
+     * the game, according to its progress.
+     * 
+     * @param g2 a {@code Graphics2D} instance
+     * to draw with
+     * @param width the width of the area where
+     * the game is drawn
+     * @param height the height of the area where
+     * the game is drawn
+     */
+    public abstract void draw(Graphics2D g2, int width, int height);
+
+}
@@ -0,0 +1,461 @@
+package imagine.text;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import imagine.render.RenderBatch;
+import imagine.sprite.Sprite;
+import imagine.sprite.SpriteSheet;
+
+/**
+ * Class that holds the glyphs of a font
+ * rasterized once, so that text is drawn
+ * as a sequence of image blits.
+ * <p>
+ * A {@code GlyphAtlas} is created either from a
+ * {@code Font}, whose glyphs are rasterized in one
+ * color into a single atlas image, or from a
+ * {@code SpriteSheet} holding a bitmap font, whose
+ * frames are the glyphs. Every glyph is a subimage
+ * of the atlas, so no glyph is laid out nor
+ * rasterized while drawing.
+ * <p>
+ * Text is drawn from a {@code GlyphRun}, with its
+ * top left corner at the passed coordinates.
+ * Characters without a glyph are drawn as the
+ * {@code '?'} glyph, if there is one, and are
+ * skipped otherwise.
+ * <p>
+ * With Java2D, one blit per glyph is slower than
+ * drawing the same run with a font through
+ * {@code GlyphRun.draw}, so an atlas is meant for
+ * bitmap fonts and for text recorded into a
+ * {@code RenderBatch}.
+ * 
+ * @author Daniel O Sousa
+ */
+public class GlyphAtlas {
+
+    /**
+     * The characters of the printable ASCII range,
+     * which are put in atlases by default.
+     */
+    public static final String ASCII =
+        " !\"#$%&'()*+,-./0123456789:;<=>?@" +
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZ[\\]^_`" +
+        "abcdefghijklmnopqrstuvwxyz{|}~";
+
+    /**
+     * The image holding every glyph.
+     */
+    private BufferedImage atlas;
+
+    /**
+     * The index of the glyph of each character,
+     * or {@code -1} if the character has none.
+     */
+    private short[] glyphIndices;
+
+    /**
+     * The images of the glyphs.
+     */
+    private BufferedImage[] glyphs;
+
+    /**
+     * How many pixels the pen moves
+     * after each glyph.
+     */
+    private int[] advances;
+
+    /**
+     * The horizontal distance from the
+     * pen to the left of each glyph image.
+     */
+    private int[] offsets;
+
+    /**
+     * The height of a line of text.
+     */
+    private int lineHeight;
+
+    /**
+     * The extra space between
+     * glyphs, in pixels.
+     * <p>
+     * Is initially set to {@code 0}.
+     */
+    private int letterSpacing = 0;
+
+    /**
+     * The index of the glyph drawn for characters
+     * without one, or {@code -1} if they are skipped.
+     */
+    private int missingGlyph;
+
+    /**
+     * Creates a new {@code GlyphAtlas} with the
+     * printable ASCII characters of the passed
+     * {@code font}, antialiased, in the passed
+     * {@code color}.
+     * 
+     * @param font the font of the glyphs
+     * @param color the color of the glyphs
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code font} or {@code color} is {@code null}
+     */
+    public GlyphAtlas(Font font, Color color) {
+        this(font, color, ASCII, true);
+    }
+
+    /**
+     * Creates a new {@code GlyphAtlas} with the
+     * passed {@code characters} of the {@code font},
+     * in the passed {@code color}.
+     * 
+     * @param font the font of the glyphs
+     * @param color the color of the glyphs
+     * @param characters the characters put
+     * in the atlas
+     * @param antialiased if the glyphs
+     * are antialiased
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code font}, {@code color} or {@code characters}
+     * is {@code null}
+     */
+    public GlyphAtlas(Font font, Color color, String characters, boolean antialiased) {
+        if(font == null || color == null || characters == null) {
+            throw new IllegalArgumentException (
+                "cannot create glyph atlas with null font, color or characters"
+            );
+        }
+
+        createIndices(characters);
+
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D scratchGraphics = scratch.createGraphics();
+        FontMetrics metrics = scratchGraphics.getFontMetrics(font);
+        scratchGraphics.dispose();
+
+        int ascent = metrics.getAscent();
+        int cellHeight = ascent + metrics.getDescent();
+        int padding = Math.max(1, font.getSize() / 4);
+        int atlasWidth = 1024;
+
+        int x = 0;
+        int y = 0;
+        int[] cellX = new int[glyphs.length];
+        int[] cellY = new int[glyphs.length];
+        int[] cellWidth = new int[glyphs.length];
+        for(int i = 0; i < glyphs.length; i++) {
+            advances[i] = metrics.charWidth(characters.charAt(i));
+            offsets[i] = -padding;
+            cellWidth[i] = advances[i] + 2 * padding;
+            if(x + cellWidth[i] > atlasWidth) {
+                x = 0;
+                y += cellHeight;
+            }
+            cellX[i] = x;
+            cellY[i] = y;
+            x += cellWidth[i];
+        }
+
+        this.atlas = new BufferedImage(atlasWidth, Math.max(1, y + cellHeight), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = atlas.createGraphics();
+        g2.setFont(font);
+        g2.setColor(color);
+        g2.setRenderingHint (
+            RenderingHints.KEY_TEXT_ANTIALIASING,
+            antialiased ?
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON :
+                RenderingHints.VALUE_TEXT_ANTIALIAS_OFF
+        );
+        for(int i = 0; i < glyphs.length; i++) {
+            g2.setClip(cellX[i], cellY[i], cellWidth[i], cellHeight);
+            g2.drawString(characters.substring(i, i + 1), cellX[i] + padding, cellY[i] + ascent);
+            glyphs[i] = atlas.getSubimage(cellX[i], cellY[i], cellWidth[i], cellHeight);
+        }
+        g2.dispose();
+
+        this.lineHeight = metrics.getHeight();
+        findMissingGlyph();
+    }
+
+    /**
+     * Creates a new {@code GlyphAtlas} from a bitmap
+     * font held by the passed {@code spriteSheet}. Its
+     * frames, row by row, are the glyphs of the
+     * passed {@code characters}, and every glyph
+     * advances the width of a frame.
+     * 
+     * @param spriteSheet the sprite sheet of the font
+     * @param characters the characters of the
+     * frames, in order
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code spriteSheet} or {@code characters} is
+     * {@code null}, or if there are more characters
+     * than frames
+     */
+    public GlyphAtlas(SpriteSheet spriteSheet, String characters) {
+        if(spriteSheet == null || characters == null) {
+            throw new IllegalArgumentException (
+                "cannot create glyph atlas with null sprite sheet or characters"
+            );
+        }
+        if(characters.length() > spriteSheet.getRows() * spriteSheet.getColumns()) {
+            throw new IllegalArgumentException (
+                "sprite sheet has fewer frames than characters"
+            );
+        }
+
+        createIndices(characters);
+
+        Sprite[][] sprites = spriteSheet.getSprites();
+        for(int i = 0; i < glyphs.length; i++) {
+            glyphs[i] = sprites[i / spriteSheet.getColumns()][i % spriteSheet.getColumns()].getImage();
+            advances[i] = spriteSheet.getSpriteWidth();
+        }
+
+        this.atlas = spriteSheet.getImage();
+        this.lineHeight = spriteSheet.getSpriteHeight();
+        findMissingGlyph();
+    }
+
+    /**
+     * Creates the lookup of the glyphs of the
+     * passed {@code characters} and the arrays
+     * with their properties.
+     * 
+     * @param characters the characters
+     * of the glyphs
+     */
+    private void createIndices(String characters) {
+        char maxChar = 0;
+        for(int i = 0; i < characters.length(); i++) {
+            maxChar = (char) Math.max(maxChar, characters.charAt(i));
+        }
+
+        this.glyphIndices = new short[maxChar + 1];
+        Arrays.fill(glyphIndices, (short) -1);
+        for(int i = characters.length() - 1; i >= 0; i--) {
+            glyphIndices[characters.charAt(i)] = (short) i;
+        }
+
+        this.glyphs = new BufferedImage[characters.length()];
+        this.advances = new int[characters.length()];
+        this.offsets = new int[characters.length()];
+    }
+
+    /**
+     * Finds the glyph drawn for
+     * characters without one.
+     */
+    private void findMissingGlyph() {
+        this.missingGlyph = getGlyphIndex('?');
+    }
+
+    /**
+     * Returns the index of the glyph of the
+     * passed {@code c} character.
+     * 
+     * @param c the character
+     * 
+     * @return the index of its glyph, or
+     * {@code -1} if it has none
+     */
+    private int getGlyphIndex(char c) {
+        if(c >= glyphIndices.length) {
+            return -1;
+        }
+        return glyphIndices[c];
+    }
+
+    /**
+     * Returns the index of the glyph drawn for
+     * the passed {@code c} character, which is the
+     * missing glyph if it has none.
+     * 
+     * @param c the character
+     * 
+     * @return the index of the glyph, or
+     * {@code -1} if nothing is drawn
+     */
+    private int getDrawnGlyph(char c) {
+        int index = getGlyphIndex(c);
+        if(index == -1) {
+            return missingGlyph;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the image holding
+     * every glyph of a font atlas, or
+     * the sprite sheet of a bitmap font.
+     * 
+     * @return the atlas image
+     */
+    public BufferedImage getAtlas() {
+        return this.atlas;
+    }
+
+    /**
+     * Returns the height of a line of text.
+     * 
+     * @return the line height
+     */
+    public int getLineHeight() {
+        return this.lineHeight;
+    }
+
+    /**
+     * Sets the extra space between glyphs,
+     * which may be negative.
+     * 
+     * @param letterSpacing the spacing in pixels
+     */
+    public void setLetterSpacing(int letterSpacing) {
+        this.letterSpacing = letterSpacing;
+    }
+
+    /**
+     * Returns the extra space between glyphs.
+     * 
+     * @return the spacing in pixels
+     */
+    public int getLetterSpacing() {
+        return this.letterSpacing;
+    }
+
+    /**
+     * Tells if the passed {@code c}
+     * character has a glyph.
+     * 
+     * @param c the character
+     * 
+     * @return {@code true} if it has a glyph,
+     * {@code false} otherwise
+     */
+    public boolean hasGlyph(char c) {
+        return getGlyphIndex(c) != -1;
+    }
+
+    /**
+     * Returns the width of the widest
+     * line of the passed {@code run}.
+     * 
+     * @param run the run to be measured
+     * 
+     * @return the width in pixels
+     */
+    public int getWidth(GlyphRun run) {
+        int width = 0;
+        int lineWidth = 0;
+        for(int i = 0; i < run.getLength(); i++) {
+            char c = run.getChar(i);
+            if(c == '\n') {
+                width = Math.max(width, lineWidth);
+                lineWidth = 0;
+                continue;
+            }
+            int index = getDrawnGlyph(c);
+            if(index != -1) {
+                lineWidth += advances[index] + letterSpacing;
+            }
+        }
+        return Math.max(width, lineWidth);
+    }
+
+    /**
+     * Returns the height of the
+     * lines of the passed {@code run}.
+     * 
+     * @param run the run to be measured
+     * 
+     * @return the height in pixels
+     */
+    public int getHeight(GlyphRun run) {
+        int lines = 1;
+        for(int i = 0; i < run.getLength(); i++) {
+            if(run.getChar(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines * lineHeight;
+    }
+
+    /**
+     * Draws the passed {@code run} with its
+     * top left corner at the {@code x} and
+     * {@code y} coordinates.
+     * 
+     * @param g2 a {@code Graphics2D} to draw with
+     * @param run the run to be drawn
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public void draw(Graphics2D g2, GlyphRun run, int x, int y) {
+        int penX = x;
+        int penY = y;
+        for(int i = 0; i < run.getLength(); i++) {
+            char c = run.getChar(i);
+            if(c == '\n') {
+                penX = x;
+                penY += lineHeight;
+                continue;
+            }
+            int index = getDrawnGlyph(c);
+            if(index == -1) {
+                continue;
+            }
+            if(c != ' ') {
+                g2.drawImage(glyphs[index], penX + offsets[index], penY, null);
+            }
+            penX += advances[index] + letterSpacing;
+        }
+    }
+
+    /**
+     * Records the drawing of the passed {@code run}
+     * into the {@code batch}, with its top left
+     * corner at the {@code x} and {@code y}
+     * coordinates.
+     * 
+     * @param batch a {@code RenderBatch} to record into
+     * @param run the run to be drawn
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public void draw(RenderBatch batch, GlyphRun run, int x, int y) {
+        int penX = x;
+        int penY = y;
+        for(int i = 0; i < run.getLength(); i++) {
+            char c = run.getChar(i);
+            if(c == '\n') {
+                penX = x;
+                penY += lineHeight;
+                continue;
+            }
+            int index = getDrawnGlyph(c);
+            if(index == -1) {
+                continue;
+            }
+            if(c != ' ') {
+                BufferedImage glyph = glyphs[index];
+                batch.drawImage (
+                    glyph, penX + offsets[index], penY,
+                    glyph.getWidth(), glyph.getHeight()
+                );
+            }
+            penX += advances[index] + letterSpacing;
+        }
+    }
+
+}
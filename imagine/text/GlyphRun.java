@@ -0,0 +1,247 @@
+package imagine.text;
+
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+
+/**
+ * Class holding a reusable sequence of characters
+ * to be drawn by a {@code GlyphAtlas}, or with the
+ * font of a {@code Graphics2D}.
+ * <p>
+ * Text and numbers are appended straight into the
+ * characters of the {@code GlyphRun}, so building the
+ * same kind of text every frame, like a score or a
+ * timer, creates no {@code String} and allocates
+ * nothing once the run is big enough.
+ * <p>
+ * A {@code '\n'} character starts a new line.
+ * 
+ * @author Daniel O Sousa
+ */
+public class GlyphRun {
+
+    /**
+     * The characters of this {@code GlyphRun}.
+     */
+    private char[] chars;
+
+    /**
+     * The amount of characters
+     * of this {@code GlyphRun}.
+     */
+    private int length;
+
+    /**
+     * Creates a new empty {@code GlyphRun}
+     * with room for {@code 32} characters.
+     */
+    public GlyphRun() {
+        this(32);
+    }
+
+    /**
+     * Creates a new empty {@code GlyphRun} with
+     * room for the passed amount of characters.
+     * 
+     * @param capacity the initial amount
+     * of characters
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code capacity} is not positive
+     */
+    public GlyphRun(int capacity) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException (
+                "capacity must be positive"
+            );
+        }
+
+        this.chars = new char[capacity];
+    }
+
+    /**
+     * Returns the amount of characters
+     * of this {@code GlyphRun}.
+     * 
+     * @return the length of this {@code GlyphRun}
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Returns the character at the
+     * passed {@code index}.
+     * 
+     * @param index the index of the character
+     * 
+     * @return the character
+     * 
+     * @throws IndexOutOfBoundsException if the
+     * {@code index} is out of this {@code GlyphRun}
+     */
+    public char getChar(int index) {
+        if(index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException (
+                "index " + index + " out of run of length " + length
+            );
+        }
+
+        return chars[index];
+    }
+
+    /**
+     * Draws the characters of this {@code GlyphRun}
+     * on a single line with the font and color of the
+     * passed {@code g2}, like {@code drawString} but
+     * without creating a {@code String}. Unlike a
+     * {@code GlyphAtlas}, the {@code y} coordinate is
+     * the baseline of the text.
+     * 
+     * @param g2 a {@code Graphics2D} to draw with
+     * @param x the x coordinate
+     * @param y the y coordinate of the baseline
+     */
+    public void draw(Graphics2D g2, int x, int y) {
+        g2.drawChars(chars, 0, length, x, y);
+    }
+
+    /**
+     * Returns the width of the characters of
+     * this {@code GlyphRun} on a single line
+     * with the font of the passed {@code metrics}.
+     * 
+     * @param metrics the metrics of the font
+     * 
+     * @return the width in pixels
+     */
+    public int getWidth(FontMetrics metrics) {
+        return metrics.charsWidth(chars, 0, length);
+    }
+
+    /**
+     * Removes every character of
+     * this {@code GlyphRun}.
+     */
+    public void clear() {
+        this.length = 0;
+    }
+
+    /**
+     * Appends the passed {@code c} character.
+     * 
+     * @param c the character to be appended
+     */
+    public void append(char c) {
+        ensureCapacity(length + 1);
+        chars[length++] = c;
+    }
+
+    /**
+     * Appends the characters of the passed
+     * {@code text}, if it is not {@code null}.
+     * 
+     * @param text the text to be appended
+     */
+    public void append(CharSequence text) {
+        if(text == null) {
+            return;
+        }
+
+        int textLength = text.length();
+        ensureCapacity(length + textLength);
+        for(int i = 0; i < textLength; i++) {
+            chars[length++] = text.charAt(i);
+        }
+    }
+
+    /**
+     * Appends the decimal digits of the
+     * passed {@code value}, with a minus
+     * sign if it is negative.
+     * 
+     * @param value the value to be appended
+     */
+    public void append(long value) {
+        append(value, 1);
+    }
+
+    /**
+     * Appends the decimal digits of the passed
+     * {@code value}, with a minus sign if it is
+     * negative, padded with zeros to at least
+     * {@code minDigits} digits.
+     * 
+     * @param value the value to be appended
+     * @param minDigits the minimum amount of digits
+     */
+    public void append(long value, int minDigits) {
+        if(value < 0) {
+            append('-');
+        }
+
+        int digits = 1;
+        for(long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, minDigits);
+
+        ensureCapacity(length + digits);
+        int index = length + digits - 1;
+        long rest = value;
+        for(int i = 0; i < digits; i++) {
+            chars[index--] = (char) ('0' + Math.abs(rest % 10));
+            rest /= 10;
+        }
+        this.length += digits;
+    }
+
+    /**
+     * Appends the passed {@code value} rounded
+     * to the passed amount of {@code decimals}.
+     * 
+     * @param value the value to be appended
+     * @param decimals the amount of decimal
+     * digits, from {@code 0} to {@code 9}
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code decimals} is out of range
+     */
+    public void append(double value, int decimals) {
+        if(decimals < 0 || decimals > 9) {
+            throw new IllegalArgumentException (
+                "decimals must be between 0 and 9"
+            );
+        }
+
+        long scale = 1;
+        for(int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if(value < 0 && scaled != 0) {
+            append('-');
+        }
+
+        append(scaled / scale);
+        if(decimals > 0) {
+            append('.');
+            append(scaled % scale, decimals);
+        }
+    }
+
+    /**
+     * Makes sure there is room for
+     * the passed amount of characters.
+     * 
+     * @param capacity the needed capacity
+     */
+    private void ensureCapacity(int capacity) {
+        if(capacity > chars.length) {
+            char[] grown = new char[Math.max(capacity, chars.length * 2)];
+            System.arraycopy(chars, 0, grown, 0, length);
+            this.chars = grown;
+        }
+    }
+
+}
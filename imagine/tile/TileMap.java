@@ -0,0 +1,1007 @@
+package imagine.tile;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import imagine.camera.Camera;
+import imagine.flow.GameFluid;
+import imagine.game.Game;
+import imagine.game.GameElement;
+import imagine.render.RenderBatch;
+import imagine.render.SoftwareRenderer;
+import imagine.sprite.CompatibleImage;
+import imagine.sprite.Sprite;
+import imagine.sprite.SpriteSheet;
+import imagine.stage.StageElement;
+
+/**
+ * Class for creating tile maps for stages.
+ * <p>
+ * A {@code TileMap} stores a grid of tile ids, each
+ * one referencing a frame of its {@code SpriteSheet}
+ * (counted row by row, starting at {@code 0}). The
+ * tiles have the default tile size of the {@code Game}.
+ * <p>
+ * The map is split into chunks that are pre-rendered
+ * into images. A chunk is only rendered again when one
+ * of its tiles changes, and only the chunks that
+ * intersect the {@code Camera} are drawn.
+ * <p>
+ * Tile ids can be marked as solid. Stage elements with
+ * tile collision enabled don't move through solid tiles,
+ * and the cost of resolving their movement depends only
+ * on their size and speed, not on the size of the map.
+ * 
+ * @author Daniel O Sousa
+ */
+public class TileMap extends StageElement implements GameFluid {
+
+    /**
+     * The id of an empty tile.
+     */
+    public static final short EMPTY = -1;
+
+    /**
+     * The biggest id a tile can have,
+     * since ids are stored as shorts.
+     */
+    public static final int MAX_ID = Short.MAX_VALUE;
+
+    /**
+     * The {@code SpriteSheet} whose
+     * frames are referenced by the tiles.
+     */
+    private SpriteSheet spriteSheet;
+
+    /**
+     * The amount of tiles on
+     * the x axis.
+     */
+    private int columns;
+
+    /**
+     * The amount of tiles on
+     * the y axis.
+     */
+    private int rows;
+
+    /**
+     * The ids of the tiles of this
+     * {@code TileMap}, row by row.
+     */
+    private short[] tiles;
+
+    /**
+     * Bitset telling which tile ids are solid,
+     * where the bit {@code id % 64} of the element
+     * {@code id / 64} is set for each solid id.
+     */
+    private long[] solidTiles;
+
+    /**
+     * How many tiles there are on each
+     * side of a chunk.
+     * <p>
+     * Is initially set to {@code 16}.
+     */
+    private int chunkSize = 16;
+
+    /**
+     * The amount of chunks on
+     * the x axis.
+     */
+    private int chunkColumns;
+
+    /**
+     * The amount of chunks on
+     * the y axis.
+     */
+    private int chunkRows;
+
+    /**
+     * The pre-rendered images of the chunks,
+     * row by row. The image of a chunk that
+     * has only empty tiles is {@code null}.
+     */
+    private BufferedImage[] chunkImages;
+
+    /**
+     * Tells which chunks have to be
+     * rendered again before being drawn.
+     */
+    private boolean[] dirtyChunks;
+
+    /**
+     * The tile width with which the
+     * chunks were rendered.
+     */
+    private int renderedTileWidth = 0;
+
+    /**
+     * The tile height with which the
+     * chunks were rendered.
+     */
+    private int renderedTileHeight = 0;
+
+    /**
+     * Creates a new {@code TileMap} with {@code columns}
+     * by {@code rows} empty tiles referencing the frames
+     * of the passed {@code spriteSheet}.
+     * 
+     * @param spriteSheet the {@code SpriteSheet} with
+     * the frames of the tiles
+     * @param columns the amount of tiles on the x axis
+     * @param rows the amount of tiles on the y axis
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code spriteSheet} is {@code null} or the
+     * {@code columns} or {@code rows} are negative
+     */
+    public TileMap(SpriteSheet spriteSheet, int columns, int rows) {
+        storeSpriteSheet(spriteSheet);
+        storeDimensions(columns, rows);
+        createChunks();
+        this.solidTiles = new long[(getTileCount() + 63) / 64];
+    }
+
+    /**
+     * Stores the {@code spriteSheet} argument
+     * into the {@code spriteSheet} field.
+     * 
+     * @param spriteSheet the {@code SpriteSheet}
+     * to be stored
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code spriteSheet} argument is {@code null}
+     */
+    private void storeSpriteSheet(SpriteSheet spriteSheet) {
+        if(spriteSheet == null) {
+            throw new IllegalArgumentException("cannot store null sprite sheet");
+        }
+
+        this.spriteSheet = spriteSheet;
+    }
+
+    /**
+     * Returns the {@code SpriteSheet} whose
+     * frames are referenced by the tiles.
+     * 
+     * @return the {@code SpriteSheet} of
+     * this {@code TileMap}
+     */
+    public SpriteSheet getSpriteSheet() {
+        return this.spriteSheet;
+    }
+
+    /**
+     * Stores the amount of {@code columns} and
+     * {@code rows} of this {@code TileMap} and
+     * creates its grid of empty tiles.
+     * 
+     * @param columns the amount of tiles on the x axis
+     * @param rows the amount of tiles on the y axis
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code columns} or {@code rows} are negative
+     */
+    private void storeDimensions(int columns, int rows) {
+        if(columns < 0 || rows < 0) {
+            throw new IllegalArgumentException (
+                "cannot create tile map of " + columns + "x" + rows +
+                " (negative dimensions)"
+            );
+        }
+
+        this.columns = columns;
+        this.rows = rows;
+        this.tiles = new short[columns * rows];
+        Arrays.fill(tiles, EMPTY);
+    }
+
+    /**
+     * Returns the amount of tiles
+     * on the x axis.
+     * 
+     * @return the columns of this
+     * {@code TileMap}
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Returns the amount of tiles
+     * on the y axis.
+     * 
+     * @return the rows of this
+     * {@code TileMap}
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the amount of different
+     * tile ids, which is the amount of
+     * frames of the {@code SpriteSheet}.
+     * 
+     * @return the amount of tile ids
+     */
+    public int getTileCount() {
+        return spriteSheet.getRows() * spriteSheet.getColumns();
+    }
+
+    /**
+     * Creates the arrays of chunk images and
+     * dirty flags, marking every chunk as dirty.
+     */
+    private void createChunks() {
+        this.chunkColumns = (columns + chunkSize - 1) / chunkSize;
+        this.chunkRows = (rows + chunkSize - 1) / chunkSize;
+        flush();
+        this.chunkImages = new BufferedImage[chunkColumns * chunkRows];
+        this.dirtyChunks = new boolean[chunkColumns * chunkRows];
+        Arrays.fill(dirtyChunks, true);
+    }
+
+    /**
+     * Sets how many tiles there are on each side
+     * of the chunks of this {@code TileMap}. Every
+     * chunk is rendered again after this change.
+     * 
+     * @param chunkSize the amount of tiles on each
+     * side of a chunk
+     * 
+     * @throws IllegalArgumentException if the
+     * {@code chunkSize} is not positive
+     */
+    public void setChunkSize(int chunkSize) {
+        if(chunkSize <= 0) {
+            throw new IllegalArgumentException (
+                "chunk size must be positive"
+            );
+        }
+
+        this.chunkSize = chunkSize;
+        createChunks();
+    }
+
+    /**
+     * Returns how many tiles there are on
+     * each side of the chunks of this
+     * {@code TileMap}.
+     * 
+     * @return the chunk size in tiles
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * Returns the width of the tiles, which is
+     * the default tile width of the {@code Game}.
+     * 
+     * @return the tile width
+     */
+    public int getTileWidth() {
+        if(getGame() != null) {
+            return getGame().getTileWidth();
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the height of the tiles, which is
+     * the default tile height of the {@code Game}.
+     * 
+     * @return the tile height
+     */
+    public int getTileHeight() {
+        if(getGame() != null) {
+            return getGame().getTileHeight();
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Verifies if the {@code column} and {@code row}
+     * correspond to a tile of this {@code TileMap}.
+     * 
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * 
+     * @throws IndexOutOfBoundsException if there is
+     * no tile at the {@code column} and {@code row}
+     */
+    private void checkTile(int column, int row) {
+        if(column < 0 || column >= columns || row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException (
+                "(" + column + ", " + row + ") does not correspond to a tile" +
+                " (tile map is " + columns + "x" + rows + ")"
+            );
+        }
+    }
+
+    /**
+     * Sets the tile at the specified {@code column}
+     * and {@code row} to the passed {@code id}, marking
+     * its chunk to be rendered again if it changed and,
+     * if the stage has a damage tracker, damaging it.
+     * 
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * @param id the id of the tile, or {@code EMPTY}
+     * 
+     * @throws IndexOutOfBoundsException if there is no
+     * tile at the {@code column} and {@code row}
+     * @throws IllegalArgumentException if the {@code id}
+     * does not correspond to a frame of the sprite sheet
+     * or is above {@code MAX_ID}
+     */
+    public void setTile(int column, int row, int id) {
+        checkTile(column, row);
+        checkId(id);
+
+        int index = row * columns + column;
+        if(tiles[index] != id) {
+            tiles[index] = (short) id;
+            dirtyChunks[(row / chunkSize) * chunkColumns + column / chunkSize] = true;
+            addDamage (
+                getX() + column * getTileWidth(),
+                getY() + row * getTileHeight(),
+                getTileWidth(), getTileHeight()
+            );
+        }
+    }
+
+    /**
+     * Marks the passed rectangle as damaged in the
+     * damage tracker of the stage, if there is one.
+     * 
+     * @param x the x coordinate of the rectangle
+     * @param y the y coordinate of the rectangle
+     * @param width the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    private void addDamage(int x, int y, int width, int height) {
+        if(getStage() != null && getStage().getDamageTracker() != null) {
+            getStage().getDamageTracker().addDamage(x, y, width, height);
+        }
+    }
+
+    /**
+     * Returns the id of the tile at the
+     * specified {@code column} and {@code row}.
+     * 
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * 
+     * @return the id of the tile, or {@code EMPTY}
+     * 
+     * @throws IndexOutOfBoundsException if there is no
+     * tile at the {@code column} and {@code row}
+     */
+    public int getTile(int column, int row) {
+        checkTile(column, row);
+        return tiles[row * columns + column];
+    }
+
+    /**
+     * Checks if the passed {@code id} can be stored
+     * as the id of a tile of this {@code TileMap}.
+     * 
+     * @param id the id to be checked
+     * 
+     * @throws IllegalArgumentException if the {@code id}
+     * does not correspond to a frame of the sprite sheet
+     * or is above {@code MAX_ID}
+     */
+    private void checkId(int id) {
+        if(id < EMPTY || id >= getTileCount()) {
+            throw new IllegalArgumentException (
+                id + " does not correspond to a frame of the sprite sheet"
+            );
+        }
+        if(id > MAX_ID) {
+            throw new IllegalArgumentException (
+                "tile id " + id + " is above the maximum of " + MAX_ID
+            );
+        }
+    }
+
+    /**
+     * Sets every tile of this {@code TileMap}
+     * to the passed {@code id} and, if the stage
+     * has a damage tracker, damages the map.
+     * 
+     * @param id the id of the tiles, or {@code EMPTY}
+     * 
+     * @throws IllegalArgumentException if the {@code id}
+     * does not correspond to a frame of the sprite sheet
+     * or is above {@code MAX_ID}
+     */
+    public void fill(int id) {
+        checkId(id);
+
+        Arrays.fill(tiles, (short) id);
+        Arrays.fill(dirtyChunks, true);
+        addDamage(getX(), getY(), getWidth(), getHeight());
+    }
+
+    /**
+     * Returns the array storing the ids of the
+     * tiles of this {@code TileMap}, row by row.
+     * <p>
+     * If the array is changed directly, the
+     * {@code invalidate} method must be called so
+     * that the chunks are rendered again.
+     * 
+     * @return the tiles of this {@code TileMap}
+     */
+    public short[] getTiles() {
+        return this.tiles;
+    }
+
+    /**
+     * Defines if the tiles with the specified {@code id}
+     * are solid, that is, if stage elements with tile
+     * collision enabled can't move through them.
+     * 
+     * @param id the id of the tiles
+     * @param solid boolean specifying if the
+     * tiles are solid
+     * 
+     * @throws IllegalArgumentException if the {@code id}
+     * does not correspond to a frame of the sprite sheet
+     */
+    public void setSolid(int id, boolean solid) {
+        if(id < 0 || id >= getTileCount()) {
+            throw new IllegalArgumentException (
+                id + " does not correspond to a frame of the sprite sheet"
+            );
+        }
+
+        if(solid) {
+            solidTiles[id >> 6] |= 1L << id;
+        } else {
+            solidTiles[id >> 6] &= ~(1L << id);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the tiles with the
+     * specified {@code id} are solid and {@code false}
+     * otherwise. Empty tiles are never solid.
+     * 
+     * @param id the id of the tiles
+     * 
+     * @return boolean specifying if the
+     * tiles are solid
+     */
+    public boolean isSolid(int id) {
+        if(id < 0 || id >= getTileCount()) {
+            return false;
+        }
+
+        return (solidTiles[id >> 6] & 1L << id) != 0;
+    }
+
+    /**
+     * Returns {@code true} if the tile at the specified
+     * {@code column} and {@code row} is solid and
+     * {@code false} otherwise. Positions outside of the
+     * map are not solid.
+     * 
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * 
+     * @return boolean specifying if the
+     * tile is solid
+     */
+    public boolean isSolidAt(int column, int row) {
+        if(column < 0 || column >= columns || row < 0 || row >= rows) {
+            return false;
+        }
+
+        return isSolid(tiles[row * columns + column]);
+    }
+
+    /**
+     * Returns {@code true} if any of the tiles that
+     * the passed {@code element} overlaps is solid
+     * and {@code false} otherwise.
+     * 
+     * @param element the element to verify
+     * 
+     * @return boolean specifying if the element
+     * overlaps a solid tile
+     */
+    public boolean overlapsSolid(GameElement element) {
+        int tileWidth = getTileWidth();
+        int tileHeight = getTileHeight();
+        if(tileWidth == 0 || tileHeight == 0) {
+            return false;
+        }
+
+        int firstColumn = Math.floorDiv(element.getLeft() - getX(), tileWidth);
+        int lastColumn = Math.floorDiv(lastPixel(element.getLeft(), element.getRight()) - getX(), tileWidth);
+        int firstRow = Math.floorDiv(element.getTop() - getY(), tileHeight);
+        int lastRow = Math.floorDiv(lastPixel(element.getTop(), element.getBottom()) - getY(), tileHeight);
+        for(int row = firstRow; row <= lastRow; row++) {
+            for(int column = firstColumn; column <= lastColumn; column++) {
+                if(isSolidAt(column, row)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the coordinate of the last pixel of
+     * an element that starts at {@code start} and
+     * ends at {@code end}, which is {@code start}
+     * itself for elements with no size.
+     * 
+     * @param start the start coordinate
+     * @param end the end coordinate
+     * 
+     * @return the coordinate of the last pixel
+     */
+    private static int lastPixel(int start, int end) {
+        return Math.max(start, end - 1);
+    }
+
+    /**
+     * Returns how much the passed {@code element} can
+     * move on the x axis, up to {@code distance} pixels,
+     * without entering a solid tile.
+     * <p>
+     * Only the columns that the element would enter and
+     * the rows that it overlaps are verified.
+     * 
+     * @param element the element that is moving
+     * @param distance the distance it wants to move
+     * 
+     * @return the distance it can move
+     */
+    public int resolveMoveX(GameElement element, int distance) {
+        int tileWidth = getTileWidth();
+        int tileHeight = getTileHeight();
+        if(distance == 0 || tileWidth == 0 || tileHeight == 0) {
+            return distance;
+        }
+
+        int firstRow = Math.floorDiv(element.getTop() - getY(), tileHeight);
+        int lastRow = Math.floorDiv(lastPixel(element.getTop(), element.getBottom()) - getY(), tileHeight);
+        if(distance > 0) {
+            int edge = lastPixel(element.getLeft(), element.getRight()) - getX();
+            int lastColumn = Math.min(Math.floorDiv(edge + distance, tileWidth), columns - 1);
+            for(int column = Math.max(Math.floorDiv(edge, tileWidth) + 1, 0); column <= lastColumn; column++) {
+                if(isSolidColumn(column, firstRow, lastRow)) {
+                    return column * tileWidth - edge - 1;
+                }
+            }
+        } else {
+            int edge = element.getLeft() - getX();
+            int lastColumn = Math.max(Math.floorDiv(edge + distance, tileWidth), 0);
+            for(int column = Math.min(Math.floorDiv(edge, tileWidth) - 1, columns - 1); column >= lastColumn; column--) {
+                if(isSolidColumn(column, firstRow, lastRow)) {
+                    return (column + 1) * tileWidth - edge;
+                }
+            }
+        }
+
+        return distance;
+    }
+
+    /**
+     * Returns how much the passed {@code element} can
+     * move on the y axis, up to {@code distance} pixels,
+     * without entering a solid tile.
+     * <p>
+     * Only the rows that the element would enter and
+     * the columns that it overlaps are verified.
+     * 
+     * @param element the element that is moving
+     * @param distance the distance it wants to move
+     * 
+     * @return the distance it can move
+     */
+    public int resolveMoveY(GameElement element, int distance) {
+        int tileWidth = getTileWidth();
+        int tileHeight = getTileHeight();
+        if(distance == 0 || tileWidth == 0 || tileHeight == 0) {
+            return distance;
+        }
+
+        int firstColumn = Math.floorDiv(element.getLeft() - getX(), tileWidth);
+        int lastColumn = Math.floorDiv(lastPixel(element.getLeft(), element.getRight()) - getX(), tileWidth);
+        if(distance > 0) {
+            int edge = lastPixel(element.getTop(), element.getBottom()) - getY();
+            int lastRow = Math.min(Math.floorDiv(edge + distance, tileHeight), rows - 1);
+            for(int row = Math.max(Math.floorDiv(edge, tileHeight) + 1, 0); row <= lastRow; row++) {
+                if(isSolidRow(row, firstColumn, lastColumn)) {
+                    return row * tileHeight - edge - 1;
+                }
+            }
+        } else {
+            int edge = element.getTop() - getY();
+            int lastRow = Math.max(Math.floorDiv(edge + distance, tileHeight), 0);
+            for(int row = Math.min(Math.floorDiv(edge, tileHeight) - 1, rows - 1); row >= lastRow; row--) {
+                if(isSolidRow(row, firstColumn, lastColumn)) {
+                    return (row + 1) * tileHeight - edge;
+                }
+            }
+        }
+
+        return distance;
+    }
+
+    /**
+     * Returns {@code true} if any tile of the
+     * {@code column} between {@code firstRow} and
+     * {@code lastRow} is solid.
+     * 
+     * @param column the column to verify
+     * @param firstRow the first row to verify
+     * @param lastRow the last row to verify
+     * 
+     * @return boolean specifying if there
+     * is a solid tile
+     */
+    private boolean isSolidColumn(int column, int firstRow, int lastRow) {
+        for(int row = Math.max(firstRow, 0); row <= lastRow && row < rows; row++) {
+            if(isSolid(tiles[row * columns + column])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if any tile of the
+     * {@code row} between {@code firstColumn} and
+     * {@code lastColumn} is solid.
+     * 
+     * @param row the row to verify
+     * @param firstColumn the first column to verify
+     * @param lastColumn the last column to verify
+     * 
+     * @return boolean specifying if there
+     * is a solid tile
+     */
+    private boolean isSolidRow(int row, int firstColumn, int lastColumn) {
+        for(int column = Math.max(firstColumn, 0); column <= lastColumn && column < columns; column++) {
+            if(isSolid(tiles[row * columns + column])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Marks every chunk of this {@code TileMap}
+     * to be rendered again before being drawn and,
+     * if the stage has a damage tracker, damages
+     * the map.
+     */
+    public void invalidate() {
+        Arrays.fill(dirtyChunks, true);
+        addDamage(getX(), getY(), getWidth(), getHeight());
+    }
+
+    /**
+     * Releases the pre-rendered images of
+     * the chunks. They will be rendered again
+     * when needed.
+     */
+    public void flush() {
+        if(chunkImages == null) {
+            return;
+        }
+
+        for(int i = 0; i < chunkImages.length; i++) {
+            if(chunkImages[i] != null) {
+                chunkImages[i].flush();
+                chunkImages[i] = null;
+            }
+            dirtyChunks[i] = true;
+        }
+    }
+
+    /**
+     * Verifies if the tile size of the {@code Game}
+     * changed since the chunks were rendered. If so,
+     * updates the size of this {@code TileMap} and
+     * marks every chunk to be rendered again.
+     */
+    private void refreshTileSize() {
+        int tileWidth = getTileWidth();
+        int tileHeight = getTileHeight();
+        if(tileWidth != renderedTileWidth || tileHeight != renderedTileHeight) {
+            flush();
+            this.renderedTileWidth = tileWidth;
+            this.renderedTileHeight = tileHeight;
+            setSize(columns * tileWidth, rows * tileHeight);
+        }
+    }
+
+    /**
+     * Returns the image of the chunk at the specified
+     * {@code chunkColumn} and {@code chunkRow}, rendering
+     * it first if it is dirty.
+     * 
+     * @param chunkColumn the column of the chunk
+     * @param chunkRow the row of the chunk
+     * 
+     * @return the image of the chunk, or {@code null}
+     * if all of its tiles are empty
+     */
+    private BufferedImage getChunkImage(int chunkColumn, int chunkRow) {
+        int chunk = chunkRow * chunkColumns + chunkColumn;
+        if(dirtyChunks[chunk]) {
+            renderChunk(chunkColumn, chunkRow);
+            dirtyChunks[chunk] = false;
+        }
+
+        return chunkImages[chunk];
+    }
+
+    /**
+     * Renders the tiles of the chunk at the specified
+     * {@code chunkColumn} and {@code chunkRow} into its
+     * image, reusing the previous image when possible.
+     * A reused image is invalidated in the software
+     * renderer of the game, which would otherwise keep
+     * drawing the pixels it converted before.
+     * 
+     * @param chunkColumn the column of the chunk
+     * @param chunkRow the row of the chunk
+     */
+    private void renderChunk(int chunkColumn, int chunkRow) {
+        int chunk = chunkRow * chunkColumns + chunkColumn;
+        int firstColumn = chunkColumn * chunkSize;
+        int firstRow = chunkRow * chunkSize;
+        int lastColumn = Math.min(firstColumn + chunkSize, columns);
+        int lastRow = Math.min(firstRow + chunkSize, rows);
+
+        boolean empty = true;
+        for(int row = firstRow; row < lastRow && empty; row++) {
+            for(int column = firstColumn; column < lastColumn; column++) {
+                if(tiles[row * columns + column] != EMPTY) {
+                    empty = false;
+                    break;
+                }
+            }
+        }
+        if(empty) {
+            if(chunkImages[chunk] != null) {
+                chunkImages[chunk].flush();
+                chunkImages[chunk] = null;
+            }
+            return;
+        }
+
+        int width = (lastColumn - firstColumn) * renderedTileWidth;
+        int height = (lastRow - firstRow) * renderedTileHeight;
+        BufferedImage image = chunkImages[chunk];
+        if(image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = CompatibleImage.create(width, height, Transparency.TRANSLUCENT);
+            chunkImages[chunk] = image;
+        } else {
+            Game game = getGame();
+            SoftwareRenderer renderer = game != null ? game.getSoftwareRenderer() : null;
+            if(renderer != null) {
+                renderer.invalidate(image);
+            }
+        }
+
+        Graphics2D g2 = image.createGraphics();
+        g2.setComposite(AlphaComposite.Clear);
+        g2.fillRect(0, 0, width, height);
+        g2.setComposite(AlphaComposite.SrcOver);
+        Sprite[][] sprites = spriteSheet.getSprites();
+        int sheetColumns = spriteSheet.getColumns();
+        for(int row = firstRow; row < lastRow; row++) {
+            for(int column = firstColumn; column < lastColumn; column++) {
+                int id = tiles[row * columns + column];
+                if(id == EMPTY) {
+                    continue;
+                }
+
+                g2.drawImage (
+                    sprites[id / sheetColumns][id % sheetColumns].getImage(),
+                    (column - firstColumn) * renderedTileWidth,
+                    (row - firstRow) * renderedTileHeight,
+                    renderedTileWidth, renderedTileHeight,
+                    null
+                );
+            }
+        }
+        g2.dispose();
+    }
+
+    /**
+     * Returns the {@code Camera} through which
+     * this {@code TileMap} is seen.
+     * 
+     * @return the {@code Camera} of the
+     * {@code Stage}, or {@code null} if this
+     * {@code TileMap} has no stage
+     */
+    private Camera getCamera() {
+        if(getStage() != null) {
+            return getStage().getCurrentCamera();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Draws or records the chunks of this
+     * {@code TileMap} that intersect the
+     * {@code Camera}, or its transformed view if
+     * it is zoomed or rotated. Exactly one of the
+     * arguments is expected to be {@code null}.
+     * 
+     * @param g2 a {@code Graphics2D} to draw with
+     * @param batch a {@code RenderBatch} to record into
+     */
+    private void drawChunks(Graphics2D g2, RenderBatch batch) {
+        Camera camera = getCamera();
+        if(camera == null) {
+            return;
+        }
+
+        refreshTileSize();
+        if(renderedTileWidth == 0 || renderedTileHeight == 0) {
+            return;
+        }
+
+        int chunkWidth = chunkSize * renderedTileWidth;
+        int chunkHeight = chunkSize * renderedTileHeight;
+        int apparentX = getX() - camera.getX();
+        int apparentY = getY() - camera.getY();
+        int viewLeft = 0;
+        int viewTop = 0;
+        int viewRight = getGamePanelWidth();
+        int viewBottom = getGamePanelHeight();
+        if(camera.isTransformed()) {
+            viewLeft = camera.getViewLeft() - camera.getX();
+            viewTop = camera.getViewTop() - camera.getY();
+            viewRight = camera.getViewRight() - camera.getX();
+            viewBottom = camera.getViewBottom() - camera.getY();
+        }
+        int firstChunkColumn = Math.max(0, Math.floorDiv(viewLeft - apparentX, chunkWidth));
+        int firstChunkRow = Math.max(0, Math.floorDiv(viewTop - apparentY, chunkHeight));
+        int lastChunkColumn = Math.min (
+            chunkColumns - 1,
+            Math.floorDiv(viewRight - 1 - apparentX, chunkWidth)
+        );
+        int lastChunkRow = Math.min (
+            chunkRows - 1,
+            Math.floorDiv(viewBottom - 1 - apparentY, chunkHeight)
+        );
+
+        for(int chunkRow = firstChunkRow; chunkRow <= lastChunkRow; chunkRow++) {
+            for(int chunkColumn = firstChunkColumn; chunkColumn <= lastChunkColumn; chunkColumn++) {
+                BufferedImage image = getChunkImage(chunkColumn, chunkRow);
+                if(image == null) {
+                    continue;
+                }
+
+                int x = apparentX + chunkColumn * chunkWidth;
+                int y = apparentY + chunkRow * chunkHeight;
+                if(batch != null) {
+                    batch.drawImage(image, x, y, image.getWidth(), image.getHeight());
+                } else {
+                    g2.drawImage(image, x, y, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@code TileMap}s don't need to
+     * do anything when started, so this
+     * method does nothing.
+     */
+    @Override
+    public void start() {
+
+    }
+
+    /**
+     * {@code TileMap}s don't need to
+     * do anything when updated, so this
+     * method does nothing.
+     */
+    @Override
+    public void update() {
+
+    }
+
+    /**
+     * Draws the chunks of this {@code TileMap}
+     * that intersect the {@code Camera}, rendering
+     * the dirty ones first.
+     * 
+     * @param g2 a {@code Graphics2D} instance
+     * to draw with
+     */
+    @Override
+    public void draw(Graphics2D g2) {
+        drawChunks(g2, null);
+    }
+
+    /**
+     * Records the drawing of the chunks of this
+     * {@code TileMap} that intersect the
+     * {@code Camera} into the passed {@code batch}.
+     * 
+     * @param batch a {@code RenderBatch} where
+     * this {@code TileMap} is recorded
+     */
+    public void draw(RenderBatch batch) {
+        drawChunks(null, batch);
+    }
+
+    /**
+     * Writes the state of this {@code TileMap},
+     * including the ids of its tiles and which
+     * ids are solid, into the passed {@code buffer}.
+     * 
+     * @param buffer the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.asShortBuffer().put(tiles);
+        buffer.position(buffer.position() + 2 * tiles.length);
+        for(long solid : solidTiles) {
+            buffer.putLong(solid);
+        }
+    }
+
+    /**
+     * Reads the state of this {@code TileMap} from
+     * the passed {@code buffer}. The chunks with
+     * changed tiles are rendered again and, if the
+     * stage has a damage tracker, the map is damaged.
+     * 
+     * @param buffer the buffer to read from
+     */
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        boolean changed = false;
+        for(int i = 0; i < tiles.length; i++) {
+            short id = buffer.getShort();
+            if(tiles[i] != id) {
+                tiles[i] = id;
+                int row = i / columns;
+                int column = i - row * columns;
+                dirtyChunks[(row / chunkSize) * chunkColumns + column / chunkSize] = true;
+                changed = true;
+            }
+        }
+        for(int i = 0; i < solidTiles.length; i++) {
+            solidTiles[i] = buffer.getLong();
+        }
+
+        if(changed) {
+            addDamage(getX(), getY(), getWidth(), getHeight());
+        }
+    }
+
+}